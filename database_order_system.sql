@@ -11,7 +11,7 @@ USE car_sales_db;
 -- Description: Main order table with shipping info
 -- =====================================================
 CREATE TABLE IF NOT EXISTS orders (
-    order_id VARCHAR(36) PRIMARY KEY,
+    order_id BINARY(16) PRIMARY KEY COMMENT 'UUIDv7',
     user_id VARCHAR(36) NOT NULL,
 
     -- Shipping information (snapshot at order time)
@@ -53,7 +53,7 @@ CREATE TABLE IF NOT EXISTS orders (
 -- =====================================================
 CREATE TABLE IF NOT EXISTS order_details (
     order_detail_id BIGINT PRIMARY KEY AUTO_INCREMENT,
-    order_id VARCHAR(36) NOT NULL,
+    order_id BINARY(16) NOT NULL,
     car_id BIGINT NOT NULL,
 
     -- Order item details
@@ -74,8 +74,8 @@ CREATE TABLE IF NOT EXISTS order_details (
 -- Description: Payment records for orders (1:1)
 -- =====================================================
 CREATE TABLE IF NOT EXISTS payment (
-    payment_id VARCHAR(36) PRIMARY KEY,
-    order_id VARCHAR(36) NOT NULL UNIQUE COMMENT 'One payment per order',
+    payment_id BINARY(16) PRIMARY KEY COMMENT 'UUIDv7',
+    order_id BINARY(16) NOT NULL COMMENT 'One payment per order',
 
     -- Payment details
     payment_date DATETIME,
@@ -94,6 +94,7 @@ CREATE TABLE IF NOT EXISTS payment (
     CONSTRAINT fk_payment_order FOREIGN KEY (order_id) REFERENCES orders(order_id) ON DELETE CASCADE,
 
     -- Indexes
+    UNIQUE KEY uk_payment_order (order_id),
     INDEX idx_payment_order_id (order_id),
     INDEX idx_payment_status (status)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -105,15 +106,15 @@ CREATE TABLE IF NOT EXISTS payment (
 /*
 -- Insert sample order
 INSERT INTO orders (order_id, user_id, full_name, email, phone, address, city, district, ward, subtotal, shipping_fee, tax, total_amount, status)
-VALUES ('550e8400-e29b-41d4-a716-446655440000', 'user-id-here', 'John Doe', 'john@example.com', '0123456789', '123 Main St', 'Hanoi', 'Ba Dinh', 'Cong Vi', 500000000.00, 50000.00, 25000000.00, 525050000.00, 'PENDING');
+VALUES (UUID_TO_BIN('550e8400-e29b-41d4-a716-446655440000'), 'user-id-here', 'John Doe', 'john@example.com', '0123456789', '123 Main St', 'Hanoi', 'Ba Dinh', 'Cong Vi', 500000000.00, 50000.00, 25000000.00, 525050000.00, 'PENDING');
 
 -- Insert order detail
 INSERT INTO order_details (order_id, car_id, quantity, price)
-VALUES ('550e8400-e29b-41d4-a716-446655440000', 123456, 1, 500000000.00);
+VALUES (UUID_TO_BIN('550e8400-e29b-41d4-a716-446655440000'), 123456, 1, 500000000.00);
 
 -- Insert payment
 INSERT INTO payment (payment_id, order_id, amount, payment_method, status)
-VALUES ('660e8400-e29b-41d4-a716-446655440001', '550e8400-e29b-41d4-a716-446655440000', 525050000.00, 'BANK_TRANSFER', 'PENDING');
+VALUES (UUID_TO_BIN('660e8400-e29b-41d4-a716-446655440001'), UUID_TO_BIN('550e8400-e29b-41d4-a716-446655440000'), 525050000.00, 'BANK_TRANSFER', 'PENDING');
 */
 
 -- =====================================================
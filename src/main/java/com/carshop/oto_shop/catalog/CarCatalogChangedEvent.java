@@ -0,0 +1,25 @@
+package com.carshop.oto_shop.catalog;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Phát ra khi dữ liệu xe hoặc thông số chi tiết (CarDetail) thay đổi (thêm, sửa, xoá). Chỉ mang danh sách car_id:
+ * các thành phần cache/index tự đọc lại trạng thái mới nhất sau khi transaction commit,
+ * id không còn trong DB nghĩa là xe đã bị xoá.
+ */
+public class CarCatalogChangedEvent {
+    private final List<Long> carIds;
+
+    public CarCatalogChangedEvent(Collection<Long> carIds) {
+        this.carIds = List.copyOf(carIds);
+    }
+
+    public static CarCatalogChangedEvent of(Long carId) {
+        return new CarCatalogChangedEvent(List.of(carId));
+    }
+
+    public List<Long> getCarIds() {
+        return carIds;
+    }
+}
@@ -0,0 +1,152 @@
+package com.carshop.oto_shop.catalog;
+
+import com.carshop.oto_shop.entities.Car;
+import com.carshop.oto_shop.entities.CarDetail;
+import com.carshop.oto_shop.repositories.CarRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Nguồn dữ liệu chung của các index danh mục trong bộ nhớ ({@link CarCatalogIndex}, {@link CarSuggestionIndex},
+ * {@link CarSimilarityIndex}): nạp toàn bộ danh mục khi khởi động, và với mỗi {@link CarCatalogChangedEvent}
+ * chỉ đọc DB một lần rồi giao cùng một snapshot cho mọi index.
+ *
+ * Đọc DB và áp dụng vào index được tuần tự hoá bằng {@link #refreshLock}. Listener chạy sau commit nên lần đọc
+ * sau luôn thấy dữ liệu ít nhất mới bằng lần đọc trước, vì vậy snapshot cũ không thể ghi đè snapshot mới (kể
+ * cả xe đã xoá bị thêm lại). Xe đọc được có version thấp hơn version đang index (entity cũ còn trong
+ * persistence context của transaction vừa commit) cũng bị bỏ qua.
+ */
+@Component
+public class CarCatalogFeed {
+    private static final Logger logger = LoggerFactory.getLogger(CarCatalogFeed.class);
+
+    /**
+     * Index nhận dữ liệu từ feed. Các phương thức luôn được gọi khi feed đang giữ {@link #refreshLock}, theo
+     * đúng thứ tự đọc DB; index chỉ cần khoá để tách với luồng đọc của chính nó.
+     */
+    interface Subscriber {
+        // Thay toàn bộ nội dung bằng danh mục đầy đủ
+        void reset(Collection<Car> cars, Map<Long, CarDetail> details);
+
+        // Vá các xe carIds: xe có trong cars được cập nhật, xe không có thì bị gỡ
+        void apply(Collection<Long> carIds, Map<Long, Car> cars, Map<Long, CarDetail> details);
+    }
+
+    private final CarRepository carRepository;
+    private final Object refreshLock = new Object();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private volatile boolean loaded;
+    // car_id -> version đang được index, chỉ truy cập khi giữ refreshLock
+    private final Map<Long, Long> versions = new HashMap<>();
+
+    public CarCatalogFeed(CarRepository carRepository) {
+        this.carRepository = carRepository;
+    }
+
+    // Index đăng ký trong constructor, trước khi ứng dụng sẵn sàng và feed được nạp
+    void subscribe(Subscriber subscriber) {
+        synchronized (refreshLock) {
+            subscribers.add(subscriber);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (refreshLock) {
+            List<Object[]> rows = carRepository.findAllWithDetails();
+            List<Car> cars = new ArrayList<>(rows.size());
+            Map<Long, CarDetail> details = new HashMap<>(rows.size() * 2);
+            versions.clear();
+            for (Object[] row : rows) {
+                Car car = (Car) row[0];
+                cars.add(car);
+                if (row[1] != null) {
+                    details.put(car.getCarId(), (CarDetail) row[1]);
+                }
+                versions.put(car.getCarId(), versionOf(car));
+            }
+            subscribers.forEach(subscriber -> subscriber.reset(cars, details));
+            loaded = true;
+            logger.info("Catalog feed loaded {} cars into {} indexes", cars.size(), subscribers.size());
+        }
+    }
+
+    /**
+     * Nạp danh mục nếu chưa nạp, cho truy vấn đến trước {@link ApplicationReadyEvent}.
+     */
+    public void ensureLoaded() {
+        if (!loaded) {
+            synchronized (refreshLock) {
+                if (!loaded) {
+                    load();
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CarCatalogChangedEvent event) {
+        refresh(event.getCarIds());
+    }
+
+    /**
+     * Đọc lại các xe theo id và vá mọi index: xe còn trong DB được cập nhật, xe không còn thì bị gỡ.
+     */
+    public void refresh(Collection<Long> carIds) {
+        synchronized (refreshLock) {
+            if (!loaded) {
+                // load() đọc DB sau khi có khoá, nên sẽ thấy thay đổi này
+                return;
+            }
+            Set<Long> ids = new LinkedHashSet<>(carIds);
+            Map<Long, Car> cars = new HashMap<>(ids.size() * 2);
+            Map<Long, CarDetail> details = new HashMap<>(ids.size() * 2);
+            for (Object[] row : carRepository.findWithDetailsByIdsInBatches(ids)) {
+                Car car = (Car) row[0];
+                cars.put(car.getCarId(), car);
+                if (row[1] != null) {
+                    details.put(car.getCarId(), (CarDetail) row[1]);
+                }
+            }
+            for (Long carId : List.copyOf(ids)) {
+                Car car = cars.get(carId);
+                if (car == null) {
+                    versions.remove(carId);
+                    continue;
+                }
+                Long indexed = versions.get(carId);
+                long version = versionOf(car);
+                // CarDetail không có version riêng nên cùng version vẫn áp dụng (có thể chỉ thông số đổi)
+                if (indexed != null && indexed > version) {
+                    logger.debug("Skip stale snapshot of car {} (version {} < {})", carId, version, indexed);
+                    ids.remove(carId);
+                    cars.remove(carId);
+                    details.remove(carId);
+                    continue;
+                }
+                versions.put(carId, version);
+            }
+            if (ids.isEmpty()) {
+                return;
+            }
+            subscribers.forEach(subscriber -> subscriber.apply(ids, cars, details));
+        }
+    }
+
+    private static long versionOf(Car car) {
+        return car.getVersion() != null ? car.getVersion() : 0L;
+    }
+}
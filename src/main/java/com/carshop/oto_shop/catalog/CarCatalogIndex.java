@@ -0,0 +1,745 @@
+package com.carshop.oto_shop.catalog;
+
+import com.carshop.oto_shop.common.pagination.CarCursor;
+import com.carshop.oto_shop.common.response.CursorPage;
+import com.carshop.oto_shop.entities.Car;
+import com.carshop.oto_shop.entities.CarDetail;
+import com.carshop.oto_shop.enums.Brand;
+import com.carshop.oto_shop.enums.CarSort;
+import com.carshop.oto_shop.enums.CarStatus;
+import com.carshop.oto_shop.enums.Category;
+import com.carshop.oto_shop.enums.Color;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.DoublePredicate;
+import java.util.function.Function;
+
+/**
+ * Index danh mục xe trong bộ nhớ, dùng cho tìm kiếm/lọc mà không cần truy vấn MySQL.
+ *
+ * Mỗi xe được gán một "slot" (số nguyên dày đặc). Với mỗi giá trị của Brand, Category, Color và
+ * CarStatus có một BitSet đánh dấu các slot mang giá trị đó, nên lọc nhiều giá trị là phép OR,
+ * kết hợp nhiều thuộc tính là phép AND trên bitmap. Giá và năm sản xuất được giữ trong các mảng
+ * nguyên thuỷ đã sắp xếp, lọc theo khoảng bằng tìm kiếm nhị phân. Các mảng này đồng thời là thứ tự
+ * duyệt cho từng {@link CarSort}, nên phân trang theo cursor chỉ cần tìm vị trí cursor rồi đi tiếp.
+ * Thông số trong CarDetail (horsepower, torque, seats, lít/100 km) cũng có cột đã sắp xếp riêng, loại
+ * nhiên liệu có bitmap theo giá trị đã bỏ dấu, nên lọc theo bảng thông số không phải duyệt cả danh mục.
+ *
+ * Tìm theo từ khoá dùng {@link InvertedIndex} (BM25) trên model, brand, category và description,
+ * chia sẻ cùng slot và cùng lock với các bitmap. Văn bản được bỏ dấu và đánh thêm edge n-gram nên từ
+ * gõ dở vẫn khớp; từ khoá không có trong index được sửa lỗi gõ bằng {@link SpellingCorrector}.
+ *
+ * Index được nạp một lần khi ứng dụng khởi động, sau đó vá từng xe khi nhận
+ * {@link CarCatalogChangedEvent} (sau khi transaction ghi đã commit); dữ liệu do {@link CarCatalogFeed} đọc.
+ */
+@Component
+public class CarCatalogIndex implements CarCatalogFeed.Subscriber {
+    private static final Logger logger = LoggerFactory.getLogger(CarCatalogIndex.class);
+    // Từ số xe này trở lên, apply() cập nhật các cột đã sắp xếp theo lô thay vì từng xe
+    private static final int BATCH_THRESHOLD = 8;
+
+    private final CarCatalogFeed feed;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Car[] docs = new Car[64];
+    private int slotCount;
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<Long, Integer> slotByCarId = new HashMap<>();
+    private final BitSet live = new BitSet();
+
+    private final EnumMap<Brand, BitSet> byBrand = bitmaps(Brand.class);
+    private final EnumMap<Category, BitSet> byCategory = bitmaps(Category.class);
+    private final EnumMap<Color, BitSet> byColor = bitmaps(Color.class);
+    private final EnumMap<CarStatus, BitSet> byStatus = bitmaps(CarStatus.class);
+    private final EnumMap<CarSort, SortedColumn> columns = new EnumMap<>(CarSort.class);
+    private final Map<String, BitSet> byFuelType = new HashMap<>();
+    private SortedColumn horsepower = new SortedColumn(true);
+    private SortedColumn torque = new SortedColumn(true);
+    private SortedColumn seats = new SortedColumn(true);
+    private SortedColumn fuelConsumption = new SortedColumn(true);
+    // CarDetail đang được index của từng slot (null nếu xe chưa có), để gỡ đúng khoá khi xe đổi
+    private CarDetail[] detailsBySlot = new CarDetail[64];
+    private final InvertedIndex keywordIndex = new InvertedIndex();
+    private final SpellingCorrector spelling = new SpellingCorrector();
+    // Các từ nguyên vẹn (không tính n-gram) của từng slot, để gỡ khỏi từ điển sửa lỗi khi xe đổi
+    private String[][] wordsBySlot = new String[64][];
+
+    public CarCatalogIndex(CarCatalogFeed feed) {
+        this.feed = feed;
+        for (CarSort sort : CarSort.values()) {
+            if (sort != CarSort.RELEVANCE) {
+                columns.put(sort, new SortedColumn(sort));
+            }
+        }
+        feed.subscribe(this);
+    }
+
+    @Override
+    public void reset(Collection<Car> cars, Map<Long, CarDetail> details) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            sortedColumns().forEach(SortedColumn::beginBatch);
+            cars.forEach(car -> add(car, details.get(car.getCarId())));
+            sortedColumns().forEach(SortedColumn::endBatch);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Catalog index loaded with {} cars", cars.size());
+    }
+
+    @Override
+    public void apply(Collection<Long> carIds, Map<Long, Car> cars, Map<Long, CarDetail> details) {
+        // Mỗi lần chèn/xoá lẻ dời O(n) phần tử của mọi cột; từ vài xe trở lên thì gom lại và trộn mỗi cột một lần
+        boolean batch = carIds.size() >= BATCH_THRESHOLD;
+        lock.writeLock().lock();
+        try {
+            if (batch) {
+                sortedColumns().forEach(SortedColumn::beginBatch);
+            }
+            for (Long carId : carIds) {
+                remove(carId);
+                Car car = cars.get(carId);
+                if (car != null) {
+                    add(car, details.get(carId));
+                }
+            }
+            if (batch) {
+                sortedColumns().forEach(SortedColumn::endBatch);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<SortedColumn> sortedColumns() {
+        List<SortedColumn> all = new ArrayList<>(columns.values());
+        all.addAll(List.of(horsepower, torque, seats, fuelConsumption));
+        return all;
+    }
+
+    /**
+     * Trả về trang gồm tối đa {@code limit} xe thoả bộ lọc và từ khoá, theo thứ tự {@code sort},
+     * nằm sau {@code after}. Khi có từ khoá, chỉ những xe chứa đủ mọi từ mới khớp; với
+     * {@link CarSort#RELEVANCE} kết quả được xếp theo điểm BM25 giảm dần.
+     */
+    public CursorPage<Car> search(CarFilter filter, String keyword, CarSort sort, CarCursor after, int limit) {
+        feed.ensureLoaded();
+        lock.readLock().lock();
+        try {
+            BitSet matches = match(filter);
+            List<String> terms = queryTerms(keyword);
+            if (terms.isEmpty()) {
+                return walk(matches, sort == CarSort.RELEVANCE ? CarSort.ID : sort, after, limit);
+            }
+            InvertedIndex.Hits hits = keywordIndex.score(terms, slotCount);
+            matches.and(hits.matched);
+            if (sort == CarSort.RELEVANCE) {
+                return rankByScore(matches, hits.scores, after, limit);
+            }
+            return walk(matches, sort, after, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Đếm số xe khớp theo từng giá trị Brand/Category/Color và theo các khoảng giá/năm, cùng điều kiện
+     * với {@link #search}. Chỉ duyệt tập khớp đúng một lần thay vì chạy một lần tìm kiếm cho mỗi giá trị.
+     *
+     * @param priceBounds cận các khoảng giá, tăng dần
+     * @param yearBounds  cận các khoảng năm, tăng dần
+     */
+    public CarFacets facets(CarFilter filter, String keyword, double[] priceBounds, int[] yearBounds) {
+        feed.ensureLoaded();
+        lock.readLock().lock();
+        try {
+            BitSet matches = match(filter);
+            List<String> terms = queryTerms(keyword);
+            if (!terms.isEmpty()) {
+                matches.and(keywordIndex.score(terms, slotCount).matched);
+            }
+            int[] brands = new int[Brand.values().length];
+            int[] categories = new int[Category.values().length];
+            int[] colors = new int[Color.values().length];
+            int[] prices = new int[priceBounds.length + 1];
+            int[] years = new int[yearBounds.length + 1];
+            int total = 0;
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                Car car = docs[slot];
+                total++;
+                increment(brands, car.getBrand());
+                increment(categories, car.getCategory());
+                increment(colors, car.getColor());
+                prices[bucketOf(priceBounds, sortKey(CarSort.PRICE_ASC, car))]++;
+                years[bucketOf(yearBounds, car.getManufactureYear() != null ? car.getManufactureYear() : 0)]++;
+            }
+            return new CarFacets(total, brands, categories, colors, prices, years);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void increment(int[] counts, Enum<?> value) {
+        if (value != null) {
+            counts[value.ordinal()]++;
+        }
+    }
+
+    // Số cận <= value, tức chỉ số khoảng [bounds[i-1], bounds[i]) chứa value
+    private static int bucketOf(double[] bounds, double value) {
+        int low = 0;
+        int high = bounds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bounds[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int bucketOf(int[] bounds, int value) {
+        int pos = Arrays.binarySearch(bounds, value);
+        return pos >= 0 ? pos + 1 : -pos - 1;
+    }
+
+    // Duyệt cột đã sắp xếp từ vị trí cursor, lấy các slot có trong matches
+    private CursorPage<Car> walk(BitSet matches, CarSort sort, CarCursor after, int limit) {
+        SortedColumn column = columns.get(sort);
+        int start = after == null ? 0 : column.positionAfter(cursorKey(after), after.getCarId());
+        // lấy dư một phần tử để biết còn trang sau hay không
+        List<Car> cars = new ArrayList<>(Math.min(limit + 1, 256));
+        for (int i = start; i < column.size && cars.size() <= limit; i++) {
+            int slot = column.slots[i];
+            if (matches.get(slot)) {
+                cars.add(docs[slot]);
+            }
+        }
+        String nextCursor = null;
+        if (cars.size() > limit) {
+            cars.remove(limit);
+            nextCursor = CarCursor.encode(sort, cars.get(limit - 1));
+        }
+        return new CursorPage<>(cars, nextCursor);
+    }
+
+    // Xếp các slot khớp theo (điểm giảm dần, car_id tăng dần). Chỉ giữ limit + 1 slot tốt nhất sau cursor trong
+    // một heap mảng nguyên thuỷ, nên từ khoá khớp hàng chục nghìn xe cũng không phải sắp xếp toàn bộ.
+    private CursorPage<Car> rankByScore(BitSet matches, float[] scores, CarCursor after, int limit) {
+        float afterScore = after == null ? 0 : (Float) after.sortKey();
+        // Heap có slot kém nhất ở gốc
+        int[] heap = new int[limit + 1];
+        int size = 0;
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            if (after != null && !isAfter(scores[slot], docs[slot].getCarId(), afterScore, after.getCarId())) {
+                continue;
+            }
+            if (size < heap.length) {
+                heap[size] = slot;
+                siftUp(heap, size++, scores);
+            } else if (ranksBefore(slot, heap[0], scores)) {
+                heap[0] = slot;
+                siftDown(heap, size, scores);
+            }
+        }
+        // Lấy dần slot kém nhất ra cuối mảng: heap[0..size) thành thứ tự tốt nhất trước
+        int[] ranked = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            ranked[i] = heap[0];
+            heap[0] = heap[i];
+            siftDown(heap, i, scores);
+        }
+
+        int end = Math.min(size, limit);
+        List<Car> cars = new ArrayList<>(end);
+        for (int i = 0; i < end; i++) {
+            cars.add(docs[ranked[i]]);
+        }
+        String nextCursor = null;
+        if (size > limit) {
+            int last = ranked[end - 1];
+            nextCursor = CarCursor.encodeRelevance(scores[last], docs[last].getCarId());
+        }
+        return new CursorPage<>(cars, nextCursor);
+    }
+
+    private boolean ranksBefore(int a, int b, float[] scores) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && docs[a].getCarId() < docs[b].getCarId());
+    }
+
+    private void siftUp(int[] heap, int i, float[] scores) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!ranksBefore(heap[parent], heap[i], scores)) {
+                return;
+            }
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int size, float[] scores) {
+        int i = 0;
+        while (true) {
+            int worst = i;
+            for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                if (ranksBefore(heap[worst], heap[child], scores)) {
+                    worst = child;
+                }
+            }
+            if (worst == i) {
+                return;
+            }
+            swap(heap, i, worst);
+            i = worst;
+        }
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        int tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+    }
+
+    private static boolean isAfter(float score, long carId, float afterScore, long afterCarId) {
+        return score < afterScore || (score == afterScore && carId > afterCarId);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotByCarId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Từ nào không có trong index (kể cả n-gram) thì thay bằng từ gần nhất trong từ điển, nếu có.
+    // Từ ngắn hơn MIN_GRAM mà không phải từ nguyên vẹn (như "a" trong "lux a") là tiền tố không được index, bỏ qua.
+    private List<String> queryTerms(String keyword) {
+        List<String> terms = TextAnalyzer.tokens(keyword);
+        terms.removeIf(term -> term.length() < TextAnalyzer.MIN_GRAM && !keywordIndex.contains(term));
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            if (!keywordIndex.contains(term)) {
+                String corrected = spelling.correct(term);
+                if (corrected != null) {
+                    terms.set(i, corrected);
+                }
+            }
+        }
+        return terms;
+    }
+
+    // Gọi khi đang giữ read lock
+    private BitSet match(CarFilter filter) {
+        BitSet result = (BitSet) live.clone();
+        andAnyOf(result, byBrand, filter.getBrands());
+        andAnyOf(result, byCategory, filter.getCategories());
+        andAnyOf(result, byColor, filter.getColors());
+        andAnyOf(result, byStatus, filter.getStatuses());
+        andRange(result, columns.get(CarSort.PRICE_ASC), filter.getPriceMin(), filter.getPriceMax());
+        andRange(result, columns.get(CarSort.YEAR_DESC), filter.getYearMin(), filter.getYearMax());
+        andRange(result, horsepower, filter.getHorsepowerMin(), filter.getHorsepowerMax());
+        andRange(result, torque, filter.getTorqueMin(), filter.getTorqueMax());
+        andRange(result, seats, filter.getSeatsMin(), filter.getSeatsMax());
+        andRange(result, fuelConsumption, filter.getFuelConsumptionMin(), filter.getFuelConsumptionMax());
+        if (filter.getFuelTypes() != null && !filter.getFuelTypes().isEmpty()) {
+            BitSet union = new BitSet();
+            for (String fuelType : filter.getFuelTypes()) {
+                BitSet bitmap = byFuelType.get(TextAnalyzer.normalize(fuelType));
+                if (bitmap != null) {
+                    union.or(bitmap);
+                }
+            }
+            result.and(union);
+        }
+        return result;
+    }
+
+    private static void andRange(BitSet result, SortedColumn column, Number min, Number max) {
+        if (min == null && max == null) {
+            return;
+        }
+        BitSet inRange = new BitSet();
+        column.collectRange(min != null ? min.doubleValue() : Double.NEGATIVE_INFINITY,
+                max != null ? max.doubleValue() : Double.POSITIVE_INFINITY, inRange);
+        result.and(inRange);
+    }
+
+    private static <E extends Enum<E>> void andAnyOf(BitSet result, EnumMap<E, BitSet> bitmaps, Set<E> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        BitSet union = new BitSet();
+        for (E value : values) {
+            union.or(bitmaps.get(value));
+        }
+        result.and(union);
+    }
+
+    private void add(Car car, CarDetail detail) {
+        int slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+        if (slot >= docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+            wordsBySlot = Arrays.copyOf(wordsBySlot, docs.length);
+            detailsBySlot = Arrays.copyOf(detailsBySlot, docs.length);
+        }
+        docs[slot] = car;
+        slotByCarId.put(car.getCarId(), slot);
+        live.set(slot);
+        setBit(byBrand, car.getBrand(), slot, true);
+        setBit(byCategory, car.getCategory(), slot, true);
+        setBit(byColor, car.getColor(), slot, true);
+        setBit(byStatus, car.getStatus(), slot, true);
+        columns.forEach((sort, column) -> column.insert(slot, sortKey(sort, car), car.getCarId()));
+        if (detail != null) {
+            detailsBySlot[slot] = detail;
+            insertSpec(horsepower, detail.getHorsepower(), slot, car.getCarId());
+            insertSpec(torque, detail.getTorque(), slot, car.getCarId());
+            insertSpec(seats, detail.getSeats(), slot, car.getCarId());
+            insertSpec(fuelConsumption, detail.getFuelConsumptionL100km(), slot, car.getCarId());
+            String fuelType = TextAnalyzer.normalize(detail.getFuelType());
+            if (!fuelType.isEmpty()) {
+                byFuelType.computeIfAbsent(fuelType, key -> new BitSet()).set(slot);
+            }
+        }
+        Map<String, Integer> terms = keywordTerms(car);
+        String[] words = terms.keySet().toArray(new String[0]);
+        for (String word : words) {
+            spelling.add(word);
+            for (String gram : TextAnalyzer.edgeNgrams(word)) {
+                terms.merge(gram, 1, Integer::sum);
+            }
+        }
+        wordsBySlot[slot] = words;
+        keywordIndex.add(slot, terms);
+    }
+
+    private void remove(Long carId) {
+        Integer slot = slotByCarId.remove(carId);
+        if (slot == null) {
+            return;
+        }
+        Car car = docs[slot];
+        live.clear(slot);
+        setBit(byBrand, car.getBrand(), slot, false);
+        setBit(byCategory, car.getCategory(), slot, false);
+        setBit(byColor, car.getColor(), slot, false);
+        setBit(byStatus, car.getStatus(), slot, false);
+        columns.forEach((sort, column) -> column.remove(sortKey(sort, car), car.getCarId()));
+        CarDetail detail = detailsBySlot[slot];
+        if (detail != null) {
+            removeSpec(horsepower, detail.getHorsepower(), car.getCarId());
+            removeSpec(torque, detail.getTorque(), car.getCarId());
+            removeSpec(seats, detail.getSeats(), car.getCarId());
+            removeSpec(fuelConsumption, detail.getFuelConsumptionL100km(), car.getCarId());
+            BitSet bitmap = byFuelType.get(TextAnalyzer.normalize(detail.getFuelType()));
+            if (bitmap != null) {
+                bitmap.clear(slot);
+            }
+            detailsBySlot[slot] = null;
+        }
+        keywordIndex.remove(slot);
+        for (String word : wordsBySlot[slot]) {
+            spelling.remove(word);
+        }
+        wordsBySlot[slot] = null;
+        docs[slot] = null;
+        freeSlots.push(slot);
+    }
+
+    private void clear() {
+        docs = new Car[64];
+        slotCount = 0;
+        freeSlots.clear();
+        slotByCarId.clear();
+        live.clear();
+        for (Map<?, BitSet> bitmaps : List.of(byBrand, byCategory, byColor, byStatus)) {
+            bitmaps.values().forEach(BitSet::clear);
+        }
+        columns.replaceAll((sort, column) -> new SortedColumn(sort));
+        horsepower = new SortedColumn(true);
+        torque = new SortedColumn(true);
+        seats = new SortedColumn(true);
+        fuelConsumption = new SortedColumn(true);
+        byFuelType.clear();
+        detailsBySlot = new CarDetail[64];
+        keywordIndex.clear();
+        spelling.clear();
+        wordsBySlot = new String[64][];
+    }
+
+    // Chỉ xe có giá trị mới nằm trong cột, nên lọc theo khoảng tự loại các xe thiếu thông số
+    private static void insertSpec(SortedColumn column, Number value, int slot, long carId) {
+        if (value != null) {
+            column.insert(slot, value.doubleValue(), carId);
+        }
+    }
+
+    private static void removeSpec(SortedColumn column, Number value, long carId) {
+        if (value != null) {
+            column.remove(value.doubleValue(), carId);
+        }
+    }
+
+    private static <E extends Enum<E>> void setBit(EnumMap<E, BitSet> bitmaps, E value, int slot, boolean on) {
+        if (value != null) {
+            bitmaps.get(value).set(slot, on);
+        }
+    }
+
+    private static <E extends Enum<E>> EnumMap<E, BitSet> bitmaps(Class<E> type) {
+        EnumMap<E, BitSet> map = new EnumMap<>(type);
+        for (E value : type.getEnumConstants()) {
+            map.put(value, new BitSet());
+        }
+        return map;
+    }
+
+    // Trọng số theo trường: khớp ở model quan trọng hơn khớp ở mô tả
+    private static Map<String, Integer> keywordTerms(Car car) {
+        Map<String, Integer> freqs = new HashMap<>();
+        addTerms(freqs, car.getModel(), 3);
+        addTerms(freqs, car.getBrand() != null ? car.getBrand().name() : null, 2);
+        addTerms(freqs, car.getCategory() != null ? car.getCategory().name() : null, 1);
+        addTerms(freqs, car.getDescription(), 1);
+        return freqs;
+    }
+
+    private static void addTerms(Map<String, Integer> freqs, String text, int weight) {
+        for (String token : TextAnalyzer.tokens(text)) {
+            freqs.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private static double sortKey(CarSort sort, Car car) {
+        return switch (sort) {
+            case ID, RELEVANCE -> 0;
+            case PRICE_ASC, PRICE_DESC -> toDouble(car.getPrice(), BigDecimal::doubleValue);
+            case YEAR_DESC -> toDouble(car.getManufactureYear(), Integer::doubleValue);
+        };
+    }
+
+    private static double cursorKey(CarCursor cursor) {
+        return switch (cursor.getSort()) {
+            case ID, RELEVANCE -> 0;
+            case PRICE_ASC, PRICE_DESC -> ((BigDecimal) cursor.sortKey()).doubleValue();
+            case YEAR_DESC -> ((Integer) cursor.sortKey()).doubleValue();
+        };
+    }
+
+    private static <T> double toDouble(T value, Function<T, Double> converter) {
+        return value == null ? 0 : converter.apply(value);
+    }
+
+    /**
+     * Cột khoá đã sắp xếp theo (khoá, car_id): mảng song song khoá/id/slot, chèn và xoá bằng
+     * tìm kiếm nhị phân + System.arraycopy. car_id luôn tăng dần để khớp với thứ tự ở phân trang DB.
+     *
+     * Giữa {@link #beginBatch()} và {@link #endBatch()}, chèn/xoá chỉ được ghi lại; endBatch sắp xếp các phần tử
+     * chèn rồi trộn với cột cũ (bỏ phần tử đã xoá) trong một lượt, O(n + k log k) thay vì O(k * n).
+     * Trong lô, xoá chỉ áp dụng cho phần tử có trước lô.
+     */
+    private static final class SortedColumn {
+        private final boolean ascending;
+        private double[] keys = new double[64];
+        private long[] ids = new long[64];
+        private int[] slots = new int[64];
+        private int size;
+        private boolean batching;
+        private Pending inserted;
+        private Pending removed;
+
+        SortedColumn(CarSort sort) {
+            this(sort.isAscending());
+        }
+
+        SortedColumn(boolean ascending) {
+            this.ascending = ascending;
+        }
+
+        void insert(int slot, double key, long id) {
+            if (batching) {
+                inserted.add(key, id, slot);
+                return;
+            }
+            int pos = search(key, id);
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            System.arraycopy(slots, pos, slots, pos + 1, size - pos);
+            keys[pos] = key;
+            ids[pos] = id;
+            slots[pos] = slot;
+            size++;
+        }
+
+        void remove(double key, long id) {
+            if (batching) {
+                removed.add(key, id, -1);
+                return;
+            }
+            int pos = search(key, id);
+            if (pos < size && ids[pos] == id) {
+                System.arraycopy(keys, pos + 1, keys, pos, size - pos - 1);
+                System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+                System.arraycopy(slots, pos + 1, slots, pos, size - pos - 1);
+                size--;
+            }
+        }
+
+        void beginBatch() {
+            batching = true;
+            inserted = new Pending();
+            removed = new Pending();
+        }
+
+        void endBatch() {
+            batching = false;
+            int[] add = inserted.sortedOrder(this);
+            int[] drop = removed.sortedOrder(this);
+            int capacity = Math.max(64, size + add.length);
+            double[] newKeys = new double[capacity];
+            long[] newIds = new long[capacity];
+            int[] newSlots = new int[capacity];
+            int n = 0;
+            int a = 0;
+            int d = 0;
+            for (int i = 0; i < size; i++) {
+                while (d < drop.length && compare(removed.keys[drop[d]], removed.ids[drop[d]], keys[i], ids[i]) < 0) {
+                    d++;
+                }
+                if (d < drop.length && removed.ids[drop[d]] == ids[i] && removed.keys[drop[d]] == keys[i]) {
+                    d++;
+                    continue;
+                }
+                while (a < add.length && compare(inserted.keys[add[a]], inserted.ids[add[a]], keys[i], ids[i]) < 0) {
+                    newKeys[n] = inserted.keys[add[a]];
+                    newIds[n] = inserted.ids[add[a]];
+                    newSlots[n++] = inserted.slots[add[a++]];
+                }
+                newKeys[n] = keys[i];
+                newIds[n] = ids[i];
+                newSlots[n++] = slots[i];
+            }
+            for (; a < add.length; a++) {
+                newKeys[n] = inserted.keys[add[a]];
+                newIds[n] = inserted.ids[add[a]];
+                newSlots[n++] = inserted.slots[add[a]];
+            }
+            keys = newKeys;
+            ids = newIds;
+            slots = newSlots;
+            size = n;
+            inserted = null;
+            removed = null;
+        }
+
+        int positionAfter(double key, long id) {
+            int pos = search(key, id);
+            return pos < size && ids[pos] == id && keys[pos] == key ? pos + 1 : pos;
+        }
+
+        // Đánh dấu các slot có khoá trong [lo, hi]
+        void collectRange(double lo, double hi, BitSet out) {
+            int from = ascending ? firstIndex(k -> k >= lo) : firstIndex(k -> k <= hi);
+            for (int i = from; i < size; i++) {
+                double k = keys[i];
+                if (ascending ? k > hi : k < lo) {
+                    break;
+                }
+                out.set(slots[i]);
+            }
+        }
+
+        // Vị trí đầu tiên có (khoá, id) >= (key, id) theo thứ tự của cột
+        private int search(double key, long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(keys[mid], ids[mid], key, id) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Vị trí đầu tiên thoả điều kiện đơn điệu trên khoá
+        private int firstIndex(DoublePredicate reached) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (reached.test(keys[mid])) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        private int compare(double k1, long id1, double k2, long id2) {
+            int c = ascending ? Double.compare(k1, k2) : Double.compare(k2, k1);
+            return c != 0 ? c : Long.compare(id1, id2);
+        }
+    }
+
+    // Các phần tử chèn/xoá được ghi lại trong một lô của SortedColumn
+    private static final class Pending {
+        private double[] keys = new double[16];
+        private long[] ids = new long[16];
+        private int[] slots = new int[16];
+        private int size;
+
+        void add(double key, long id, int slot) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            keys[size] = key;
+            ids[size] = id;
+            slots[size++] = slot;
+        }
+
+        // Chỉ số các phần tử theo thứ tự của cột
+        int[] sortedOrder(SortedColumn column) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (i, j) -> column.compare(keys[i], ids[i], keys[j], ids[j]));
+            int[] result = new int[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = order[i];
+            }
+            return result;
+        }
+    }
+}
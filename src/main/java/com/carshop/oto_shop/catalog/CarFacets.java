@@ -0,0 +1,49 @@
+package com.carshop.oto_shop.catalog;
+
+/**
+ * Số xe khớp theo từng giá trị Brand/Category/Color (đánh chỉ số theo ordinal) và theo từng khoảng
+ * giá/năm. Khoảng thứ i là [bounds[i-1], bounds[i]), khoảng đầu không có cận dưới và khoảng cuối
+ * không có cận trên, nên mỗi mảng khoảng có bounds.length + 1 phần tử.
+ */
+public class CarFacets {
+    private final int total;
+    private final int[] brandCounts;
+    private final int[] categoryCounts;
+    private final int[] colorCounts;
+    private final int[] priceCounts;
+    private final int[] yearCounts;
+
+    CarFacets(int total, int[] brandCounts, int[] categoryCounts, int[] colorCounts,
+              int[] priceCounts, int[] yearCounts) {
+        this.total = total;
+        this.brandCounts = brandCounts;
+        this.categoryCounts = categoryCounts;
+        this.colorCounts = colorCounts;
+        this.priceCounts = priceCounts;
+        this.yearCounts = yearCounts;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int[] getBrandCounts() {
+        return brandCounts;
+    }
+
+    public int[] getCategoryCounts() {
+        return categoryCounts;
+    }
+
+    public int[] getColorCounts() {
+        return colorCounts;
+    }
+
+    public int[] getPriceCounts() {
+        return priceCounts;
+    }
+
+    public int[] getYearCounts() {
+        return yearCounts;
+    }
+}
@@ -0,0 +1,171 @@
+package com.carshop.oto_shop.catalog;
+
+import com.carshop.oto_shop.enums.Brand;
+import com.carshop.oto_shop.enums.CarStatus;
+import com.carshop.oto_shop.enums.Category;
+import com.carshop.oto_shop.enums.Color;
+
+import java.util.Set;
+
+/**
+ * Điều kiện lọc xe trên {@link CarCatalogIndex}. Tập giá trị rỗng nghĩa là không lọc theo thuộc tính đó,
+ * nhiều giá trị trong cùng một tập được OR với nhau (ví dụ brand=TOYOTA,HYUNDAI).
+ * Cận giá/năm và cận thông số (horsepower, torque, seats, mức tiêu thụ) là bao gồm (inclusive), null nghĩa
+ * là không giới hạn; xe chưa có giá trị thông số đó thì không khớp khi có cận. fuelTypes so khớp sau khi bỏ
+ * dấu, không phân biệt hoa thường ("xang" khớp "Xăng").
+ */
+public class CarFilter {
+    private Set<Brand> brands = Set.of();
+    private Set<Category> categories = Set.of();
+    private Set<Color> colors = Set.of();
+    private Set<CarStatus> statuses = Set.of();
+    private Double priceMin;
+    private Double priceMax;
+    private Integer yearMin;
+    private Integer yearMax;
+    private Integer horsepowerMin;
+    private Integer horsepowerMax;
+    private Integer torqueMin;
+    private Integer torqueMax;
+    private Integer seatsMin;
+    private Integer seatsMax;
+    private Double fuelConsumptionMin;
+    private Double fuelConsumptionMax;
+    private Set<String> fuelTypes = Set.of();
+
+    public Set<Brand> getBrands() {
+        return brands;
+    }
+
+    public void setBrands(Set<Brand> brands) {
+        this.brands = brands;
+    }
+
+    public Set<Category> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Set<Category> categories) {
+        this.categories = categories;
+    }
+
+    public Set<Color> getColors() {
+        return colors;
+    }
+
+    public void setColors(Set<Color> colors) {
+        this.colors = colors;
+    }
+
+    public Set<CarStatus> getStatuses() {
+        return statuses;
+    }
+
+    public void setStatuses(Set<CarStatus> statuses) {
+        this.statuses = statuses;
+    }
+
+    public Double getPriceMin() {
+        return priceMin;
+    }
+
+    public void setPriceMin(Double priceMin) {
+        this.priceMin = priceMin;
+    }
+
+    public Double getPriceMax() {
+        return priceMax;
+    }
+
+    public void setPriceMax(Double priceMax) {
+        this.priceMax = priceMax;
+    }
+
+    public Integer getYearMin() {
+        return yearMin;
+    }
+
+    public void setYearMin(Integer yearMin) {
+        this.yearMin = yearMin;
+    }
+
+    public Integer getYearMax() {
+        return yearMax;
+    }
+
+    public void setYearMax(Integer yearMax) {
+        this.yearMax = yearMax;
+    }
+
+    public Integer getHorsepowerMin() {
+        return horsepowerMin;
+    }
+
+    public void setHorsepowerMin(Integer horsepowerMin) {
+        this.horsepowerMin = horsepowerMin;
+    }
+
+    public Integer getHorsepowerMax() {
+        return horsepowerMax;
+    }
+
+    public void setHorsepowerMax(Integer horsepowerMax) {
+        this.horsepowerMax = horsepowerMax;
+    }
+
+    public Integer getTorqueMin() {
+        return torqueMin;
+    }
+
+    public void setTorqueMin(Integer torqueMin) {
+        this.torqueMin = torqueMin;
+    }
+
+    public Integer getTorqueMax() {
+        return torqueMax;
+    }
+
+    public void setTorqueMax(Integer torqueMax) {
+        this.torqueMax = torqueMax;
+    }
+
+    public Integer getSeatsMin() {
+        return seatsMin;
+    }
+
+    public void setSeatsMin(Integer seatsMin) {
+        this.seatsMin = seatsMin;
+    }
+
+    public Integer getSeatsMax() {
+        return seatsMax;
+    }
+
+    public void setSeatsMax(Integer seatsMax) {
+        this.seatsMax = seatsMax;
+    }
+
+    public Double getFuelConsumptionMin() {
+        return fuelConsumptionMin;
+    }
+
+    public void setFuelConsumptionMin(Double fuelConsumptionMin) {
+        this.fuelConsumptionMin = fuelConsumptionMin;
+    }
+
+    public Double getFuelConsumptionMax() {
+        return fuelConsumptionMax;
+    }
+
+    public void setFuelConsumptionMax(Double fuelConsumptionMax) {
+        this.fuelConsumptionMax = fuelConsumptionMax;
+    }
+
+    public Set<String> getFuelTypes() {
+        return fuelTypes;
+    }
+
+    public void setFuelTypes(Set<String> fuelTypes) {
+        this.fuelTypes = fuelTypes;
+    }
+}
@@ -0,0 +1,68 @@
+package com.carshop.oto_shop.catalog;
+
+import com.carshop.oto_shop.common.exceptions.AppException;
+import com.carshop.oto_shop.common.exceptions.ErrorCode;
+import com.carshop.oto_shop.common.response.JsonFragment;
+import com.carshop.oto_shop.dto.car.CarResponse;
+import com.carshop.oto_shop.entities.Car;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache JSON của CarResponse theo từng xe, khoá bởi (car_id, version). Các API danh sách ghép
+ * response từ các fragment này nên mỗi xe chỉ map + serialize lại khi nó thực sự thay đổi.
+ *
+ * Fragment bị xoá khi nhận {@link CarCatalogChangedEvent}; so khớp version đảm bảo không trả
+ * bản cũ nếu entity mới hơn đến trước sự kiện.
+ */
+@Component
+public class CarJsonCache {
+    private final ObjectMapper objectMapper;
+    private final Map<Long, Entry> fragments = new ConcurrentHashMap<>();
+
+    public CarJsonCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public JsonFragment get(Car car, Function<Car, CarResponse> mapper) {
+        long version = car.getVersion() != null ? car.getVersion() : 0;
+        Entry cached = fragments.get(car.getCarId());
+        if (cached != null && cached.version == version) {
+            return cached.json;
+        }
+        Entry fresh = new Entry(version, serialize(mapper.apply(car)));
+        // không ghi đè bản mới hơn do request khác vừa đưa vào
+        fragments.merge(car.getCarId(), fresh, (old, candidate) -> old.version > candidate.version ? old : candidate);
+        return fresh.json;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CarCatalogChangedEvent event) {
+        event.getCarIds().forEach(fragments::remove);
+    }
+
+    private JsonFragment serialize(CarResponse response) {
+        try {
+            return new JsonFragment(objectMapper.writeValueAsBytes(response));
+        } catch (JsonProcessingException e) {
+            throw new AppException(ErrorCode.UNKNOWN);
+        }
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final JsonFragment json;
+
+        Entry(long version, JsonFragment json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.carshop.oto_shop.catalog;
+
+import com.carshop.oto_shop.entities.Car;
+import com.carshop.oto_shop.entities.CarDetail;
+import com.carshop.oto_shop.enums.CarStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tìm các xe gần nhất (k-NN) theo thông số: horsepower, torque, seats, weight, log(price) và
+ * manufactureYear, mỗi chiều chuẩn hoá z-score trên toàn danh mục; khác Category bị cộng thêm
+ * {@link #CATEGORY_PENALTY}. Thông số thiếu (xe chưa có CarDetail) được coi bằng trung bình, tức 0 sau
+ * chuẩn hoá.
+ *
+ * Vector của mọi xe nằm liền nhau trong một mảng float ({@link #DIMENSIONS} phần tử mỗi xe), truy vấn là
+ * một vòng quét tuyến tính không rẽ nhánh theo chiều, đủ nhanh cho quy mô danh mục (vài chục nghìn xe)
+ * mà không cần cây. Snapshot là bất biến và được thay bằng tham chiếu volatile, nên đọc không cần khoá.
+ * Khi {@link CarCatalogFeed} giao các xe đổi, snapshot được dựng lại trong bộ nhớ (thống kê chuẩn hoá thay
+ * đổi theo cả danh mục).
+ */
+@Component
+public class CarSimilarityIndex implements CarCatalogFeed.Subscriber {
+    private static final Logger logger = LoggerFactory.getLogger(CarSimilarityIndex.class);
+    static final int DIMENSIONS = 6;
+    static final float CATEGORY_PENALTY = 4f;
+
+    private final CarCatalogFeed feed;
+    private final Object writeLock = new Object();
+
+    // car_id -> xe và vector thô (NaN là thiếu), chỉ truy cập khi giữ writeLock
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private volatile Snapshot snapshot = Snapshot.build(List.of());
+
+    public CarSimilarityIndex(CarCatalogFeed feed) {
+        this.feed = feed;
+        feed.subscribe(this);
+    }
+
+    @Override
+    public void reset(Collection<Car> cars, Map<Long, CarDetail> details) {
+        synchronized (writeLock) {
+            entries.clear();
+            for (Car car : cars) {
+                entries.put(car.getCarId(), new Entry(car, features(car, details.get(car.getCarId()))));
+            }
+            snapshot = Snapshot.build(entries.values());
+        }
+        logger.info("Similarity index loaded with {} cars", cars.size());
+    }
+
+    @Override
+    public void apply(Collection<Long> carIds, Map<Long, Car> cars, Map<Long, CarDetail> details) {
+        synchronized (writeLock) {
+            for (Long carId : carIds) {
+                Car car = cars.get(carId);
+                if (car != null) {
+                    entries.put(carId, new Entry(car, features(car, details.get(carId))));
+                } else {
+                    entries.remove(carId);
+                }
+            }
+            snapshot = Snapshot.build(entries.values());
+        }
+    }
+
+    /**
+     * Tối đa {@code k} xe đang bán gần xe {@code carId} nhất, gần nhất đứng đầu (không gồm chính nó).
+     * Trả về null nếu xe không có trong index.
+     */
+    public List<Car> nearest(Long carId, int k) {
+        feed.ensureLoaded();
+        return snapshot.nearest(carId, k);
+    }
+
+    static float[] features(Car car, CarDetail detail) {
+        float[] raw = new float[DIMENSIONS];
+        raw[0] = detail != null ? value(detail.getHorsepower()) : Float.NaN;
+        raw[1] = detail != null ? value(detail.getTorque()) : Float.NaN;
+        raw[2] = detail != null ? value(detail.getSeats()) : Float.NaN;
+        raw[3] = detail != null ? value(detail.getWeight()) : Float.NaN;
+        // Giá trải rộng nhiều bậc độ lớn, so theo tỷ lệ hợp lý hơn so theo hiệu số
+        raw[4] = car.getPrice() != null && car.getPrice().signum() > 0
+                ? (float) Math.log(car.getPrice().doubleValue()) : Float.NaN;
+        raw[5] = value(car.getManufactureYear());
+        return raw;
+    }
+
+    private static float value(Number number) {
+        return number != null ? number.floatValue() : Float.NaN;
+    }
+
+    private static final class Entry {
+        private final Car car;
+        private final float[] raw;
+
+        Entry(Car car, float[] raw) {
+            this.car = car;
+            this.raw = raw;
+        }
+    }
+
+    private static final class Snapshot {
+        private final Car[] cars;
+        private final float[] vectors;
+        private final int[] categories;
+        private final boolean[] candidates;
+        private final Map<Long, Integer> slots;
+
+        private Snapshot(Car[] cars, float[] vectors, int[] categories, boolean[] candidates, Map<Long, Integer> slots) {
+            this.cars = cars;
+            this.vectors = vectors;
+            this.categories = categories;
+            this.candidates = candidates;
+            this.slots = slots;
+        }
+
+        static Snapshot build(Collection<Entry> entries) {
+            int n = entries.size();
+            double[] sum = new double[DIMENSIONS];
+            double[] squares = new double[DIMENSIONS];
+            int[] present = new int[DIMENSIONS];
+            for (Entry entry : entries) {
+                for (int d = 0; d < DIMENSIONS; d++) {
+                    float v = entry.raw[d];
+                    if (!Float.isNaN(v)) {
+                        sum[d] += v;
+                        squares[d] += (double) v * v;
+                        present[d]++;
+                    }
+                }
+            }
+            float[] mean = new float[DIMENSIONS];
+            float[] scale = new float[DIMENSIONS];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                if (present[d] == 0) {
+                    continue;
+                }
+                double m = sum[d] / present[d];
+                double variance = Math.max(0, squares[d] / present[d] - m * m);
+                mean[d] = (float) m;
+                scale[d] = variance > 0 ? (float) (1 / Math.sqrt(variance)) : 0f;
+            }
+
+            Car[] cars = new Car[n];
+            float[] vectors = new float[n * DIMENSIONS];
+            int[] categories = new int[n];
+            boolean[] candidates = new boolean[n];
+            Map<Long, Integer> slots = new HashMap<>(n * 2);
+            int slot = 0;
+            for (Entry entry : entries) {
+                cars[slot] = entry.car;
+                for (int d = 0; d < DIMENSIONS; d++) {
+                    float v = entry.raw[d];
+                    vectors[slot * DIMENSIONS + d] = Float.isNaN(v) ? 0f : (v - mean[d]) * scale[d];
+                }
+                categories[slot] = entry.car.getCategory() != null ? entry.car.getCategory().ordinal() : -1;
+                candidates[slot] = entry.car.getStatus() != CarStatus.SOLD;
+                slots.put(entry.car.getCarId(), slot);
+                slot++;
+            }
+            return new Snapshot(cars, vectors, categories, candidates, slots);
+        }
+
+        List<Car> nearest(Long carId, int k) {
+            Integer query = slots.get(carId);
+            if (query == null) {
+                return null;
+            }
+            int base = query * DIMENSIONS;
+            float q0 = vectors[base], q1 = vectors[base + 1], q2 = vectors[base + 2];
+            float q3 = vectors[base + 3], q4 = vectors[base + 4], q5 = vectors[base + 5];
+            int category = categories[query];
+
+            // Top-k giữ trong hai mảng đã sắp xếp tăng dần theo khoảng cách (k nhỏ nên chèn tuyến tính)
+            int[] best = new int[k];
+            float[] bestDistance = new float[k];
+            int size = 0;
+            for (int i = 0, offset = 0; i < cars.length; i++, offset += DIMENSIONS) {
+                if (i == query || !candidates[i]) {
+                    continue;
+                }
+                float d0 = vectors[offset] - q0, d1 = vectors[offset + 1] - q1, d2 = vectors[offset + 2] - q2;
+                float d3 = vectors[offset + 3] - q3, d4 = vectors[offset + 4] - q4, d5 = vectors[offset + 5] - q5;
+                float distance = d0 * d0 + d1 * d1 + d2 * d2 + d3 * d3 + d4 * d4 + d5 * d5
+                        + (categories[i] == category ? 0f : CATEGORY_PENALTY);
+                if (size == k && distance >= bestDistance[k - 1]) {
+                    continue;
+                }
+                int position = size < k ? size++ : k - 1;
+                while (position > 0 && bestDistance[position - 1] > distance) {
+                    best[position] = best[position - 1];
+                    bestDistance[position] = bestDistance[position - 1];
+                    position--;
+                }
+                best[position] = i;
+                bestDistance[position] = distance;
+            }
+
+            List<Car> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(cars[best[i]]);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.carshop.oto_shop.catalog;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tách giá trị số từ các thông số CarDetail đang lưu dạng chữ, để lọc/sắp xếp được theo khoảng.
+ * Trả về null khi không đọc được (ví dụ xe điện ghi "471 km" hoặc "15 kWh/100km" cho mức tiêu thụ).
+ */
+public final class CarSpecParser {
+    private static final Pattern NUMBER = Pattern.compile("\\d+(?:[.,]\\d+)?");
+    // 4500 x 1800 x 1450 mm, 4.5 × 1.8 × 1.45 m, 450*180*145cm
+    private static final Pattern DIMENSIONS = Pattern.compile(
+            "(\\d+(?:[.,]\\d+)?)\\s*[x×*]\\s*(\\d+(?:[.,]\\d+)?)\\s*[x×*]\\s*(\\d+(?:[.,]\\d+)?)\\s*(mm|cm|m)?\\b");
+
+    private CarSpecParser() {
+    }
+
+    /**
+     * Lít/100 km từ "6.5L/100km", "6,5 l/100 km", "6.5"; quy đổi từ "15 km/l".
+     */
+    public static Double fuelConsumptionL100km(String text) {
+        if (text == null) {
+            return null;
+        }
+        String value = text.toLowerCase(Locale.ROOT).replace(" ", "");
+        if (value.contains("kwh") || (value.contains("km") && !value.contains("l"))) {
+            return null;
+        }
+        Matcher matcher = NUMBER.matcher(value);
+        if (!matcher.find()) {
+            return null;
+        }
+        double number = parse(matcher.group());
+        if (number <= 0) {
+            return null;
+        }
+        return value.contains("km/l") ? 100 / number : number;
+    }
+
+    /**
+     * [dài, rộng, cao] theo mm, hoặc null nếu không có đủ ba số dạng "a x b x c".
+     */
+    public static int[] dimensionsMm(String text) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = DIMENSIONS.matcher(text.toLowerCase(Locale.ROOT));
+        if (!matcher.find()) {
+            return null;
+        }
+        String unit = matcher.group(4);
+        double factor = "m".equals(unit) ? 1000 : "cm".equals(unit) ? 10 : 1;
+        int[] mm = new int[3];
+        for (int i = 0; i < 3; i++) {
+            mm[i] = (int) Math.round(parse(matcher.group(i + 1)) * factor);
+            if (mm[i] <= 0) {
+                return null;
+            }
+        }
+        return mm;
+    }
+
+    private static double parse(String number) {
+        return Double.parseDouble(number.replace(',', '.'));
+    }
+}
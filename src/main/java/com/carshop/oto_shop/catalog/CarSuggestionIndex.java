@@ -0,0 +1,142 @@
+package com.carshop.oto_shop.catalog;
+
+import com.carshop.oto_shop.entities.Car;
+import com.carshop.oto_shop.entities.CarDetail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Gợi ý cho ô tìm kiếm (typeahead) từ tên hãng, model và cụm "hãng model" của các xe đang có.
+ * Weight của một gợi ý là số xe mang cụm đó. Dữ liệu nằm trong {@link PrefixTrie}, được vá theo từng xe
+ * khi {@link CarCatalogFeed} giao thay đổi thay vì dựng lại toàn bộ.
+ */
+@Component
+public class CarSuggestionIndex implements CarCatalogFeed.Subscriber {
+    private static final Logger logger = LoggerFactory.getLogger(CarSuggestionIndex.class);
+
+    private final CarCatalogFeed feed;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final PrefixTrie trie = new PrefixTrie();
+    private final Map<String, Integer> counts = new HashMap<>();
+    private final Map<Long, List<Phrase>> phrasesByCar = new HashMap<>();
+
+    public CarSuggestionIndex(CarCatalogFeed feed) {
+        this.feed = feed;
+        feed.subscribe(this);
+    }
+
+    @Override
+    public void reset(Collection<Car> cars, Map<Long, CarDetail> details) {
+        lock.writeLock().lock();
+        try {
+            trie.clear();
+            counts.clear();
+            phrasesByCar.clear();
+            cars.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Suggestion index loaded with {} phrases", counts.size());
+    }
+
+    @Override
+    public void apply(Collection<Long> carIds, Map<Long, Car> cars, Map<Long, CarDetail> details) {
+        lock.writeLock().lock();
+        try {
+            for (Long carId : carIds) {
+                remove(carId);
+                Car car = cars.get(carId);
+                if (car != null) {
+                    add(car);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Tối đa {@code limit} gợi ý có khoá bắt đầu bằng {@code query} (so khớp không phân biệt hoa thường),
+     * xếp theo weight giảm dần.
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        String prefix = TextAnalyzer.normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        feed.ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return trie.top(prefix, Math.min(limit, PrefixTrie.TOP_K));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Car car) {
+        List<Phrase> phrases = phrasesOf(car);
+        phrasesByCar.put(car.getCarId(), phrases);
+        phrases.forEach(phrase -> adjust(phrase, 1));
+    }
+
+    private void remove(Long carId) {
+        List<Phrase> phrases = phrasesByCar.remove(carId);
+        if (phrases != null) {
+            phrases.forEach(phrase -> adjust(phrase, -1));
+        }
+    }
+
+    private void adjust(Phrase phrase, int delta) {
+        int count = counts.merge(phrase.key, delta, Integer::sum);
+        if (count <= 0) {
+            counts.remove(phrase.key);
+            trie.put(phrase.key, null);
+        } else {
+            trie.put(phrase.key, new Suggestion(phrase.text, phrase.type, count));
+        }
+    }
+
+    private static List<Phrase> phrasesOf(Car car) {
+        List<Phrase> phrases = new ArrayList<>(3);
+        String brand = car.getBrand() != null ? displayName(car.getBrand().name()) : null;
+        String model = car.getModel() != null && !car.getModel().isBlank() ? car.getModel().trim() : null;
+        if (brand != null) {
+            phrases.add(new Phrase(brand, Suggestion.Type.BRAND));
+        }
+        if (model != null) {
+            phrases.add(new Phrase(model, Suggestion.Type.MODEL));
+        }
+        if (brand != null && model != null) {
+            phrases.add(new Phrase(brand + " " + model, Suggestion.Type.BRAND_MODEL));
+        }
+        phrases.removeIf(phrase -> phrase.key.isEmpty());
+        return phrases;
+    }
+
+    // TOYOTA -> Toyota
+    private static String displayName(String enumName) {
+        return enumName.charAt(0) + enumName.substring(1).toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Phrase {
+        private final String key;
+        private final String text;
+        private final Suggestion.Type type;
+
+        Phrase(String text, Suggestion.Type type) {
+            this.key = TextAnalyzer.normalize(text);
+            this.text = text;
+            this.type = type;
+        }
+    }
+}
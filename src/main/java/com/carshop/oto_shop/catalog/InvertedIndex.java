@@ -0,0 +1,167 @@
+package com.carshop.oto_shop.catalog;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Inverted index (từ -> danh sách slot chứa từ đó) với chấm điểm BM25.
+ * Không tự đồng bộ: {@link CarCatalogIndex} gọi mọi phương thức khi đang giữ lock của nó.
+ *
+ * Mỗi slot nhớ vị trí của nó trong posting list của từng từ, nên gỡ một tài liệu là O(số từ của nó)
+ * thay vì quét tuyến tính posting list của mọi từ (n-gram phổ biến có thể chứa gần hết danh mục).
+ */
+final class InvertedIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Postings> postingsByTerm = new HashMap<>();
+    private String[][] termsBySlot = new String[64][];
+    // positionsBySlot[slot][k]: vị trí của slot trong posting list của termsBySlot[slot][k]
+    private int[][] positionsBySlot = new int[64][];
+    private int[] lengthBySlot = new int[64];
+    private long totalLength;
+    private int docCount;
+
+    /**
+     * @param termFreqs tần suất (đã nhân trọng số trường) của từng từ trong tài liệu
+     */
+    void add(int slot, Map<String, Integer> termFreqs) {
+        if (slot >= termsBySlot.length) {
+            int capacity = Math.max(slot + 1, termsBySlot.length * 2);
+            termsBySlot = Arrays.copyOf(termsBySlot, capacity);
+            positionsBySlot = Arrays.copyOf(positionsBySlot, capacity);
+            lengthBySlot = Arrays.copyOf(lengthBySlot, capacity);
+        }
+        String[] terms = new String[termFreqs.size()];
+        int[] positions = new int[terms.length];
+        int length = 0;
+        int k = 0;
+        for (Map.Entry<String, Integer> entry : termFreqs.entrySet()) {
+            Postings postings = postingsByTerm.computeIfAbsent(entry.getKey(), term -> new Postings());
+            terms[k] = entry.getKey();
+            positions[k] = postings.add(slot, entry.getValue(), k);
+            length += entry.getValue();
+            k++;
+        }
+        termsBySlot[slot] = terms;
+        positionsBySlot[slot] = positions;
+        lengthBySlot[slot] = length;
+        totalLength += length;
+        docCount++;
+    }
+
+    void remove(int slot) {
+        String[] terms = slot < termsBySlot.length ? termsBySlot[slot] : null;
+        if (terms == null) {
+            return;
+        }
+        int[] positions = positionsBySlot[slot];
+        for (int k = 0; k < terms.length; k++) {
+            Postings postings = postingsByTerm.get(terms[k]);
+            int position = positions[k];
+            postings.removeAt(position);
+            if (postings.size == 0) {
+                postingsByTerm.remove(terms[k]);
+            } else if (position < postings.size) {
+                // phần tử cuối đã được dời vào chỗ trống, cập nhật vị trí nó nhớ
+                positionsBySlot[postings.slots[position]][postings.termIndexes[position]] = position;
+            }
+        }
+        totalLength -= lengthBySlot[slot];
+        termsBySlot[slot] = null;
+        positionsBySlot[slot] = null;
+        lengthBySlot[slot] = 0;
+        docCount--;
+    }
+
+    boolean contains(String term) {
+        return postingsByTerm.containsKey(term);
+    }
+
+    void clear() {
+        postingsByTerm.clear();
+        termsBySlot = new String[64][];
+        positionsBySlot = new int[64][];
+        lengthBySlot = new int[64];
+        totalLength = 0;
+        docCount = 0;
+    }
+
+    /**
+     * Chấm điểm BM25 cho truy vấn. Chỉ các slot chứa đủ mọi từ của truy vấn được đánh dấu trong
+     * {@link Hits#matched}; điểm là tổng đóng góp của từng từ.
+     */
+    Hits score(Collection<String> queryTerms, int capacity) {
+        Hits hits = new Hits(capacity);
+        LinkedHashSet<String> terms = new LinkedHashSet<>(queryTerms);
+        if (terms.isEmpty() || docCount == 0) {
+            return hits;
+        }
+        double avgLength = (double) totalLength / docCount;
+        boolean first = true;
+        for (String term : terms) {
+            Postings postings = postingsByTerm.get(term);
+            if (postings == null) {
+                hits.matched.clear();
+                return hits;
+            }
+            BitSet termDocs = new BitSet(capacity);
+            double idf = Math.log(1 + (docCount - postings.size + 0.5) / (postings.size + 0.5));
+            for (int i = 0; i < postings.size; i++) {
+                int slot = postings.slots[i];
+                int tf = postings.freqs[i];
+                double norm = K1 * (1 - B + B * lengthBySlot[slot] / avgLength);
+                hits.scores[slot] += (float) (idf * tf * (K1 + 1) / (tf + norm));
+                termDocs.set(slot);
+            }
+            if (first) {
+                hits.matched.or(termDocs);
+                first = false;
+            } else {
+                hits.matched.and(termDocs);
+            }
+        }
+        return hits;
+    }
+
+    static final class Hits {
+        final BitSet matched = new BitSet();
+        final float[] scores;
+
+        Hits(int capacity) {
+            this.scores = new float[capacity];
+        }
+    }
+
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private int[] freqs = new int[4];
+        // chỉ số của từ này trong termsBySlot[slots[i]], để cập nhật positionsBySlot khi phần tử bị dời
+        private int[] termIndexes = new int[4];
+        private int size;
+
+        int add(int slot, int freq, int termIndex) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+                termIndexes = Arrays.copyOf(termIndexes, size * 2);
+            }
+            slots[size] = slot;
+            freqs[size] = freq;
+            termIndexes[size] = termIndex;
+            return size++;
+        }
+
+        // Thứ tự trong posting list không quan trọng nên xoá bằng cách đổi chỗ với phần tử cuối
+        void removeAt(int position) {
+            size--;
+            slots[position] = slots[size];
+            freqs[position] = freqs[size];
+            termIndexes[position] = termIndexes[size];
+        }
+    }
+}
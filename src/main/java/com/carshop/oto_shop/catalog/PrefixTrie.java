@@ -0,0 +1,91 @@
+package com.carshop.oto_shop.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trie theo ký tự, mỗi node giữ sẵn top-K gợi ý (theo weight) của cả cây con bên dưới nó.
+ * Tra cứu theo tiền tố vì vậy chỉ là đi xuống |prefix| node rồi đọc mảng top-K, không phải duyệt cây con.
+ *
+ * Khi một khoá thay đổi, top-K được tính lại từ dưới lên dọc đường đi của khoá đó: top-K của node là
+ * top-K của (gợi ý tại node ∪ top-K của các node con). Không thread-safe, chủ sở hữu tự đồng bộ.
+ */
+class PrefixTrie {
+    static final int TOP_K = 10;
+
+    private static final Comparator<Suggestion> RANKING = Comparator.comparingInt(Suggestion::getWeight).reversed()
+            .thenComparing(Suggestion::getText);
+    private static final Suggestion[] EMPTY = new Suggestion[0];
+
+    private Node root = new Node();
+
+    /**
+     * Đặt gợi ý cho khoá (đã chuẩn hoá); suggestion null nghĩa là gỡ khoá.
+     */
+    void put(String key, Suggestion suggestion) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                if (suggestion == null) {
+                    return;
+                }
+                child = new Node();
+                node.children.put(key.charAt(i), child);
+            }
+            node = child;
+            path[i + 1] = node;
+        }
+        node.value = suggestion;
+        for (int i = key.length(); i >= 0; i--) {
+            Node current = path[i];
+            if (i > 0 && current.value == null && current.children.isEmpty()) {
+                path[i - 1].children.remove(key.charAt(i - 1));
+                continue;
+            }
+            current.top = collectTop(current);
+        }
+    }
+
+    List<Suggestion> top(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        return Arrays.asList(node.top).subList(0, Math.min(limit, node.top.length));
+    }
+
+    void clear() {
+        root = new Node();
+    }
+
+    private static Suggestion[] collectTop(Node node) {
+        List<Suggestion> candidates = new ArrayList<>();
+        if (node.value != null) {
+            candidates.add(node.value);
+        }
+        for (Node child : node.children.values()) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        if (candidates.isEmpty()) {
+            return EMPTY;
+        }
+        candidates.sort(RANKING);
+        return candidates.subList(0, Math.min(TOP_K, candidates.size())).toArray(EMPTY);
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private Suggestion value;
+        private Suggestion[] top = EMPTY;
+    }
+}
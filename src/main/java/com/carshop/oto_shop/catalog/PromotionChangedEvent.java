@@ -0,0 +1,8 @@
+package com.carshop.oto_shop.catalog;
+
+/**
+ * Phát ra khi một khuyến mãi được thêm, sửa hoặc xoá. Khuyến mãi có thể áp cho cả danh mục (GLOBAL,
+ * theo brand/category) nên sự kiện không mang car_id, nơi nhận tự bỏ mọi dữ liệu tính từ khuyến mãi.
+ */
+public class PromotionChangedEvent {
+}
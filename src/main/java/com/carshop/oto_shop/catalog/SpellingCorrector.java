@@ -0,0 +1,148 @@
+package com.carshop.oto_shop.catalog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sửa lỗi gõ cho từ khoá theo kiểu SymSpell: với mỗi từ trong từ điển, sinh sẵn mọi biến thể xoá tối đa
+ * {@link #MAX_DISTANCE} ký tự và ánh xạ biến thể -> từ gốc. Lúc truy vấn chỉ cần sinh biến thể xoá của từ
+ * khoá rồi tra map, sau đó kiểm tra khoảng cách Damerau-Levenshtein trên vài ứng viên, không phải quét
+ * toàn bộ từ điển.
+ *
+ * Từ điển đếm số tài liệu chứa mỗi từ, nên thêm/gỡ được theo từng xe. Không thread-safe:
+ * {@link CarCatalogIndex} gọi khi đang giữ lock của nó.
+ */
+final class SpellingCorrector {
+    static final int MAX_DISTANCE = 2;
+    private static final int MIN_LENGTH = 3;
+    private static final int MAX_LENGTH = 20;
+
+    private final Map<String, Integer> counts = new HashMap<>();
+    private final Map<String, List<String>> deletes = new HashMap<>();
+
+    void add(String word) {
+        if (word.length() > MAX_LENGTH || counts.merge(word, 1, Integer::sum) > 1) {
+            return;
+        }
+        for (String variant : deleteVariants(word, MAX_DISTANCE)) {
+            deletes.computeIfAbsent(variant, key -> new ArrayList<>(1)).add(word);
+        }
+    }
+
+    void remove(String word) {
+        Integer count = counts.get(word);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            counts.put(word, count - 1);
+            return;
+        }
+        counts.remove(word);
+        for (String variant : deleteVariants(word, MAX_DISTANCE)) {
+            List<String> words = deletes.get(variant);
+            if (words != null && words.remove(word) && words.isEmpty()) {
+                deletes.remove(variant);
+            }
+        }
+    }
+
+    void clear() {
+        counts.clear();
+        deletes.clear();
+    }
+
+    /**
+     * Từ gần nhất trong từ điển (khoảng cách nhỏ nhất, hoà thì chọn từ phổ biến hơn), hoặc null nếu
+     * không có từ nào trong ngưỡng. Từ ngắn được phép sai ít hơn: tối đa 1 với từ 3-4 ký tự.
+     */
+    String correct(String term) {
+        if (term.length() < MIN_LENGTH || term.length() > MAX_LENGTH) {
+            return null;
+        }
+        int maxDistance = term.length() <= 4 ? 1 : MAX_DISTANCE;
+        String best = null;
+        int bestDistance = maxDistance + 1;
+        int bestCount = 0;
+        Set<String> seen = new HashSet<>();
+        for (String variant : deleteVariants(term, maxDistance)) {
+            List<String> words = deletes.get(variant);
+            if (words == null) {
+                continue;
+            }
+            for (String word : words) {
+                if (!seen.add(word)) {
+                    continue;
+                }
+                int distance = distance(term, word, maxDistance);
+                int count = counts.get(word);
+                if (distance < bestDistance
+                        || (distance == bestDistance && (count > bestCount
+                        || (count == bestCount && word.compareTo(best) < 0)))) {
+                    best = word;
+                    bestDistance = distance;
+                    bestCount = count;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Chính từ đó cùng mọi chuỗi có được khi xoá 1..maxDistance ký tự
+    private static Set<String> deleteVariants(String word, int maxDistance) {
+        Set<String> variants = new HashSet<>();
+        variants.add(word);
+        List<String> frontier = List.of(word);
+        for (int d = 0; d < maxDistance; d++) {
+            List<String> next = new ArrayList<>();
+            for (String current : frontier) {
+                for (int i = 0; i < current.length(); i++) {
+                    String variant = current.substring(0, i) + current.substring(i + 1);
+                    if (variants.add(variant)) {
+                        next.add(variant);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return variants;
+    }
+
+    // Damerau-Levenshtein (optimal string alignment), dừng sớm trả về max + 1 khi chắc chắn vượt ngưỡng
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] prevPrev = new int[b.length() + 1];
+        int[] prev = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(prev[j] + 1, current[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, prevPrev[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = prevPrev;
+            prevPrev = prev;
+            prev = current;
+            current = recycled;
+        }
+        return prev[b.length()];
+    }
+}
@@ -0,0 +1,35 @@
+package com.carshop.oto_shop.catalog;
+
+/**
+ * Một gợi ý cho ô tìm kiếm. weight là số xe hiện có mang cụm từ này, dùng để xếp hạng.
+ * Bất biến: khi weight đổi, index thay bằng đối tượng mới.
+ */
+public final class Suggestion {
+    public enum Type {
+        BRAND,
+        MODEL,
+        BRAND_MODEL
+    }
+
+    private final String text;
+    private final Type type;
+    private final int weight;
+
+    Suggestion(String text, Type type, int weight) {
+        this.text = text;
+        this.type = type;
+        this.weight = weight;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+}
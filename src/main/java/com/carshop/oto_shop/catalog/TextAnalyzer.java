@@ -0,0 +1,60 @@
+package com.carshop.oto_shop.catalog;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Tách văn bản thành các từ (token) dùng chung cho lúc đánh index và lúc truy vấn,
+ * để hai phía luôn chuẩn hoá giống nhau: chữ thường, bỏ dấu tiếng Việt ("Điện" -> "dien"),
+ * mọi ký tự không phải chữ/số là dấu phân cách.
+ */
+public final class TextAnalyzer {
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    // Tiền tố một ký tự khớp gần như cả danh mục mà làm posting list phình theo số xe, nên không đánh index
+    public static final int MIN_GRAM = 2;
+    private static final int MAX_GRAM = 15;
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        for (String token : SEPARATOR.split(fold(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Tách dấu (NFD) rồi bỏ các dấu kết hợp; đ không phải chữ có dấu trong Unicode nên đổi riêng
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").replace('đ', 'd');
+    }
+
+    /**
+     * Các tiền tố thật sự của token (edge n-gram, dài 2 đến min(len - 1, 15)), để từ đang gõ dở
+     * như "lux a" vẫn khớp "Lux A2.0".
+     */
+    public static List<String> edgeNgrams(String token) {
+        int max = Math.min(token.length() - 1, MAX_GRAM);
+        List<String> grams = new ArrayList<>(Math.max(max - MIN_GRAM + 1, 0));
+        for (int length = MIN_GRAM; length <= max; length++) {
+            grams.add(token.substring(0, length));
+        }
+        return grams;
+    }
+
+    // Dạng chuẩn của cả cụm (các token nối bằng một dấu cách), dùng làm khoá tra theo tiền tố
+    public static String normalize(String text) {
+        return String.join(" ", tokens(text));
+    }
+}
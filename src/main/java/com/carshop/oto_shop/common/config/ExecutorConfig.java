@@ -0,0 +1,40 @@
+package com.carshop.oto_shop.common.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    // Truy vấn song song cho trang chi tiết xe: số luồng và hàng đợi có giới hạn, đầy thì từ chối
+    // (TaskRejectedException) thay vì dồn việc không giới hạn khi DB chậm
+    @Bean
+    public ThreadPoolTaskExecutor carPageExecutor(@Value("${car-page.parallelism}") int parallelism,
+                                                  @Value("${car-page.queue-capacity}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("car-page-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Sinh biến thể ảnh chạy nền: ít luồng vì giải mã/nén ảnh tốn CPU và bộ nhớ
+    @Bean
+    public ThreadPoolTaskExecutor imageVariantExecutor(@Value("${image-variants.workers}") int workers,
+                                                       @Value("${image-variants.queue-capacity}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-variant-");
+        // Khi tắt ứng dụng, để các ảnh đang xử lý ghi xong thay vì bỏ dở file tạm
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
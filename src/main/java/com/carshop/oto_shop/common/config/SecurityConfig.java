@@ -73,6 +73,7 @@ public class SecurityConfig {
                         // Admin
                         .requestMatchers(HttpMethod.POST, "/api/cars/**").hasRole(Role.ADMIN.name())
                         .requestMatchers(HttpMethod.PUT, "/api/cars/**").hasRole(Role.ADMIN.name())
+                        .requestMatchers(HttpMethod.PATCH, "/api/cars/**").hasRole(Role.ADMIN.name())
                         .requestMatchers(HttpMethod.DELETE, "/api/cars/**").hasRole(Role.ADMIN.name())
 
                         // ================== CAR DETAILS ==================
@@ -131,6 +132,7 @@ public class SecurityConfig {
 
                         // ================== ADMIN DASHBOARD ==================
                         .requestMatchers(HttpMethod.GET, "/api/admin/**").hasRole(Role.ADMIN.name())
+                        .requestMatchers(HttpMethod.POST, "/api/admin/**").hasRole(Role.ADMIN.name())
 
                         // ================== Any other ==================
                         .anyRequest().authenticated()
@@ -18,6 +18,7 @@ public enum ErrorCode {
     UNSUPPORTED_MEDIA_TYPE("UNSUPPORTED_MEDIA_TYPE", "Định dạng dữ liệu không được hỗ trợ!", HttpStatus.UNSUPPORTED_MEDIA_TYPE),
     DUPLICATE_KEY("DUPLICATE_KEY","Trùng lặp dữ liệu!",HttpStatus.CONFLICT),
     UNKNOWN("UNKNOWN_ERROR", "Lỗi không xác định!", HttpStatus.INTERNAL_SERVER_ERROR),
+    SERVICE_BUSY("SERVICE_BUSY", "Hệ thống đang bận, vui lòng thử lại sau!", HttpStatus.SERVICE_UNAVAILABLE),
     BAD_REQUEST("BAD_REQUEST", "Dữ liệu đầu vào không hợp lệ!", HttpStatus.BAD_REQUEST),
     METHOD_NOT_ALLOWED("METHOD_NOT_ALLOWED", "Phương thức HTTP không được hỗ trợ!", HttpStatus.METHOD_NOT_ALLOWED),
     INVALID_OR_EXPIRED_REFRESH_TOKEN("INVALID_OR_EXPIRED_REFRESH_TOKEN", "Refresh token không hợp lệ hoặc đã hết hạn", HttpStatus.UNAUTHORIZED),
@@ -27,7 +28,10 @@ public enum ErrorCode {
     NEWS_NOT_FOUND("NEWS_NOT_FOUND", "Tin tức không tồn tại!", HttpStatus.NOT_FOUND),
     PROMOTION_NOT_FOUND("PROMOTION_NOT_FOUND", "Khuyến mãi không tồn tại!", HttpStatus.NOT_FOUND),
     PAYMENT_NOT_FOUND("PAYMENT_NOT_FOUND", "Thanh toán không tồn tại!", HttpStatus.NOT_FOUND),
-    VALIDATION_FAILED("VALIDATION_FAILED", "Dữ liệu nhập không hợp lệ", HttpStatus.BAD_REQUEST);
+    VALIDATION_FAILED("VALIDATION_FAILED", "Dữ liệu nhập không hợp lệ", HttpStatus.BAD_REQUEST),
+    TOO_MANY_REQUESTS("TOO_MANY_REQUESTS", "Bạn thao tác quá nhiều lần, vui lòng thử lại sau!", HttpStatus.TOO_MANY_REQUESTS),
+    LOGIN_TEMPORARILY_LOCKED("LOGIN_TEMPORARILY_LOCKED", "Đăng nhập sai quá nhiều lần, tài khoản tạm khoá đăng nhập!", HttpStatus.TOO_MANY_REQUESTS),
+    CONCURRENT_MODIFICATION("CONCURRENT_MODIFICATION", "Dữ liệu vừa được người khác thay đổi, vui lòng tải lại và thử lại!", HttpStatus.CONFLICT);
     private final String code;
     private final String message;
     private final HttpStatus httpStatus;
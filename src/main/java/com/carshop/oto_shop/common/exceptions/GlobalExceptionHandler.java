@@ -1,6 +1,8 @@
 package com.carshop.oto_shop.common.exceptions;
 
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.LockedException;
@@ -32,6 +34,20 @@ public class GlobalExceptionHandler {
                     .body(errorResponse);
     }
 
+    @ExceptionHandler(value = TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(TooManyRequestsException e) {
+        ErrorCode errorCode = e.getErrorCode();
+        ErrorResponse errorResponse = new ErrorResponse(
+                errorCode.getCode(),
+                errorCode.getMessage(),
+                errorCode.getHttpStatus().value()
+        );
+        return ResponseEntity
+                .status(errorCode.getHttpStatus().value())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
     @ExceptionHandler(value = DuplicateKeyException.class)
     public ResponseEntity<ErrorResponse> handleDuplicateKeyException(DuplicateKeyException e) {
         ErrorResponse errorResponse = new ErrorResponse(
@@ -104,6 +120,19 @@ public class GlobalExceptionHandler {
                 .body(errorResponse);
     }
 
+    // Car có @Version: hai admin cùng sửa một xe thì người lưu sau nhận 409 thay vì ghi đè
+    @ExceptionHandler(value = OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        ErrorResponse errorResponse = new ErrorResponse();
+        errorResponse.setErrorCode(ErrorCode.CONCURRENT_MODIFICATION.getCode());
+        errorResponse.setMessage(ErrorCode.CONCURRENT_MODIFICATION.getMessage());
+        errorResponse.setStatus(ErrorCode.CONCURRENT_MODIFICATION.getHttpStatus().value());
+        errorResponse.setTimestamp(LocalDateTime.now());
+        return ResponseEntity
+                .status(errorResponse.getStatus())
+                .body(errorResponse);
+    }
+
     @ExceptionHandler(value = MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationException(MethodArgumentNotValidException ex) {
         List<Map<String, String>> validationErrors = ex.getBindingResult()
@@ -0,0 +1,15 @@
+package com.carshop.oto_shop.common.exceptions;
+
+// Trả về 429 kèm header Retry-After (giây)
+public class TooManyRequestsException extends AppException {
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(ErrorCode errorCode, long retryAfterSeconds) {
+        super(errorCode);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,55 @@
+package com.carshop.oto_shop.common.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cấp id theo kiểu hi/lo: giữ trước một khối id từ {@link IdBlockSource} rồi phát dần trong bộ nhớ.
+ * Đường nhanh chỉ là một phép getAndIncrement trên khối hiện tại (không khoá); chỉ khi khối cạn mới
+ * vào vùng synchronized để xin khối mới, nên DB chỉ bị chạm một lần cho mỗi blockSize id.
+ * Id bỏ dở khi tắt ứng dụng sẽ không dùng lại (có khoảng trống), nhưng không bao giờ trùng.
+ */
+public class BlockIdAllocator implements IdAllocator {
+    private final String sequence;
+    private final int blockSize;
+    private final IdBlockSource source;
+    private volatile Block block = new Block(0, 0);
+
+    public BlockIdAllocator(String sequence, int blockSize, IdBlockSource source) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize phải lớn hơn 0");
+        }
+        this.sequence = sequence;
+        this.blockSize = blockSize;
+        this.source = source;
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            Block current = block;
+            long id = current.next.getAndIncrement();
+            if (id < current.end) {
+                return id;
+            }
+            refill(current);
+        }
+    }
+
+    // Nhiều thread cùng thấy khối cạn thì chỉ thread đầu tiên xin khối mới
+    private synchronized void refill(Block exhausted) {
+        if (block == exhausted) {
+            long start = source.reserve(sequence, blockSize);
+            block = new Block(start, start + blockSize);
+        }
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
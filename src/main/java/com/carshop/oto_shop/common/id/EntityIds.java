@@ -0,0 +1,30 @@
+package com.carshop.oto_shop.common.id;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cho các callback @PrePersist của entity (không phải Spring bean) lấy id từ allocator đã cấu hình
+ * trong {@link IdAllocatorConfig}.
+ */
+public final class EntityIds {
+    public static final String CAR = "cars";
+    public static final String CAR_DETAIL = "car_details";
+
+    private static final Map<String, IdAllocator> allocators = new ConcurrentHashMap<>();
+
+    private EntityIds() {
+    }
+
+    public static void register(String sequence, IdAllocator allocator) {
+        allocators.put(sequence, allocator);
+    }
+
+    public static long next(String sequence) {
+        IdAllocator allocator = allocators.get(sequence);
+        if (allocator == null) {
+            throw new IllegalStateException("Chưa cấu hình bộ cấp id cho " + sequence);
+        }
+        return allocator.nextId();
+    }
+}
@@ -0,0 +1,6 @@
+package com.carshop.oto_shop.common.id;
+
+// Cấp id duy nhất cho một loại entity; cài đặt phải thread-safe
+public interface IdAllocator {
+    long nextId();
+}
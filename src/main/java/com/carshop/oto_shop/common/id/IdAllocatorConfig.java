@@ -0,0 +1,55 @@
+package com.carshop.oto_shop.common.id;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.util.Map;
+
+@Configuration
+public class IdAllocatorConfig {
+
+    /**
+     * Pool riêng, nhỏ cho việc xin khối id. Khối thường cạn giữa một lần persist, khi transaction ngoài
+     * vẫn giữ connection; nếu xin khối bằng pool chính thì nhiều insert song song (import) cùng chạm ranh
+     * giới khối có thể chiếm hết pool rồi chờ nhau. defaultCandidate = false để DataSource chính của
+     * Spring Boot (và JPA) không bị thay thế.
+     */
+    @Bean(defaultCandidate = false)
+    @Qualifier("idBlocks")
+    public HikariDataSource idBlockDataSource(DataSourceProperties properties,
+                                              @Value("${id.datasource.pool-size}") int poolSize) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("id-blocks");
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(0);
+        return dataSource;
+    }
+
+    @Bean
+    public IdBlockSource idBlockSource(@Qualifier("idBlocks") HikariDataSource idBlockDataSource) {
+        return new JdbcIdBlockSource(new JdbcTemplate(idBlockDataSource),
+                new DataSourceTransactionManager(idBlockDataSource), Map.of(
+                EntityIds.CAR, "SELECT MAX(car_id) FROM cars",
+                EntityIds.CAR_DETAIL, "SELECT MAX(car_detail_id) FROM car_details"));
+    }
+
+    @Bean
+    public IdAllocator carIdAllocator(IdBlockSource idBlockSource, @Value("${id.block-size}") int blockSize) {
+        IdAllocator allocator = new BlockIdAllocator(EntityIds.CAR, blockSize, idBlockSource);
+        EntityIds.register(EntityIds.CAR, allocator);
+        return allocator;
+    }
+
+    @Bean
+    public IdAllocator carDetailIdAllocator(IdBlockSource idBlockSource, @Value("${id.block-size}") int blockSize) {
+        IdAllocator allocator = new BlockIdAllocator(EntityIds.CAR_DETAIL, blockSize, idBlockSource);
+        EntityIds.register(EntityIds.CAR_DETAIL, allocator);
+        return allocator;
+    }
+}
@@ -0,0 +1,6 @@
+package com.carshop.oto_shop.common.id;
+
+// Nơi giữ bộ đếm bền vững cho từng sequence; mỗi lần gọi trả về đầu một khối [start, start + size) chưa cấp cho ai
+public interface IdBlockSource {
+    long reserve(String sequence, int size);
+}
@@ -0,0 +1,65 @@
+package com.carshop.oto_shop.common.id;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bộ đếm khối id trong bảng id_blocks (xem entity IdBlock). Mỗi lần xin khối chạy trong transaction
+ * riêng (REQUIRES_NEW), khoá dòng của sequence bằng SELECT ... FOR UPDATE rồi cộng next_value, nên
+ * nhiều instance ứng dụng dùng chung DB cũng không nhận trùng khối. JdbcTemplate và transaction manager
+ * nên dùng DataSource riêng (xem {@link IdAllocatorConfig}) vì nơi gọi thường đang giữ connection của pool chính.
+ *
+ * Lần đầu một sequence được dùng, next_value khởi tạo bằng max(id) hiện có + 1 để không đụng các id
+ * ngẫu nhiên cũ.
+ */
+public class JdbcIdBlockSource implements IdBlockSource {
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    // sequence -> câu lệnh lấy id lớn nhất đang có trong bảng tương ứng
+    private final Map<String, String> maxIdQueries;
+
+    public JdbcIdBlockSource(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             Map<String, String> maxIdQueries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxIdQueries = Map.copyOf(maxIdQueries);
+    }
+
+    @Override
+    public long reserve(String sequence, int size) {
+        Long start = transactionTemplate.execute(status -> {
+            List<Long> current = jdbcTemplate.queryForList(
+                    "SELECT next_value FROM id_blocks WHERE name = ? FOR UPDATE", Long.class, sequence);
+            if (current.isEmpty()) {
+                seed(sequence);
+                current = jdbcTemplate.queryForList(
+                        "SELECT next_value FROM id_blocks WHERE name = ? FOR UPDATE", Long.class, sequence);
+            }
+            long next = current.get(0);
+            jdbcTemplate.update("UPDATE id_blocks SET next_value = ? WHERE name = ?", next + size, sequence);
+            return next;
+        });
+        return start;
+    }
+
+    private void seed(String sequence) {
+        String maxIdQuery = maxIdQueries.get(sequence);
+        if (maxIdQuery == null) {
+            throw new IllegalStateException("Không có sequence id: " + sequence);
+        }
+        Long maxId = jdbcTemplate.queryForObject(maxIdQuery, Long.class);
+        try {
+            jdbcTemplate.update("INSERT INTO id_blocks (name, next_value) VALUES (?, ?)",
+                    sequence, (maxId != null ? maxId : 0) + 1);
+        } catch (DuplicateKeyException e) {
+            // instance khác vừa khởi tạo cùng sequence, dùng luôn dòng đó
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.carshop.oto_shop.common.id;
+
+import java.security.SecureRandom;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Sinh UUID phiên bản 7 (RFC 9562): 48 bit đầu là mili-giây Unix, tiếp theo là 12 bit đếm trong cùng
+ * mili-giây và 62 bit ngẫu nhiên. Lưu dạng BINARY(16) theo thứ tự byte chuẩn thì khoá mới luôn nằm cuối
+ * B-tree, InnoDB chèn nối đuôi thay vì tách trang ngẫu nhiên như UUIDv4.
+ *
+ * Trong một JVM các id sinh ra tăng dần nghiêm ngặt: bộ đếm bắt đầu từ một giá trị ngẫu nhiên ở nửa dưới
+ * mỗi mili-giây, nếu tràn thì mượn mili-giây kế tiếp. Chuỗi dạng 8-4-4-4-12 chỉ dùng ở biên API.
+ */
+public final class UuidV7 {
+    private static final Pattern CANONICAL =
+            Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    private static final int COUNTER_BITS = 12;
+    private static final int COUNTER_MAX = (1 << COUNTER_BITS) - 1;
+
+    private static final SecureRandom random = new SecureRandom();
+    private static long lastMillis;
+    private static int counter;
+
+    private UuidV7() {
+    }
+
+    public static UUID generate() {
+        long millis;
+        int sequence;
+        synchronized (UuidV7.class) {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                counter = random.nextInt(1 << (COUNTER_BITS - 1));
+            } else if (counter < COUNTER_MAX) {
+                counter++;
+            } else {
+                lastMillis++;
+                counter = 0;
+            }
+            millis = lastMillis;
+            sequence = counter;
+        }
+        long msb = (millis << 16) | 0x7000L | sequence;
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Mili-giây Unix lúc sinh id.
+     */
+    public static long timestamp(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+    /**
+     * Đọc id từ path/body. Chỉ nhận đúng dạng 8-4-4-4-12 (UUID.fromString chấp nhận cả "1-1-1-1-1");
+     * chuỗi sai định dạng trả về rỗng để nơi gọi xử lý như không tìm thấy.
+     */
+    public static Optional<UUID> tryParse(String value) {
+        if (value == null || !CANONICAL.matcher(value).matches()) {
+            return Optional.empty();
+        }
+        return Optional.of(UUID.fromString(value));
+    }
+}
@@ -0,0 +1,121 @@
+package com.carshop.oto_shop.common.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CSV theo RFC 4180: dòng đầu là tên cột, trường có thể đặt trong dấu nháy kép (chứa được dấu phẩy,
+ * xuống dòng, "" là một dấu nháy). Đọc từng ký tự qua BufferedReader nên bộ nhớ chỉ cỡ một bản ghi.
+ * Dòng trống bị bỏ qua; bản ghi có số trường khác số cột được trả về như bản ghi lỗi.
+ */
+public class CsvRowReader implements RowReader {
+    private final BufferedReader reader;
+    private final List<String> header;
+    private long line = 1;
+    private boolean eof;
+
+    public CsvRowReader(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        List<String> columns = readRecord();
+        if (columns == null) {
+            throw new IOException("File CSV trống, thiếu dòng tiêu đề");
+        }
+        if (!columns.isEmpty() && columns.get(0).startsWith("\uFEFF")) {
+            columns.set(0, columns.get(0).substring(1));
+        }
+        columns.replaceAll(String::trim);
+        this.header = List.copyOf(columns);
+    }
+
+    public List<String> getHeader() {
+        return header;
+    }
+
+    @Override
+    public Row next() throws IOException {
+        while (true) {
+            long start = line;
+            List<String> fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                continue;
+            }
+            if (fields.size() != header.size()) {
+                return Row.failed(start, "Có " + fields.size() + " trường, tiêu đề có " + header.size() + " cột");
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                values.put(header.get(i), fields.get(i));
+            }
+            return Row.of(start, values);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Một bản ghi (có thể trải nhiều dòng vật lý nếu trường trong nháy chứa xuống dòng), null khi hết file
+    private List<String> readRecord() throws IOException {
+        if (eof) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        while (true) {
+            int c = reader.read();
+            if (c == -1) {
+                eof = true;
+                if (!any) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.carshop.oto_shop.common.io;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * NDJSON: mỗi dòng một object JSON. Giá trị được đưa về chuỗi để dùng chung bước kiểm tra với CSV;
+ * object lồng nhau (ví dụ "detail": {...}) được trải phẳng vào cùng bản ghi. Số thực đọc bằng BigDecimal
+ * để không mất chính xác của giá. Dòng JSON hỏng chỉ làm hỏng bản ghi đó.
+ */
+public class NdjsonRowReader implements RowReader {
+    private final BufferedReader reader;
+    private final ObjectReader json;
+    private long line;
+
+    public NdjsonRowReader(Reader reader, ObjectMapper objectMapper) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.json = objectMapper.reader().with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    }
+
+    @Override
+    public Row next() throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            JsonNode node;
+            try {
+                node = json.readTree(text);
+            } catch (JsonProcessingException ex) {
+                return Row.failed(line, "JSON không hợp lệ: " + ex.getOriginalMessage());
+            }
+            if (node == null || !node.isObject()) {
+                return Row.failed(line, "Mỗi dòng phải là một object JSON");
+            }
+            Map<String, String> values = new HashMap<>();
+            flatten(node, values);
+            return Row.of(line, values);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static void flatten(JsonNode object, Map<String, String> values) {
+        object.fields().forEachRemaining(entry -> {
+            JsonNode value = entry.getValue();
+            if (value.isObject()) {
+                flatten(value, values);
+            } else if (!value.isNull()) {
+                values.put(entry.getKey(), value.isNumber() ? value.decimalValue().toPlainString() : value.asText());
+            }
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package com.carshop.oto_shop.common.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Đọc tuần tự từng bản ghi của một file nhập liệu (CSV, NDJSON...) mà không nạp cả file vào bộ nhớ.
+ * Bản ghi lỗi cú pháp vẫn được trả về (kèm thông báo lỗi) để nơi gọi ghi vào báo cáo và đọc tiếp.
+ */
+public interface RowReader extends Closeable {
+
+    /**
+     * Bản ghi kế tiếp, hoặc null khi đã hết dữ liệu.
+     */
+    Row next() throws IOException;
+
+    final class Row {
+        private final long line;
+        private final Map<String, String> values;
+        private final String error;
+
+        private Row(long line, Map<String, String> values, String error) {
+            this.line = line;
+            this.values = values;
+            this.error = error;
+        }
+
+        public static Row of(long line, Map<String, String> values) {
+            return new Row(line, values, null);
+        }
+
+        public static Row failed(long line, String error) {
+            return new Row(line, Map.of(), error);
+        }
+
+        // Số dòng (tính từ 1) nơi bản ghi bắt đầu trong file
+        public long getLine() {
+            return line;
+        }
+
+        public Map<String, String> getValues() {
+            return values;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.carshop.oto_shop.common.pagination;
+
+import com.carshop.oto_shop.common.exceptions.BadRequestException;
+import com.carshop.oto_shop.entities.Car;
+import com.carshop.oto_shop.enums.CarSort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor "mờ" (opaque) cho phân trang keyset danh sách xe.
+ * Mã hoá kiểu sắp xếp, giá trị khoá sắp xếp của phần tử cuối trang và car_id của nó
+ * thành chuỗi Base64 URL-safe, client chỉ việc gửi lại nguyên văn.
+ */
+public final class CarCursor {
+    private static final String SEPARATOR = "|";
+
+    private final CarSort sort;
+    private final String key;
+    private final long carId;
+
+    private CarCursor(CarSort sort, String key, long carId) {
+        this.sort = sort;
+        this.key = key;
+        this.carId = carId;
+    }
+
+    public static String encode(CarSort sort, Car car) {
+        String key = switch (sort) {
+            case ID, RELEVANCE -> "";
+            case PRICE_ASC, PRICE_DESC -> car.getPrice().toPlainString();
+            case YEAR_DESC -> String.valueOf(car.getManufactureYear());
+        };
+        return encode(sort, key, car.getCarId());
+    }
+
+    public static String encodeRelevance(float score, long carId) {
+        return encode(CarSort.RELEVANCE, Float.toString(score), carId);
+    }
+
+    private static String encode(CarSort sort, String key, long carId) {
+        String raw = sort.name() + SEPARATOR + key + SEPARATOR + carId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Giải mã cursor; cursor hỏng hoặc được tạo cho kiểu sắp xếp khác đều bị từ chối.
+     */
+    public static CarCursor decode(String cursor, CarSort sort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3 || !parts[0].equals(sort.name())) {
+                throw new BadRequestException("Cursor không hợp lệ!");
+            }
+            CarCursor decoded = new CarCursor(sort, parts[1], Long.parseLong(parts[2]));
+            decoded.sortKey(); // kiểm tra khoá parse được
+            return decoded;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Cursor không hợp lệ!");
+        }
+    }
+
+    public CarSort getSort() {
+        return sort;
+    }
+
+    public long getCarId() {
+        return carId;
+    }
+
+    /**
+     * Giá trị khoá sắp xếp đã parse theo đúng kiểu của cột (null khi sắp xếp theo car_id).
+     */
+    public Comparable<?> sortKey() {
+        return switch (sort) {
+            case ID -> null;
+            case PRICE_ASC, PRICE_DESC -> new BigDecimal(key);
+            case YEAR_DESC -> Integer.valueOf(key);
+            case RELEVANCE -> Float.valueOf(key);
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package com.carshop.oto_shop.common.response;
+
+/**
+ * Count-min sketch 4 hàng, bộ đếm tối đa 15, ước lượng số lần một khoá được hỏi gần đây (TinyLFU).
+ * Sau khoảng 10 lần số cột lượt tăng thì mọi bộ đếm bị chia đôi để tần suất cũ phai dần.
+ *
+ * Không tự đồng bộ, {@link ImageByteCache} gọi trong khoá của nó.
+ */
+final class FrequencySketch {
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x97CB3127, 0x2B1A6E0F, 0x5D3C9A8B, 0x7F4A7C15};
+
+    private final byte[] counters;
+    private final int width;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int expectedEntries) {
+        int atLeast = Math.max(64, expectedEntries);
+        this.width = Integer.highestOneBit(atLeast - 1) << 1;
+        this.counters = new byte[DEPTH * width];
+        this.sampleSize = 10 * width;
+    }
+
+    void increment(int hash) {
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * width + index(hash, row);
+            if (counters[index] < MAX_COUNT) {
+                counters[index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    int frequency(int hash) {
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, counters[row * width + index(hash, row)]);
+        }
+        return frequency;
+    }
+
+    private int index(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * 0x9E3779B9;
+        h ^= h >>> 16;
+        return h & (width - 1);
+    }
+
+    private void reset() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = (byte) (counters[i] >>> 1);
+        }
+        additions /= 2;
+    }
+}
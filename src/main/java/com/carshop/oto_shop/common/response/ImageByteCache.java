@@ -0,0 +1,267 @@
+package com.carshop.oto_shop.common.response;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache nội dung các ảnh được xem nhiều, nằm ngoài heap: một vùng direct {@link ByteBuffer} cấp một lần lúc khởi
+ * động ({@code image-cache.max-bytes}), chia thành trang 16 KB. Mỗi file chiếm một danh sách trang, nên thêm/bỏ
+ * file chỉ đổi danh sách trang trống, không cấp phát bộ nhớ mới và không tạo rác cho GC.
+ *
+ * Thứ tự bỏ là LRU, nhưng chỉ nạp (admission) file đã được hỏi ít nhất {@value #ADMIT_AFTER} lần theo
+ * {@link FrequencySketch}, và khi đầy chỉ đẩy file ít dùng nhất ra nếu file mới được hỏi nhiều hơn (TinyLFU).
+ * File lớn hơn {@code image-cache.max-entry-bytes} không được cache.
+ *
+ * Entry đang được ghi ra response bị ghim ({@link #acquire}/{@link #release}); entry bị bỏ trong lúc đó chỉ trả
+ * trang về khi lượt ghi cuối kết thúc. Entry gắn với kích thước và thời điểm sửa của file nên file đổi là tự
+ * trượt cache; ngoài ra UploadStorageService gọi {@link #invalidate} khi xoá file.
+ */
+@Component
+public class ImageByteCache {
+    static final int PAGE_SIZE = 16 * 1024;
+    private static final int ADMIT_AFTER = 2;
+    // Bộ đệm chép từ vùng ngoài heap ra response, một cái cho mỗi luồng request
+    private static final ThreadLocal<byte[]> COPY_BUFFER = ThreadLocal.withInitial(() -> new byte[PAGE_SIZE]);
+
+    private final ByteBuffer slab;
+    private final int pageCount;
+    private final long maxEntryBytes;
+    private final int[] freePages;
+    private int freeCount;
+    private long usedBytes;
+    // accessOrder = true: phần tử đầu là entry lâu nhất chưa được đọc
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final FrequencySketch sketch;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public ImageByteCache(@Value("${image-cache.max-bytes}") long maxBytes,
+                          @Value("${image-cache.max-entry-bytes}") long maxEntryBytes) {
+        if (maxBytes < 0 || maxBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("image-cache.max-bytes phải trong khoảng 0.." + Integer.MAX_VALUE);
+        }
+        this.pageCount = (int) (maxBytes / PAGE_SIZE);
+        this.slab = ByteBuffer.allocateDirect(pageCount * PAGE_SIZE);
+        this.maxEntryBytes = Math.min(maxEntryBytes, (long) pageCount * PAGE_SIZE);
+        this.freePages = new int[pageCount];
+        for (int i = 0; i < pageCount; i++) {
+            freePages[i] = pageCount - 1 - i;
+        }
+        this.freeCount = pageCount;
+        this.sketch = new FrequencySketch(pageCount);
+    }
+
+    /**
+     * Entry của file nếu đã nạp đúng phiên bản (kích thước, thời điểm sửa), đã ghim; null nếu chưa có.
+     * Mỗi lần gọi được tính là một lượt hỏi file cho admission.
+     */
+    public Entry acquire(Path path, long size, long lastModified) {
+        Path key = key(path);
+        synchronized (this) {
+            sketch.increment(key.hashCode());
+            Entry entry = entries.get(key);
+            if (entry != null && entry.size == size && entry.lastModified == lastModified) {
+                entry.refs++;
+                hits.increment();
+                return entry;
+            }
+            if (entry != null) {
+                remove(entry);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Nạp file nếu qua được admission và còn (hoặc dọn được) chỗ; trả về entry đã ghim hoặc null nếu không nạp.
+     */
+    public Entry load(Path path, long size, long lastModified) throws IOException {
+        if (size <= 0 || size > maxEntryBytes) {
+            return null;
+        }
+        Path key = key(path);
+        int needed = (int) ((size + PAGE_SIZE - 1) / PAGE_SIZE);
+        int[] pages;
+        synchronized (this) {
+            int frequency = sketch.frequency(key.hashCode());
+            if (frequency < ADMIT_AFTER || entries.containsKey(key)) {
+                return null;
+            }
+            if (!makeRoom(needed, frequency)) {
+                rejections.increment();
+                return null;
+            }
+            pages = new int[needed];
+            for (int i = 0; i < needed; i++) {
+                pages[i] = freePages[--freeCount];
+            }
+        }
+
+        Entry entry = new Entry(key, size, lastModified, pages);
+        try {
+            read(path, entry);
+        } catch (IOException e) {
+            synchronized (this) {
+                free(pages);
+            }
+            throw e;
+        }
+        synchronized (this) {
+            if (entries.putIfAbsent(key, entry) != null) {
+                // Request khác vừa nạp cùng file
+                free(pages);
+                return null;
+            }
+            usedBytes += size;
+            entry.refs = 2;
+        }
+        return entry;
+    }
+
+    public synchronized void release(Entry entry) {
+        if (--entry.refs == 0) {
+            free(entry.pages);
+        }
+    }
+
+    public synchronized void invalidate(Path path) {
+        Entry entry = entries.get(key(path));
+        if (entry != null) {
+            remove(entry);
+        }
+    }
+
+    /**
+     * Ghi đoạn [start, start + length) của entry (đã ghim) ra stream.
+     */
+    public void writeTo(Entry entry, OutputStream out, long start, long length) throws IOException {
+        byte[] buffer = COPY_BUFFER.get();
+        long position = start;
+        long end = start + length;
+        while (position < end) {
+            int offset = (int) (position % PAGE_SIZE);
+            int chunk = (int) Math.min(PAGE_SIZE - offset, end - position);
+            slab.get(entry.pages[(int) (position / PAGE_SIZE)] * PAGE_SIZE + offset, buffer, 0, chunk);
+            out.write(buffer, 0, chunk);
+            position += chunk;
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getCapacityBytes() {
+        return (long) pageCount * PAGE_SIZE;
+    }
+
+    // Bỏ entry LRU cho tới khi đủ trang trống, dừng nếu entry đó được hỏi nhiều không kém file mới
+    private boolean makeRoom(int needed, int candidateFrequency) {
+        if (needed > pageCount) {
+            return false;
+        }
+        Iterator<Entry> lru = entries.values().iterator();
+        while (freeCount < needed) {
+            if (!lru.hasNext()) {
+                // Phần còn thiếu đang bị ghim bởi các entry vừa bỏ
+                return false;
+            }
+            Entry victim = lru.next();
+            if (sketch.frequency(victim.path.hashCode()) >= candidateFrequency) {
+                return false;
+            }
+            lru.remove();
+            usedBytes -= victim.size;
+            evictions.increment();
+            if (--victim.refs == 0) {
+                free(victim.pages);
+            }
+        }
+        return true;
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry.path);
+        usedBytes -= entry.size;
+        if (--entry.refs == 0) {
+            free(entry.pages);
+        }
+    }
+
+    private void free(int[] pages) {
+        for (int page : pages) {
+            freePages[freeCount++] = page;
+        }
+    }
+
+    private void read(Path path, Entry entry) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long position = 0;
+            for (int page : entry.pages) {
+                int length = (int) Math.min(PAGE_SIZE, entry.size - position);
+                ByteBuffer target = slab.slice(page * PAGE_SIZE, length);
+                while (target.hasRemaining()) {
+                    if (channel.read(target, position + target.position()) < 0) {
+                        throw new EOFException("File ngắn hơn dự kiến: " + path);
+                    }
+                }
+                position += length;
+            }
+        }
+    }
+
+    private static Path key(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    public static final class Entry {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+        private final int[] pages;
+        // Một tham chiếu của cache khi entry còn trong map, cộng một cho mỗi lượt đang ghi; khoá bởi cache
+        private int refs = 1;
+
+        private Entry(Path path, long size, long lastModified, int[] pages) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.pages = pages;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.carshop.oto_shop.common.response;
+
+import com.carshop.oto_shop.common.exceptions.AppException;
+import com.carshop.oto_shop.common.exceptions.ErrorCode;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trả file ảnh đã upload cho các endpoint /image/{filename}, dùng chung cho xe, tin tức và avatar.
+ *
+ * Mỗi request chỉ đọc thuộc tính file (một lần stat); content type và ETag được cache theo đường dẫn và
+ * tính lại khi kích thước/thời điểm sửa đổi thay đổi. Có ETag, Last-Modified nên request điều kiện
+ * (If-None-Match, If-Modified-Since) được trả 304 không kèm body, và hỗ trợ một khoảng byte (Range, If-Range).
+ *
+ * Ảnh được xem nhiều lấy từ {@link ImageByteCache} (ngoài heap, không mở file). Ảnh còn lại đi bằng sendfile
+ * của Tomcat khi connector hỗ trợ (file được kernel chép thẳng ra socket), nếu không thì bằng
+ * {@link FileChannel#transferTo} ra output stream. Tên file upload là duy nhất nên có thể cache lâu với
+ * {@code immutable}.
+ */
+@Component
+public class ImageFileServer {
+    public static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    // Cho URL có thể trỏ tới file khác về sau (ví dụ ?size= khi biến thể chưa sinh xong)
+    public static final String SHORT_LIVED = "public, max-age=60";
+    private static final int MAX_CACHED_FILES = 10_000;
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final Map<Path, FileInfo> files = new ConcurrentHashMap<>();
+    private final ImageByteCache imageByteCache;
+
+    public ImageFileServer(ImageByteCache imageByteCache) {
+        this.imageByteCache = imageByteCache;
+    }
+
+    public void serve(Path path, String cacheControl, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        FileInfo file = info(path);
+        response.setHeader(HttpHeaders.ETAG, file.etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, file.lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (notModified(file, request)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = file.size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && rangeApplies(file, request)) {
+            long[] bounds = parseRange(range, file.size);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.size);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + file.size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(file.contentType);
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length <= 0) {
+            return;
+        }
+        ImageByteCache.Entry cached = imageByteCache.acquire(path, file.size, file.lastModified);
+        if (cached == null) {
+            cached = imageByteCache.load(path, file.size, file.lastModified);
+        }
+        if (cached != null) {
+            try {
+                imageByteCache.writeTo(cached, response.getOutputStream(), start, length);
+            } finally {
+                imageByteCache.release(cached);
+            }
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.absolutePath);
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private FileInfo info(Path path) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            files.remove(path);
+            throw new AppException(ErrorCode.FILE_NOT_FOUND);
+        }
+        if (!attributes.isRegularFile()) {
+            throw new AppException(ErrorCode.FILE_NOT_FOUND);
+        }
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        FileInfo cached = files.get(path);
+        if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+            return cached;
+        }
+        if (files.size() >= MAX_CACHED_FILES) {
+            files.clear();
+        }
+        FileInfo fresh = new FileInfo(path, size, lastModified);
+        files.put(path, fresh);
+        return fresh;
+    }
+
+    private static boolean notModified(FileInfo file, HttpServletRequest request) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            // Khi có If-None-Match thì bỏ qua If-Modified-Since (RFC 9110 13.1.3)
+            return matches(ifNoneMatch, file.etag);
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        // Header HTTP chỉ chính xác tới giây
+        return ifModifiedSince >= 0 && file.lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    // If-Range: chỉ trả một phần khi client vẫn giữ đúng phiên bản file, ngược lại trả cả file
+    private static boolean rangeApplies(FileInfo file, HttpServletRequest request) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.trim().equals(file.etag);
+        }
+        long date = dateHeader(request, HttpHeaders.IF_RANGE);
+        return date >= 0 && file.lastModified / 1000 == date / 1000;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static boolean matches(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Đọc header Range một khoảng: "bytes=a-b", "bytes=a-" hoặc "bytes=-n" (n byte cuối).
+     * Trả về [start, end] (bao gồm), mảng rỗng nếu header không dùng được (trả cả file như không có Range),
+     * hoặc null nếu khoảng nằm ngoài file (416).
+     */
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            // Nhiều khoảng (multipart/byteranges) không hỗ trợ, trả cả file là hợp lệ theo RFC
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    return null;
+                }
+                return new long[]{Math.max(0, size - suffix), size - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (start >= size || end < start) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private static final class FileInfo {
+        private final String absolutePath;
+        private final long size;
+        private final long lastModified;
+        private final String contentType;
+        private final String etag;
+
+        FileInfo(Path path, long size, long lastModified) {
+            this.absolutePath = path.toAbsolutePath().toString();
+            this.size = size;
+            this.lastModified = lastModified;
+            // Theo đuôi file thay cho Files.probeContentType (có thể đọc nội dung file tuỳ nền tảng)
+            this.contentType = MediaTypeFactory.getMediaType(path.getFileName().toString())
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+            this.etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.carshop.oto_shop.controllers;
+
+import com.carshop.oto_shop.common.response.ApiResponse;
+import com.carshop.oto_shop.dto.auth.TokenCacheStatsResponse;
+import com.carshop.oto_shop.security.jwt.VerifiedTokenCache;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/auth")
+public class AuthAdminController {
+
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    public AuthAdminController(VerifiedTokenCache verifiedTokenCache) {
+        this.verifiedTokenCache = verifiedTokenCache;
+    }
+
+    @Operation(summary = "Token cache stats", description = "API xem số liệu cache JWT đã kiểm chữ ký: hit/miss, số lần bỏ, dung lượng ước tính")
+    @GetMapping("/token-cache")
+    public ResponseEntity<ApiResponse<TokenCacheStatsResponse>> tokenCacheStats() {
+        TokenCacheStatsResponse stats = new TokenCacheStatsResponse(verifiedTokenCache.getHits(),
+                verifiedTokenCache.getMisses(), verifiedTokenCache.getEvictions(), verifiedTokenCache.getEntryCount(),
+                verifiedTokenCache.getUsedBytes(), verifiedTokenCache.getCapacityBytes());
+        return ResponseEntity.ok(ApiResponse.success("Lấy số liệu cache token thành công!", stats));
+    }
+}
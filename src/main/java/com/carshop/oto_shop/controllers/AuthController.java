@@ -4,9 +4,11 @@ import com.carshop.oto_shop.common.response.ApiResponse;
 import com.carshop.oto_shop.dto.auth.JwtResponse;
 import com.carshop.oto_shop.dto.auth.LoginRequest;
 import com.carshop.oto_shop.dto.auth.SignupRequest;
+import com.carshop.oto_shop.security.jwt.JwtUtils;
 import com.carshop.oto_shop.services.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
@@ -17,6 +19,9 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/auth")
 @Tag(name = "AuthController")
 public class AuthController {
+    private static final String REFRESH_COOKIE_PATH = "/api/auth";
+    private static final String LEGACY_REFRESH_COOKIE_PATH = "/api/auth/refresh";
+
     private final AuthService authService;
 
     public AuthController(AuthService authService) {
@@ -25,23 +30,17 @@ public class AuthController {
 
     @Operation(summary = "Login", description = "API login")
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<JwtResponse>> login(@RequestBody LoginRequest loginRequest) {
-        JwtResponse jwt = authService.login(loginRequest);
+    public ResponseEntity<ApiResponse<JwtResponse>> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        JwtResponse jwt = authService.login(loginRequest, request.getRemoteAddr());
 
         // ✅ Gửi refreshToken qua cookie HTTP-only
-        ResponseCookie refreshCookie = ResponseCookie.from("refreshToken", jwt.getRefreshToken())
-                .httpOnly(true)
-                .secure(false) // ⚠️ đổi thành true khi deploy HTTPS
-                .path("/api/auth/refresh")
-                .maxAge(7 * 24 * 60 * 60) // 7 ngày
-                .sameSite("Strict")
-                .build();
+        ResponseCookie refreshCookie = refreshCookie(jwt.getRefreshToken(), 7 * 24 * 60 * 60); // 7 ngày
 
         // Chỉ trả accessToken cho frontend
         JwtResponse responseBody = new JwtResponse(jwt.getToken(), null);
 
         return ResponseEntity.ok()
-                .header(HttpHeaders.SET_COOKIE, refreshCookie.toString())
+                .header(HttpHeaders.SET_COOKIE, refreshCookie.toString(), clearLegacyCookie().toString())
                 .body(ApiResponse.success("Đăng nhập thành công!", responseBody));
     }
 
@@ -50,40 +49,53 @@ public class AuthController {
     public ResponseEntity<ApiResponse<JwtResponse>> refresh(@CookieValue(value = "refreshToken", required = false) String refreshToken) {
         JwtResponse jwt = authService.refreshToken(refreshToken);
 
-        // Gia hạn cookie nếu muốn
-        ResponseCookie refreshCookie = ResponseCookie.from("refreshToken", refreshToken)
-                .httpOnly(true)
-                .secure(false)
-                .path("/api/auth/refresh")
-                .maxAge(7 * 24 * 60 * 60)
-                .sameSite("Strict")
-                .build();
+        // Refresh token cũ đã bị dùng, thay cookie bằng token mới
+        ResponseCookie refreshCookie = refreshCookie(jwt.getRefreshToken(), 7 * 24 * 60 * 60);
 
         return ResponseEntity.ok()
-                .header(HttpHeaders.SET_COOKIE, refreshCookie.toString())
-                .body(ApiResponse.success("Làm mới token thành công!", jwt));
+                .header(HttpHeaders.SET_COOKIE, refreshCookie.toString(), clearLegacyCookie().toString())
+                .body(ApiResponse.success("Làm mới token thành công!", new JwtResponse(jwt.getToken(), null)));
     }
 
     @Operation(summary = "Signup", description = "API register new account and user profile.")
     @PostMapping("/register")
-    public ResponseEntity<ApiResponse<Void>> register(@Valid @RequestBody SignupRequest signupRequest) {
-        authService.register(signupRequest);
+    public ResponseEntity<ApiResponse<Void>> register(@Valid @RequestBody SignupRequest signupRequest, HttpServletRequest request) {
+        authService.register(signupRequest, request.getRemoteAddr());
         return ResponseEntity.ok(ApiResponse.success("Đăng ký thành công"));
     }
 
-    // ✅ Logout: Xoá cookie refreshToken
+    // ✅ Logout: Thu hồi phiên (refresh + access token) và xoá cookie refreshToken
     @PostMapping("/logout")
-    public ResponseEntity<ApiResponse<Void>> logout() {
-        ResponseCookie clearCookie = ResponseCookie.from("refreshToken", "")
+    public ResponseEntity<ApiResponse<Void>> logout(@CookieValue(value = "refreshToken", required = false) String refreshToken,
+                                                    HttpServletRequest request) {
+        authService.logout(refreshToken, JwtUtils.getTokenFromHeader(request));
+
+        ResponseCookie clearCookie = refreshCookie("", 0);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, clearCookie.toString(), clearLegacyCookie().toString())
+                .body(ApiResponse.success("Đăng xuất thành công"));
+    }
+
+    // Path /api/auth để trình duyệt gửi cookie cho cả /refresh và /logout
+    private static ResponseCookie refreshCookie(String value, long maxAgeSeconds) {
+        return ResponseCookie.from("refreshToken", value)
+                .httpOnly(true)
+                .secure(false) // ⚠️ đổi thành true khi deploy HTTPS
+                .path(REFRESH_COOKIE_PATH)
+                .maxAge(maxAgeSeconds)
+                .sameSite("Strict")
+                .build();
+    }
+
+    // Xoá cookie cấp trước đây với path /api/auth/refresh: path cụ thể hơn được gửi trước nên sẽ che cookie mới
+    private static ResponseCookie clearLegacyCookie() {
+        return ResponseCookie.from("refreshToken", "")
                 .httpOnly(true)
                 .secure(false)
-                .path("/api/auth/refresh")
+                .path(LEGACY_REFRESH_COOKIE_PATH)
                 .maxAge(0)
                 .sameSite("Strict")
                 .build();
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.SET_COOKIE, clearCookie.toString())
-                .body(ApiResponse.success("Đăng xuất thành công"));
     }
 }
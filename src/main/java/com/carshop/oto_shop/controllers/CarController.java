@@ -3,25 +3,35 @@ package com.carshop.oto_shop.controllers;
 import com.carshop.oto_shop.common.exceptions.AppException;
 import com.carshop.oto_shop.common.exceptions.ErrorCode;
 import com.carshop.oto_shop.common.response.ApiResponse;
+import com.carshop.oto_shop.common.response.CursorPage;
+import com.carshop.oto_shop.common.response.ImageFileServer;
+import com.carshop.oto_shop.common.response.JsonFragment;
+import com.carshop.oto_shop.dto.car.CarBulkUpdateRequest;
+import com.carshop.oto_shop.dto.car.CarBulkUpdateResponse;
+import com.carshop.oto_shop.dto.car.CarImportResponse;
 import com.carshop.oto_shop.dto.car.CarRequest;
 import com.carshop.oto_shop.dto.car.CarResponse;
 import com.carshop.oto_shop.enums.Brand;
+import com.carshop.oto_shop.enums.CarSort;
 import com.carshop.oto_shop.enums.Category;
+import com.carshop.oto_shop.services.CarBulkUpdateService;
+import com.carshop.oto_shop.services.CarImportService;
+import com.carshop.oto_shop.services.CarPageService;
+import com.carshop.oto_shop.services.ImageVariantService;
 import com.carshop.oto_shop.services.CarService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Files;
+import java.io.InputStream;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.List;
 
 @RestController
@@ -29,9 +39,21 @@ import java.util.List;
 @Tag(name = "CarController")
 public class CarController {
     private final CarService carService;
+    private final CarImportService carImportService;
+    private final CarBulkUpdateService carBulkUpdateService;
+    private final CarPageService carPageService;
+    private final ImageVariantService imageVariantService;
+    private final ImageFileServer imageFileServer;
 
-    public CarController(CarService carService) {
+    public CarController(CarService carService, CarImportService carImportService,
+                         CarBulkUpdateService carBulkUpdateService, CarPageService carPageService,
+                         ImageVariantService imageVariantService, ImageFileServer imageFileServer) {
         this.carService = carService;
+        this.carImportService = carImportService;
+        this.carBulkUpdateService = carBulkUpdateService;
+        this.carPageService = carPageService;
+        this.imageVariantService = imageVariantService;
+        this.imageFileServer = imageFileServer;
     }
 
     @Operation(summary = "Add car", description = "API create new car with Brand and Category enums")
@@ -41,6 +63,23 @@ public class CarController {
         return ResponseEntity.ok(ApiResponse.success("Thêm sản phẩm thành công!"));
     }
 
+    // Body là file CSV/NDJSON gửi thẳng (không multipart) để đọc dạng stream, không bị giới hạn 10MB của multipart
+    @Operation(summary = "Import cars", description = "API import many cars (kèm thông số CarDetail tuỳ chọn) từ CSV hoặc NDJSON, trả về báo cáo lỗi theo dòng")
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ApiResponse<CarImportResponse>> importCars(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) {
+        CarImportResponse report = carImportService.importCars(body, contentType);
+        return ResponseEntity.ok(ApiResponse.success("Nhập sản phẩm hoàn tất!", report));
+    }
+
+    @Operation(summary = "Bulk update cars", description = "API đặt giá, tăng/giảm giá theo % hoặc đổi trạng thái cho mọi xe khớp bộ lọc (carIds, brand, category)")
+    @PatchMapping("/bulk")
+    public ResponseEntity<ApiResponse<CarBulkUpdateResponse>> bulkUpdateCars(@Valid @RequestBody CarBulkUpdateRequest request) {
+        CarBulkUpdateResponse result = carBulkUpdateService.bulkUpdate(request);
+        return ResponseEntity.ok(ApiResponse.success("Cập nhật hàng loạt thành công!", result));
+    }
+
     @Operation(summary = "Update car", description = "API update car with Brand and Category enums")
     @PutMapping(value = "/{carId}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<ApiResponse<Void>> updateCar(@PathVariable("carId") Long carId, @Valid @ModelAttribute CarRequest carRequest ) {
@@ -62,50 +101,67 @@ public class CarController {
         return ResponseEntity.ok(ApiResponse.success("Lấy ra sản phẩm thành công!", dataCars));
     }
 
-    @Operation(summary = "Get image", description = "API get image")
+    @Operation(summary = "Get car page", description = "API lấy xe, thông số, khuyến mãi đang áp dụng và giá sau khuyến mãi trong một lần gọi")
+    @GetMapping("/{carId}/page")
+    public ResponseEntity<ApiResponse<JsonFragment>> getCarPage(@PathVariable("carId") Long carId) {
+        JsonFragment page = carPageService.getCarPage(carId);
+        return ResponseEntity.ok(ApiResponse.success("Lấy ra trang sản phẩm thành công!", page));
+    }
+
+    @Operation(summary = "Get similar cars", description = "API lấy k xe có thông số gần nhất (mặc định 6, tối đa 20)")
+    @GetMapping("/{carId}/similar")
+    public ResponseEntity<ApiResponse<List<JsonFragment>>> getSimilarCars(
+            @PathVariable("carId") Long carId,
+            @RequestParam(required = false) Integer k) {
+        List<JsonFragment> dataCars = carService.getSimilarCars(carId, k);
+        return ResponseEntity.ok(ApiResponse.success("Lấy danh sách xe tương tự thành công!", dataCars));
+    }
+
+    @Operation(summary = "Get image", description = "API get image, size=thumbnail|card|full để lấy ảnh đã thu nhỏ")
     @GetMapping("/image/{filename:.+}")
-    public ResponseEntity<Resource> getImage(@PathVariable String filename) {
+    public void getImage(@PathVariable String filename,
+                         @RequestParam(required = false) String size,
+                         HttpServletRequest request,
+                         HttpServletResponse response) {
         try {
-            Path filePath = Paths.get(CarService.UPLOAD_DIR).resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists() && resource.isReadable()) {
-                // Xác định Content-Type của file
-                String contentType = Files.probeContentType(filePath);
-                if (contentType == null) {
-                    contentType = "application/octet-stream";
-                }
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .body(resource);
-            } else {
-                throw new AppException(ErrorCode.FILE_NOT_FOUND);
-            }
-        } catch (MalformedURLException e) {
-            throw new AppException(ErrorCode.FILE_NOT_FOUND);
+            Path filePath = imageVariantService.resolve(CarService.UPLOAD_DIR, filename, size);
+            String cacheControl = imageVariantService.isFinal(filename, size, filePath)
+                    ? ImageFileServer.IMMUTABLE : ImageFileServer.SHORT_LIVED;
+            imageFileServer.serve(filePath, cacheControl, request, response);
         } catch (IOException e) {
             throw new AppException(ErrorCode.FILE_UPLOAD_ERROR);
         }
     }
 
-    @Operation(summary = "Get cars by brand", description = "API get all cars by Brand enum (TOYOTA, HYUNDAI, MERCEDES, VINFAST)")
+    @Operation(summary = "Get cars by brand", description = "API get cars by Brand enum (TOYOTA, HYUNDAI, MERCEDES, VINFAST), phân trang theo cursor")
     @GetMapping("/brand/{brand}")
-    public ResponseEntity<ApiResponse<List<CarResponse>>> getCarsByBrand(@PathVariable("brand") Brand brand) {
-        List<CarResponse> dataCars = carService.getCarsByBrand(brand);
+    public ResponseEntity<ApiResponse<CursorPage<JsonFragment>>> getCarsByBrand(
+            @PathVariable("brand") Brand brand,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) CarSort sort) {
+        CursorPage<JsonFragment> dataCars = carService.getCarsByBrand(brand, cursor, size, sort);
         return ResponseEntity.ok(ApiResponse.success("Lấy danh sách xe theo brand thành công!", dataCars));
     }
 
-    @Operation(summary = "Get cars by category", description = "API get all cars by Category enum (SUV, SEDAN, HATCHBACK)")
+    @Operation(summary = "Get cars by category", description = "API get cars by Category enum (SUV, SEDAN, HATCHBACK), phân trang theo cursor")
     @GetMapping("/category/{category}")
-    public ResponseEntity<ApiResponse<List<CarResponse>>> getCarsByCategory(@PathVariable("category") Category category) {
-        List<CarResponse> dataCars = carService.getCarsByCategory(category);
+    public ResponseEntity<ApiResponse<CursorPage<JsonFragment>>> getCarsByCategory(
+            @PathVariable("category") Category category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) CarSort sort) {
+        CursorPage<JsonFragment> dataCars = carService.getCarsByCategory(category, cursor, size, sort);
         return ResponseEntity.ok(ApiResponse.success("Lấy danh sách xe theo category thành công!", dataCars));
     }
 
-    @Operation(summary = "Get all car", description = "API get all car")
+    @Operation(summary = "Get all car", description = "API get all car, phân trang theo cursor (gửi lại nextCursor để lấy trang tiếp theo)")
     @GetMapping
-    public ResponseEntity<ApiResponse<List<CarResponse>>> getAllCars() {
-        List<CarResponse> dataCars = carService.getAllCars();
+    public ResponseEntity<ApiResponse<CursorPage<JsonFragment>>> getAllCars(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) CarSort sort) {
+        CursorPage<JsonFragment> dataCars = carService.getAllCars(cursor, size, sort);
         return ResponseEntity.ok(ApiResponse.success("Lấy danh sách sản phẩm thành công!", dataCars));
     }
 
@@ -1,5 +1,6 @@
 package com.carshop.oto_shop.controllers;
 
+import com.carshop.oto_shop.enums.CarSort;
 import com.carshop.oto_shop.services.CarService;
 import com.carshop.oto_shop.services.NewsService;
 import org.springframework.http.ResponseEntity;
@@ -27,7 +28,7 @@ public class HomeController {
         Map<String, Object> sections = new HashMap<>();
         // These service methods would need to be implemented with business logic
         // For now, they might return all cars/news or a subset.
-        sections.put("newArrivals", carService.getAllCars()); // Placeholder logic
+        sections.put("newArrivals", carService.getAllCars(null, null, CarSort.ID)); // Placeholder logic
         sections.put("latestNews", newsService.getAllNews());   // Placeholder logic
         // Other sections like featured brands, special offers can be added here.
         return ResponseEntity.ok(sections);
@@ -0,0 +1,57 @@
+package com.carshop.oto_shop.controllers;
+
+import com.carshop.oto_shop.common.response.ApiResponse;
+import com.carshop.oto_shop.common.response.ImageByteCache;
+import com.carshop.oto_shop.dto.image.ImageCacheStatsResponse;
+import com.carshop.oto_shop.dto.image.ImageReprocessResponse;
+import com.carshop.oto_shop.services.CarService;
+import com.carshop.oto_shop.services.ImageVariantService;
+import com.carshop.oto_shop.services.NewsService;
+import com.carshop.oto_shop.services.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/images")
+public class ImageAdminController {
+
+    private final ImageVariantService imageVariantService;
+    private final ImageByteCache imageByteCache;
+
+    public ImageAdminController(ImageVariantService imageVariantService, ImageByteCache imageByteCache) {
+        this.imageVariantService = imageVariantService;
+        this.imageByteCache = imageByteCache;
+    }
+
+    @Operation(summary = "Reprocess images", description = "API bắt đầu sinh lại ảnh thumbnail/card/full cho mọi ảnh xe, tin tức và avatar đã upload, chạy nền")
+    @PostMapping("/reprocess")
+    public ResponseEntity<ApiResponse<ImageReprocessResponse>> reprocess() {
+        ImageReprocessResponse status = imageVariantService.startReprocess(
+                List.of(CarService.UPLOAD_DIR, NewsService.UPLOAD_DIR, UserService.UPLOAD_DIR));
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Đã bắt đầu sinh lại ảnh!", status));
+    }
+
+    @Operation(summary = "Reprocess progress", description = "API xem tiến độ của lần sinh lại ảnh gần nhất")
+    @GetMapping("/reprocess")
+    public ResponseEntity<ApiResponse<ImageReprocessResponse>> reprocessStatus() {
+        ImageReprocessResponse status = imageVariantService.reprocessStatus();
+        return ResponseEntity.ok(ApiResponse.success("Lấy tiến độ sinh lại ảnh thành công!", status));
+    }
+
+    @Operation(summary = "Image cache stats", description = "API xem số liệu cache ảnh trong bộ nhớ: hit/miss, số lần bỏ, dung lượng đang dùng")
+    @GetMapping("/cache")
+    public ResponseEntity<ApiResponse<ImageCacheStatsResponse>> cacheStats() {
+        ImageCacheStatsResponse stats = new ImageCacheStatsResponse(imageByteCache.getHits(), imageByteCache.getMisses(),
+                imageByteCache.getEvictions(), imageByteCache.getRejections(), imageByteCache.getEntryCount(),
+                imageByteCache.getUsedBytes(), imageByteCache.getCapacityBytes());
+        return ResponseEntity.ok(ApiResponse.success("Lấy số liệu cache ảnh thành công!", stats));
+    }
+}
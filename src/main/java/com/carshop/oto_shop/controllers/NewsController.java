@@ -3,24 +3,22 @@ package com.carshop.oto_shop.controllers;
 import com.carshop.oto_shop.common.exceptions.AppException;
 import com.carshop.oto_shop.common.exceptions.ErrorCode;
 import com.carshop.oto_shop.common.response.ApiResponse;
+import com.carshop.oto_shop.common.response.ImageFileServer;
 import com.carshop.oto_shop.dto.news.NewsRequestDto;
 import com.carshop.oto_shop.dto.news.NewsResponseDto;
+import com.carshop.oto_shop.services.ImageVariantService;
 import com.carshop.oto_shop.services.NewsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.List;
 
 @RestController
@@ -29,8 +27,12 @@ import java.util.List;
 public class NewsController {
 
     private final NewsService newsService;
-    public NewsController(NewsService newsService) {
+    private final ImageVariantService imageVariantService;
+    private final ImageFileServer imageFileServer;
+    public NewsController(NewsService newsService, ImageVariantService imageVariantService, ImageFileServer imageFileServer) {
         this.newsService = newsService;
+        this.imageVariantService = imageVariantService;
+        this.imageFileServer = imageFileServer;
     }
 
     // CREATE
@@ -72,36 +74,18 @@ public class NewsController {
         return ResponseEntity.ok(ApiResponse.success("Lấy bài viết thành công!", dto));
     }
 
-    @Operation(summary = "Get image", description = "API lấy hình ảnh của bài viết tin tức")
+    @Operation(summary = "Get image", description = "API lấy hình ảnh của bài viết tin tức, size=thumbnail|card|full để lấy ảnh đã thu nhỏ")
     @GetMapping("/image/{filename:.+}")
-    public ResponseEntity<Resource> getImage(@PathVariable String filename) {
+    public void getImage(@PathVariable String filename,
+                         @RequestParam(required = false) String size,
+                         HttpServletRequest request,
+                         HttpServletResponse response) {
         try {
-            // Thư mục chứa ảnh tin tức
-            Path filePath = Paths.get(NewsService.UPLOAD_DIR).resolve(filename).normalize();
-
-            // Kiểm tra file tồn tại
-            Resource resource = new UrlResource(filePath.toUri());
-            if (!resource.exists() || !resource.isReadable()) {
-                throw new AppException(ErrorCode.FILE_NOT_FOUND);
-            }
-
-            // Xác định loại MIME của file
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) {
-                contentType = "application/octet-stream";
-            }
-
-            // Trả file về cho client
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    // Bỏ cache để tránh lỗi 304 Not Modified
-                    .header(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate")
-                    .header(HttpHeaders.PRAGMA, "no-cache")
-                    .header(HttpHeaders.EXPIRES, "0")
-                    .body(resource);
-
-        } catch (MalformedURLException e) {
-            throw new AppException(ErrorCode.FILE_NOT_FOUND);
+            // Thư mục chứa ảnh tin tức (hoặc biến thể theo cỡ nếu đã sinh)
+            Path filePath = imageVariantService.resolve(NewsService.UPLOAD_DIR, filename, size);
+            String cacheControl = imageVariantService.isFinal(filename, size, filePath)
+                    ? ImageFileServer.IMMUTABLE : ImageFileServer.SHORT_LIVED;
+            imageFileServer.serve(filePath, cacheControl, request, response);
         } catch (IOException e) {
             throw new AppException(ErrorCode.FILE_UPLOAD_ERROR);
         }
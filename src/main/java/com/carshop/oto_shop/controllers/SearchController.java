@@ -1,6 +1,11 @@
 package com.carshop.oto_shop.controllers;
 
-import com.carshop.oto_shop.dto.car.CarResponse;
+import com.carshop.oto_shop.common.response.CursorPage;
+import com.carshop.oto_shop.common.response.JsonFragment;
+import com.carshop.oto_shop.dto.car.CarFacetResponse;
+import com.carshop.oto_shop.dto.car.CarSpecFilterRequest;
+import com.carshop.oto_shop.dto.car.CarSuggestionResponse;
+import com.carshop.oto_shop.enums.CarSort;
 import com.carshop.oto_shop.services.CarService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,23 +26,54 @@ public class SearchController {
     }
 
     @GetMapping("/cars")
-    public ResponseEntity<List<CarResponse>> searchCars(
+    public ResponseEntity<CursorPage<JsonFragment>> searchCars(
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) String brand,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String color,
+            @RequestParam(required = false) String status,
             @RequestParam(required = false) Double priceMin,
             @RequestParam(required = false) Double priceMax,
             @RequestParam(required = false) Integer yearFrom,
-            @RequestParam(required = false) Integer yearTo
+            @RequestParam(required = false) Integer yearTo,
+            CarSpecFilterRequest specs,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) CarSort sort
     ) {
         // [SỬA LỖI]
         // Thay vì gọi getAllCars(),
         // hãy gọi phương thức searchCars mới và truyền tất cả tham số vào.
-        List<CarResponse> cars = carService.searchCars(
-                keyword, brand, category, color, priceMin, priceMax, yearFrom, yearTo
+        CursorPage<JsonFragment> cars = carService.searchCars(
+                keyword, brand, category, color, status, priceMin, priceMax, yearFrom, yearTo, specs,
+                cursor, size, sort
         );
 
         return ResponseEntity.ok(cars);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/cars/facets")
+    public ResponseEntity<CarFacetResponse> getSearchFacets(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Double priceMin,
+            @RequestParam(required = false) Double priceMax,
+            @RequestParam(required = false) Integer yearFrom,
+            @RequestParam(required = false) Integer yearTo,
+            CarSpecFilterRequest specs
+    ) {
+        return ResponseEntity.ok(carService.getSearchFacets(
+                keyword, brand, category, color, status, priceMin, priceMax, yearFrom, yearTo, specs));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<CarSuggestionResponse>> suggest(
+            @RequestParam(name = "q", required = false) String query,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(carService.suggest(query, limit));
+    }
+}
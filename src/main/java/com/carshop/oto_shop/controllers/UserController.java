@@ -3,27 +3,26 @@ package com.carshop.oto_shop.controllers;
 import com.carshop.oto_shop.common.exceptions.AppException;
 import com.carshop.oto_shop.common.exceptions.ErrorCode;
 import com.carshop.oto_shop.common.response.ApiResponse;
+import com.carshop.oto_shop.common.response.ImageFileServer;
 import com.carshop.oto_shop.dto.user.UserAccountRequest;
 import com.carshop.oto_shop.dto.user.UserResponse;
 import com.carshop.oto_shop.dto.user.UserRequest;
 import com.carshop.oto_shop.dto.user.UserUpdateRequest;
 import com.carshop.oto_shop.services.CarService;
+import com.carshop.oto_shop.services.ImageVariantService;
 import com.carshop.oto_shop.services.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.List;
 
 @RestController
@@ -31,8 +30,12 @@ import java.util.List;
 @Tag(name = "UserController")
 public class UserController {
     private final UserService userService;
-    public UserController(UserService userService) {
+    private final ImageVariantService imageVariantService;
+    private final ImageFileServer imageFileServer;
+    public UserController(UserService userService, ImageVariantService imageVariantService, ImageFileServer imageFileServer) {
         this.userService = userService;
+        this.imageVariantService = imageVariantService;
+        this.imageFileServer = imageFileServer;
     }
 
     @Operation(
@@ -84,27 +87,17 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success("Lấy thông tin người dùng thành công!",dataUsers));
     }
 
-    @Operation(summary = "Get image", description = "API get image")
+    @Operation(summary = "Get image", description = "API get image, size=thumbnail|card|full để lấy ảnh đã thu nhỏ")
     @GetMapping("/avatar/image/{filename:.+}")
-    public ResponseEntity<Resource> getImage(@PathVariable String filename) {
+    public void getImage(@PathVariable String filename,
+                         @RequestParam(required = false) String size,
+                         HttpServletRequest request,
+                         HttpServletResponse response) {
         try {
-            Path filePath = Paths.get(UserService.UPLOAD_DIR).resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists() && resource.isReadable()) {
-                // Xác định Content-Type của file
-                String contentType = Files.probeContentType(filePath);
-                if (contentType == null) {
-                    contentType = "application/octet-stream";
-                }
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .body(resource);
-            } else {
-                throw new AppException(ErrorCode.FILE_NOT_FOUND);
-            }
-        } catch (MalformedURLException e) {
-            throw new AppException(ErrorCode.FILE_NOT_FOUND);
+            Path filePath = imageVariantService.resolve(UserService.UPLOAD_DIR, filename, size);
+            String cacheControl = imageVariantService.isFinal(filename, size, filePath)
+                    ? ImageFileServer.IMMUTABLE : ImageFileServer.SHORT_LIVED;
+            imageFileServer.serve(filePath, cacheControl, request, response);
         } catch (IOException e) {
             throw new AppException(ErrorCode.FILE_UPLOAD_ERROR);
         }
@@ -0,0 +1,80 @@
+package com.carshop.oto_shop.dto.car;
+
+import com.carshop.oto_shop.enums.Brand;
+import com.carshop.oto_shop.enums.CarBulkOperation;
+import com.carshop.oto_shop.enums.CarStatus;
+import com.carshop.oto_shop.enums.Category;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Bộ lọc (carIds, brand, category kết hợp theo AND, cần ít nhất một điều kiện) + một thao tác áp lên mọi xe khớp
+public class CarBulkUpdateRequest {
+    private List<Long> carIds;
+    private Brand brand;
+    private Category category;
+
+    @NotNull(message = "Thao tác không được để trống")
+    private CarBulkOperation operation;
+
+    private BigDecimal price;
+    private BigDecimal percent;
+    private CarStatus status;
+
+    public List<Long> getCarIds() {
+        return carIds;
+    }
+
+    public void setCarIds(List<Long> carIds) {
+        this.carIds = carIds;
+    }
+
+    public Brand getBrand() {
+        return brand;
+    }
+
+    public void setBrand(Brand brand) {
+        this.brand = brand;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    public void setCategory(Category category) {
+        this.category = category;
+    }
+
+    public CarBulkOperation getOperation() {
+        return operation;
+    }
+
+    public void setOperation(CarBulkOperation operation) {
+        this.operation = operation;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public BigDecimal getPercent() {
+        return percent;
+    }
+
+    public void setPercent(BigDecimal percent) {
+        this.percent = percent;
+    }
+
+    public CarStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(CarStatus status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,30 @@
+package com.carshop.oto_shop.dto.car;
+
+// matchedCars: số xe khớp bộ lọc; updatedCars: số dòng thực sự thay đổi (SET_STATUS bỏ qua xe đã đúng trạng thái)
+public class CarBulkUpdateResponse {
+    private int matchedCars;
+    private int updatedCars;
+
+    public CarBulkUpdateResponse() {}
+
+    public CarBulkUpdateResponse(int matchedCars, int updatedCars) {
+        this.matchedCars = matchedCars;
+        this.updatedCars = updatedCars;
+    }
+
+    public int getMatchedCars() {
+        return matchedCars;
+    }
+
+    public void setMatchedCars(int matchedCars) {
+        this.matchedCars = matchedCars;
+    }
+
+    public int getUpdatedCars() {
+        return updatedCars;
+    }
+
+    public void setUpdatedCars(int updatedCars) {
+        this.updatedCars = updatedCars;
+    }
+}
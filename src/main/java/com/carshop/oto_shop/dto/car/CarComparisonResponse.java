@@ -0,0 +1,95 @@
+package com.carshop.oto_shop.dto.car;
+
+import java.util.List;
+
+// Ma trận so sánh: mỗi dòng là một thông số, mỗi cột ứng với một xe theo đúng thứ tự của cars
+public class CarComparisonResponse {
+    private List<CarResponse> cars;
+    private List<Row> rows;
+
+    public CarComparisonResponse() {}
+
+    public CarComparisonResponse(List<CarResponse> cars, List<Row> rows) {
+        this.cars = cars;
+        this.rows = rows;
+    }
+
+    public List<CarResponse> getCars() {
+        return cars;
+    }
+
+    public void setCars(List<CarResponse> cars) {
+        this.cars = cars;
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<Row> rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * values: giá trị gốc (null nếu xe chưa có thông số); scores: giá trị chuẩn hoá về [0, 1],
+     * 1 là tốt nhất trong dòng; bestCarIds: các xe đạt giá trị tốt nhất.
+     */
+    public static class Row {
+        private String attribute;
+        private String unit;
+        private boolean higherIsBetter;
+        private List<Number> values;
+        private List<Double> scores;
+        private List<Long> bestCarIds;
+
+        public Row() {}
+
+        public String getAttribute() {
+            return attribute;
+        }
+
+        public void setAttribute(String attribute) {
+            this.attribute = attribute;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        public void setUnit(String unit) {
+            this.unit = unit;
+        }
+
+        public boolean isHigherIsBetter() {
+            return higherIsBetter;
+        }
+
+        public void setHigherIsBetter(boolean higherIsBetter) {
+            this.higherIsBetter = higherIsBetter;
+        }
+
+        public List<Number> getValues() {
+            return values;
+        }
+
+        public void setValues(List<Number> values) {
+            this.values = values;
+        }
+
+        public List<Double> getScores() {
+            return scores;
+        }
+
+        public void setScores(List<Double> scores) {
+            this.scores = scores;
+        }
+
+        public List<Long> getBestCarIds() {
+            return bestCarIds;
+        }
+
+        public void setBestCarIds(List<Long> bestCarIds) {
+            this.bestCarIds = bestCarIds;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.carshop.oto_shop.dto.car;
+
+import com.carshop.oto_shop.enums.Brand;
+import com.carshop.oto_shop.enums.Category;
+import com.carshop.oto_shop.enums.Color;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+// Số lượng xe theo từng giá trị bộ lọc cho sidebar tìm kiếm, tính trên cùng điều kiện với /api/search/cars
+public class CarFacetResponse {
+    private int total;
+    private Map<Brand, Integer> brands;
+    private Map<Category, Integer> categories;
+    private Map<Color, Integer> colors;
+    private List<Bucket<BigDecimal>> prices;
+    private List<Bucket<Integer>> years;
+
+    public CarFacetResponse() {}
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public Map<Brand, Integer> getBrands() {
+        return brands;
+    }
+
+    public void setBrands(Map<Brand, Integer> brands) {
+        this.brands = brands;
+    }
+
+    public Map<Category, Integer> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Map<Category, Integer> categories) {
+        this.categories = categories;
+    }
+
+    public Map<Color, Integer> getColors() {
+        return colors;
+    }
+
+    public void setColors(Map<Color, Integer> colors) {
+        this.colors = colors;
+    }
+
+    public List<Bucket<BigDecimal>> getPrices() {
+        return prices;
+    }
+
+    public void setPrices(List<Bucket<BigDecimal>> prices) {
+        this.prices = prices;
+    }
+
+    public List<Bucket<Integer>> getYears() {
+        return years;
+    }
+
+    public void setYears(List<Bucket<Integer>> years) {
+        this.years = years;
+    }
+
+    // Khoảng [from, to); from/to null nghĩa là không giới hạn phía đó
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Bucket<T> {
+        private T from;
+        private T to;
+        private int count;
+
+        public Bucket() {}
+
+        public Bucket(T from, T to, int count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        public T getFrom() {
+            return from;
+        }
+
+        public void setFrom(T from) {
+            this.from = from;
+        }
+
+        public T getTo() {
+            return to;
+        }
+
+        public void setTo(T to) {
+            this.to = to;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.carshop.oto_shop.dto.car;
+
+import com.carshop.oto_shop.common.response.JsonFragment;
+import com.carshop.oto_shop.dto.cardetail.CarDetailResponse;
+import com.carshop.oto_shop.dto.promotion.PromotionResponseDto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Dữ liệu trang chi tiết xe trong một response: xe, thông số, khuyến mãi đang áp dụng và giá sau khuyến mãi
+public class CarPageResponse {
+    // CarResponse đã serialize, dùng chung cache JSON với các API danh sách
+    private JsonFragment car;
+    // null nếu xe chưa có thông số
+    private CarDetailResponse detail;
+    private List<PromotionResponseDto> promotions;
+    // Giá sau khuyến mãi có lợi nhất (không cộng dồn), bằng giá gốc nếu không có
+    private BigDecimal effectivePrice;
+    private Long appliedPromotionId;
+
+    public CarPageResponse() {}
+
+    public JsonFragment getCar() {
+        return car;
+    }
+
+    public void setCar(JsonFragment car) {
+        this.car = car;
+    }
+
+    public CarDetailResponse getDetail() {
+        return detail;
+    }
+
+    public void setDetail(CarDetailResponse detail) {
+        this.detail = detail;
+    }
+
+    public List<PromotionResponseDto> getPromotions() {
+        return promotions;
+    }
+
+    public void setPromotions(List<PromotionResponseDto> promotions) {
+        this.promotions = promotions;
+    }
+
+    public BigDecimal getEffectivePrice() {
+        return effectivePrice;
+    }
+
+    public void setEffectivePrice(BigDecimal effectivePrice) {
+        this.effectivePrice = effectivePrice;
+    }
+
+    public Long getAppliedPromotionId() {
+        return appliedPromotionId;
+    }
+
+    public void setAppliedPromotionId(Long appliedPromotionId) {
+        this.appliedPromotionId = appliedPromotionId;
+    }
+}
@@ -6,6 +6,7 @@ import com.carshop.oto_shop.enums.Category;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
+import java.util.Map;
 
 public class CarResponse {
     private Long carId;
@@ -28,6 +29,9 @@ public class CarResponse {
 
     private String imageUrl;
 
+    // URL theo cỡ ảnh: thumbnail, card, full
+    private Map<String, String> imageUrls;
+
     public CarResponse() {}
 
     public Long getCarId() {
@@ -109,4 +113,12 @@ public class CarResponse {
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
+
+    public Map<String, String> getImageUrls() {
+        return imageUrls;
+    }
+
+    public void setImageUrls(Map<String, String> imageUrls) {
+        this.imageUrls = imageUrls;
+    }
 }
@@ -0,0 +1,89 @@
+package com.carshop.oto_shop.dto.car;
+
+// Bộ lọc theo thông số CarDetail cho /api/search/cars, nhận từ query string.
+// fuelConsumption tính theo lít/100 km; fuelType có thể nhiều giá trị, phân cách bằng dấu phẩy (fuelType=xang,hybrid)
+public class CarSpecFilterRequest {
+    private Integer horsepowerMin;
+    private Integer horsepowerMax;
+    private Integer torqueMin;
+    private Integer torqueMax;
+    private Integer seatsMin;
+    private Integer seatsMax;
+    private Double fuelConsumptionMin;
+    private Double fuelConsumptionMax;
+    private String fuelType;
+
+    public CarSpecFilterRequest() {}
+
+    public Integer getHorsepowerMin() {
+        return horsepowerMin;
+    }
+
+    public void setHorsepowerMin(Integer horsepowerMin) {
+        this.horsepowerMin = horsepowerMin;
+    }
+
+    public Integer getHorsepowerMax() {
+        return horsepowerMax;
+    }
+
+    public void setHorsepowerMax(Integer horsepowerMax) {
+        this.horsepowerMax = horsepowerMax;
+    }
+
+    public Integer getTorqueMin() {
+        return torqueMin;
+    }
+
+    public void setTorqueMin(Integer torqueMin) {
+        this.torqueMin = torqueMin;
+    }
+
+    public Integer getTorqueMax() {
+        return torqueMax;
+    }
+
+    public void setTorqueMax(Integer torqueMax) {
+        this.torqueMax = torqueMax;
+    }
+
+    public Integer getSeatsMin() {
+        return seatsMin;
+    }
+
+    public void setSeatsMin(Integer seatsMin) {
+        this.seatsMin = seatsMin;
+    }
+
+    public Integer getSeatsMax() {
+        return seatsMax;
+    }
+
+    public void setSeatsMax(Integer seatsMax) {
+        this.seatsMax = seatsMax;
+    }
+
+    public Double getFuelConsumptionMin() {
+        return fuelConsumptionMin;
+    }
+
+    public void setFuelConsumptionMin(Double fuelConsumptionMin) {
+        this.fuelConsumptionMin = fuelConsumptionMin;
+    }
+
+    public Double getFuelConsumptionMax() {
+        return fuelConsumptionMax;
+    }
+
+    public void setFuelConsumptionMax(Double fuelConsumptionMax) {
+        this.fuelConsumptionMax = fuelConsumptionMax;
+    }
+
+    public String getFuelType() {
+        return fuelType;
+    }
+
+    public void setFuelType(String fuelType) {
+        this.fuelType = fuelType;
+    }
+}
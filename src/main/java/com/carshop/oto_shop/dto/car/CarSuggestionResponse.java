@@ -0,0 +1,39 @@
+package com.carshop.oto_shop.dto.car;
+
+public class CarSuggestionResponse {
+    private String text;
+    private String type;
+    private int weight;
+
+    public CarSuggestionResponse() {}
+
+    public CarSuggestionResponse(String text, String type, int weight) {
+        this.text = text;
+        this.type = type;
+        this.weight = weight;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+}
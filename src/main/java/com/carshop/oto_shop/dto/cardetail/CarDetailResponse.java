@@ -22,6 +22,12 @@ public class CarDetailResponse {
     private Double weight;
 
     private String dimensions;
+
+    private Integer lengthMm;
+
+    private Integer widthMm;
+
+    private Integer heightMm;
     public CarDetailResponse() {}
 
     public Long getCarDetailId() {
@@ -111,4 +117,28 @@ public class CarDetailResponse {
     public void setDimensions(String dimensions) {
         this.dimensions = dimensions;
     }
+
+    public Integer getLengthMm() {
+        return lengthMm;
+    }
+
+    public void setLengthMm(Integer lengthMm) {
+        this.lengthMm = lengthMm;
+    }
+
+    public Integer getWidthMm() {
+        return widthMm;
+    }
+
+    public void setWidthMm(Integer widthMm) {
+        this.widthMm = widthMm;
+    }
+
+    public Integer getHeightMm() {
+        return heightMm;
+    }
+
+    public void setHeightMm(Integer heightMm) {
+        this.heightMm = heightMm;
+    }
 }
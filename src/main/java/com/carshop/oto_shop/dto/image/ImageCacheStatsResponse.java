@@ -0,0 +1,86 @@
+package com.carshop.oto_shop.dto.image;
+
+// Số liệu cache byte ảnh ngoài heap: rejections là lần nạp bị từ chối vì file mới ít được hỏi hơn file phải bỏ
+public class ImageCacheStatsResponse {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+    private int entries;
+    private long usedBytes;
+    private long capacityBytes;
+
+    public ImageCacheStatsResponse() {}
+
+    public ImageCacheStatsResponse(long hits, long misses, long evictions, long rejections, int entries, long usedBytes, long capacityBytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.rejections = rejections;
+        this.entries = entries;
+        this.usedBytes = usedBytes;
+        this.capacityBytes = capacityBytes;
+    }
+
+    // Tỉ lệ trúng cache trên các lượt hỏi, 0 khi chưa có lượt nào
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    public long getRejections() {
+        return rejections;
+    }
+
+    public void setRejections(long rejections) {
+        this.rejections = rejections;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public void setEntries(int entries) {
+        this.entries = entries;
+    }
+
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public void setUsedBytes(long usedBytes) {
+        this.usedBytes = usedBytes;
+    }
+
+    public long getCapacityBytes() {
+        return capacityBytes;
+    }
+
+    public void setCapacityBytes(long capacityBytes) {
+        this.capacityBytes = capacityBytes;
+    }
+}
@@ -0,0 +1,72 @@
+package com.carshop.oto_shop.dto.image;
+
+// Tiến độ/kết quả sinh lại biến thể ảnh: skipped là file không phải ảnh đọc được (ví dụ PDF),
+// running là job còn đang chạy (total bằng 0 cho tới khi liệt kê xong thư mục)
+public class ImageReprocessResponse {
+    private int total;
+    private int processed;
+    private int skipped;
+    private int failed;
+    private long elapsedMillis;
+    private boolean running;
+
+    public ImageReprocessResponse() {}
+
+    public ImageReprocessResponse(int total, int processed, int skipped, int failed, long elapsedMillis,
+                                  boolean running) {
+        this.total = total;
+        this.processed = processed;
+        this.skipped = skipped;
+        this.failed = failed;
+        this.elapsedMillis = elapsedMillis;
+        this.running = running;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(int processed) {
+        this.processed = processed;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(int skipped) {
+        this.skipped = skipped;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+}
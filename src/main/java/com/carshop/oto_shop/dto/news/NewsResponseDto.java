@@ -4,6 +4,7 @@ import com.carshop.oto_shop.enums.NewsStatus;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 public class NewsResponseDto {
     private Long newsId;
@@ -12,6 +13,8 @@ public class NewsResponseDto {
     private String excerpt;
     private String content;
     private String coverImageUrl;
+    // URL theo cỡ ảnh: thumbnail, card, full
+    private Map<String, String> coverImageUrls;
     private NewsStatus status;
     private LocalDateTime publishedAt;
     private LocalDateTime createdAt;
@@ -33,6 +36,11 @@ public class NewsResponseDto {
         this.updatedAt = updatedAt;
     }
 
+    // Dùng cho truy vấn projection danh sách: không đọc cột content (MEDIUMTEXT)
+    public NewsResponseDto(Long newsId, String title, String slug, String excerpt, String coverImageUrl, NewsStatus status, LocalDateTime publishedAt, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(newsId, title, slug, excerpt, null, coverImageUrl, status, publishedAt, createdAt, updatedAt);
+    }
+
     public Long getNewsId() {
         return newsId;
     }
@@ -112,4 +120,12 @@ public class NewsResponseDto {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Map<String, String> getCoverImageUrls() {
+        return coverImageUrls;
+    }
+
+    public void setCoverImageUrls(Map<String, String> coverImageUrls) {
+        this.coverImageUrls = coverImageUrls;
+    }
 }
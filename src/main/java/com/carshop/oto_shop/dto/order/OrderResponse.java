@@ -7,6 +7,7 @@ import com.carshop.oto_shop.enums.OrderStatus;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 public class OrderResponse {
 
@@ -31,6 +32,34 @@ public class OrderResponse {
     private List<OrderDetailResponse> orderDetails;
     private PaymentResponse payment;
 
+    public OrderResponse() {
+    }
+
+    // Dùng cho truy vấn projection (select new ...); orderDetails và payment được gắn sau bằng truy vấn riêng
+    public OrderResponse(UUID orderId, String userId, String fullName, String email, String phone,
+                         String address, String city, String district, String ward, String note,
+                         BigDecimal subtotal, BigDecimal shippingFee, BigDecimal tax, BigDecimal totalAmount,
+                         LocalDateTime orderDate, OrderStatus status, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.orderId = orderId.toString();
+        this.userId = userId;
+        this.fullName = fullName;
+        this.email = email;
+        this.phone = phone;
+        this.address = address;
+        this.city = city;
+        this.district = district;
+        this.ward = ward;
+        this.note = note;
+        this.subtotal = subtotal;
+        this.shippingFee = shippingFee;
+        this.tax = tax;
+        this.totalAmount = totalAmount;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
     // Getters and Setters
     public String getOrderId() {
         return orderId;
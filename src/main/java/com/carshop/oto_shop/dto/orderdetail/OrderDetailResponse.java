@@ -11,6 +11,19 @@ public class OrderDetailResponse {
     private BigDecimal price;
     private BigDecimal subtotal;
 
+    public OrderDetailResponse() {
+    }
+
+    // Dùng cho truy vấn projection (select new ...), subtotal = price * quantity
+    public OrderDetailResponse(Long orderDetailId, Long carId, String carModel, Integer quantity, BigDecimal price) {
+        this.orderDetailId = orderDetailId;
+        this.carId = carId;
+        this.carModel = carModel;
+        this.quantity = quantity;
+        this.price = price;
+        this.subtotal = price.multiply(BigDecimal.valueOf(quantity));
+    }
+
     // Getters and Setters
     public Long getOrderDetailId() {
         return orderDetailId;
@@ -5,6 +5,7 @@ import com.carshop.oto_shop.enums.PaymentStatus;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 public class PaymentResponse {
 
@@ -18,6 +19,24 @@ public class PaymentResponse {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    public PaymentResponse() {
+    }
+
+    // Dùng cho truy vấn projection (select new ...), không nạp entity Payment/Order
+    public PaymentResponse(UUID paymentId, UUID orderId, LocalDateTime paymentDate, BigDecimal amount,
+                           PaymentMethod paymentMethod, PaymentStatus status, String transactionId,
+                           LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.paymentId = paymentId.toString();
+        this.orderId = orderId.toString();
+        this.paymentDate = paymentDate;
+        this.amount = amount;
+        this.paymentMethod = paymentMethod;
+        this.status = status;
+        this.transactionId = transactionId;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
     // Getters and Setters
     public String getPaymentId() {
         return paymentId;
@@ -5,6 +5,7 @@ import com.carshop.oto_shop.enums.Gender;
 import com.carshop.oto_shop.enums.Role;
 
 import java.time.LocalDate;
+import java.util.Map;
 
 public class UserResponse {
     // User information
@@ -15,6 +16,8 @@ public class UserResponse {
     private String phone;
     private String address;
     private String avatarUrl;
+    // URL theo cỡ ảnh: thumbnail, card, full
+    private Map<String, String> avatarUrls;
 
     // Account information (1:1 relationship)
     private String accountId;
@@ -119,4 +122,12 @@ public class UserResponse {
     public void setStatus(AccountStatus status) {
         this.status = status;
     }
+
+    public Map<String, String> getAvatarUrls() {
+        return avatarUrls;
+    }
+
+    public void setAvatarUrls(Map<String, String> avatarUrls) {
+        this.avatarUrls = avatarUrls;
+    }
 }
@@ -1,5 +1,6 @@
 package com.carshop.oto_shop.entities;
 
+import com.carshop.oto_shop.common.id.EntityIds;
 import com.carshop.oto_shop.enums.Brand;
 import com.carshop.oto_shop.enums.CarStatus;
 import com.carshop.oto_shop.enums.Category;
@@ -7,10 +8,22 @@ import com.carshop.oto_shop.enums.Color;
 import jakarta.persistence.*;
 
 import java.math.BigDecimal;
-import java.util.Random;
 
 @Entity
-@Table(name = "cars")
+@Table(
+        name = "cars",
+        // Index phục vụ phân trang keyset: (cột lọc/sắp xếp, car_id). PRICE_DESC/YEAR_DESC xếp khoá giảm dần
+        // nhưng car_id tăng dần, thứ tự mà index tăng dần (kể cả đọc ngược) không cho được, nên có thêm index
+        // với cột khoá DESC (MySQL 8 lưu đúng chiều) để tránh filesort. Năm chỉ có thứ tự giảm dần nên không có
+        // index (manufacture_year ASC, car_id); lọc theo khoảng năm vẫn dùng được index DESC
+        indexes = {
+                @Index(name = "idx_cars_brand_car_id", columnList = "brand, car_id"),
+                @Index(name = "idx_cars_category_car_id", columnList = "category, car_id"),
+                @Index(name = "idx_cars_price_car_id", columnList = "price, car_id"),
+                @Index(name = "idx_cars_price_desc_car_id", columnList = "price DESC, car_id"),
+                @Index(name = "idx_cars_year_desc_car_id", columnList = "manufacture_year DESC, car_id")
+        }
+)
 public class Car {
     @Id
     @Column(name = "car_id", nullable = false, updatable = false)
@@ -47,14 +60,18 @@ public class Car {
     @Column(name = "image_url", length = 255)
     private String imageUrl;
 
+    // Tăng mỗi lần cập nhật; dùng làm khoá cache JSON của xe. Default 0 cho các dòng có sẵn khi thêm cột
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @PrePersist
     public void generateAuto(){
         if(this.status == null){
             this.status = CarStatus.AVAILABLE;
         }
         if(this.carId == null){
-            Random random = new Random();
-            this.carId = 100000L + random.nextLong(900000);
+            this.carId = EntityIds.next(EntityIds.CAR);
         }
     }
 
@@ -142,4 +159,12 @@ public class Car {
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -1,15 +1,23 @@
 package com.carshop.oto_shop.entities;
 
+import com.carshop.oto_shop.catalog.CarSpecParser;
+import com.carshop.oto_shop.common.id.EntityIds;
 import jakarta.persistence.*;
 
-import java.util.Random;
-
 @Entity
 @Table(
         name = "car_details",
         uniqueConstraints = {
         @UniqueConstraint(name = "uk_car_details_car_id", columnNames = "car_id")
-}
+},
+        // Lọc thông số theo khoảng trên DB không phải quét cả bảng
+        indexes = {
+                @Index(name = "idx_car_details_horsepower", columnList = "horsepower"),
+                @Index(name = "idx_car_details_torque", columnList = "torque"),
+                @Index(name = "idx_car_details_seats", columnList = "seats"),
+                @Index(name = "idx_car_details_fuel_type", columnList = "fuel_type"),
+                @Index(name = "idx_car_details_fuel_consumption", columnList = "fuel_consumption_l100km")
+        }
 )
 public class CarDetail {
     @Id
@@ -49,13 +57,34 @@ public class CarDetail {
     @Column(name = "dimensions", nullable = false, length = 100)
     private String dimensions; // Kích thước Ví dụ: 4500 x 1800 x 1450 mm
 
+    // Giá trị số tách từ fuelConsumption/dimensions mỗi lần ghi (CarSpecParser), null nếu không đọc được
+    @Column(name = "fuel_consumption_l100km")
+    private Double fuelConsumptionL100km;
+
+    @Column(name = "length_mm")
+    private Integer lengthMm;
+
+    @Column(name = "width_mm")
+    private Integer widthMm;
+
+    @Column(name = "height_mm")
+    private Integer heightMm;
+
     @PrePersist
     public void generateId(){
         if(this.carDetailId == null){
-            Random random = new Random();
-            this.carDetailId = 100000000L + random.nextLong(900000000);
+            this.carDetailId = EntityIds.next(EntityIds.CAR_DETAIL);
         }
+        parseSpecs();
+    }
 
+    @PreUpdate
+    public void parseSpecs() {
+        this.fuelConsumptionL100km = CarSpecParser.fuelConsumptionL100km(fuelConsumption);
+        int[] mm = CarSpecParser.dimensionsMm(dimensions);
+        this.lengthMm = mm != null ? mm[0] : null;
+        this.widthMm = mm != null ? mm[1] : null;
+        this.heightMm = mm != null ? mm[2] : null;
     }
 
     public CarDetail() {}
@@ -147,4 +176,36 @@ public class CarDetail {
     public void setDimensions(String dimensions) {
         this.dimensions = dimensions;
     }
+
+    public Double getFuelConsumptionL100km() {
+        return fuelConsumptionL100km;
+    }
+
+    public void setFuelConsumptionL100km(Double fuelConsumptionL100km) {
+        this.fuelConsumptionL100km = fuelConsumptionL100km;
+    }
+
+    public Integer getLengthMm() {
+        return lengthMm;
+    }
+
+    public void setLengthMm(Integer lengthMm) {
+        this.lengthMm = lengthMm;
+    }
+
+    public Integer getWidthMm() {
+        return widthMm;
+    }
+
+    public void setWidthMm(Integer widthMm) {
+        this.widthMm = widthMm;
+    }
+
+    public Integer getHeightMm() {
+        return heightMm;
+    }
+
+    public void setHeightMm(Integer heightMm) {
+        this.heightMm = heightMm;
+    }
 }
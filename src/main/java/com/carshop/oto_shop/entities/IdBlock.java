@@ -0,0 +1,34 @@
+package com.carshop.oto_shop.entities;
+
+import jakarta.persistence.*;
+
+// Bộ đếm cho BlockIdAllocator: mỗi dòng là một sequence, next_value là id đầu tiên chưa cấp
+@Entity
+@Table(name = "id_blocks")
+public class IdBlock {
+    @Id
+    @Column(name = "name", length = 50, nullable = false)
+    private String name;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    public IdBlock() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(Long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
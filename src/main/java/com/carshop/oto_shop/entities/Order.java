@@ -1,22 +1,28 @@
 package com.carshop.oto_shop.entities;
 
+import com.carshop.oto_shop.common.id.UuidV7;
 import com.carshop.oto_shop.enums.OrderStatus;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @Entity
 @Table(name = "orders")
 public class Order {
 
+    // UUIDv7 lưu BINARY(16): khoá tăng theo thời gian, chuỗi 8-4-4-4-12 chỉ xuất hiện ở DTO
     @Id
-    @Column(name = "order_id", length = 36, nullable = false, updatable = false)
-    private String orderId;
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "order_id", length = 16, nullable = false, updatable = false)
+    private UUID orderId;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false,
@@ -91,7 +97,7 @@ public class Order {
     @PrePersist
     public void prePersist() {
         if (this.orderId == null) {
-            this.orderId = java.util.UUID.randomUUID().toString();
+            this.orderId = UuidV7.generate();
         }
         if (this.orderDate == null) {
             this.orderDate = LocalDateTime.now();
@@ -112,11 +118,11 @@ public class Order {
     }
 
     // Getters and Setters
-    public String getOrderId() {
+    public UUID getOrderId() {
         return orderId;
     }
 
-    public void setOrderId(String orderId) {
+    public void setOrderId(UUID orderId) {
         this.orderId = orderId;
     }
 
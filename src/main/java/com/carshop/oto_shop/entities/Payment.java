@@ -1,21 +1,27 @@
 package com.carshop.oto_shop.entities;
 
+import com.carshop.oto_shop.common.id.UuidV7;
 import com.carshop.oto_shop.enums.PaymentMethod;
 import com.carshop.oto_shop.enums.PaymentStatus;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
 @Table(name = "payment")
 public class Payment {
 
+    // Cùng kiểu khoá với Order.orderId
     @Id
-    @Column(name = "payment_id", length = 36, nullable = false, updatable = false)
-    private String paymentId;
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "payment_id", length = 16, nullable = false, updatable = false)
+    private UUID paymentId;
 
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false, unique = true,
@@ -50,7 +56,7 @@ public class Payment {
     @PrePersist
     public void prePersist() {
         if (this.paymentId == null) {
-            this.paymentId = java.util.UUID.randomUUID().toString();
+            this.paymentId = UuidV7.generate();
         }
         if (this.status == null) {
             this.status = PaymentStatus.PENDING;
@@ -62,11 +68,11 @@ public class Payment {
     }
 
     // Getters and Setters
-    public String getPaymentId() {
+    public UUID getPaymentId() {
         return paymentId;
     }
 
-    public void setPaymentId(String paymentId) {
+    public void setPaymentId(UUID paymentId) {
         this.paymentId = paymentId;
     }
 
@@ -0,0 +1,49 @@
+package com.carshop.oto_shop.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Id đã thu hồi (xem TokenRevocationStore): họ token của phiên bị đăng xuất/bị dùng lại, hoặc jti refresh token
+// đã đổi; dòng bị xoá khi mọi token mang id đó đã hết hạn
+@Entity
+@Table(name = "revoked_tokens",
+        indexes = @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"))
+public class RevokedToken {
+    @Id
+    @Column(name = "token_id", length = 36, nullable = false)
+    private String tokenId;
+
+    @Column(name = "reason", length = 10, nullable = false)
+    private String reason;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public RevokedToken() {
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public void setTokenId(String tokenId) {
+        this.tokenId = tokenId;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
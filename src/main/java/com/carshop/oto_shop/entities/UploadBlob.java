@@ -0,0 +1,58 @@
+package com.carshop.oto_shop.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// File upload lưu theo SHA-256 nội dung (xem UploadStorageService): ref_count là số dòng cars/news/users đang trỏ tới
+@Entity
+@Table(name = "upload_blobs")
+public class UploadBlob {
+    @Id
+    @Column(name = "path", length = 255, nullable = false)
+    private String path;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public UploadBlob() {
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public Integer getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(Integer refCount) {
+        this.refCount = refCount;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
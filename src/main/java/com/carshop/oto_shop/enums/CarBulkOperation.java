@@ -0,0 +1,7 @@
+package com.carshop.oto_shop.enums;
+
+public enum CarBulkOperation {
+    SET_PRICE,        // đặt giá mới (price)
+    ADJUST_PRICE,     // tăng/giảm giá theo phần trăm (percent, ví dụ -5 là giảm 5%)
+    SET_STATUS        // đổi trạng thái (status)
+}
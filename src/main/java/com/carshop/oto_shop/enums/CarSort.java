@@ -0,0 +1,27 @@
+package com.carshop.oto_shop.enums;
+
+// Thứ tự sắp xếp danh sách xe; car_id luôn là khoá phụ để thứ tự ổn định khi phân trang theo cursor.
+// RELEVANCE (điểm BM25) chỉ có nghĩa khi tìm kiếm theo từ khoá, không có cột tương ứng trong DB.
+public enum CarSort {
+    ID("carId", true),
+    PRICE_ASC("price", true),
+    PRICE_DESC("price", false),
+    YEAR_DESC("manufactureYear", false),
+    RELEVANCE(null, false);
+
+    private final String attribute;
+    private final boolean ascending;
+
+    CarSort(String attribute, boolean ascending) {
+        this.attribute = attribute;
+        this.ascending = ascending;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+}
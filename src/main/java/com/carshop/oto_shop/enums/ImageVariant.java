@@ -0,0 +1,38 @@
+package com.carshop.oto_shop.enums;
+
+import java.util.Locale;
+
+// Các cỡ ảnh sinh ra sau khi upload; maxSize là cạnh dài nhất (px), ảnh nhỏ hơn không bị phóng to.
+public enum ImageVariant {
+    THUMBNAIL(200),
+    CARD(600),
+    FULL(1600);
+
+    private final int maxSize;
+
+    ImageVariant(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    // Tên dùng trong URL (?size=thumbnail) và trong tên file
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    // null nếu không chỉ định hoặc không đúng tên nào, nơi gọi trả ảnh gốc
+    public static ImageVariant fromKey(String key) {
+        if (key == null || key.isBlank()) {
+            return null;
+        }
+        for (ImageVariant variant : values()) {
+            if (variant.key().equalsIgnoreCase(key.trim())) {
+                return variant;
+            }
+        }
+        return null;
+    }
+}
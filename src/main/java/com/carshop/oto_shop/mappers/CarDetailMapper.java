@@ -7,8 +7,21 @@ import org.mapstruct.*;
 
 @Mapper(componentModel = "spring")
 public interface CarDetailMapper {
+    // Các cột số được CarDetail tự tính từ chuỗi khi ghi
+    @Mapping(target = "fuelConsumptionL100km", ignore = true)
+    @Mapping(target = "lengthMm", ignore = true)
+    @Mapping(target = "widthMm", ignore = true)
+    @Mapping(target = "heightMm", ignore = true)
     CarDetail toCarDetail(CarDetailRequest carDetailRequest);
+
+    // fuelConsumption là số lít/100 km đã tách, chuỗi gốc như "6.5L/100km" không parse trực tiếp được
+    @Mapping(source = "fuelConsumptionL100km", target = "fuelConsumption")
     CarDetailResponse toCarDetailResponse(CarDetail carDetail);
+
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "fuelConsumptionL100km", ignore = true)
+    @Mapping(target = "lengthMm", ignore = true)
+    @Mapping(target = "widthMm", ignore = true)
+    @Mapping(target = "heightMm", ignore = true)
     void updateCarDetail(CarDetailRequest request, @MappingTarget CarDetail carDetail);
 }
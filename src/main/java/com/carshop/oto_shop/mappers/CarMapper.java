@@ -9,12 +9,15 @@ import org.mapstruct.*;
 public interface CarMapper {
     @Mapping(target = "carId", ignore = true)
     @Mapping(target = "imageUrl", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Car toCar(CarRequest carRequest);
 
     @Mapping(target = "imageUrl", ignore = false)
+    @Mapping(target = "imageUrls", ignore = true) // các biến thể ảnh do service điền
     CarResponse toCarResponse(Car car);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "imageUrl", ignore = true)    // không overwrite imageUrl
+    @Mapping(target = "version", ignore = true)
     void updateCarRequest(CarRequest carRequest, @MappingTarget Car car);
 }
@@ -17,6 +17,7 @@ public interface NewsMapper {
 
     // Tạo NewsResponseDto từ News entity
     @Mapping(target = "coverImageUrl", ignore = false) // Giữ lại URL đầy đủ (service set sẵn)
+    @Mapping(target = "coverImageUrls", ignore = true) // các biến thể ảnh do service điền
     NewsResponseDto toNewsResponseDto(News news);
 
     // Cập nhật News từ DTO, bỏ qua ảnh và id
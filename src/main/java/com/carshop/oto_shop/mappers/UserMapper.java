@@ -13,6 +13,7 @@ public interface UserMapper {
 
     // Map both User fields and Account fields (1:1 relationship)
     @Mapping(target = "avatarUrl", ignore = false)
+    @Mapping(target = "avatarUrls", ignore = true) // các biến thể ảnh do service điền
     @Mapping(source = "account.accountId", target = "accountId")
     @Mapping(source = "account.username", target = "username")
     @Mapping(source = "account.email", target = "email")
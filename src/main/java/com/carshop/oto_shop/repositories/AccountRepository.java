@@ -4,9 +4,20 @@ import com.carshop.oto_shop.entities.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface AccountRepository extends JpaRepository<Account, String> {
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
     boolean existsById(String accountId);
+
+    Optional<Account> findByUsername(String username);
+
+    Optional<Account> findByEmail(String email);
+
+    // Hai lần tra theo unique index (uk_accounts_username, uk_accounts_email) thay vì một câu OR
+    default Optional<Account> findByUsernameOrEmail(String usernameOrEmail) {
+        return findByUsername(usernameOrEmail).or(() -> findByEmail(usernameOrEmail));
+    }
 }
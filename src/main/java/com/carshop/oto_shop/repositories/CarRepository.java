@@ -2,15 +2,68 @@ package com.carshop.oto_shop.repositories;
 
 import com.carshop.oto_shop.entities.Car;
 import com.carshop.oto_shop.enums.Brand;
+import com.carshop.oto_shop.enums.CarStatus;
 import com.carshop.oto_shop.enums.Category;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 // [THÊM MỚI] Import thư viện Specification
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 // [SỬA ĐỔI] Thêm JpaSpecificationExecutor<Car>
 public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificationExecutor<Car> {
     List<Car> findAllByCategory(Category category);
     List<Car> findAllByBrand(Brand brand);
-}
\ No newline at end of file
+
+    // Xe và CarDetail của nhiều xe trong một truy vấn (CarDetail null nếu xe chưa có thông số).
+    // Car không tham chiếu ngược CarDetail nên dùng entity join thay cho join fetch.
+    @Query("select c, d from Car c left join CarDetail d on d.car = c where c.carId in :carIds")
+    List<Object[]> findWithDetailsByIds(@Param("carIds") Collection<Long> carIds);
+
+    @Query("select c, d from Car c left join CarDetail d on d.car = c")
+    List<Object[]> findAllWithDetails();
+
+    // findWithDetailsByIds theo từng lô, để event mang rất nhiều car_id (nhập/cập nhật hàng loạt) không sinh một IN khổng lồ
+    int ID_BATCH_SIZE = 1000;
+
+    default List<Object[]> findWithDetailsByIdsInBatches(Collection<Long> carIds) {
+        List<Long> ids = List.copyOf(carIds);
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+            rows.addAll(findWithDetailsByIds(ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size()))));
+        }
+        return rows;
+    }
+
+    // Cập nhật hàng loạt: chọn car_id theo keyset (car_id > after) từng chunk rồi UPDATE theo danh sách id.
+    // Các câu UPDATE tự tăng version để cache JSON theo version không trả dữ liệu cũ.
+    @Query("select c.carId from Car c where (:brand is null or c.brand = :brand) "
+            + "and (:category is null or c.category = :category) and c.carId > :after order by c.carId")
+    List<Long> findIdsAfter(@Param("brand") Brand brand, @Param("category") Category category,
+                            @Param("after") Long after, Limit limit);
+
+    @Query("select c.carId from Car c where c.carId in :carIds and (:brand is null or c.brand = :brand) "
+            + "and (:category is null or c.category = :category)")
+    List<Long> findIdsIn(@Param("carIds") Collection<Long> carIds, @Param("brand") Brand brand,
+                         @Param("category") Category category);
+
+    @Modifying
+    @Query("update Car c set c.price = :price, c.version = c.version + 1 where c.carId in :carIds")
+    int updatePrice(@Param("carIds") Collection<Long> carIds, @Param("price") BigDecimal price);
+
+    @Modifying
+    @Query("update Car c set c.price = c.price * :factor, c.version = c.version + 1 where c.carId in :carIds")
+    int scalePrice(@Param("carIds") Collection<Long> carIds, @Param("factor") BigDecimal factor);
+
+    @Modifying
+    @Query("update Car c set c.status = :status, c.version = c.version + 1 "
+            + "where c.carId in :carIds and (c.status is null or c.status <> :status)")
+    int updateStatus(@Param("carIds") Collection<Long> carIds, @Param("status") CarStatus status);
+}
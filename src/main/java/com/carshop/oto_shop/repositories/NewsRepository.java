@@ -1,7 +1,15 @@
 package com.carshop.oto_shop.repositories;
 
+import com.carshop.oto_shop.dto.news.NewsResponseDto;
 import com.carshop.oto_shop.entities.News;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface NewsRepository extends JpaRepository<News, Long> {
+    // Danh sách tin không cần nội dung bài (MEDIUMTEXT), chỉ chọn các cột hiển thị
+    @Query("select new com.carshop.oto_shop.dto.news.NewsResponseDto(n.newsId, n.title, n.slug, n.excerpt, "
+            + "n.coverImageUrl, n.status, n.publishedAt, n.createdAt, n.updatedAt) from News n")
+    List<NewsResponseDto> findAllSummaries();
 }
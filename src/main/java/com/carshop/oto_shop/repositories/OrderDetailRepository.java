@@ -2,10 +2,30 @@ package com.carshop.oto_shop.repositories;
 
 import com.carshop.oto_shop.entities.OrderDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 public interface
 OrderDetailRepository extends JpaRepository<OrderDetail, Long> {
-    List<OrderDetail> findByOrder_OrderId(String orderId);
+    List<OrderDetail> findByOrder_OrderId(UUID orderId);
+
+    // Chi tiết của nhiều đơn trong một truy vấn, kèm order_id để gắn lại vào từng OrderResponse
+    @Query("select d.order.orderId as orderId, d.orderDetailId as orderDetailId, c.carId as carId, "
+            + "c.model as carModel, d.quantity as quantity, d.price as price "
+            + "from OrderDetail d join d.car c where d.order.orderId in :orderIds")
+    List<OrderDetailRow> findRowsByOrderIds(@Param("orderIds") Collection<UUID> orderIds);
+
+    interface OrderDetailRow {
+        UUID getOrderId();
+        Long getOrderDetailId();
+        Long getCarId();
+        String getCarModel();
+        Integer getQuantity();
+        BigDecimal getPrice();
+    }
 }
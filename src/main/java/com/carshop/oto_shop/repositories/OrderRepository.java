@@ -1,12 +1,31 @@
 package com.carshop.oto_shop.repositories;
 
+import com.carshop.oto_shop.dto.order.OrderResponse;
 import com.carshop.oto_shop.entities.Order;
 import com.carshop.oto_shop.enums.OrderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.UUID;
 
-public interface OrderRepository extends JpaRepository<Order, String> {
+public interface OrderRepository extends JpaRepository<Order, UUID> {
     List<Order> findByUser_UserId(String userId);
     List<Order> findByStatus(OrderStatus status);
+
+    // Projection cho API danh sách: chỉ chọn các cột của OrderResponse, không tạo entity được quản lý
+    String ORDER_RESPONSE = "select new com.carshop.oto_shop.dto.order.OrderResponse("
+            + "o.orderId, o.user.userId, o.fullName, o.email, o.phone, o.address, o.city, o.district, o.ward, "
+            + "o.note, o.subtotal, o.shippingFee, o.tax, o.totalAmount, o.orderDate, o.status, "
+            + "o.createdAt, o.updatedAt) from Order o";
+
+    @Query(ORDER_RESPONSE)
+    List<OrderResponse> findAllResponses();
+
+    @Query(ORDER_RESPONSE + " where o.user.userId = :userId")
+    List<OrderResponse> findResponsesByUserId(@Param("userId") String userId);
+
+    @Query(ORDER_RESPONSE + " where o.status = :status")
+    List<OrderResponse> findResponsesByStatus(@Param("status") OrderStatus status);
 }
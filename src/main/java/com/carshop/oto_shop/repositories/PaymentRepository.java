@@ -1,13 +1,32 @@
 package com.carshop.oto_shop.repositories;
 
+import com.carshop.oto_shop.dto.payment.PaymentResponse;
 import com.carshop.oto_shop.entities.Payment;
 import com.carshop.oto_shop.enums.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
-public interface PaymentRepository extends JpaRepository<Payment, String> {
-    Optional<Payment> findByOrder_OrderId(String orderId);
+public interface PaymentRepository extends JpaRepository<Payment, UUID> {
+    Optional<Payment> findByOrder_OrderId(UUID orderId);
     List<Payment> findByStatus(PaymentStatus status);
+
+    // Projection cho API danh sách: chỉ chọn các cột của PaymentResponse, không tạo entity được quản lý
+    String PAYMENT_RESPONSE = "select new com.carshop.oto_shop.dto.payment.PaymentResponse("
+            + "p.paymentId, p.order.orderId, p.paymentDate, p.amount, p.paymentMethod, p.status, "
+            + "p.transactionId, p.createdAt, p.updatedAt) from Payment p";
+
+    @Query(PAYMENT_RESPONSE)
+    List<PaymentResponse> findAllResponses();
+
+    @Query(PAYMENT_RESPONSE + " where p.status = :status")
+    List<PaymentResponse> findResponsesByStatus(@Param("status") PaymentStatus status);
+
+    @Query(PAYMENT_RESPONSE + " where p.order.orderId in :orderIds")
+    List<PaymentResponse> findResponsesByOrderIds(@Param("orderIds") Collection<UUID> orderIds);
 }
@@ -2,6 +2,22 @@ package com.carshop.oto_shop.repositories;
 
 import com.carshop.oto_shop.entities.Promotion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface PromotionRepository extends JpaRepository<Promotion, Long> {
+
+    // Khuyến mãi đang chạy có thể áp cho xe: loại CAR chỉ lấy khi xe nằm trong promotion_cars,
+    // BRAND/CATEGORY lưu dạng JSON nên nơi gọi tự so khớp
+    @Query("select distinct p from Promotion p left join p.targetCars c "
+            + "where p.active = true and p.startAt <= :now and p.endAt > :now "
+            + "and (p.appliesTo <> com.carshop.oto_shop.enums.PromotionScope.CAR or c.carId = :carId)")
+    List<Promotion> findActiveForCar(@Param("carId") Long carId, @Param("now") LocalDateTime now);
+
+    // Thời điểm sớm nhất một khuyến mãi chưa bắt đầu sẽ có hiệu lực (null nếu không có)
+    @Query("select min(p.startAt) from Promotion p where p.active = true and p.startAt > :now")
+    LocalDateTime findNextStartAfter(@Param("now") LocalDateTime now);
 }
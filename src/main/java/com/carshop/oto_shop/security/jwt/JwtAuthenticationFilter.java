@@ -1,13 +1,20 @@
 package com.carshop.oto_shop.security.jwt;
 
+import com.carshop.oto_shop.entities.Account;
+import com.carshop.oto_shop.enums.AccountStatus;
+import com.carshop.oto_shop.enums.Role;
+import com.carshop.oto_shop.security.models.CustomUserDetails;
+import com.carshop.oto_shop.security.services.AccountChangeLog;
 import com.carshop.oto_shop.security.services.CustomUserDetailsService;
+import com.carshop.oto_shop.security.services.TokenRevocationStore;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,21 +23,45 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
 
+/**
+ * Xác thực request bằng JWT. Token chỉ được parse (kiểm chữ ký + hạn) một lần; nếu có đủ claims
+ * {@code aid}/{@code role}/{@code st} thì Authentication được dựng thẳng từ claims, không đọc DB.
+ * Tài khoản chỉ được nạp từ DB (qua cache của CustomUserDetailsService) khi token cũ thiếu claims, khi tài khoản
+ * đã đổi quyền/trạng thái sau lúc token được cấp ({@link AccountChangeLog}), hoặc với các route nhạy cảm trong
+ * {@code jwt.db-check-routes}, nơi quyền và trạng thái phải là giá trị hiện tại.
+ * Refresh token không dùng làm Bearer được; token thuộc họ đã thu hồi (đăng xuất, refresh token bị dùng lại)
+ * bị bỏ qua, kiểm tra qua Bloom filter của TokenRevocationStore nên thường không chạm DB.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
+    // Route public không cần đọc token
+    private static final RouteMatcher BYPASS_ROUTES = RouteMatcher.of(
+            "GET /api/cars/**",
+            "GET /api/car-categories/**",
+            "POST /api/auth/register",
+            "POST /api/auth/login"
+    );
+
     private final JwtTokenProvider jwtTokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationStore revocationStore;
+    private final AccountChangeLog accountChangeLog;
+    private final RouteMatcher dbCheckRoutes;
 
     public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider,
-                                   CustomUserDetailsService userDetailsService) {
+                                   CustomUserDetailsService userDetailsService,
+                                   TokenRevocationStore revocationStore,
+                                   AccountChangeLog accountChangeLog,
+                                   @Value("${jwt.db-check-routes}") String dbCheckRoutes) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.revocationStore = revocationStore;
+        this.accountChangeLog = accountChangeLog;
+        this.dbCheckRoutes = RouteMatcher.parse(dbCheckRoutes);
     }
 
     @Override
@@ -38,31 +69,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
-            if(isBypassToken(request)){
+            if (BYPASS_ROUTES.matches(request)) {
                 filterChain.doFilter(request, response);
                 return;
             }
             // Lấy token từ header Authorization
             String token = JwtUtils.getTokenFromHeader(request);
 
-            if (token != null) {
-                // Validate token
-                boolean valid = jwtTokenProvider.validateToken(token);
-                if (valid) {
-                    String username = jwtTokenProvider.getUsernameFromToken(token);
-
-                    // Nếu chưa có Authentication trong context thì load user và set
-                    if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                Claims claims = jwtTokenProvider.parseClaims(token);
+                if (claims == null || claims.getSubject() == null
+                        || JwtTokenProvider.TYPE_REFRESH.equals(claims.get(JwtTokenProvider.CLAIM_TYPE, String.class))) {
+                    logger.debug("JWT token invalid for request [{}]", request.getRequestURI());
+                } else if (isRevoked(claims)) {
+                    logger.debug("JWT token revoked for request [{}]", request.getRequestURI());
+                } else {
+                    CustomUserDetails fromToken = fromClaims(claims);
+                    UserDetails userDetails = fromToken;
+                    if (fromToken == null || dbCheckRoutes.matches(request)
+                            || accountChangeLog.changedSince(fromToken.getAccountId(), claims.getIssuedAt())) {
+                        userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+                    }
 
+                    if (userDetails.isEnabled()) {
                         UsernamePasswordAuthenticationToken authentication =
                                 new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
                         authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                         SecurityContextHolder.getContext().setAuthentication(authentication);
+                    } else {
+                        logger.debug("Account [{}] is not active, request [{}] stays anonymous",
+                                claims.getSubject(), request.getRequestURI());
                     }
-                } else {
-                    logger.debug("JWT token invalid for request [{}]", request.getRequestURI());
                 }
             }
         } catch (Exception ex) {
@@ -74,18 +112,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private boolean isBypassToken(HttpServletRequest request) {
-        final List<Pair<String, String>> bypassTokens = Arrays.asList(
-                Pair.of("/api/cars", "GET"),
-                Pair.of("/api/car-categories", "GET"),
-                Pair.of("/api/auth/register", "POST"),
-                Pair.of("/api/auth/login", "POST")
-        );
-
-        String requestPath = request.getServletPath();
-        String requestMethod = request.getMethod();
+    private boolean isRevoked(Claims claims) {
+        String family = claims.get(JwtTokenProvider.CLAIM_FAMILY, String.class);
+        return family != null && revocationStore.isRevoked(family);
+    }
 
-        return bypassTokens.stream()
-                .anyMatch(p -> requestPath.startsWith(p.getLeft()) && requestMethod.equalsIgnoreCase(p.getRight()));
+    // Dựng principal từ claims; null nếu token được cấp trước khi có aid/st
+    private static CustomUserDetails fromClaims(Claims claims) {
+        String accountId = claims.get(JwtTokenProvider.CLAIM_ACCOUNT_ID, String.class);
+        String role = claims.get(JwtTokenProvider.CLAIM_ROLE, String.class);
+        String status = claims.get(JwtTokenProvider.CLAIM_STATUS, String.class);
+        if (accountId == null || role == null || status == null) {
+            return null;
+        }
+        Account account = new Account();
+        account.setAccountId(accountId);
+        account.setUsername(claims.getSubject());
+        account.setRole(Role.valueOf(role));
+        account.setStatus(AccountStatus.valueOf(status));
+        return new CustomUserDetails(account);
     }
 }
@@ -1,6 +1,10 @@
 package com.carshop.oto_shop.security.jwt;
 
+import com.carshop.oto_shop.security.models.CustomUserDetails;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -9,66 +13,88 @@ import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
+/**
+ * Tạo và đọc JWT. Ngoài subject (username) và {@code role}, token mang {@code aid} (accountId) và {@code st}
+ * (trạng thái tài khoản lúc cấp) để JwtAuthenticationFilter dựng Authentication thẳng từ claims, không cần
+ * đọc DB. Token cũ thiếu hai claim này vẫn hợp lệ, filter sẽ nạp tài khoản từ DB như trước.
+ *
+ * Mọi token của một phiên đăng nhập mang cùng {@code fam} (họ token) để thu hồi cả phiên một lần; refresh token
+ * có thêm {@code jti} riêng và {@code typ=refresh}, dùng một lần rồi đổi (xem AuthService.refreshToken).
+ */
 @Component
 public class JwtTokenProvider {
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_ACCOUNT_ID = "aid";
+    public static final String CLAIM_STATUS = "st";
+    public static final String CLAIM_TYPE = "typ";
+    public static final String CLAIM_FAMILY = "fam";
+    public static final String TYPE_REFRESH = "refresh";
+
     private final Key key;
+    private final JwtParser parser;
     private final long expiration;
     private final long refreshExpiration;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     public JwtTokenProvider(@Value("${jwt.secret}") String secret,
                             @Value("${jwt.expiration}") long expiration,
-                            @Value("${jwt.refreshExpiration}") long refreshExpiration) {
+                            @Value("${jwt.refreshExpiration}") long refreshExpiration,
+                            VerifiedTokenCache verifiedTokenCache) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parser().setSigningKey(key).build();
         this.expiration = expiration;
         this.refreshExpiration = refreshExpiration;
+        this.verifiedTokenCache = verifiedTokenCache;
     }
 
-    public String generateToken(String username, String role) {
-        return Jwts.builder()
-                .setSubject(username)
-                .claim("role", role)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(key, SignatureAlgorithm.HS512)
-                .compact();
+    public String generateToken(CustomUserDetails userDetails, String family) {
+        return build(userDetails, family, expiration).compact();
     }
 
-    public String generateRefreshToken(String username, String role) {
-        return Jwts.builder()
-                .setSubject(username)
-                .claim("role", role)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + refreshExpiration))
-                .signWith(key, SignatureAlgorithm.HS512)
+    public String generateRefreshToken(CustomUserDetails userDetails, String family) {
+        return build(userDetails, family, refreshExpiration)
+                .setId(UUID.randomUUID().toString())
+                .claim(CLAIM_TYPE, TYPE_REFRESH)
                 .compact();
     }
-    public String getUsernameFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+
+    // Thời gian sống dài nhất của một token trong họ, dùng làm hạn của bản ghi thu hồi
+    public long getRefreshExpiration() {
+        return refreshExpiration;
     }
 
-    public String getRoleFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .get("role", String.class);
+    /**
+     * Kiểm tra chữ ký, hạn dùng và trả về claims trong một lần parse; null nếu token không hợp lệ.
+     * Token đã kiểm trước đó (và chưa hết hạn) lấy thẳng từ {@link VerifiedTokenCache}.
+     */
+    public Claims parseClaims(String token) {
+        return verifiedTokenCache.verify(token, this::parseAndVerify);
     }
 
-    public boolean validateToken(String token) {
-        try{
-            Jwts.parser().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
-        }catch (JwtException | IllegalArgumentException e){
-            return false;
+    private Claims parseAndVerify(String token) {
+        try {
+            return parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
         }
     }
 
+    public boolean validateToken(String token) {
+        return parseClaims(token) != null;
+    }
 
+    private JwtBuilder build(CustomUserDetails userDetails, String family, long validity) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(userDetails.getUsername())
+                .claim(CLAIM_ROLE, userDetails.getRole())
+                .claim(CLAIM_ACCOUNT_ID, userDetails.getAccountId())
+                .claim(CLAIM_STATUS, userDetails.getStatus().name())
+                .claim(CLAIM_FAMILY, family)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + validity))
+                .signWith(key, SignatureAlgorithm.HS512);
+    }
 }
@@ -0,0 +1,64 @@
+package com.carshop.oto_shop.security.jwt;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Danh sách route "[METHOD ]pattern" (vd. {@code GET /api/cars/**}, {@code /api/admin/**}) được biên dịch một
+ * lần lúc khởi tạo; mỗi request chỉ còn so method và khớp PathPattern, không tạo list hay tách chuỗi.
+ */
+final class RouteMatcher {
+    private final String[] methods;
+    private final PathPattern[] patterns;
+
+    private RouteMatcher(List<String> methods, List<PathPattern> patterns) {
+        this.methods = methods.toArray(new String[0]);
+        this.patterns = patterns.toArray(new PathPattern[0]);
+    }
+
+    static RouteMatcher of(String... routes) {
+        List<String> methods = new ArrayList<>();
+        List<PathPattern> patterns = new ArrayList<>();
+        for (String route : routes) {
+            String trimmed = route.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int space = trimmed.indexOf(' ');
+            // Không ghi method thì khớp mọi method
+            methods.add(space < 0 ? null : trimmed.substring(0, space).toUpperCase());
+            patterns.add(PathPatternParser.defaultInstance.parse(space < 0 ? trimmed : trimmed.substring(space + 1).trim()));
+        }
+        return new RouteMatcher(methods, patterns);
+    }
+
+    // Danh sách cách nhau bởi dấu phẩy, dùng cho thuộc tính cấu hình
+    static RouteMatcher parse(String routes) {
+        return of(routes.split(","));
+    }
+
+    boolean matches(HttpServletRequest request) {
+        if (patterns.length == 0) {
+            return false;
+        }
+        String method = request.getMethod();
+        PathContainer path = null;
+        for (int i = 0; i < patterns.length; i++) {
+            if (methods[i] != null && !methods[i].equalsIgnoreCase(method)) {
+                continue;
+            }
+            if (path == null) {
+                path = PathContainer.parsePath(request.getServletPath());
+            }
+            if (patterns[i].matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,169 @@
+package com.carshop.oto_shop.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cache claims của các JWT đã kiểm chữ ký, để mỗi phiên chỉ trả chi phí parse + HS512 một lần thay vì mỗi request.
+ * Khoá là SHA-256 của token (không giữ chuỗi token), entry hết hiệu lực đúng lúc {@code exp} của token nên token
+ * hết hạn không bao giờ được chấp nhận từ cache.
+ *
+ * Dung lượng giới hạn theo byte ước tính ({@code jwt.token-cache.max-bytes}, 0 là tắt): khi vượt, bỏ entry hết hạn
+ * rồi bỏ thêm theo thứ tự duyệt của map cho tới khi còn 3/4 giới hạn. Token không có {@code exp} không được cache.
+ */
+@Component
+public class VerifiedTokenCache {
+    // Ước tính phần ngoài claims: khoá 32 byte, entry, node của map
+    private static final int ENTRY_OVERHEAD = 160;
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final long maxBytes;
+    private final Map<TokenKey, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final Object pruneLock = new Object();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VerifiedTokenCache(@Value("${jwt.token-cache.max-bytes}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Claims của token từ cache; nếu chưa có thì gọi {@code verifier} (parse + kiểm chữ ký, trả null khi không hợp
+     * lệ) và cache kết quả hợp lệ.
+     */
+    public Claims verify(String token, Function<String, Claims> verifier) {
+        if (maxBytes <= 0) {
+            return verifier.apply(token);
+        }
+        TokenKey key = new TokenKey(SHA256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        Entry cached = entries.get(key);
+        if (cached != null) {
+            if (System.currentTimeMillis() < cached.expiresAt) {
+                hits.increment();
+                return cached.claims;
+            }
+            remove(key, cached);
+        }
+        misses.increment();
+
+        Claims claims = verifier.apply(token);
+        Date expiration = claims == null ? null : claims.getExpiration();
+        if (expiration != null) {
+            // Token nặng gấp đôi số ký tự: claims đã giải mã xấp xỉ bằng payload, cộng các object bao quanh
+            Entry entry = new Entry(claims, expiration.getTime(), 2L * token.length() + ENTRY_OVERHEAD);
+            if (entries.putIfAbsent(key, entry) == null && usedBytes.addAndGet(entry.weight) > maxBytes) {
+                prune();
+            }
+        }
+        return claims;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    public long getCapacityBytes() {
+        return Math.max(maxBytes, 0);
+    }
+
+    private void prune() {
+        synchronized (pruneLock) {
+            if (usedBytes.get() <= maxBytes) {
+                // Luồng khác vừa dọn xong
+                return;
+            }
+            long now = System.currentTimeMillis();
+            entries.forEach((key, entry) -> {
+                if (now >= entry.expiresAt) {
+                    remove(key, entry);
+                }
+            });
+            long target = maxBytes / 4 * 3;
+            Iterator<Map.Entry<TokenKey, Entry>> it = entries.entrySet().iterator();
+            while (usedBytes.get() > target && it.hasNext()) {
+                Map.Entry<TokenKey, Entry> next = it.next();
+                if (remove(next.getKey(), next.getValue())) {
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    private boolean remove(TokenKey key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            usedBytes.addAndGet(-entry.weight);
+            return true;
+        }
+        return false;
+    }
+
+    private static final class TokenKey {
+        private final byte[] digest;
+        private final int hash;
+
+        TokenKey(byte[] digest) {
+            this.digest = digest;
+            this.hash = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TokenKey other && Arrays.equals(digest, other.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        private final Claims claims;
+        private final long expiresAt;
+        private final long weight;
+
+        Entry(Claims claims, long expiresAt, long weight) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+            this.weight = weight;
+        }
+    }
+}
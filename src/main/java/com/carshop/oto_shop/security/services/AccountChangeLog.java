@@ -0,0 +1,44 @@
+package com.carshop.oto_shop.security.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thời điểm gần nhất mỗi tài khoản đổi mật khẩu, quyền hoặc trạng thái (theo {@link AccountChangedEvent}).
+ * Access token cấp trước thời điểm đó không còn được tin role/st trong claims: JwtAuthenticationFilter nạp
+ * tài khoản hiện tại thay vì dựng principal từ token, nên tài khoản bị khoá/hạ quyền mất quyền ngay ở mọi route.
+ *
+ * Chỉ cần nhớ trong một vòng đời access token ({@code jwt.expiration}), token cũ hơn đã hết hạn. Giống cache
+ * của CustomUserDetailsService, dữ liệu nằm trong bộ nhớ của từng instance.
+ */
+@Component
+public class AccountChangeLog {
+    private final long retentionMillis;
+    private final Map<String, Long> changedAt = new ConcurrentHashMap<>();
+
+    public AccountChangeLog(@Value("${jwt.expiration}") long accessTokenLifetimeMillis) {
+        this.retentionMillis = accessTokenLifetimeMillis;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        long now = System.currentTimeMillis();
+        changedAt.values().removeIf(at -> now - at > retentionMillis);
+        changedAt.put(event.getAccountId(), now);
+    }
+
+    /**
+     * true nếu tài khoản đã đổi kể từ lúc token được cấp. iat chỉ chính xác tới giây nên token cấp cùng giây
+     * với thay đổi cũng bị coi là cũ (chỉ tốn thêm một lần nạp tài khoản).
+     */
+    public boolean changedSince(String accountId, Date issuedAt) {
+        Long at = changedAt.get(accountId);
+        return at != null && (issuedAt == null || issuedAt.getTime() <= at);
+    }
+}
@@ -0,0 +1,17 @@
+package com.carshop.oto_shop.security.services;
+
+/**
+ * Phát ra khi thông tin đăng nhập của một tài khoản đổi (mật khẩu, quyền, trạng thái, username/email) hoặc
+ * tài khoản bị xoá. Nơi nhận bỏ dữ liệu đã cache theo account_id sau khi transaction commit.
+ */
+public class AccountChangedEvent {
+    private final String accountId;
+
+    public AccountChangedEvent(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+}
@@ -0,0 +1,68 @@
+package com.carshop.oto_shop.security.services;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter cho chuỗi id, tỉ lệ dương tính giả khoảng 1% khi chứa tới {@code expectedEntries} phần tử.
+ * Thêm và kiểm tra không khoá (AtomicLongArray); không xoá được phần tử, {@link TokenRevocationStore} dựng lại
+ * filter mới khi dọn id hết hạn.
+ */
+final class BloomFilter {
+    private static final int HASHES = 7;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+
+    BloomFilter(int expectedEntries) {
+        // m = -n ln(p) / (ln 2)^2 với p = 0.01, khoảng 9.6 bit mỗi phần tử
+        long wanted = (long) Math.ceil(Math.max(expectedEntries, 64) * 9.6);
+        int words = (int) ((wanted + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+    }
+
+    void add(String id) {
+        long hash = hash(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    boolean mightContain(String id) {
+        long hash = hash(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = index(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(int combined) {
+        return (combined & 0x7fffffffL) % bitCount;
+    }
+
+    // FNV-1a 64 bit rồi trộn thêm, hai nửa dùng làm hai hàm băm cơ sở (double hashing)
+    private static long hash(String id) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            h ^= id.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
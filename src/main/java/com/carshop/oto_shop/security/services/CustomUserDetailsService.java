@@ -3,27 +3,88 @@ package com.carshop.oto_shop.security.services;
 import com.carshop.oto_shop.entities.Account;
 import com.carshop.oto_shop.repositories.AccountRepository;
 import com.carshop.oto_shop.security.models.CustomUserDetails;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Nạp tài khoản cho đăng nhập và cho mỗi request có JWT. Tài khoản được tra theo unique index của username
+ * rồi email, kết quả giữ trong cache theo chuỗi đăng nhập với thời hạn ngắn ({@code user-details-cache.ttl-seconds})
+ * và số phần tử tối đa ({@code user-details-cache.max-entries}).
+ *
+ * Khi mật khẩu, quyền hoặc trạng thái đổi, AccountService/UserService phát {@link AccountChangedEvent} và mọi
+ * entry của tài khoản bị bỏ sau commit. Lần nạp đang chạy dở lúc đó không được đưa vào cache (so generation),
+ * nên không giữ lại bản cũ. CustomUserDetails không phải CredentialsContainer nên Spring Security không xoá
+ * mật khẩu trên đối tượng dùng chung sau khi xác thực.
+ */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
     private final AccountRepository accountRepository;
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
 
-    public CustomUserDetailsService(AccountRepository accountRepository) {
+    public CustomUserDetailsService(AccountRepository accountRepository,
+                                    @Value("${user-details-cache.ttl-seconds}") long ttlSeconds,
+                                    @Value("${user-details-cache.max-entries}") int maxEntries) {
         this.accountRepository = accountRepository;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxEntries = maxEntries;
     }
 
     @Override
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
-        // Nếu repository của bạn có method findByUsernameOrEmail thì dùng, ở đây dùng fallback findAll() như bạn đã làm trước.
-        Account account = accountRepository.findAll().stream()
-                .filter(acc -> (acc.getUsername() != null && acc.getUsername().equals(usernameOrEmail)) ||
-                        (acc.getEmail() != null && acc.getEmail().equals(usernameOrEmail)))
-                .findFirst()
+        long now = System.nanoTime();
+        Entry cached = cache.get(usernameOrEmail);
+        if (cached != null && now - cached.loadedAt < ttlNanos) {
+            return cached.details;
+        }
+
+        long loadGeneration = generation.get();
+        Account account = accountRepository.findByUsernameOrEmail(usernameOrEmail)
                 .orElseThrow(() -> new UsernameNotFoundException("Tài khoản không tồn tại: " + usernameOrEmail));
-        return new CustomUserDetails(account);
+        CustomUserDetails details = new CustomUserDetails(account);
+        if (ttlNanos > 0 && loadGeneration == generation.get()) {
+            if (cache.size() >= maxEntries) {
+                prune(now);
+            }
+            cache.put(usernameOrEmail, new Entry(details, now));
+        }
+        return details;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        generation.incrementAndGet();
+        cache.values().removeIf(entry -> event.getAccountId().equals(entry.details.getAccountId()));
+    }
+
+    // Bỏ entry hết hạn; nếu vẫn đầy thì xoá hết, các tài khoản đang dùng sẽ được nạp lại ngay
+    private void prune(long now) {
+        cache.values().removeIf(entry -> now - entry.loadedAt >= ttlNanos);
+        if (cache.size() >= maxEntries) {
+            cache.clear();
+        }
+    }
+
+    private static final class Entry {
+        private final CustomUserDetails details;
+        private final long loadedAt;
+
+        Entry(CustomUserDetails details, long loadedAt) {
+            this.details = details;
+            this.loadedAt = loadedAt;
+        }
     }
 }
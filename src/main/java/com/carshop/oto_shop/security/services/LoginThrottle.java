@@ -0,0 +1,274 @@
+package com.carshop.oto_shop.security.services;
+
+import com.carshop.oto_shop.common.exceptions.ErrorCode;
+import com.carshop.oto_shop.common.exceptions.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Chặn dò mật khẩu và spam ở /api/auth/login, /api/auth/register trước khi chạy BCrypt. Mỗi IP và mỗi username có
+ * một token bucket ({@code auth-rate-limit.*}); hết token thì trả 429 kèm Retry-After. Với username, sau
+ * {@code auth-lockout.threshold} lần sai mật khẩu liên tiếp thì khoá đăng nhập {@code auth-lockout.base-seconds}
+ * giây, mỗi lần sai tiếp theo gấp đôi, tối đa {@code auth-lockout.max-seconds}; đăng nhập đúng thì xoá đếm.
+ *
+ * Bucket theo IP và trạng thái theo username nằm ở hai bảng riêng, mỗi bảng có giới hạn
+ * {@code auth-rate-limit.max-entries} phần tử, chia {@value #STRIPES} phần (lock striping), mỗi phần là một
+ * LinkedHashMap theo thứ tự truy cập. Khoá không dùng quá {@code auth-rate-limit.idle-seconds} (bucket đã đầy lại,
+ * không bị khoá) bị bỏ ngay khi phần đó được truy cập, nên số lần sai cũng được quên sau khoảng đó. Khi phần đầy:
+ * <ul>
+ *   <li>bảng IP bỏ IP lâu nhất không dùng;</li>
+ *   <li>bảng username bỏ username lâu nhất không dùng trong số chưa có lần sai, nếu không có thì trong số đang
+ *   không bị khoá đăng nhập; chỉ khi mọi username trong phần đều đang bị khoá thì username mới bị từ chối bằng 429
+ *   (tối đa {@code auth-lockout.max-seconds}), để khoá rác không xoá được trạng thái khoá của username đang bị dò.</li>
+ * </ul>
+ * Nhờ tách bảng, việc làm đầy bảng username bằng các username rác không chặn IP mới hay đăng ký.
+ */
+@Service
+public class LoginThrottle {
+    private static final int STRIPES = 64;
+    // Chặn tràn số khi gấp đôi thời gian khoá
+    private static final int MAX_DOUBLINGS = 20;
+
+    private final Limit ipLimit;
+    private final Limit usernameLimit;
+    private final int lockoutThreshold;
+    private final long lockoutBaseNanos;
+    private final long lockoutMaxNanos;
+    private final long idleNanos;
+    private final int maxEntriesPerStripe;
+    private final LongSupplier clock;
+    private final Stripe[] ipStripes = new Stripe[STRIPES];
+    private final Stripe[] usernameStripes = new Stripe[STRIPES];
+
+    @Autowired
+    public LoginThrottle(@Value("${auth-rate-limit.ip.capacity}") int ipCapacity,
+                         @Value("${auth-rate-limit.ip.refill-per-minute}") int ipRefillPerMinute,
+                         @Value("${auth-rate-limit.username.capacity}") int usernameCapacity,
+                         @Value("${auth-rate-limit.username.refill-per-minute}") int usernameRefillPerMinute,
+                         @Value("${auth-rate-limit.max-entries}") int maxEntries,
+                         @Value("${auth-rate-limit.idle-seconds}") long idleSeconds,
+                         @Value("${auth-lockout.threshold}") int lockoutThreshold,
+                         @Value("${auth-lockout.base-seconds}") long lockoutBaseSeconds,
+                         @Value("${auth-lockout.max-seconds}") long lockoutMaxSeconds) {
+        this(new Limit(ipCapacity, ipRefillPerMinute), new Limit(usernameCapacity, usernameRefillPerMinute),
+                maxEntries, idleSeconds, lockoutThreshold, lockoutBaseSeconds, lockoutMaxSeconds, System::nanoTime);
+    }
+
+    LoginThrottle(Limit ipLimit, Limit usernameLimit, int maxEntries, long idleSeconds, int lockoutThreshold,
+                  long lockoutBaseSeconds, long lockoutMaxSeconds, LongSupplier clock) {
+        this.ipLimit = ipLimit;
+        this.usernameLimit = usernameLimit;
+        this.maxEntriesPerStripe = Math.max(1, maxEntries / STRIPES);
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+        this.lockoutThreshold = lockoutThreshold;
+        this.lockoutBaseNanos = TimeUnit.SECONDS.toNanos(lockoutBaseSeconds);
+        this.lockoutMaxNanos = TimeUnit.SECONDS.toNanos(lockoutMaxSeconds);
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            ipStripes[i] = new Stripe(false);
+            usernameStripes[i] = new Stripe(true);
+        }
+    }
+
+    /**
+     * Gọi trước khi kiểm mật khẩu; ném {@link TooManyRequestsException} nếu username đang bị khoá hoặc IP/username
+     * hết lượt.
+     */
+    public void checkLogin(String clientIp, String username) {
+        long now = clock.getAsLong();
+        String userKey = userKey(username);
+        long locked = lockRemaining(userKey, now);
+        if (locked > 0) {
+            throw new TooManyRequestsException(ErrorCode.LOGIN_TEMPORARILY_LOCKED, toRetryAfter(locked));
+        }
+        acquire(ipStripes, ipKey(clientIp), ipLimit, now);
+        acquire(usernameStripes, userKey, usernameLimit, now);
+    }
+
+    public void checkRegister(String clientIp) {
+        acquire(ipStripes, ipKey(clientIp), ipLimit, clock.getAsLong());
+    }
+
+    public void loginFailed(String username) {
+        long now = clock.getAsLong();
+        String key = userKey(username);
+        Stripe stripe = stripe(usernameStripes, key);
+        synchronized (stripe) {
+            State state = stripe.get(key, usernameLimit, now);
+            if (state == null) {
+                // Chỉ xảy ra khi phần đầy username đang bị khoá và username này đã bị bỏ sau checkLogin; lượt kế tiếp sẽ bị chặn
+                return;
+            }
+            state.failures++;
+            if (state.failures >= lockoutThreshold) {
+                int doublings = Math.min(state.failures - lockoutThreshold, MAX_DOUBLINGS);
+                state.lockedUntil = now + Math.min(lockoutBaseNanos << doublings, lockoutMaxNanos);
+            }
+        }
+    }
+
+    public void loginSucceeded(String username) {
+        long now = clock.getAsLong();
+        String key = userKey(username);
+        Stripe stripe = stripe(usernameStripes, key);
+        synchronized (stripe) {
+            State state = stripe.states.get(key);
+            if (state != null) {
+                state.failures = 0;
+                state.lockedUntil = now;
+            }
+        }
+    }
+
+    private void acquire(Stripe[] table, String key, Limit limit, long now) {
+        Stripe stripe = stripe(table, key);
+        long wait;
+        synchronized (stripe) {
+            State state = stripe.get(key, limit, now);
+            if (state == null) {
+                throw new TooManyRequestsException(ErrorCode.TOO_MANY_REQUESTS, toRetryAfter(stripe.retryAfterFull(now)));
+            }
+            state.tokens = Math.min(limit.capacity, state.tokens + (now - state.refilledAt) * limit.tokensPerNano);
+            state.refilledAt = now;
+            if (state.tokens >= 1) {
+                state.tokens -= 1;
+                return;
+            }
+            wait = (long) Math.ceil((1 - state.tokens) / limit.tokensPerNano);
+        }
+        throw new TooManyRequestsException(ErrorCode.TOO_MANY_REQUESTS, toRetryAfter(wait));
+    }
+
+    private long lockRemaining(String key, long now) {
+        Stripe stripe = stripe(usernameStripes, key);
+        synchronized (stripe) {
+            State state = stripe.states.get(key);
+            return state == null ? 0 : state.lockedUntil - now;
+        }
+    }
+
+    private static Stripe stripe(Stripe[] table, String key) {
+        return table[stripeIndex(key)];
+    }
+
+    static int stripeIndex(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static long toRetryAfter(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private static String ipKey(String clientIp) {
+        return clientIp == null ? "" : clientIp;
+    }
+
+    static String userKey(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static final class Limit {
+        private final int capacity;
+        private final double tokensPerNano;
+
+        Limit(int capacity, int refillPerMinute) {
+            this.capacity = capacity;
+            this.tokensPerNano = refillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        }
+    }
+
+    private final class Stripe {
+        // accessOrder = true: phần tử đầu là khoá lâu nhất không dùng
+        private final LinkedHashMap<String, State> states = new LinkedHashMap<>(16, 0.75f, true);
+        // Bảng username: giữ lại số lần sai và trạng thái khoá đăng nhập khi phải bỏ bớt
+        private final boolean keepsLockouts;
+
+        Stripe(boolean keepsLockouts) {
+            this.keepsLockouts = keepsLockouts;
+        }
+
+        // null nếu khoá chưa có và phần đã đầy các khoá không được bỏ
+        State get(String key, Limit limit, long now) {
+            evictIdle(now);
+            State state = states.get(key);
+            if (state == null) {
+                if (states.size() >= maxEntriesPerStripe && !evictOne(now)) {
+                    return null;
+                }
+                state = new State(limit.capacity, now);
+                states.put(key, state);
+            }
+            state.lastSeen = now;
+            return state;
+        }
+
+        // Theo thứ tự truy cập nên gặp khoá chưa idle là dừng; khoá idle nhưng còn bị khoá đăng nhập thì giữ lại
+        private void evictIdle(long now) {
+            Iterator<State> it = states.values().iterator();
+            while (it.hasNext()) {
+                State eldest = it.next();
+                if (now - eldest.lastSeen < idleNanos) {
+                    return;
+                }
+                if (now - eldest.lockedUntil >= 0) {
+                    it.remove();
+                }
+            }
+        }
+
+        private boolean evictOne(long now) {
+            if (!keepsLockouts) {
+                Iterator<State> it = states.values().iterator();
+                it.next();
+                it.remove();
+                return true;
+            }
+            return evictOldest(now, true) || evictOldest(now, false);
+        }
+
+        // Bỏ khoá lâu nhất không dùng mà không bị khoá đăng nhập (và chưa có lần sai nào nếu onlyClean)
+        private boolean evictOldest(long now, boolean onlyClean) {
+            Iterator<State> it = states.values().iterator();
+            while (it.hasNext()) {
+                State state = it.next();
+                if ((!onlyClean || state.failures == 0) && now - state.lockedUntil >= 0) {
+                    it.remove();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Mọi khoá trong phần đều đang bị khoá đăng nhập: chờ tới khi khoá sớm hết nhất
+        long retryAfterFull(long now) {
+            long earliest = Long.MAX_VALUE;
+            for (State state : states.values()) {
+                earliest = Math.min(earliest, state.lockedUntil - now);
+            }
+            return earliest;
+        }
+    }
+
+    private static final class State {
+        private double tokens;
+        private long refilledAt;
+        private long lastSeen;
+        private int failures;
+        private long lockedUntil;
+
+        State(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+            this.lastSeen = now;
+            this.lockedUntil = now;
+        }
+    }
+}
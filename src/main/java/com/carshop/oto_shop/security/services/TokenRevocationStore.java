@@ -0,0 +1,159 @@
+package com.carshop.oto_shop.security.services;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kho id token đã thu hồi: bảng revoked_tokens là nguồn chính, phía trước là một {@link BloomFilter} trong bộ nhớ
+ * chứa mọi id họ token (family) bị thu hồi. Kiểm tra trên mỗi request ({@link #isRevoked}) là O(1) và không đọc DB
+ * khi filter trả lời "chắc chắn không có" - trường hợp thường gặp; chỉ khoảng 1% dương tính giả mới phải hỏi DB.
+ *
+ * Jti của refresh token đã đổi ({@link #markUsed}) chỉ nằm trong DB: nó chỉ được hỏi ở /api/auth/refresh, và lệnh
+ * INSERT thất bại vì trùng khoá chính chính là dấu hiệu refresh token bị dùng lại.
+ *
+ * Mỗi {@code jwt.revocation.reload-seconds} giây, dòng hết hạn bị xoá và filter được dựng lại từ DB; nhờ vậy filter
+ * không phình mãi và thu hồi từ instance khác cũng được thấy sau tối đa một chu kỳ. Trước lần nạp đầu (hoặc khi
+ * nạp lỗi) mọi kiểm tra đều hỏi DB.
+ */
+@Service
+public class TokenRevocationStore {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationStore.class);
+
+    public static final String REASON_LOGOUT = "LOGOUT";
+    public static final String REASON_REUSED = "REUSED";
+    public static final String REASON_ROTATED = "ROTATED";
+
+    private static final String INSERT = "INSERT INTO revoked_tokens (token_id, reason, expires_at) VALUES (?, ?, ?)";
+    private static final String REVOKE = INSERT + " ON DUPLICATE KEY UPDATE reason = VALUES(reason), "
+            + "expires_at = GREATEST(expires_at, VALUES(expires_at))";
+    private static final String EXISTS = "SELECT COUNT(*) FROM revoked_tokens WHERE token_id = ? AND expires_at > ?";
+    private static final String PRUNE = "DELETE FROM revoked_tokens WHERE expires_at <= ?";
+    private static final String LOAD = "SELECT token_id FROM revoked_tokens WHERE reason <> '" + REASON_ROTATED
+            + "' AND expires_at > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int expectedEntries;
+    private final long reloadSeconds;
+
+    private volatile BloomFilter filter;
+    // Filter đang được dựng lại; thu hồi trong lúc đó được ghi vào cả hai
+    private BloomFilter rebuilding;
+    private volatile boolean loaded;
+    private ScheduledExecutorService scheduler;
+
+    public TokenRevocationStore(JdbcTemplate jdbcTemplate,
+                                @Value("${jwt.revocation.expected-entries}") int expectedEntries,
+                                @Value("${jwt.revocation.reload-seconds}") long reloadSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.expectedEntries = expectedEntries;
+        this.reloadSeconds = reloadSeconds;
+        this.filter = new BloomFilter(expectedEntries);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reload, reloadSeconds, reloadSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Thu hồi id (họ token) tới thời điểm {@code expiresAt}, sau đó mọi token mang id này đều đã hết hạn.
+     */
+    public void revoke(String id, String reason, Instant expiresAt) {
+        jdbcTemplate.update(REVOKE, id, reason, toTimestamp(expiresAt));
+        synchronized (this) {
+            filter.add(id);
+            if (rebuilding != null) {
+                rebuilding.add(id);
+            }
+        }
+    }
+
+    /**
+     * Đánh dấu jti refresh token đã dùng; false nếu nó đã được dùng trước đó (token bị dùng lại).
+     */
+    public boolean markUsed(String jti, Instant expiresAt) {
+        try {
+            jdbcTemplate.update(INSERT, jti, REASON_ROTATED, toTimestamp(expiresAt));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public boolean isRevoked(String id) {
+        if (loaded && !filter.mightContain(id)) {
+            return false;
+        }
+        return isRevokedInDatabase(id);
+    }
+
+    // Bỏ qua filter, dùng ở nơi cần thấy ngay thu hồi từ instance khác (đổi refresh token)
+    public boolean isRevokedInDatabase(String id) {
+        Long count = jdbcTemplate.queryForObject(EXISTS, Long.class, id, toTimestamp(Instant.now()));
+        return count != null && count > 0;
+    }
+
+    /**
+     * Xoá dòng hết hạn rồi dựng lại filter từ các id còn hiệu lực.
+     */
+    public void reload() {
+        BloomFilter next = new BloomFilter(expectedEntries);
+        synchronized (this) {
+            rebuilding = next;
+        }
+        try {
+            Timestamp now = toTimestamp(Instant.now());
+            int pruned = jdbcTemplate.update(PRUNE, now);
+            jdbcTemplate.query(LOAD, rs -> {
+                next.add(rs.getString(1));
+            }, now);
+            synchronized (this) {
+                filter = next;
+                loaded = true;
+            }
+            if (pruned > 0) {
+                logger.debug("Pruned {} expired revoked token ids", pruned);
+            }
+        } catch (DataAccessException e) {
+            // Giữ filter cũ; nếu chưa từng nạp được thì isRevoked tiếp tục hỏi DB
+            logger.warn("Could not reload revoked token ids: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                rebuilding = null;
+            }
+        }
+    }
+
+    private static Timestamp toTimestamp(Instant instant) {
+        return Timestamp.valueOf(LocalDateTime.ofInstant(instant, ZoneId.systemDefault()));
+    }
+}
@@ -11,7 +11,9 @@ import com.carshop.oto_shop.entities.User;
 import com.carshop.oto_shop.mappers.AccountMapper;
 import com.carshop.oto_shop.repositories.AccountRepository;
 import com.carshop.oto_shop.repositories.UserRepository;
+import com.carshop.oto_shop.security.services.AccountChangedEvent;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -24,12 +26,15 @@ public class AccountService {
     private final UserRepository userRepository;
     private final AccountRepository accountRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AccountService(AccountMapper accountMapper, UserRepository userRepository, AccountRepository accountRepository, PasswordEncoder passwordEncoder) {
+    public AccountService(AccountMapper accountMapper, UserRepository userRepository, AccountRepository accountRepository,
+                          PasswordEncoder passwordEncoder, ApplicationEventPublisher eventPublisher) {
         this.accountMapper = accountMapper;
         this.userRepository = userRepository;
         this.accountRepository = accountRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
     public void CreateAccount(AccountRequest accountRequest) {
         try{
@@ -71,6 +76,7 @@ public class AccountService {
 
             // Lưu lại vào DB
             accountRepository.save(account);
+            eventPublisher.publishEvent(new AccountChangedEvent(accountId));
 
         }catch (DataIntegrityViolationException e) {
             String message = e.getMostSpecificCause().getMessage();
@@ -97,6 +103,7 @@ public class AccountService {
                 .orElseThrow(() -> new AppException(ErrorCode.ACCOUNT_NOT_FOUND));
         userRepository.deleteAllByAccountId(accountId);
         accountRepository.delete(account);
+        eventPublisher.publishEvent(new AccountChangedEvent(accountId));
     }
 
     public AccountResponse GetAccount(String accountId) {
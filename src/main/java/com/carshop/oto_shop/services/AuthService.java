@@ -12,15 +12,23 @@ import com.carshop.oto_shop.repositories.AccountRepository;
 import com.carshop.oto_shop.repositories.UserRepository;
 import com.carshop.oto_shop.security.jwt.JwtTokenProvider;
 import com.carshop.oto_shop.security.models.CustomUserDetails;
+import com.carshop.oto_shop.security.services.CustomUserDetailsService;
+import com.carshop.oto_shop.security.services.LoginThrottle;
+import com.carshop.oto_shop.security.services.TokenRevocationStore;
+import io.jsonwebtoken.Claims;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.UUID;
 import java.util.regex.Pattern;
 
 @Service
@@ -31,46 +39,106 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
+    private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationStore revocationStore;
+    private final LoginThrottle loginThrottle;
     private static final Pattern EMAIL_PATTERN =
             Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
 
-    public AuthService(AccountRepository accountRepository, UserRepository userRepository, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JwtTokenProvider jwtTokenProvider) {
+    public AuthService(AccountRepository accountRepository, UserRepository userRepository, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JwtTokenProvider jwtTokenProvider, CustomUserDetailsService userDetailsService, TokenRevocationStore revocationStore, LoginThrottle loginThrottle) {
         this.accountRepository = accountRepository;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.userDetailsService = userDetailsService;
+        this.revocationStore = revocationStore;
+        this.loginThrottle = loginThrottle;
     }
 
-    public JwtResponse login(LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-        );
+    public JwtResponse login(LoginRequest request, String clientIp) {
+        // Chặn trước khi kiểm mật khẩu (BCrypt) để request bị giới hạn không tốn CPU
+        loginThrottle.checkLogin(clientIp, request.getUsername());
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
+            );
+        } catch (BadCredentialsException e) {
+            loginThrottle.loginFailed(request.getUsername());
+            throw e;
+        }
+        loginThrottle.loginSucceeded(request.getUsername());
         // Lấy thông tin user đã xác thực
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-        String username = userDetails.getUsername();
-        String role = userDetails.getRole();
-        String accessToken = jwtTokenProvider.generateToken(username, role);
-        String refreshToken = jwtTokenProvider.generateRefreshToken(username, role);
+        // Mỗi lần đăng nhập mở một họ token mới, đăng xuất hay phát hiện dùng lại sẽ thu hồi cả họ
+        String family = UUID.randomUUID().toString();
+        String accessToken = jwtTokenProvider.generateToken(userDetails, family);
+        String refreshToken = jwtTokenProvider.generateRefreshToken(userDetails, family);
 
         return new JwtResponse(accessToken, refreshToken);
     }
 
+    /**
+     * Đổi refresh token lấy cặp token mới. Refresh token chỉ dùng được một lần: jti của nó được ghi vào
+     * revoked_tokens trước khi cấp token mới; nếu jti đã có ở đó thì token đã bị dùng lại (có thể bị lộ) và cả
+     * họ token của phiên bị thu hồi, kể cả access token đang lưu hành.
+     */
     public JwtResponse refreshToken(String refreshToken) {
-        if (refreshToken == null || !jwtTokenProvider.validateToken(refreshToken)) {
+        Claims claims = refreshToken == null ? null : jwtTokenProvider.parseClaims(refreshToken);
+        if (claims == null || claims.getSubject() == null || claims.getId() == null
+                || !JwtTokenProvider.TYPE_REFRESH.equals(claims.get(JwtTokenProvider.CLAIM_TYPE, String.class))) {
+            throw new AppException(ErrorCode.INVALID_OR_EXPIRED_REFRESH_TOKEN);
+        }
+        String family = claims.get(JwtTokenProvider.CLAIM_FAMILY, String.class);
+        if (family == null || revocationStore.isRevokedInDatabase(family)) {
+            throw new AppException(ErrorCode.INVALID_OR_EXPIRED_REFRESH_TOKEN);
+        }
+        if (!revocationStore.markUsed(claims.getId(), claims.getExpiration().toInstant())) {
+            logger.warn("Refresh token reuse detected for [{}], revoking token family {}", claims.getSubject(), family);
+            revokeFamily(family, TokenRevocationStore.REASON_REUSED);
             throw new AppException(ErrorCode.INVALID_OR_EXPIRED_REFRESH_TOKEN);
         }
 
-        String username = jwtTokenProvider.getUsernameFromToken(refreshToken);
-        String role = jwtTokenProvider.getRoleFromToken(refreshToken);
-        String newAccessToken = jwtTokenProvider.generateToken(username, role);
+        // Access token mới mang quyền và trạng thái hiện tại của tài khoản, không chép từ refresh token
+        CustomUserDetails userDetails;
+        try {
+            userDetails = (CustomUserDetails) userDetailsService.loadUserByUsername(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            throw new AppException(ErrorCode.INVALID_OR_EXPIRED_REFRESH_TOKEN);
+        }
+        if (!userDetails.isEnabled()) {
+            throw new AppException(ErrorCode.INVALID_OR_EXPIRED_REFRESH_TOKEN);
+        }
+        String newAccessToken = jwtTokenProvider.generateToken(userDetails, family);
+        String newRefreshToken = jwtTokenProvider.generateRefreshToken(userDetails, family);
+
+        return new JwtResponse(newAccessToken, newRefreshToken);
+    }
+
+    /**
+     * Thu hồi phiên của refresh token (cookie) hoặc access token (header); token không đọc được thì bỏ qua
+     * vì đã hết hạn hoặc không hợp lệ.
+     */
+    public void logout(String refreshToken, String accessToken) {
+        for (String token : new String[]{refreshToken, accessToken}) {
+            Claims claims = token == null ? null : jwtTokenProvider.parseClaims(token);
+            String family = claims == null ? null : claims.get(JwtTokenProvider.CLAIM_FAMILY, String.class);
+            if (family != null) {
+                revokeFamily(family, TokenRevocationStore.REASON_LOGOUT);
+                return;
+            }
+        }
+    }
 
-        // ⚠️ Không cần tạo refreshToken mới ở đây (vì vẫn còn hạn)
-        return new JwtResponse(newAccessToken, null);
+    // Token mới nhất trong họ được cấp trước lúc này nên hết hạn trước now + refreshExpiration
+    private void revokeFamily(String family, String reason) {
+        revocationStore.revoke(family, reason, Instant.now().plusMillis(jwtTokenProvider.getRefreshExpiration()));
     }
 
     @Transactional
-    public void register(SignupRequest request) {
+    public void register(SignupRequest request, String clientIp) {
+        loginThrottle.checkRegister(clientIp);
         String username = request.getUsername();
         String fullName = request.getFullName();
 
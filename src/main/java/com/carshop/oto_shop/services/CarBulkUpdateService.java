@@ -0,0 +1,124 @@
+package com.carshop.oto_shop.services;
+
+import com.carshop.oto_shop.catalog.CarCatalogChangedEvent;
+import com.carshop.oto_shop.common.exceptions.BadRequestException;
+import com.carshop.oto_shop.dto.car.CarBulkUpdateRequest;
+import com.carshop.oto_shop.dto.car.CarBulkUpdateResponse;
+import com.carshop.oto_shop.repositories.CarRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Đổi giá/trạng thái của nhiều xe cùng lúc bằng UPDATE theo tập thay vì findById + save từng xe.
+ * Xe khớp bộ lọc được xử lý theo chunk ({@code car-bulk-update.chunk-size} xe), mỗi chunk một transaction
+ * ngắn nên không giữ khoá trên cả bảng. Chỉ phát một {@link CarCatalogChangedEvent} sau vòng lặp, để
+ * cache/index làm mới một lần; nếu một chunk lỗi, event vẫn mang các xe của những chunk đã commit trước đó.
+ */
+@Service
+public class CarBulkUpdateService {
+    private static final Logger logger = LoggerFactory.getLogger(CarBulkUpdateService.class);
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final CarRepository carRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public CarBulkUpdateService(CarRepository carRepository,
+                                PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${car-bulk-update.chunk-size}") int chunkSize) {
+        this.carRepository = carRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    public CarBulkUpdateResponse bulkUpdate(CarBulkUpdateRequest request) {
+        Function<List<Long>, Integer> update = toUpdate(request);
+        List<Long> matched = new ArrayList<>();
+        int[] updated = {0};
+
+        try {
+            if (request.getCarIds() != null && !request.getCarIds().isEmpty()) {
+                List<Long> carIds = request.getCarIds().stream().distinct().sorted().toList();
+                for (int from = 0; from < carIds.size(); from += chunkSize) {
+                    List<Long> slice = carIds.subList(from, Math.min(from + chunkSize, carIds.size()));
+                    matched.addAll(transactionTemplate.execute(status -> {
+                        List<Long> ids = carRepository.findIdsIn(slice, request.getBrand(), request.getCategory());
+                        updated[0] += ids.isEmpty() ? 0 : update.apply(ids);
+                        return ids;
+                    }));
+                }
+            } else {
+                Long after = Long.MIN_VALUE;
+                while (true) {
+                    Long cursor = after;
+                    List<Long> ids = transactionTemplate.execute(status -> {
+                        List<Long> chunk = carRepository.findIdsAfter(request.getBrand(), request.getCategory(),
+                                cursor, Limit.of(chunkSize));
+                        updated[0] += chunk.isEmpty() ? 0 : update.apply(chunk);
+                        return chunk;
+                    });
+                    if (ids.isEmpty()) {
+                        break;
+                    }
+                    matched.addAll(ids);
+                    after = ids.get(ids.size() - 1);
+                }
+            }
+        } finally {
+            // Chunk đã commit vẫn phải làm mới cache/index dù chunk sau lỗi
+            if (!matched.isEmpty()) {
+                eventPublisher.publishEvent(new CarCatalogChangedEvent(matched));
+            }
+        }
+        logger.info("Bulk {} on {} cars, {} rows updated", request.getOperation(), matched.size(), updated[0]);
+        return new CarBulkUpdateResponse(matched.size(), updated[0]);
+    }
+
+    private Function<List<Long>, Integer> toUpdate(CarBulkUpdateRequest request) {
+        if ((request.getCarIds() == null || request.getCarIds().isEmpty())
+                && request.getBrand() == null && request.getCategory() == null) {
+            throw new BadRequestException("Cần ít nhất một điều kiện lọc (carIds, brand hoặc category)!");
+        }
+        if (request.getOperation() == null) {
+            throw new BadRequestException("Thao tác không được để trống!");
+        }
+        switch (request.getOperation()) {
+            case SET_PRICE -> {
+                BigDecimal price = request.getPrice();
+                if (price == null || price.signum() <= 0) {
+                    throw new BadRequestException("Giá mới phải lớn hơn 0!");
+                }
+                return ids -> carRepository.updatePrice(ids, price);
+            }
+            case ADJUST_PRICE -> {
+                BigDecimal percent = request.getPercent();
+                if (percent == null || percent.compareTo(HUNDRED.negate()) <= 0) {
+                    throw new BadRequestException("Phần trăm điều chỉnh giá phải lớn hơn -100!");
+                }
+                BigDecimal factor = BigDecimal.ONE.add(percent.divide(HUNDRED));
+                return ids -> carRepository.scalePrice(ids, factor);
+            }
+            case SET_STATUS -> {
+                if (request.getStatus() == null) {
+                    throw new BadRequestException("Trạng thái mới không được để trống!");
+                }
+                return ids -> carRepository.updateStatus(ids, request.getStatus());
+            }
+            default -> throw new BadRequestException("Thao tác không hợp lệ!");
+        }
+    }
+}
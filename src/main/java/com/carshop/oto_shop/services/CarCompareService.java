@@ -0,0 +1,174 @@
+package com.carshop.oto_shop.services;
+
+import com.carshop.oto_shop.catalog.CarCatalogChangedEvent;
+import com.carshop.oto_shop.common.exceptions.AppException;
+import com.carshop.oto_shop.common.exceptions.BadRequestException;
+import com.carshop.oto_shop.common.exceptions.ErrorCode;
+import com.carshop.oto_shop.dto.car.CarComparisonResponse;
+import com.carshop.oto_shop.dto.car.CarResponse;
+import com.carshop.oto_shop.entities.Car;
+import com.carshop.oto_shop.entities.CarDetail;
+import com.carshop.oto_shop.repositories.CarRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * So sánh nhiều xe: đọc toàn bộ xe + CarDetail bằng một truy vấn IN, dựng ma trận thông số và đánh dấu
+ * giá trị tốt nhất mỗi dòng. Các bộ xe hay được so sánh được cache (LRU), bị xoá khi một xe trong bộ
+ * hoặc thông số của nó thay đổi ({@link CarCatalogChangedEvent}).
+ */
+@Service
+public class CarCompareService {
+    private static final int MAX_COMPARE_CARS = 4;
+    private static final int MAX_CACHED_MATRICES = 256;
+
+    private static final List<Spec> SPECS = List.of(
+            new Spec("horsepower", "hp", true, (car, detail) -> detail != null ? detail.getHorsepower() : null),
+            new Spec("torque", "Nm", true, (car, detail) -> detail != null ? detail.getTorque() : null),
+            new Spec("seats", "chỗ", true, (car, detail) -> detail != null ? detail.getSeats() : null),
+            new Spec("weight", "kg", false, (car, detail) -> detail != null ? detail.getWeight() : null),
+            new Spec("price", "VND", false, (car, detail) -> car.getPrice()),
+            new Spec("manufactureYear", null, true, (car, detail) -> car.getManufactureYear()));
+
+    private final CarRepository carRepository;
+    private final CarService carService;
+
+    // Khoá là danh sách car_id theo thứ tự cột yêu cầu
+    private final Map<List<Long>, CarComparisonResponse> cache =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Long>, CarComparisonResponse> eldest) {
+                    return size() > MAX_CACHED_MATRICES;
+                }
+            };
+    // Tăng mỗi lần invalidate, để kết quả đọc trước một lần ghi không bị đưa vào cache sau đó
+    private long generation;
+
+    public CarCompareService(CarRepository carRepository, CarService carService) {
+        this.carRepository = carRepository;
+        this.carService = carService;
+    }
+
+    public CarComparisonResponse compareCars(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BadRequestException("Cần ít nhất một xe để so sánh!");
+        }
+        List<Long> carIds = List.copyOf(new LinkedHashSet<>(ids));
+        if (carIds.size() > MAX_COMPARE_CARS) {
+            throw new BadRequestException("Chỉ so sánh tối đa " + MAX_COMPARE_CARS + " xe!");
+        }
+
+        long seenGeneration;
+        synchronized (cache) {
+            CarComparisonResponse cached = cache.get(carIds);
+            if (cached != null) {
+                return cached;
+            }
+            seenGeneration = generation;
+        }
+
+        CarComparisonResponse comparison = buildComparison(carIds);
+        synchronized (cache) {
+            if (generation == seenGeneration) {
+                cache.put(carIds, comparison);
+            }
+        }
+        return comparison;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CarCatalogChangedEvent event) {
+        synchronized (cache) {
+            generation++;
+            cache.keySet().removeIf(carIds -> event.getCarIds().stream().anyMatch(carIds::contains));
+        }
+    }
+
+    private CarComparisonResponse buildComparison(List<Long> carIds) {
+        Map<Long, Car> cars = new HashMap<>();
+        Map<Long, CarDetail> details = new HashMap<>();
+        for (Object[] row : carRepository.findWithDetailsByIds(carIds)) {
+            Car car = (Car) row[0];
+            cars.put(car.getCarId(), car);
+            if (row[1] != null) {
+                details.put(car.getCarId(), (CarDetail) row[1]);
+            }
+        }
+        if (cars.size() < carIds.size()) {
+            throw new AppException(ErrorCode.CAR_NOT_FOUND);
+        }
+
+        List<CarResponse> columns = new ArrayList<>(carIds.size());
+        for (Long carId : carIds) {
+            columns.add(carService.toCarResponse(cars.get(carId)));
+        }
+        List<CarComparisonResponse.Row> rows = new ArrayList<>(SPECS.size());
+        for (Spec spec : SPECS) {
+            List<Number> values = new ArrayList<>(carIds.size());
+            for (Long carId : carIds) {
+                values.add(spec.extractor.apply(cars.get(carId), details.get(carId)));
+            }
+            rows.add(toRow(spec, carIds, values));
+        }
+        return new CarComparisonResponse(columns, rows);
+    }
+
+    // Chuẩn hoá min-max trong dòng, đảo chiều với thông số càng thấp càng tốt (giá, trọng lượng)
+    private static CarComparisonResponse.Row toRow(Spec spec, List<Long> carIds, List<Number> values) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Number value : values) {
+            if (value != null) {
+                min = Math.min(min, value.doubleValue());
+                max = Math.max(max, value.doubleValue());
+            }
+        }
+        List<Double> scores = new ArrayList<>(values.size());
+        List<Long> best = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+            Number value = values.get(i);
+            if (value == null) {
+                scores.add(null);
+                continue;
+            }
+            double v = value.doubleValue();
+            double score = max == min ? 1.0 : spec.higherIsBetter ? (v - min) / (max - min) : (max - v) / (max - min);
+            scores.add(score);
+            if (score == 1.0) {
+                best.add(carIds.get(i));
+            }
+        }
+
+        CarComparisonResponse.Row row = new CarComparisonResponse.Row();
+        row.setAttribute(spec.attribute);
+        row.setUnit(spec.unit);
+        row.setHigherIsBetter(spec.higherIsBetter);
+        row.setValues(values);
+        row.setScores(scores);
+        row.setBestCarIds(best);
+        return row;
+    }
+
+    private static final class Spec {
+        private final String attribute;
+        private final String unit;
+        private final boolean higherIsBetter;
+        private final BiFunction<Car, CarDetail, Number> extractor;
+
+        Spec(String attribute, String unit, boolean higherIsBetter, BiFunction<Car, CarDetail, Number> extractor) {
+            this.attribute = attribute;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+            this.extractor = extractor;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.carshop.oto_shop.services;
 
+import com.carshop.oto_shop.catalog.CarCatalogChangedEvent;
 import com.carshop.oto_shop.common.exceptions.AppException;
 import com.carshop.oto_shop.common.exceptions.BadRequestException;
 import com.carshop.oto_shop.common.exceptions.DuplicateKeyException;
@@ -11,6 +12,7 @@ import com.carshop.oto_shop.entities.CarDetail;
 import com.carshop.oto_shop.mappers.CarDetailMapper;
 import com.carshop.oto_shop.repositories.CarDetailRepository;
 import com.carshop.oto_shop.repositories.CarRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
@@ -21,12 +23,15 @@ public class CarDetailService {
     private final CarDetailMapper carDetailMapper;
     private final CarDetailRepository carDetailRepository;
     private final CarRepository carRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private CarDetailRequest CarDetailRepository;
 
-    public CarDetailService(CarDetailMapper carDetailMapper, CarDetailRepository carDetailRepository, CarRepository carRepository) {
+    public CarDetailService(CarDetailMapper carDetailMapper, CarDetailRepository carDetailRepository, CarRepository carRepository,
+                            ApplicationEventPublisher eventPublisher) {
         this.carDetailMapper = carDetailMapper;
         this.carDetailRepository = carDetailRepository;
         this.carRepository = carRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public void createCarDetail(Long carId, CarDetailRequest carDetailRequest) {
@@ -36,6 +41,7 @@ public class CarDetailService {
             CarDetail carDetail = carDetailMapper.toCarDetail(carDetailRequest);
             carDetail.setCar(car);
             carDetailRepository.save(carDetail);
+            eventPublisher.publishEvent(CarCatalogChangedEvent.of(carId));
         }catch(DataIntegrityViolationException e){
             String message = e.getMostSpecificCause().getMessage();
             if(message != null){
@@ -61,6 +67,7 @@ public class CarDetailService {
                     .orElseThrow(() -> new AppException(ErrorCode.CAR_DETAIL_NOT_FOUND));
             carDetailMapper.updateCarDetail(carDetailRequest, carDetail);
             carDetailRepository.save(carDetail);
+            eventPublisher.publishEvent(CarCatalogChangedEvent.of(carDetail.getCar().getCarId()));
         }catch (DataIntegrityViolationException e){
             String message = e.getMostSpecificCause().getMessage();
             if(message != null){
@@ -83,6 +90,7 @@ public class CarDetailService {
         CarDetail carDetail = carDetailRepository.findById(carDetailId)
                 .orElseThrow(() -> new AppException(ErrorCode.CAR_DETAIL_NOT_FOUND));
         carDetailRepository.delete(carDetail);
+        eventPublisher.publishEvent(CarCatalogChangedEvent.of(carDetail.getCar().getCarId()));
     }
 
     public CarDetailResponse getCarDetail(Long detailId) {
@@ -0,0 +1,323 @@
+package com.carshop.oto_shop.services;
+
+import com.carshop.oto_shop.catalog.CarCatalogChangedEvent;
+import com.carshop.oto_shop.common.exceptions.BadRequestException;
+import com.carshop.oto_shop.common.id.EntityIds;
+import com.carshop.oto_shop.common.io.CsvRowReader;
+import com.carshop.oto_shop.common.io.NdjsonRowReader;
+import com.carshop.oto_shop.common.io.RowReader;
+import com.carshop.oto_shop.dto.car.CarImportResponse;
+import com.carshop.oto_shop.entities.Car;
+import com.carshop.oto_shop.entities.CarDetail;
+import com.carshop.oto_shop.enums.Brand;
+import com.carshop.oto_shop.enums.CarStatus;
+import com.carshop.oto_shop.enums.Category;
+import com.carshop.oto_shop.enums.Color;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Nhập xe hàng loạt từ CSV hoặc NDJSON. File được đọc tuần tự từng bản ghi; bản ghi hợp lệ gom thành
+ * chunk ({@code car-import.chunk-size}), mỗi chunk ghi trong một transaction bằng JDBC batch
+ * ({@code car-import.batch-size}) thay vì đi qua JPA. Bản ghi sai định dạng hoặc vi phạm ràng buộc chỉ
+ * được ghi vào báo cáo lỗi theo số dòng, không làm hỏng các dòng khác.
+ *
+ * Cột dùng tên trường như CarRequest/CarDetailRequest. Thông số chi tiết là tuỳ chọn: có bất kỳ cột
+ * thông số nào thì phải đủ cả bộ.
+ */
+@Service
+public class CarImportService {
+    private static final Logger logger = LoggerFactory.getLogger(CarImportService.class);
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_CAR = "INSERT INTO cars (car_id, category, brand, model, manufacture_year, "
+            + "price, color, description, status, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_CAR_DETAIL = "INSERT INTO car_details (car_detail_id, car_id, engine, "
+            + "horsepower, torque, transmission, fuel_type, fuel_consumption, seats, weight, dimensions, "
+            + "fuel_consumption_l100km, length_mm, width_mm, height_mm) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final List<String> DETAIL_COLUMNS = List.of("engine", "horsepower", "torque", "transmission",
+            "fuelType", "fuelConsumption", "seats", "weight", "dimensions");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int chunkSize;
+
+    public CarImportService(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${car-import.batch-size}") int batchSize,
+                            @Value("${car-import.chunk-size}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.chunkSize = chunkSize;
+    }
+
+    public CarImportResponse importCars(InputStream body, MediaType contentType) {
+        CarImportResponse report = new CarImportResponse();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        long start = System.nanoTime();
+        try (RowReader reader = openReader(body, contentType)) {
+            RowReader.Row row;
+            while ((row = reader.next()) != null) {
+                report.setTotalRows(report.getTotalRows() + 1);
+                if (row.getError() != null) {
+                    reject(report, row.getLine(), row.getError());
+                    continue;
+                }
+                try {
+                    chunk.add(toImportRow(row));
+                } catch (IllegalArgumentException ex) {
+                    reject(report, row.getLine(), ex.getMessage());
+                }
+                if (chunk.size() >= chunkSize) {
+                    write(chunk, report);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException ex) {
+            throw new BadRequestException("Không đọc được file nhập: " + ex.getMessage());
+        }
+        write(chunk, report);
+        logger.info("Imported {}/{} cars in {} ms", report.getImportedRows(), report.getTotalRows(),
+                (System.nanoTime() - start) / 1_000_000);
+        return report;
+    }
+
+    private RowReader openReader(InputStream body, MediaType contentType) throws IOException {
+        Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+        if (contentType != null && contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+            return new NdjsonRowReader(reader, objectMapper);
+        }
+        if (contentType != null && contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))) {
+            return new CsvRowReader(reader);
+        }
+        throw new BadRequestException("Chỉ hỗ trợ text/csv hoặc application/x-ndjson!");
+    }
+
+    /**
+     * Ghi một chunk trong một transaction. Nếu lô bị DB từ chối (trùng khoá, vượt độ dài cột...), chunk
+     * được ghi lại từng dòng trong transaction riêng để chỉ đúng dòng lỗi bị loại.
+     */
+    private void write(List<ImportRow> chunk, CarImportResponse report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        for (ImportRow row : chunk) {
+            row.car.setCarId(EntityIds.next(EntityIds.CAR));
+            if (row.detail != null) {
+                row.detail.setCarDetailId(EntityIds.next(EntityIds.CAR_DETAIL));
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(chunk));
+            report.setImportedRows(report.getImportedRows() + chunk.size());
+            return;
+        } catch (DataAccessException ex) {
+            logger.warn("Batch insert of {} cars failed, retrying row by row: {}", chunk.size(),
+                    ex.getMostSpecificCause().getMessage());
+        }
+        for (ImportRow row : chunk) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(List.of(row)));
+                report.setImportedRows(report.getImportedRows() + 1);
+            } catch (DataAccessException ex) {
+                reject(report, row.line, "Không ghi được vào DB: " + ex.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    // Event phát trong transaction nên các listener AFTER_COMMIT chỉ chạy khi chunk đã commit
+    private void insert(List<ImportRow> rows) {
+        jdbcTemplate.batchUpdate(INSERT_CAR, rows, batchSize, (ps, row) -> {
+            Car car = row.car;
+            ps.setLong(1, car.getCarId());
+            ps.setString(2, car.getCategory().name());
+            ps.setString(3, car.getBrand().name());
+            ps.setString(4, car.getModel());
+            ps.setInt(5, car.getManufactureYear());
+            ps.setBigDecimal(6, car.getPrice());
+            ps.setString(7, car.getColor() != null ? car.getColor().name() : null);
+            ps.setString(8, car.getDescription());
+            ps.setString(9, car.getStatus().name());
+        });
+        List<ImportRow> withDetails = rows.stream().filter(row -> row.detail != null).toList();
+        if (!withDetails.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_CAR_DETAIL, withDetails, batchSize, (ps, row) -> {
+                CarDetail detail = row.detail;
+                ps.setLong(1, detail.getCarDetailId());
+                ps.setLong(2, row.car.getCarId());
+                ps.setString(3, detail.getEngine());
+                ps.setInt(4, detail.getHorsepower());
+                ps.setInt(5, detail.getTorque());
+                ps.setString(6, detail.getTransmission());
+                ps.setString(7, detail.getFuelType());
+                ps.setString(8, detail.getFuelConsumption());
+                ps.setInt(9, detail.getSeats());
+                ps.setObject(10, detail.getWeight(), Types.DOUBLE);
+                ps.setString(11, detail.getDimensions());
+                ps.setObject(12, detail.getFuelConsumptionL100km(), Types.DOUBLE);
+                ps.setObject(13, detail.getLengthMm(), Types.INTEGER);
+                ps.setObject(14, detail.getWidthMm(), Types.INTEGER);
+                ps.setObject(15, detail.getHeightMm(), Types.INTEGER);
+            });
+        }
+        eventPublisher.publishEvent(new CarCatalogChangedEvent(rows.stream().map(row -> row.car.getCarId()).toList()));
+    }
+
+    private static void reject(CarImportResponse report, long line, String message) {
+        report.setFailedRows(report.getFailedRows() + 1);
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new CarImportResponse.RowError(line, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    // Kiểm tra theo đúng ràng buộc cột của Car/CarDetail, lỗi đầu tiên gặp được ném ra kèm tên cột
+    static ImportRow toImportRow(RowReader.Row row) {
+        Map<String, String> values = row.getValues();
+        Car car = new Car();
+        car.setBrand(enumValue(values, "brand", Brand.class, true));
+        car.setCategory(enumValue(values, "category", Category.class, true));
+        car.setModel(text(values, "model", 50, true));
+        Integer year = integer(values, "manufactureYear", true);
+        if (year < 1886 || year > Year.now().getValue() + 1) {
+            throw new IllegalArgumentException("manufactureYear không hợp lệ: " + year);
+        }
+        car.setManufactureYear(year);
+        car.setPrice(positiveDecimal(values, "price"));
+        car.setColor(enumValue(values, "color", Color.class, false));
+        car.setDescription(text(values, "description", 255, false));
+        CarStatus status = enumValue(values, "status", CarStatus.class, false);
+        car.setStatus(status != null ? status : CarStatus.AVAILABLE);
+
+        CarDetail detail = null;
+        if (DETAIL_COLUMNS.stream().anyMatch(column -> !blank(values.get(column)))) {
+            detail = new CarDetail();
+            detail.setCar(car);
+            detail.setEngine(text(values, "engine", 100, true));
+            detail.setHorsepower(integer(values, "horsepower", true));
+            detail.setTorque(integer(values, "torque", true));
+            detail.setTransmission(text(values, "transmission", 50, true));
+            detail.setFuelType(text(values, "fuelType", 30, true));
+            detail.setFuelConsumption(text(values, "fuelConsumption", 50, true));
+            detail.setSeats(integer(values, "seats", true));
+            detail.setWeight(positiveDecimal(values, "weight").doubleValue());
+            detail.setDimensions(text(values, "dimensions", 100, true));
+            // Ghi bằng JDBC nên không qua @PrePersist, tự tách các cột số
+            detail.parseSpecs();
+        }
+        return new ImportRow(row.getLine(), car, detail);
+    }
+
+    private static String text(Map<String, String> values, String column, int maxLength, boolean required) {
+        String value = values.get(column);
+        if (blank(value)) {
+            if (required) {
+                throw new IllegalArgumentException(column + " không được để trống");
+            }
+            return null;
+        }
+        value = value.trim();
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(column + " dài quá " + maxLength + " ký tự");
+        }
+        return value;
+    }
+
+    private static <E extends Enum<E>> E enumValue(Map<String, String> values, String column, Class<E> type,
+                                                   boolean required) {
+        String value = text(values, column, 50, required);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException(column + " không hợp lệ: " + value);
+        }
+    }
+
+    private static Integer integer(Map<String, String> values, String column, boolean required) {
+        String value = text(values, column, 11, required);
+        if (value == null) {
+            return null;
+        }
+        try {
+            int number = Integer.parseInt(value);
+            if (number <= 0) {
+                throw new IllegalArgumentException(column + " phải lớn hơn 0");
+            }
+            return number;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(column + " phải là số nguyên: " + value);
+        }
+    }
+
+    private static BigDecimal positiveDecimal(Map<String, String> values, String column) {
+        String value = text(values, column, 30, true);
+        try {
+            BigDecimal number = new BigDecimal(value);
+            if (number.signum() <= 0) {
+                throw new IllegalArgumentException(column + " phải lớn hơn 0");
+            }
+            return number;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(column + " phải là số: " + value);
+        }
+    }
+
+    private static boolean blank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    static final class ImportRow {
+        private final long line;
+        private final Car car;
+        private final CarDetail detail;
+
+        ImportRow(long line, Car car, CarDetail detail) {
+            this.line = line;
+            this.car = car;
+            this.detail = detail;
+        }
+
+        Car getCar() {
+            return car;
+        }
+
+        CarDetail getDetail() {
+            return detail;
+        }
+    }
+}
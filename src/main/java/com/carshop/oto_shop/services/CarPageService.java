@@ -0,0 +1,267 @@
+package com.carshop.oto_shop.services;
+
+import com.carshop.oto_shop.catalog.CarCatalogChangedEvent;
+import com.carshop.oto_shop.catalog.CarJsonCache;
+import com.carshop.oto_shop.catalog.PromotionChangedEvent;
+import com.carshop.oto_shop.common.exceptions.AppException;
+import com.carshop.oto_shop.common.exceptions.ErrorCode;
+import com.carshop.oto_shop.common.response.JsonFragment;
+import com.carshop.oto_shop.dto.car.CarPageResponse;
+import com.carshop.oto_shop.dto.cardetail.CarDetailResponse;
+import com.carshop.oto_shop.dto.promotion.PromotionResponseDto;
+import com.carshop.oto_shop.entities.Car;
+import com.carshop.oto_shop.entities.CarDetail;
+import com.carshop.oto_shop.entities.Promotion;
+import com.carshop.oto_shop.enums.DiscountType;
+import com.carshop.oto_shop.mappers.CarDetailMapper;
+import com.carshop.oto_shop.mappers.PromotionMapper;
+import com.carshop.oto_shop.repositories.CarDetailRepository;
+import com.carshop.oto_shop.repositories.CarRepository;
+import com.carshop.oto_shop.repositories.PromotionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ghép trang chi tiết xe (xe, CarDetail, khuyến mãi đang áp dụng, giá sau khuyến mãi) trong một request.
+ *
+ * Xe được đọc trước theo khoá chính để có version; nếu trang đã cache cho đúng version đó thì trả luôn.
+ * Khi chưa có, CarDetail và khuyến mãi được truy vấn song song trên {@code carPageExecutor} (số luồng có
+ * giới hạn), trong lúc đó luồng request tự serialize phần xe. Cả request có hạn chót
+ * {@code car-page.timeout-ms}; quá hạn hoặc executor đầy thì trả lỗi {@link ErrorCode#SERVICE_BUSY}.
+ *
+ * Trang cache theo (car_id, version), bị bỏ khi nhận {@link CarCatalogChangedEvent} (kể cả khi chỉ
+ * CarDetail đổi) hoặc {@link PromotionChangedEvent}, và tự hết hạn ở thời điểm sớm nhất một khuyến mãi
+ * liên quan kết thúc hoặc một khuyến mãi mới bắt đầu.
+ */
+@Service
+public class CarPageService {
+    private static final Logger logger = LoggerFactory.getLogger(CarPageService.class);
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final CarRepository carRepository;
+    private final CarDetailRepository carDetailRepository;
+    private final PromotionRepository promotionRepository;
+    private final CarDetailMapper carDetailMapper;
+    private final PromotionMapper promotionMapper;
+    private final CarService carService;
+    private final CarJsonCache carJsonCache;
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+    private final long timeoutNanos;
+
+    private final Map<Long, Entry> pages = new ConcurrentHashMap<>();
+    // Tăng mỗi khi khuyến mãi đổi, để trang đang dựng dở với dữ liệu cũ không được đưa vào cache
+    private final AtomicLong promotionGeneration = new AtomicLong();
+    // Tương tự cho xe/CarDetail: CarDetail đổi không tăng version của xe, nên version không đủ để chặn
+    // trang dựng từ dữ liệu đọc trước thay đổi bị đưa lại vào cache sau khi event đã bỏ nó
+    private final AtomicLong catalogGeneration = new AtomicLong();
+
+    public CarPageService(CarRepository carRepository,
+                          CarDetailRepository carDetailRepository,
+                          PromotionRepository promotionRepository,
+                          CarDetailMapper carDetailMapper,
+                          PromotionMapper promotionMapper,
+                          CarService carService,
+                          CarJsonCache carJsonCache,
+                          ObjectMapper objectMapper,
+                          @Qualifier("carPageExecutor") Executor executor,
+                          @Value("${car-page.timeout-ms}") long timeoutMillis) {
+        this.carRepository = carRepository;
+        this.carDetailRepository = carDetailRepository;
+        this.promotionRepository = promotionRepository;
+        this.carDetailMapper = carDetailMapper;
+        this.promotionMapper = promotionMapper;
+        this.carService = carService;
+        this.carJsonCache = carJsonCache;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    public JsonFragment getCarPage(Long carId) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        long catalog = catalogGeneration.get();
+        Car car = carRepository.findById(carId)
+                .orElseThrow(() -> new AppException(ErrorCode.CAR_NOT_FOUND));
+        long version = car.getVersion() != null ? car.getVersion() : 0;
+        long generation = promotionGeneration.get();
+        LocalDateTime now = LocalDateTime.now();
+
+        Entry cached = pages.get(carId);
+        if (cached != null && cached.version == version && cached.generation == generation
+                && now.isBefore(cached.expiresAt)) {
+            return cached.json;
+        }
+
+        CompletableFuture<Optional<CarDetail>> detail;
+        CompletableFuture<List<Promotion>> promotions;
+        CompletableFuture<LocalDateTime> nextStart;
+        try {
+            detail = CompletableFuture.supplyAsync(() -> carDetailRepository.findByCar_CarId(carId), executor);
+            promotions = CompletableFuture.supplyAsync(() -> promotionRepository.findActiveForCar(carId, now), executor);
+            nextStart = CompletableFuture.supplyAsync(() -> promotionRepository.findNextStartAfter(now), executor);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Car page executor is saturated, rejecting page for car {}", carId);
+            throw new AppException(ErrorCode.SERVICE_BUSY);
+        }
+        JsonFragment carJson = carJsonCache.get(car, carService::toCarResponse);
+        await(CompletableFuture.allOf(detail, promotions, nextStart), deadline, carId);
+
+        CarPageResponse response = new CarPageResponse();
+        response.setCar(carJson);
+        response.setDetail(detail.join().map(d -> toDetailResponse(d, carId)).orElse(null));
+        List<PromotionResponseDto> applicable = applicablePromotions(car, promotions.join());
+        response.setPromotions(applicable);
+        PromotionResponseDto best = bestPromotion(car.getPrice(), applicable);
+        response.setAppliedPromotionId(best != null ? best.getPromotionId() : null);
+        response.setEffectivePrice(best != null ? car.getPrice().subtract(discount(car.getPrice(), best)) : car.getPrice());
+
+        Entry fresh = new Entry(version, generation, expiresAt(applicable, nextStart.join()), serialize(response));
+        // Kiểm tra trong compute: event tăng generation trước khi bỏ trang, nên hoặc compute thấy generation
+        // mới và không ghi, hoặc trang vừa ghi bị chính event đó bỏ
+        pages.compute(carId, (id, old) -> {
+            if (generation != promotionGeneration.get() || catalog != catalogGeneration.get()) {
+                return old;
+            }
+            return old != null && old.version > fresh.version ? old : fresh;
+        });
+        return fresh.json;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CarCatalogChangedEvent event) {
+        catalogGeneration.incrementAndGet();
+        event.getCarIds().forEach(pages::remove);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPromotionChanged(PromotionChangedEvent event) {
+        promotionGeneration.incrementAndGet();
+        pages.clear();
+    }
+
+    // Truy vấn đã chạy thì vẫn chạy nốt trên luồng của executor, chỉ request là không chờ nữa
+    private static void await(CompletableFuture<Void> all, long deadline, Long carId) {
+        try {
+            all.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            all.cancel(true);
+            logger.warn("Car page for car {} missed its deadline", carId);
+            throw new AppException(ErrorCode.SERVICE_BUSY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException(ErrorCode.SERVICE_BUSY);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new AppException(ErrorCode.UNKNOWN);
+        }
+    }
+
+    private CarDetailResponse toDetailResponse(CarDetail detail, Long carId) {
+        CarDetailResponse response = carDetailMapper.toCarDetailResponse(detail);
+        response.setCarId(carId);
+        return response;
+    }
+
+    // Loại CAR và GLOBAL đã được lọc trong truy vấn; BRAND/CATEGORY so với danh sách lưu dạng JSON
+    private List<PromotionResponseDto> applicablePromotions(Car car, List<Promotion> promotions) {
+        List<PromotionResponseDto> applicable = new ArrayList<>(promotions.size());
+        for (Promotion promotion : promotions) {
+            PromotionResponseDto dto = promotionMapper.toPromotionResponseDto(promotion);
+            boolean applies = switch (promotion.getAppliesTo()) {
+                case CAR, GLOBAL -> true;
+                case BRAND -> car.getBrand() != null && contains(dto.getTargetBrands(), car.getBrand().name());
+                case CATEGORY -> car.getCategory() != null && contains(dto.getTargetCategories(), car.getCategory().name());
+            };
+            if (applies) {
+                applicable.add(dto);
+            }
+        }
+        return applicable;
+    }
+
+    private static boolean contains(List<String> values, String value) {
+        return values != null && values.stream().anyMatch(value::equalsIgnoreCase);
+    }
+
+    // Khuyến mãi giảm nhiều nhất, null nếu không có khuyến mãi nào giảm được
+    static PromotionResponseDto bestPromotion(BigDecimal price, List<PromotionResponseDto> promotions) {
+        PromotionResponseDto best = null;
+        BigDecimal bestDiscount = BigDecimal.ZERO;
+        for (PromotionResponseDto promotion : promotions) {
+            BigDecimal discount = discount(price, promotion);
+            if (discount.compareTo(bestDiscount) > 0) {
+                best = promotion;
+                bestDiscount = discount;
+            }
+        }
+        return best;
+    }
+
+    static BigDecimal discount(BigDecimal price, PromotionResponseDto promotion) {
+        if (price == null || promotion.getDiscountValue() == null) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal discount = promotion.getDiscountType() == DiscountType.PERCENT
+                ? price.multiply(promotion.getDiscountValue()).divide(HUNDRED, price.scale(), RoundingMode.HALF_UP)
+                : promotion.getDiscountValue();
+        return discount.max(BigDecimal.ZERO).min(price);
+    }
+
+    private static LocalDateTime expiresAt(List<PromotionResponseDto> applicable, LocalDateTime nextStart) {
+        LocalDateTime expiresAt = nextStart != null ? nextStart : LocalDateTime.MAX;
+        for (PromotionResponseDto promotion : applicable) {
+            if (promotion.getEndAt() != null && promotion.getEndAt().isBefore(expiresAt)) {
+                expiresAt = promotion.getEndAt();
+            }
+        }
+        return expiresAt;
+    }
+
+    private JsonFragment serialize(CarPageResponse response) {
+        try {
+            return new JsonFragment(objectMapper.writeValueAsBytes(response));
+        } catch (JsonProcessingException e) {
+            throw new AppException(ErrorCode.UNKNOWN);
+        }
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final long generation;
+        private final LocalDateTime expiresAt;
+        private final JsonFragment json;
+
+        Entry(long version, long generation, LocalDateTime expiresAt, JsonFragment json) {
+            this.version = version;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+            this.json = json;
+        }
+    }
+}
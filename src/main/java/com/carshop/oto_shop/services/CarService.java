@@ -1,12 +1,28 @@
 package com.carshop.oto_shop.services;
 
+import com.carshop.oto_shop.catalog.CarCatalogChangedEvent;
+import com.carshop.oto_shop.catalog.CarCatalogIndex;
+import com.carshop.oto_shop.catalog.CarFacets;
+import com.carshop.oto_shop.catalog.CarFilter;
+import com.carshop.oto_shop.catalog.CarJsonCache;
+import com.carshop.oto_shop.catalog.CarSimilarityIndex;
+import com.carshop.oto_shop.catalog.CarSuggestionIndex;
+import com.carshop.oto_shop.catalog.TextAnalyzer;
 import com.carshop.oto_shop.common.exceptions.AppException;
 import com.carshop.oto_shop.common.exceptions.BadRequestException;
 import com.carshop.oto_shop.common.exceptions.ErrorCode;
+import com.carshop.oto_shop.common.pagination.CarCursor;
+import com.carshop.oto_shop.common.response.CursorPage;
+import com.carshop.oto_shop.common.response.JsonFragment;
+import com.carshop.oto_shop.dto.car.CarFacetResponse;
 import com.carshop.oto_shop.dto.car.CarRequest;
+import com.carshop.oto_shop.dto.car.CarSpecFilterRequest;
 import com.carshop.oto_shop.dto.car.CarResponse;
+import com.carshop.oto_shop.dto.car.CarSuggestionResponse;
 import com.carshop.oto_shop.entities.Car;
 import com.carshop.oto_shop.enums.Brand;
+import com.carshop.oto_shop.enums.CarSort;
+import com.carshop.oto_shop.enums.CarStatus;
 import com.carshop.oto_shop.enums.Category;
 import com.carshop.oto_shop.mappers.CarMapper;
 import com.carshop.oto_shop.repositories.CarDetailRepository;
@@ -14,24 +30,31 @@ import com.carshop.oto_shop.repositories.CarRepository;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.math.BigDecimal;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 // Import các thư viện cho Specification
 import com.carshop.oto_shop.enums.Color;
 import org.springframework.data.jpa.domain.Specification;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Predicate;
 
-import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Set;
 
 
 @Service
@@ -40,21 +63,50 @@ public class CarService {
     private final CarRepository carRepository;
     private final CarMapper carMapper;
     private final CarDetailRepository carDetailRepository;
+    private final CarCatalogIndex carCatalogIndex;
+    private final CarJsonCache carJsonCache;
+    private final CarSuggestionIndex carSuggestionIndex;
+    private final CarSimilarityIndex carSimilarityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UploadStorageService uploadStorageService;
     public static final String UPLOAD_DIR = "uploads/cars/";
     private static final String BASE_IMAGE_URL = "http://localhost:8080/carshop/api/cars/image/";
-
-    public CarService(CarRepository carRepository, CarMapper carMapper, CarDetailRepository carDetailRepository) {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_SUGGESTIONS = 8;
+    private static final int DEFAULT_SIMILAR_CARS = 6;
+    private static final int MAX_SIMILAR_CARS = 20;
+    // Cận các khoảng giá/năm cho facet, cấu hình bằng search.facets.*
+    private final BigDecimal[] priceBuckets;
+    private final int[] yearBuckets;
+
+    public CarService(CarRepository carRepository, CarMapper carMapper, CarDetailRepository carDetailRepository,
+                      CarCatalogIndex carCatalogIndex, CarJsonCache carJsonCache,
+                      CarSuggestionIndex carSuggestionIndex, CarSimilarityIndex carSimilarityIndex,
+                      ApplicationEventPublisher eventPublisher, UploadStorageService uploadStorageService,
+                      @Value("${search.facets.price-buckets}") BigDecimal[] priceBuckets,
+                      @Value("${search.facets.year-buckets}") int[] yearBuckets) {
         this.carRepository = carRepository;
         this.carMapper = carMapper;
         this.carDetailRepository = carDetailRepository;
+        this.carCatalogIndex = carCatalogIndex;
+        this.carJsonCache = carJsonCache;
+        this.carSuggestionIndex = carSuggestionIndex;
+        this.carSimilarityIndex = carSimilarityIndex;
+        this.eventPublisher = eventPublisher;
+        this.uploadStorageService = uploadStorageService;
+        this.priceBuckets = priceBuckets.clone();
+        this.yearBuckets = yearBuckets.clone();
+        Arrays.sort(this.priceBuckets);
+        Arrays.sort(this.yearBuckets);
     }
 
-    // ... (Các phương thức createCar, updateCar, deleteCar, saveImage, deleteImageFile giữ nguyên) ...
+    // ... (Các phương thức createCar, updateCar, deleteCar, saveImage giữ nguyên) ...
 
     public void createCar(CarRequest carRequest) {
+        String imageUrl = null;
         try {
             Car car = carMapper.toCar(carRequest);
-            String imageUrl = null;
             if (carRequest.getImageFile() != null && !carRequest.getImageFile().isEmpty()) {
                 imageUrl = saveImage(carRequest.getImageFile());
             }
@@ -62,7 +114,9 @@ public class CarService {
                     carRequest.getModel(), carRequest.getBrand(), carRequest.getCategory());
             car.setImageUrl(imageUrl);
             carRepository.save(car);
+            eventPublisher.publishEvent(CarCatalogChangedEvent.of(car.getCarId()));
         } catch (DataIntegrityViolationException ex) {
+            uploadStorageService.release(imageUrl);
             String message = ex.getMostSpecificCause().getMessage();
             if (message != null && message.contains("cannot be null")) {
                 String field = message.substring(message.indexOf("'") + 1, message.lastIndexOf("'"));
@@ -73,26 +127,6 @@ public class CarService {
         }
     }
 
-    private void deleteImageFile(String imageUrl) {
-        if (imageUrl == null)
-            return;
-        try {
-            String fileName = Paths.get(imageUrl).getFileName().toString();
-            Path filePath = Paths.get(UPLOAD_DIR).resolve(fileName).normalize();
-            File file = filePath.toFile();
-            if (file.exists()) {
-                boolean deleted = file.delete();
-                if (deleted) {
-                    logger.info("Da xoa file anh: " + filePath);
-                } else {
-                    logger.warn("Khong the xoa anh: " + filePath);
-                }
-            }
-        } catch (Exception e) {
-            logger.error("Loi khi xoa anh: " + e.getMessage());
-        }
-    }
-
     @Transactional
     public void updateCar(CarRequest carRequest, Long carId) {
         try {
@@ -101,12 +135,13 @@ public class CarService {
             carMapper.updateCarRequest(carRequest, car);
             if (carRequest.getImageFile() != null && !carRequest.getImageFile().isEmpty()) {
                 // Xoá ảnh cũ trước
-                deleteImageFile(car.getImageUrl());
+                uploadStorageService.release(car.getImageUrl());
                 // Lưu ảnh mới
                 String imageUrl = saveImage(carRequest.getImageFile());
                 car.setImageUrl(imageUrl);
             }
             carRepository.save(car);
+            eventPublisher.publishEvent(CarCatalogChangedEvent.of(carId));
         } catch (DataIntegrityViolationException ex) {
             String message = ex.getMostSpecificCause().getMessage();
             if (message != null && message.contains("cannot be null")) {
@@ -127,14 +162,7 @@ public class CarService {
                             && !contentType.equals("application/pdf"))) {
                 throw new AppException(ErrorCode.UNSUPPORTED_MEDIA_TYPE);
             }
-            File uploadDir = new File(UPLOAD_DIR);
-            if (!uploadDir.exists()) {
-                uploadDir.mkdir();
-            }
-            String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-            Path path = Paths.get(UPLOAD_DIR + fileName);
-            Files.copy(file.getInputStream(), path, StandardCopyOption.REPLACE_EXISTING);
-            return UPLOAD_DIR + fileName;
+            return uploadStorageService.store(UPLOAD_DIR, file);
         } catch (IOException e) {
             throw new AppException(ErrorCode.FILE_UPLOAD_ERROR);
         }
@@ -144,170 +172,243 @@ public class CarService {
     public void deleteCar(Long carId) {
         Car car = carRepository.findById(carId)
                 .orElseThrow(() -> new AppException(ErrorCode.CAR_NOT_FOUND));
-        deleteImageFile(car.getImageUrl());
+        uploadStorageService.release(car.getImageUrl());
         carDetailRepository.deleteAllByCarId(carId);
         carRepository.delete(car);
+        eventPublisher.publishEvent(CarCatalogChangedEvent.of(carId));
     }
 
     public CarResponse getCar(Long carId) {
         Car car = carRepository.findById(carId)
                 .orElseThrow(() -> new AppException(ErrorCode.CAR_NOT_FOUND));
-        CarResponse response = carMapper.toCarResponse(car);
-        if (car.getImageUrl() != null) {
-            String fileName = Paths.get(car.getImageUrl()).getFileName().toString();
-            response.setImageUrl(BASE_IMAGE_URL + fileName);
+        return toCarResponse(car);
+    }
+
+    public CursorPage<JsonFragment> getCarsByBrand(Brand brand, String cursor, Integer size, CarSort sort) {
+        Specification<Car> spec = (root, query, cb) -> cb.equal(root.get("brand"), brand);
+        return fetchPage(spec, cursor, size, sort);
+    }
+
+    public CursorPage<JsonFragment> getCarsByCategory(Category category, String cursor, Integer size, CarSort sort) {
+        Specification<Car> spec = (root, query, cb) -> cb.equal(root.get("category"), category);
+        return fetchPage(spec, cursor, size, sort);
+    }
+
+    // [PHƯƠNG THỨC ĐÃ SỬA LỖI]
+    // Lọc trên CarCatalogIndex trong bộ nhớ thay vì quét bảng cars bằng Specification.
+    // brand/category/color/status nhận nhiều giá trị ngăn cách bởi dấu phẩy (ví dụ brand=TOYOTA,HYUNDAI).
+    public CursorPage<JsonFragment> searchCars(String keyword, String brand, String category,
+                                              String color, String status, Double priceMin, Double priceMax,
+                                              Integer yearFrom, Integer yearTo, CarSpecFilterRequest specs,
+                                              String cursor, Integer size, CarSort sort) {
+        CarFilter filter = buildFilter(brand, category, color, status, priceMin, priceMax, yearFrom, yearTo, specs);
+        // Có từ khoá thì mặc định xếp theo độ liên quan; không có từ khoá thì RELEVANCE vô nghĩa
+        boolean hasKeyword = !TextAnalyzer.tokens(keyword).isEmpty();
+        CarSort order = sort != null ? sort : hasKeyword ? CarSort.RELEVANCE : CarSort.ID;
+        if (order == CarSort.RELEVANCE && !hasKeyword) {
+            order = CarSort.ID;
+        }
+        int limit = resolvePageSize(size);
+        CarCursor after = cursor != null && !cursor.isBlank() ? CarCursor.decode(cursor, order) : null;
+        CursorPage<Car> page = carCatalogIndex.search(filter, keyword, order, after, limit);
+        return new CursorPage<>(page.getItems().stream().map(this::toCarJson).toList(), page.getNextCursor());
+    }
+
+    /**
+     * Số xe theo từng brand/category/color và theo khoảng giá/năm cho cùng bộ điều kiện của searchCars,
+     * tính trong một lần duyệt tập kết quả trên CarCatalogIndex.
+     */
+    public CarFacetResponse getSearchFacets(String keyword, String brand, String category,
+                                            String color, String status, Double priceMin, Double priceMax,
+                                            Integer yearFrom, Integer yearTo, CarSpecFilterRequest specs) {
+        CarFilter filter = buildFilter(brand, category, color, status, priceMin, priceMax, yearFrom, yearTo, specs);
+        double[] priceBounds = Arrays.stream(priceBuckets).mapToDouble(BigDecimal::doubleValue).toArray();
+        CarFacets facets = carCatalogIndex.facets(filter, keyword, priceBounds, yearBuckets);
+
+        CarFacetResponse response = new CarFacetResponse();
+        response.setTotal(facets.getTotal());
+        response.setBrands(countsByValue(Brand.class, facets.getBrandCounts()));
+        response.setCategories(countsByValue(Category.class, facets.getCategoryCounts()));
+        response.setColors(countsByValue(Color.class, facets.getColorCounts()));
+        List<CarFacetResponse.Bucket<BigDecimal>> prices = new ArrayList<>();
+        for (int i = 0; i < facets.getPriceCounts().length; i++) {
+            prices.add(new CarFacetResponse.Bucket<>(i > 0 ? priceBuckets[i - 1] : null,
+                    i < priceBuckets.length ? priceBuckets[i] : null, facets.getPriceCounts()[i]));
         }
+        response.setPrices(prices);
+        List<CarFacetResponse.Bucket<Integer>> years = new ArrayList<>();
+        for (int i = 0; i < facets.getYearCounts().length; i++) {
+            years.add(new CarFacetResponse.Bucket<>(i > 0 ? yearBuckets[i - 1] : null,
+                    i < yearBuckets.length ? yearBuckets[i] : null, facets.getYearCounts()[i]));
+        }
+        response.setYears(years);
         return response;
     }
 
-    public List<CarResponse> getCarsByBrand(Brand brand) {
-        List<Car> cars = carRepository.findAllByBrand(brand);
-        return cars.stream()
-                .map(car -> {
-                    CarResponse response = carMapper.toCarResponse(car);
-                    if (car.getImageUrl() != null) {
-                        String fileName = Paths.get(car.getImageUrl()).getFileName().toString();
-                        response.setImageUrl(BASE_IMAGE_URL + fileName);
-                    }
-                    return response;
-                })
-                .toList();
+    private static <E extends Enum<E>> Map<E, Integer> countsByValue(Class<E> type, int[] counts) {
+        Map<E, Integer> result = new EnumMap<>(type);
+        for (E value : type.getEnumConstants()) {
+            result.put(value, counts[value.ordinal()]);
+        }
+        return result;
     }
 
-    public List<CarResponse> getCarsByCategory(Category category) {
-        List<Car> cars = carRepository.findAllByCategory(category);
-        return cars.stream()
-                .map(car -> {
-                    CarResponse response = carMapper.toCarResponse(car);
-                    if (car.getImageUrl() != null) {
-                        String fileName = Paths.get(car.getImageUrl()).getFileName().toString();
-                        response.setImageUrl(BASE_IMAGE_URL + fileName);
-                    }
-                    return response;
-                })
+    // Gợi ý cho ô tìm kiếm, tra trong trie bộ nhớ nên gọi được ở mỗi lần gõ phím
+    public List<CarSuggestionResponse> suggest(String query, Integer limit) {
+        int max = limit == null || limit <= 0 ? DEFAULT_SUGGESTIONS : limit;
+        return carSuggestionIndex.suggest(query, max).stream()
+                .map(s -> new CarSuggestionResponse(s.getText(), s.getType().name(), s.getWeight()))
                 .toList();
     }
 
-    // [PHƯƠNG THỨC ĐÃ SỬA LỖI]
-    public List<CarResponse> searchCars(String keyword, String brand, String category,
-                                        String color, Double priceMin, Double priceMax,
-                                        Integer yearFrom, Integer yearTo) {
-
-        Specification<Car> spec = (root, query, cb) -> {
-            List<Predicate> predicates = new ArrayList<>();
-
-            // [SỬA LỖI KEYWORD]
-            // Tìm kiếm theo (Tên xe, Hãng xe, Loại xe, VÀ Hãng + Tên)
-            if (keyword != null && !keyword.isEmpty()) {
-                // Thay thế nhiều khoảng trắng bằng 1 và chuyển sang chữ thường
-                String keywordLower = "%" + keyword.toLowerCase().replaceAll("\\s+", " ") + "%";
-                // Tạo một keyword '%mercedes%c200%' để tìm kiếm linh hoạt hơn
-                String keywordSpaced = "%" + keyword.toLowerCase().replaceAll("\\s+", "%") + "%";
-
-                // 1. Tìm theo Tên xe (model)
-                Predicate modelLike = cb.like(cb.lower(root.get("model")), keywordSpaced);
-
-                // 2. Tìm theo Hãng xe (brand)
-                Predicate brandLike = cb.like(cb.lower(root.get("brand").as(String.class)), keywordSpaced);
-
-                // 3. Tìm theo Loại xe (category)
-                Predicate categoryLike = cb.like(cb.lower(root.get("category").as(String.class)), keywordSpaced);
-
-                // 4. [LOGIC MỚI] Tìm theo Hãng + " " + Tên
-                // (ví dụ: "MERCEDES C200")
-                Predicate brandAndModelLike = cb.like(
-                        cb.lower(
-                                cb.concat(
-                                        cb.concat(root.get("brand").as(String.class), " "), // Nối 'brand' + ' '
-                                        root.get("model") // Nối 'model'
-                                )
-                        ),
-                        keywordLower // Tìm kiếm chuỗi chính xác "mercedes c200"
-                );
-
-                // Kết hợp 4 điều kiện bằng 'OR'
-                predicates.add(cb.or(modelLike, brandLike, categoryLike, brandAndModelLike));
-            }
-            // [HẾT SỬA LỖI KEYWORD]
+    // Xe tương tự theo thông số, tính trên vector trong bộ nhớ và JSON đã cache, không truy vấn DB
+    public List<JsonFragment> getSimilarCars(Long carId, Integer k) {
+        int limit = k == null || k <= 0 ? DEFAULT_SIMILAR_CARS : Math.min(k, MAX_SIMILAR_CARS);
+        List<Car> cars = carSimilarityIndex.nearest(carId, limit);
+        if (cars == null) {
+            throw new AppException(ErrorCode.CAR_NOT_FOUND);
+        }
+        return cars.stream().map(this::toCarJson).toList();
+    }
 
+    private CarFilter buildFilter(String brand, String category, String color, String status,
+                                  Double priceMin, Double priceMax, Integer yearFrom, Integer yearTo,
+                                  CarSpecFilterRequest specs) {
+        CarFilter filter = new CarFilter();
+        filter.setBrands(parseEnumValues(brand, Brand.class));
+        filter.setCategories(parseEnumValues(category, Category.class));
+        filter.setColors(parseEnumValues(color, Color.class));
+        filter.setStatuses(parseEnumValues(status, CarStatus.class));
+        filter.setPriceMin(priceMin);
+        filter.setPriceMax(priceMax);
+        // Lọc chính xác theo năm (yearFrom), yearTo là năm tối đa
+        filter.setYearMin(yearFrom);
+        filter.setYearMax(yearFrom != null && yearTo != null ? Math.min(yearFrom, yearTo)
+                : yearFrom != null ? yearFrom : yearTo);
+        if (specs != null) {
+            filter.setHorsepowerMin(specs.getHorsepowerMin());
+            filter.setHorsepowerMax(specs.getHorsepowerMax());
+            filter.setTorqueMin(specs.getTorqueMin());
+            filter.setTorqueMax(specs.getTorqueMax());
+            filter.setSeatsMin(specs.getSeatsMin());
+            filter.setSeatsMax(specs.getSeatsMax());
+            filter.setFuelConsumptionMin(specs.getFuelConsumptionMin());
+            filter.setFuelConsumptionMax(specs.getFuelConsumptionMax());
+            filter.setFuelTypes(parseValues(specs.getFuelType()));
+        }
+        return filter;
+    }
 
-            // Lọc theo Hãng xe (Brand)
-            if (brand != null && !brand.isEmpty()) {
-                try {
-                    predicates.add(cb.equal(root.get("brand"), Brand.valueOf(brand.toUpperCase())));
-                } catch (IllegalArgumentException e) {
-                    logger.warn("Invalid brand value: {}", brand);
-                }
+    private static Set<String> parseValues(String csv) {
+        if (csv == null || csv.isBlank()) {
+            return Set.of();
+        }
+        Set<String> values = new HashSet<>();
+        for (String value : csv.split(",")) {
+            if (!value.isBlank()) {
+                values.add(value.trim());
             }
+        }
+        return values;
+    }
 
-            // Lọc theo Loại xe (Category)
-            if (category != null && !category.isEmpty()) {
-                try {
-                    predicates.add(cb.equal(root.get("category"), Category.valueOf(category.toUpperCase())));
-                } catch (IllegalArgumentException e) {
-                    logger.warn("Invalid category value: {}", category);
-                }
+    private <E extends Enum<E>> Set<E> parseEnumValues(String csv, Class<E> type) {
+        if (csv == null || csv.isBlank()) {
+            return Set.of();
+        }
+        Set<E> values = EnumSet.noneOf(type);
+        for (String value : csv.split(",")) {
+            if (value.isBlank()) {
+                continue;
             }
-
-            // Lọc theo Màu sắc (Color)
-            if (color != null && !color.isEmpty()) {
-                try {
-                    predicates.add(cb.equal(root.get("color"), Color.valueOf(color.toUpperCase())));
-                } catch (IllegalArgumentException e) {
-                    logger.warn("Invalid color value: {}", color);
-                }
+            try {
+                values.add(Enum.valueOf(type, value.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Invalid {} value: {}", type.getSimpleName().toLowerCase(), value);
             }
+        }
+        return values;
+    }
 
-            // Lọc theo Giá Tối thiểu (Price Min)
-            if (priceMin != null) {
-                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), priceMin));
-            }
 
-            // Lọc theo Giá Tối đa (Price Max)
-            if (priceMax != null) {
-                predicates.add(cb.lessThanOrEqualTo(root.get("price"), priceMax));
-            }
+    public CursorPage<JsonFragment> getAllCars(String cursor, Integer size, CarSort sort) {
+        return fetchPage(Specification.unrestricted(), cursor, size, sort);
+    }
 
-            // Lọc chính xác theo năm
-            if (yearFrom != null) {
-                predicates.add(cb.equal(root.get("manufactureYear"), yearFrom));
-            }
+    /**
+     * Phân trang keyset: thay vì OFFSET (phải quét bỏ mọi dòng phía trước), lọc các dòng nằm sau
+     * cursor theo (khoá sắp xếp, car_id) và chỉ lấy size + 1 dòng để biết còn trang sau hay không.
+     * Chi phí mỗi request vì vậy không tăng theo kích thước bảng cars.
+     */
+    private CursorPage<JsonFragment> fetchPage(Specification<Car> spec, String cursor, Integer size, CarSort sort) {
+        // Danh sách không có từ khoá nên không xếp theo độ liên quan được
+        CarSort order = sort != null && sort != CarSort.RELEVANCE ? sort : CarSort.ID;
+        int limit = resolvePageSize(size);
+        Specification<Car> filter = spec;
+        if (cursor != null && !cursor.isBlank()) {
+            filter = filter.and(afterCursor(CarCursor.decode(cursor, order)));
+        }
+        List<Car> cars = carRepository.findBy(filter, query -> query
+                .sortBy(toSort(order))
+                .limit(limit + 1)
+                .all());
+        return toPage(cars, order, limit);
+    }
 
-            // Lọc theo Năm sản xuất (Đến năm)
-            if (yearTo != null) {
-                predicates.add(cb.lessThanOrEqualTo(root.get("manufactureYear"), yearTo));
-            }
+    // cars chứa tối đa limit + 1 phần tử; phần tử dư chỉ để biết còn trang sau
+    private CursorPage<JsonFragment> toPage(List<Car> cars, CarSort order, int limit) {
+        String nextCursor = null;
+        if (cars.size() > limit) {
+            cars = cars.subList(0, limit);
+            nextCursor = CarCursor.encode(order, cars.get(limit - 1));
+        }
+        return new CursorPage<>(cars.stream().map(this::toCarJson).toList(), nextCursor);
+    }
 
-            return cb.and(predicates.toArray(new Predicate[0]));
-        };
+    private static int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
 
-        List<Car> cars = carRepository.findAll(spec);
-
-        // Ánh xạ kết quả sang CarResponse
-        return cars.stream()
-                .map(car -> {
-                    CarResponse response = carMapper.toCarResponse(car);
-                    if (car.getImageUrl() != null) {
-                        String fileName = Paths.get(car.getImageUrl()).getFileName().toString();
-                        response.setImageUrl(BASE_IMAGE_URL + fileName);
-                    }
-                    return response;
-                })
-                .toList();
+    private static Sort toSort(CarSort sort) {
+        Sort byId = Sort.by(Sort.Direction.ASC, "carId");
+        if (sort == CarSort.ID) {
+            return byId;
+        }
+        Sort.Direction direction = sort.isAscending() ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return Sort.by(direction, sort.getAttribute()).and(byId);
     }
 
+    // (khoá > k) OR (khoá = k AND car_id > id) — đảo chiều so sánh khoá khi sắp xếp giảm dần
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Specification<Car> afterCursor(CarCursor cursor) {
+        CarSort sort = cursor.getSort();
+        return (root, query, cb) -> {
+            Predicate tieBreak = cb.greaterThan(root.get("carId"), cursor.getCarId());
+            if (sort == CarSort.ID) {
+                return tieBreak;
+            }
+            Expression<Comparable> field = root.get(sort.getAttribute());
+            Comparable key = cursor.sortKey();
+            Predicate beyond = sort.isAscending() ? cb.greaterThan(field, key) : cb.lessThan(field, key);
+            return cb.or(beyond, cb.and(cb.equal(field, key), tieBreak));
+        };
+    }
 
-    public List<CarResponse> getAllCars() {
-        List<Car> cars = carRepository.findAll();
-        return cars.stream()
-                .map(car -> {
-                    CarResponse response = carMapper.toCarResponse(car);
-                    if (car.getImageUrl() != null) {
-                        String fileName = Paths.get(car.getImageUrl()).getFileName().toString();
-                        response.setImageUrl(BASE_IMAGE_URL + fileName);
-                    }
-                    return response;
-                })
-                .toList();
+    // Danh sách xe ghép từ JSON đã cache theo (car_id, version) thay vì map + serialize lại mỗi request
+    private JsonFragment toCarJson(Car car) {
+        return carJsonCache.get(car, this::toCarResponse);
+    }
+
+    CarResponse toCarResponse(Car car) {
+        CarResponse response = carMapper.toCarResponse(car);
+        if (car.getImageUrl() != null) {
+            String fileName = Paths.get(car.getImageUrl()).getFileName().toString();
+            response.setImageUrl(BASE_IMAGE_URL + fileName);
+            response.setImageUrls(ImageVariantService.urls(BASE_IMAGE_URL, car.getImageUrl()));
+        }
+        return response;
     }
-}
\ No newline at end of file
+}
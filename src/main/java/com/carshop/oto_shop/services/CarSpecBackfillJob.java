@@ -0,0 +1,138 @@
+package com.carshop.oto_shop.services;
+
+import com.carshop.oto_shop.catalog.CarCatalogChangedEvent;
+import com.carshop.oto_shop.catalog.CarSpecParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Điền các cột số (fuel_consumption_l100km, length_mm, width_mm, height_mm) cho CarDetail có từ trước khi
+ * có các cột này. Chạy khi ứng dụng khởi động, duyệt car_details theo keyset (car_detail_id) từng chunk
+ * ({@code car-spec-backfill.chunk-size} dòng), mỗi chunk một transaction ngắn với JDBC batch.
+ *
+ * Chỉ chọn các dòng chưa có cả mức tiêu thụ lẫn kích thước; dòng không đọc được số nào (ví dụ xe điện ghi
+ * "471 km") được bỏ qua và sẽ được xét lại ở lần khởi động sau. Ghi mới qua JPA hoặc import đã tự tách số
+ * nên khi dữ liệu cũ đã xong có thể tắt bằng {@code car-spec-backfill.enabled=false}.
+ */
+@Service
+public class CarSpecBackfillJob {
+    private static final Logger logger = LoggerFactory.getLogger(CarSpecBackfillJob.class);
+
+    private static final String SELECT_PENDING = "SELECT car_detail_id, car_id, fuel_consumption, dimensions "
+            + "FROM car_details WHERE car_detail_id > ? "
+            + "AND fuel_consumption_l100km IS NULL AND length_mm IS NULL "
+            + "ORDER BY car_detail_id LIMIT ?";
+    private static final String UPDATE_SPECS = "UPDATE car_details SET fuel_consumption_l100km = ?, "
+            + "length_mm = ?, width_mm = ?, height_mm = ? WHERE car_detail_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int chunkSize;
+
+    public CarSpecBackfillJob(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${car-spec-backfill.enabled}") boolean enabled,
+                              @Value("${car-spec-backfill.chunk-size}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            backfill();
+        } catch (DataAccessException e) {
+            // Không chặn ứng dụng khởi động, các cột số chỉ phục vụ lọc theo thông số
+            logger.warn("Car spec backfill stopped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Tách số cho mọi dòng còn thiếu, trả về số dòng đã cập nhật.
+     */
+    public int backfill() {
+        List<Long> changedCarIds = new ArrayList<>();
+        long after = Long.MIN_VALUE;
+        int scanned = 0;
+        while (true) {
+            List<SpecRow> rows = jdbcTemplate.query(SELECT_PENDING, (rs, rowNum) -> new SpecRow(
+                    rs.getLong("car_detail_id"), rs.getLong("car_id"),
+                    rs.getString("fuel_consumption"), rs.getString("dimensions")), after, chunkSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+            scanned += rows.size();
+            after = rows.get(rows.size() - 1).carDetailId;
+
+            List<SpecRow> parsed = new ArrayList<>(rows.size());
+            for (SpecRow row : rows) {
+                if (row.parse()) {
+                    parsed.add(row);
+                }
+            }
+            if (parsed.isEmpty()) {
+                continue;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_SPECS, parsed,
+                    parsed.size(), (ps, row) -> {
+                        ps.setObject(1, row.fuelConsumptionL100km, Types.DOUBLE);
+                        ps.setObject(2, row.dimensionsMm != null ? row.dimensionsMm[0] : null, Types.INTEGER);
+                        ps.setObject(3, row.dimensionsMm != null ? row.dimensionsMm[1] : null, Types.INTEGER);
+                        ps.setObject(4, row.dimensionsMm != null ? row.dimensionsMm[2] : null, Types.INTEGER);
+                        ps.setLong(5, row.carDetailId);
+                    }));
+            parsed.forEach(row -> changedCarIds.add(row.carId));
+        }
+
+        if (!changedCarIds.isEmpty()) {
+            eventPublisher.publishEvent(new CarCatalogChangedEvent(changedCarIds));
+        }
+        logger.info("Car spec backfill scanned {} rows, updated {}", scanned, changedCarIds.size());
+        return changedCarIds.size();
+    }
+
+    private static final class SpecRow {
+        private final long carDetailId;
+        private final long carId;
+        private final String fuelConsumption;
+        private final String dimensions;
+        private Double fuelConsumptionL100km;
+        private int[] dimensionsMm;
+
+        SpecRow(long carDetailId, long carId, String fuelConsumption, String dimensions) {
+            this.carDetailId = carDetailId;
+            this.carId = carId;
+            this.fuelConsumption = fuelConsumption;
+            this.dimensions = dimensions;
+        }
+
+        // true nếu đọc được ít nhất một giá trị
+        boolean parse() {
+            fuelConsumptionL100km = CarSpecParser.fuelConsumptionL100km(fuelConsumption);
+            dimensionsMm = CarSpecParser.dimensionsMm(dimensions);
+            return fuelConsumptionL100km != null || dimensionsMm != null;
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package com.carshop.oto_shop.services;
+
+import com.carshop.oto_shop.common.exceptions.AppException;
+import com.carshop.oto_shop.common.exceptions.ErrorCode;
+import com.carshop.oto_shop.dto.image.ImageReprocessResponse;
+import com.carshop.oto_shop.enums.ImageVariant;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Sinh các cỡ ảnh ({@link ImageVariant}) từ file gốc đã upload: thu nhỏ, nén lại và bỏ metadata (EXIF, ICC...)
+ * vì ảnh được vẽ lại vào một BufferedImage mới rồi mới ghi. Việc chạy nền trên {@code imageVariantExecutor}
+ * (số luồng và hàng đợi có giới hạn), request upload không phải chờ.
+ *
+ * File sinh ra nằm cạnh ảnh gốc: {@code <tên>.<cỡ>.jpg|png} (gốc JPEG thì ra JPEG, còn lại ra PNG để giữ
+ * kênh alpha) và một manifest {@code <tên gốc>.manifest.json} ghi sau cùng. Tên file suy ra được từ tên gốc
+ * nên URL theo cỡ ({@code ?size=thumbnail}) dùng được ngay; khi biến thể chưa có thì trả ảnh gốc.
+ */
+@Service
+public class ImageVariantService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+    public static final String MANIFEST_SUFFIX = ".manifest.json";
+    // Ảnh gốc lớn hơn ngưỡng này (theo kích thước khai báo trong header) không được giải mã: lấy mẫu thưa
+    // giữ heap nhỏ nhưng reader vẫn phải giải nén toàn bộ dữ liệu, ảnh kiểu "decompression bomb" tốn CPU rất lâu
+    private static final long MAX_SOURCE_PIXELS = 100_000_000L;
+
+    private final ThreadPoolTaskExecutor executor;
+    private final ObjectMapper objectMapper;
+    private final float jpegQuality;
+    // Luồng điều phối job reprocess (liệt kê file, đẩy việc lên executor, chờ xong); mỗi lúc chỉ một job
+    private final ExecutorService reprocessRunner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "image-reprocess");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile ReprocessJob currentJob;
+
+    public ImageVariantService(@Qualifier("imageVariantExecutor") ThreadPoolTaskExecutor executor,
+                               ObjectMapper objectMapper,
+                               @Value("${image-variants.jpeg-quality}") float jpegQuality) {
+        this.executor = executor;
+        this.objectMapper = objectMapper;
+        this.jpegQuality = jpegQuality;
+    }
+
+    /**
+     * Đưa ảnh vừa lưu (đường dẫn dạng "uploads/cars/xxx.png") vào hàng đợi sinh biến thể. Hàng đợi đầy thì
+     * bỏ qua: ảnh gốc vẫn được phục vụ và job reprocess sẽ sinh lại sau.
+     */
+    public void submit(String storedPath) {
+        if (storedPath == null) {
+            return;
+        }
+        Path original = Paths.get(storedPath);
+        try {
+            executor.execute(() -> generateQuietly(original));
+        } catch (TaskRejectedException e) {
+            logger.warn("Image variant queue is full, skipped {}", original);
+        }
+    }
+
+    /**
+     * Bắt đầu sinh lại biến thể cho mọi ảnh gốc trong các thư mục và trả về ngay; tiến độ xem qua
+     * {@link #reprocessStatus()}. Nếu đang có job chạy thì không tạo job mới mà trả tiến độ của job đó.
+     */
+    public synchronized ImageReprocessResponse startReprocess(List<String> uploadDirs) {
+        ReprocessJob running = currentJob;
+        if (running != null && running.isRunning()) {
+            return running.snapshot();
+        }
+        ReprocessJob job = new ReprocessJob();
+        currentJob = job;
+        try {
+            reprocessRunner.execute(() -> run(job, uploadDirs));
+        } catch (RejectedExecutionException e) {
+            job.finish();
+            throw new AppException(ErrorCode.SERVICE_BUSY);
+        }
+        return job.snapshot();
+    }
+
+    // Tiến độ của job reprocess gần nhất (toàn số 0 nếu chưa chạy lần nào)
+    public ImageReprocessResponse reprocessStatus() {
+        ReprocessJob job = currentJob;
+        return job != null ? job.snapshot() : new ImageReprocessResponse();
+    }
+
+    /**
+     * Sinh lại biến thể cho mọi ảnh gốc trong các thư mục trên luồng hiện tại, chờ tới khi xong.
+     */
+    public ImageReprocessResponse reprocess(List<String> uploadDirs) {
+        ReprocessJob job = new ReprocessJob();
+        run(job, uploadDirs);
+        return job.snapshot();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reprocessRunner.shutdownNow();
+    }
+
+    // Các ảnh được xử lý song song trên cùng executor với upload. Số việc đang chờ được giới hạn bằng
+    // semaphore nên không làm tràn hàng đợi dùng chung.
+    private void run(ReprocessJob job, List<String> uploadDirs) {
+        try {
+            List<Path> originals = new ArrayList<>();
+            for (String uploadDir : uploadDirs) {
+                Path dir = Paths.get(uploadDir);
+                if (!Files.isDirectory(dir)) {
+                    continue;
+                }
+                try (Stream<Path> files = Files.list(dir)) {
+                    files.filter(Files::isRegularFile)
+                            .filter(path -> isOriginal(path.getFileName().toString()))
+                            .forEach(originals::add);
+                } catch (IOException e) {
+                    logger.warn("Cannot list {}: {}", dir, e.getMessage());
+                }
+            }
+            job.total = originals.size();
+
+            Semaphore inFlight = new Semaphore(Math.max(1, executor.getMaxPoolSize() * 2));
+            List<CompletableFuture<Void>> tasks = new ArrayList<>(originals.size());
+            for (Path original : originals) {
+                inFlight.acquireUninterruptibly();
+                CompletableFuture<Void> task = new CompletableFuture<>();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            job.record(original);
+                        } finally {
+                            inFlight.release();
+                            task.complete(null);
+                        }
+                    });
+                } catch (TaskRejectedException e) {
+                    // Hàng đợi đang đầy vì upload, tự làm trên luồng hiện tại
+                    inFlight.release();
+                    job.record(original);
+                    task.complete(null);
+                }
+                tasks.add(task);
+            }
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        } finally {
+            job.finish();
+        }
+        ImageReprocessResponse result = job.snapshot();
+        logger.info("Reprocessed {} images ({} skipped, {} failed) in {} ms",
+                result.getProcessed(), result.getSkipped(), result.getFailed(), result.getElapsedMillis());
+    }
+
+    private void generateQuietly(Path original) {
+        try {
+            generate(original);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Cannot generate variants for {}: {}", original, e.getMessage());
+        }
+    }
+
+    /**
+     * Sinh mọi biến thể và manifest cho một ảnh gốc. Trả về false nếu file không phải ảnh ImageIO đọc được
+     * (ví dụ PDF) hoặc quá lớn để giải mã.
+     */
+    public boolean generate(Path original) throws IOException {
+        BufferedImage source = read(original);
+        if (source == null) {
+            return false;
+        }
+        String fileName = original.getFileName().toString();
+        boolean jpeg = isJpeg(fileName);
+        Map<String, Object> variants = new LinkedHashMap<>();
+        for (ImageVariant variant : ImageVariant.values()) {
+            BufferedImage scaled = scale(source, variant.getMaxSize(), jpeg);
+            Path target = original.resolveSibling(variantFileName(fileName, variant));
+            writeAtomically(target, out -> write(scaled, jpeg, out));
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("file", target.getFileName().toString());
+            entry.put("width", scaled.getWidth());
+            entry.put("height", scaled.getHeight());
+            entry.put("bytes", Files.size(target));
+            entry.put("contentType", jpeg ? "image/jpeg" : "image/png");
+            variants.put(variant.key(), entry);
+        }
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("original", fileName);
+        manifest.put("originalBytes", Files.size(original));
+        manifest.put("variants", variants);
+        // Manifest ghi cuối cùng: có manifest nghĩa là mọi biến thể đã sẵn sàng
+        writeAtomically(original.resolveSibling(fileName + MANIFEST_SUFFIX),
+                out -> objectMapper.writeValue(out, manifest));
+        return true;
+    }
+
+    /**
+     * File cần trả cho {@code /image/{fileName}?size=...}: biến thể nếu đã sinh, ngược lại là ảnh gốc.
+     */
+    public Path resolve(String uploadDir, String fileName, String size) {
+        Path root = Paths.get(uploadDir).normalize();
+        Path original = root.resolve(fileName).normalize();
+        if (!original.startsWith(root)) {
+            throw new AppException(ErrorCode.FILE_NOT_FOUND);
+        }
+        ImageVariant variant = ImageVariant.fromKey(size);
+        if (variant == null || !isOriginal(fileName)) {
+            return original;
+        }
+        Path candidate = original.resolveSibling(variantFileName(fileName, variant));
+        return Files.isRegularFile(candidate) ? candidate : original;
+    }
+
+    /**
+     * true nếu URL {@code /image/{fileName}?size=...} sẽ luôn trả đúng file {@code resolved}, tức là có thể
+     * cache lâu. Khi biến thể chưa sinh xong thì ảnh gốc chỉ là tạm, URL đó về sau sẽ trả ảnh nhỏ hơn.
+     */
+    public boolean isFinal(String fileName, String size, Path resolved) {
+        return ImageVariant.fromKey(size) == null || !isOriginal(fileName)
+                || !resolved.getFileName().toString().equals(fileName);
+    }
+
+    // Xoá các biến thể và manifest của một ảnh gốc (ảnh gốc do service sở hữu tự xoá)
+    public void delete(String uploadDir, String fileName) {
+        Path original = Paths.get(uploadDir).resolve(fileName).normalize();
+        try {
+            for (ImageVariant variant : ImageVariant.values()) {
+                Files.deleteIfExists(original.resolveSibling(variantFileName(fileName, variant)));
+            }
+            Files.deleteIfExists(original.resolveSibling(fileName + MANIFEST_SUFFIX));
+        } catch (IOException e) {
+            logger.warn("Cannot delete variants of {}: {}", original, e.getMessage());
+        }
+    }
+
+    /**
+     * URL theo từng cỡ cho response, ví dụ {"thumbnail": ".../abc.png?size=thumbnail", ...}.
+     */
+    public static Map<String, String> urls(String baseUrl, String storedPath) {
+        if (storedPath == null) {
+            return null;
+        }
+        String fileName = Paths.get(storedPath).getFileName().toString();
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (ImageVariant variant : ImageVariant.values()) {
+            urls.put(variant.key(), baseUrl + fileName + "?size=" + variant.key());
+        }
+        return urls;
+    }
+
+    public static String variantFileName(String fileName, ImageVariant variant) {
+        int dot = fileName.lastIndexOf('.');
+        String stem = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return stem + "." + variant.key() + (isJpeg(fileName) ? ".jpg" : ".png");
+    }
+
+    static boolean isOriginal(String fileName) {
+        if (fileName.endsWith(MANIFEST_SUFFIX) || fileName.startsWith(".")) {
+            return false;
+        }
+        for (ImageVariant variant : ImageVariant.values()) {
+            String marker = "." + variant.key() + ".";
+            if (fileName.endsWith(marker + "jpg") || fileName.endsWith(marker + "png")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isJpeg(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".jpg") || lower.endsWith(".jpeg");
+    }
+
+    // Đọc kích thước trước, ảnh rất lớn được lấy mẫu thưa ngay khi giải mã để không giữ cả ảnh gốc trong heap
+    private static BufferedImage read(Path path) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) {
+                    return null;
+                }
+                int step = Math.max(1, Math.max(width, height) / (ImageVariant.FULL.getMaxSize() * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Thu nhỏ từng nửa một rồi mới tới kích thước đích: bilinear một bước khi tỉ lệ lớn sẽ bị răng cưa
+    static BufferedImage scale(BufferedImage source, int maxSize, boolean opaque) {
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height, opaque);
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, boolean opaque) {
+        BufferedImage target = new BufferedImage(width, height,
+                opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (opaque) {
+                // JPEG không có alpha: nền trắng thay vì đen cho vùng trong suốt
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+            }
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private void write(BufferedImage image, boolean jpeg, OutputStream out) throws IOException {
+        if (!jpeg) {
+            ImageIO.write(image, "png", out);
+            return;
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // Ghi ra file tạm rồi đổi tên, người đọc không bao giờ thấy file ghi dở. Tên tạm là duy nhất nên upload
+    // và reprocess cùng sinh một ảnh không ghi chồng file tạm của nhau; bắt đầu bằng "." để reprocess bỏ qua.
+    private static void writeAtomically(Path target, Writer writer) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "." + target.getFileName() + ".", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                writer.write(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private final class ReprocessJob {
+        private final long startedAt = System.currentTimeMillis();
+        private volatile int total;
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        // 0 khi còn đang chạy
+        private volatile long finishedAt;
+
+        void record(Path original) {
+            try {
+                (generate(original) ? processed : skipped).incrementAndGet();
+            } catch (IOException | RuntimeException e) {
+                failed.incrementAndGet();
+                logger.warn("Cannot generate variants for {}: {}", original, e.getMessage());
+            }
+        }
+
+        void finish() {
+            finishedAt = System.currentTimeMillis();
+        }
+
+        boolean isRunning() {
+            return finishedAt == 0;
+        }
+
+        ImageReprocessResponse snapshot() {
+            long end = isRunning() ? System.currentTimeMillis() : finishedAt;
+            return new ImageReprocessResponse(total, processed.get(), skipped.get(), failed.get(),
+                    end - startedAt, isRunning());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+}
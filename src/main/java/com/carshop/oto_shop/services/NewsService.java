@@ -15,7 +15,6 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.*;
 import java.util.List;
@@ -26,25 +25,29 @@ public class NewsService {
 
     private final NewsRepository newsRepository;
     private final NewsMapper newsMapper;
+    private final UploadStorageService uploadStorageService;
 
     public static final String UPLOAD_DIR = "uploads/news/";
     private static final String BASE_IMAGE_URL = "http://localhost:8080/carshop/api/news/image/";
 
-    public NewsService(NewsRepository newsRepository, NewsMapper newsMapper) {
+    public NewsService(NewsRepository newsRepository, NewsMapper newsMapper, UploadStorageService uploadStorageService) {
         this.newsRepository = newsRepository;
         this.newsMapper = newsMapper;
+        this.uploadStorageService = uploadStorageService;
     }
 
     public NewsResponseDto createNews(NewsRequestDto requestDto) {
+        String imageUrl = null;
         try {
             News news = newsMapper.toNews(requestDto);
             if (requestDto.getCoverImageFile() != null && !requestDto.getCoverImageFile().isEmpty()) {
-                String imageUrl = saveImage(requestDto.getCoverImageFile());
+                imageUrl = saveImage(requestDto.getCoverImageFile());
                 news.setCoverImageUrl(imageUrl);
             }
             newsRepository.save(news);
             return newsMapper.toNewsResponseDto(news);
         } catch (DataIntegrityViolationException ex) {
+            uploadStorageService.release(imageUrl);
             throw new BadRequestException("Thiếu thông tin bắt buộc");
         }
     }
@@ -57,7 +60,7 @@ public class NewsService {
         newsMapper.updateNewsFromDto(requestDto, news);
 
         if (requestDto.getCoverImageFile() != null && !requestDto.getCoverImageFile().isEmpty()) {
-            deleteImageFile(news.getCoverImageUrl());
+            uploadStorageService.release(news.getCoverImageUrl());
             String newUrl = saveImage(requestDto.getCoverImageFile());
             news.setCoverImageUrl(newUrl);
         }
@@ -66,18 +69,17 @@ public class NewsService {
         return newsMapper.toNewsResponseDto(news);
     }
 
+    // Danh sách không kèm content; xem nội dung đầy đủ qua getNewsById
     public List<NewsResponseDto> getAllNews() {
-        List<News> list = newsRepository.findAll();
-        return list.stream()
-                .map(news -> {
-                    NewsResponseDto dto = newsMapper.toNewsResponseDto(news);
-                    if (news.getCoverImageUrl() != null) {
-                        String fileName = Paths.get(news.getCoverImageUrl()).getFileName().toString();
-                        dto.setCoverImageUrl(BASE_IMAGE_URL + fileName);
-                    }
-                    return dto;
-                })
-                .toList();
+        List<NewsResponseDto> list = newsRepository.findAllSummaries();
+        for (NewsResponseDto dto : list) {
+            if (dto.getCoverImageUrl() != null) {
+                String fileName = Paths.get(dto.getCoverImageUrl()).getFileName().toString();
+                dto.setCoverImageUrls(ImageVariantService.urls(BASE_IMAGE_URL, dto.getCoverImageUrl()));
+                dto.setCoverImageUrl(BASE_IMAGE_URL + fileName);
+            }
+        }
+        return list;
     }
 
     public NewsResponseDto getNewsById(Long id) {
@@ -87,6 +89,7 @@ public class NewsService {
         if (news.getCoverImageUrl() != null) {
             String fileName = Paths.get(news.getCoverImageUrl()).getFileName().toString();
             dto.setCoverImageUrl(BASE_IMAGE_URL + fileName);
+            dto.setCoverImageUrls(ImageVariantService.urls(BASE_IMAGE_URL, news.getCoverImageUrl()));
         }
         return dto;
     }
@@ -95,7 +98,7 @@ public class NewsService {
     public void deleteNews(Long id) {
         News news = newsRepository.findById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.NEWS_NOT_FOUND));
-        deleteImageFile(news.getCoverImageUrl());
+        uploadStorageService.release(news.getCoverImageUrl());
         newsRepository.delete(news);
     }
 
@@ -106,28 +109,9 @@ public class NewsService {
                 throw new AppException(ErrorCode.UNSUPPORTED_MEDIA_TYPE);
             }
 
-            File uploadDir = new File(UPLOAD_DIR);
-            if (!uploadDir.exists()) uploadDir.mkdirs();
-
-            String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-            Path path = Paths.get(UPLOAD_DIR + fileName);
-            Files.copy(file.getInputStream(), path, StandardCopyOption.REPLACE_EXISTING);
-
-            return UPLOAD_DIR + fileName;
+            return uploadStorageService.store(UPLOAD_DIR, file);
         } catch (IOException e) {
             throw new AppException(ErrorCode.FILE_UPLOAD_ERROR);
         }
     }
-
-    private void deleteImageFile(String imageUrl) {
-        if (imageUrl == null) return;
-        try {
-            String fileName = Paths.get(imageUrl).getFileName().toString();
-            Path filePath = Paths.get(UPLOAD_DIR).resolve(fileName).normalize();
-            File file = filePath.toFile();
-            if (file.exists()) file.delete();
-        } catch (Exception e) {
-            logger.error("Không thể xoá ảnh: " + e.getMessage());
-        }
-    }
 }
@@ -3,6 +3,7 @@ package com.carshop.oto_shop.services;
 import com.carshop.oto_shop.common.exceptions.AppException;
 import com.carshop.oto_shop.common.exceptions.BadRequestException;
 import com.carshop.oto_shop.common.exceptions.ErrorCode;
+import com.carshop.oto_shop.common.id.UuidV7;
 import com.carshop.oto_shop.dto.orderdetail.OrderDetailResponse;
 import com.carshop.oto_shop.entities.OrderDetail;
 import com.carshop.oto_shop.mappers.OrderDetailMapper;
@@ -37,7 +38,9 @@ public class OrderDetailService {
 
     @Transactional(readOnly = true)
     public List<OrderDetailResponse> getOrderDetailsByOrderId(String orderId) {
-        List<OrderDetail> orderDetails = orderDetailRepository.findByOrder_OrderId(orderId);
+        List<OrderDetail> orderDetails = UuidV7.tryParse(orderId)
+                .map(orderDetailRepository::findByOrder_OrderId)
+                .orElse(List.of());
         return orderDetails.stream()
                 .map(orderDetailMapper::toOrderDetailResponse)
                 .toList();
@@ -3,10 +3,13 @@ package com.carshop.oto_shop.services;
 import com.carshop.oto_shop.common.exceptions.AppException;
 import com.carshop.oto_shop.common.exceptions.BadRequestException;
 import com.carshop.oto_shop.common.exceptions.ErrorCode;
+import com.carshop.oto_shop.common.id.UuidV7;
 import com.carshop.oto_shop.dto.order.OrderRequest;
 import com.carshop.oto_shop.dto.order.OrderResponse;
 import com.carshop.oto_shop.dto.order.OrderUpdateRequest;
 import com.carshop.oto_shop.dto.orderdetail.OrderDetailRequest;
+import com.carshop.oto_shop.dto.orderdetail.OrderDetailResponse;
+import com.carshop.oto_shop.dto.payment.PaymentResponse;
 import com.carshop.oto_shop.entities.*;
 import com.carshop.oto_shop.enums.OrderStatus;
 import com.carshop.oto_shop.mappers.OrderMapper;
@@ -19,11 +22,15 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Service
 public class OrderService {
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+    private static final int IN_CLAUSE_BATCH_SIZE = 500;
 
     private final OrderRepository orderRepository;
     private final OrderDetailRepository orderDetailRepository;
@@ -126,39 +133,54 @@ public class OrderService {
 
     @Transactional(readOnly = true)
     public OrderResponse getOrder(String orderId) {
-        Order order = orderRepository.findById(orderId)
+        Order order = UuidV7.tryParse(orderId).flatMap(orderRepository::findById)
                 .orElseThrow(() -> new AppException(ErrorCode.ORDER_NOT_FOUND));
         return orderMapper.toOrderResponse(order);
     }
 
     @Transactional(readOnly = true)
     public List<OrderResponse> getAllOrders() {
-        List<Order> orders = orderRepository.findAll();
-        return orders.stream()
-                .map(orderMapper::toOrderResponse)
-                .toList();
+        return attachDetailsAndPayments(orderRepository.findAllResponses());
     }
 
     @Transactional(readOnly = true)
     public List<OrderResponse> getOrdersByUserId(String userId) {
-        List<Order> orders = orderRepository.findByUser_UserId(userId);
-        return orders.stream()
-                .map(orderMapper::toOrderResponse)
-                .toList();
+        return attachDetailsAndPayments(orderRepository.findResponsesByUserId(userId));
     }
 
     @Transactional(readOnly = true)
     public List<OrderResponse> getOrdersByStatus(OrderStatus status) {
-        List<Order> orders = orderRepository.findByStatus(status);
-        return orders.stream()
-                .map(orderMapper::toOrderResponse)
-                .toList();
+        return attachDetailsAndPayments(orderRepository.findResponsesByStatus(status));
+    }
+
+    /**
+     * Gắn chi tiết đơn và thanh toán vào các OrderResponse đọc bằng projection. Mỗi lô đơn chỉ tốn
+     * thêm hai truy vấn IN thay vì nạp lazy từng đơn (N+1) qua entity.
+     */
+    private List<OrderResponse> attachDetailsAndPayments(List<OrderResponse> orders) {
+        Map<UUID, OrderResponse> byId = new HashMap<>();
+        for (OrderResponse order : orders) {
+            order.setOrderDetails(new ArrayList<>());
+            byId.put(UUID.fromString(order.getOrderId()), order);
+        }
+        List<UUID> orderIds = new ArrayList<>(byId.keySet());
+        for (int from = 0; from < orderIds.size(); from += IN_CLAUSE_BATCH_SIZE) {
+            List<UUID> batch = orderIds.subList(from, Math.min(from + IN_CLAUSE_BATCH_SIZE, orderIds.size()));
+            for (OrderDetailRepository.OrderDetailRow row : orderDetailRepository.findRowsByOrderIds(batch)) {
+                byId.get(row.getOrderId()).getOrderDetails().add(new OrderDetailResponse(
+                        row.getOrderDetailId(), row.getCarId(), row.getCarModel(), row.getQuantity(), row.getPrice()));
+            }
+            for (PaymentResponse payment : paymentRepository.findResponsesByOrderIds(batch)) {
+                byId.get(UUID.fromString(payment.getOrderId())).setPayment(payment);
+            }
+        }
+        return orders;
     }
 
     @Transactional
     public OrderResponse updateOrder(String orderId, OrderUpdateRequest orderUpdateRequest) {
         try {
-            Order order = orderRepository.findById(orderId)
+            Order order = UuidV7.tryParse(orderId).flatMap(orderRepository::findById)
                     .orElseThrow(() -> new AppException(ErrorCode.ORDER_NOT_FOUND));
 
             // Update shipping information if provided
@@ -227,7 +249,7 @@ public class OrderService {
     @Transactional
     public OrderResponse updateOrderStatus(String orderId, OrderStatus status) {
         try {
-            Order order = orderRepository.findById(orderId)
+            Order order = UuidV7.tryParse(orderId).flatMap(orderRepository::findById)
                     .orElseThrow(() -> new AppException(ErrorCode.ORDER_NOT_FOUND));
 
             order.setStatus(status);
@@ -258,7 +280,7 @@ public class OrderService {
     @Transactional
     public OrderResponse cancelOrder(String orderId, String cancelReason) {
         try {
-            Order order = orderRepository.findById(orderId)
+            Order order = UuidV7.tryParse(orderId).flatMap(orderRepository::findById)
                     .orElseThrow(() -> new AppException(ErrorCode.ORDER_NOT_FOUND));
 
             // Business rule: Only PENDING orders can be cancelled by the user
@@ -283,7 +305,7 @@ public class OrderService {
     @Transactional
     public void deleteOrder(String orderId) {
         try {
-            Order order = orderRepository.findById(orderId)
+            Order order = UuidV7.tryParse(orderId).flatMap(orderRepository::findById)
                     .orElseThrow(() -> new AppException(ErrorCode.ORDER_NOT_FOUND));
 
             orderRepository.delete(order);
@@ -4,6 +4,7 @@ import com.carshop.oto_shop.common.exceptions.AppException;
 import com.carshop.oto_shop.common.exceptions.BadRequestException;
 import com.carshop.oto_shop.common.exceptions.DuplicateKeyException;
 import com.carshop.oto_shop.common.exceptions.ErrorCode;
+import com.carshop.oto_shop.common.id.UuidV7;
 import com.carshop.oto_shop.dto.payment.PaymentRequest;
 import com.carshop.oto_shop.dto.payment.PaymentResponse;
 import com.carshop.oto_shop.entities.Order;
@@ -40,11 +41,11 @@ public class PaymentService {
     @Transactional
     public PaymentResponse createPayment(PaymentRequest paymentRequest) {
 
-        Order order = orderRepository.findById(paymentRequest.getOrderId())
+        Order order = UuidV7.tryParse(paymentRequest.getOrderId()).flatMap(orderRepository::findById)
                 .orElseThrow(() -> new AppException(ErrorCode.ORDER_NOT_FOUND));
 
         // Check if payment already exists for this order
-        paymentRepository.findByOrder_OrderId(paymentRequest.getOrderId())
+        paymentRepository.findByOrder_OrderId(order.getOrderId())
                 .ifPresent(existingPayment -> {
                     throw new DuplicateKeyException("Đơn hàng này đã có thanh toán! Sử dụng API cập nhật trạng thái thanh toán thay vì tạo mới.");
                 });
@@ -60,38 +61,32 @@ public class PaymentService {
 
     @Transactional(readOnly = true)
     public PaymentResponse getPayment(String paymentId) {
-        Payment payment = paymentRepository.findById(paymentId)
+        Payment payment = UuidV7.tryParse(paymentId).flatMap(paymentRepository::findById)
                 .orElseThrow(() -> new AppException(ErrorCode.PAYMENT_NOT_FOUND));
         return paymentMapper.toPaymentResponse(payment);
     }
 
     @Transactional(readOnly = true)
     public PaymentResponse getPaymentByOrderId(String orderId) {
-        Payment payment = paymentRepository.findByOrder_OrderId(orderId)
+        Payment payment = UuidV7.tryParse(orderId).flatMap(paymentRepository::findByOrder_OrderId)
                 .orElseThrow(() -> new AppException(ErrorCode.PAYMENT_NOT_FOUND));
         return paymentMapper.toPaymentResponse(payment);
     }
 
     @Transactional(readOnly = true)
     public List<PaymentResponse> getAllPayments() {
-        List<Payment> payments = paymentRepository.findAll();
-        return payments.stream()
-                .map(paymentMapper::toPaymentResponse)
-                .toList();
+        return paymentRepository.findAllResponses();
     }
 
     @Transactional(readOnly = true)
     public List<PaymentResponse> getPaymentsByStatus(PaymentStatus status) {
-        List<Payment> payments = paymentRepository.findByStatus(status);
-        return payments.stream()
-                .map(paymentMapper::toPaymentResponse)
-                .toList();
+        return paymentRepository.findResponsesByStatus(status);
     }
 
     @Transactional
     public PaymentResponse updatePaymentStatus(String paymentId, PaymentStatus status) {
         try {
-            Payment payment = paymentRepository.findById(paymentId)
+            Payment payment = UuidV7.tryParse(paymentId).flatMap(paymentRepository::findById)
                     .orElseThrow(() -> new AppException(ErrorCode.PAYMENT_NOT_FOUND));
 
             payment.setStatus(status);
@@ -128,7 +123,7 @@ public class PaymentService {
     @Transactional
     public PaymentResponse confirmPayment(String paymentId) {
         try {
-            Payment payment = paymentRepository.findById(paymentId)
+            Payment payment = UuidV7.tryParse(paymentId).flatMap(paymentRepository::findById)
                     .orElseThrow(() -> new AppException(ErrorCode.PAYMENT_NOT_FOUND));
 
             payment.setStatus(PaymentStatus.SUCCESS);
@@ -155,7 +150,7 @@ public class PaymentService {
     @Transactional
     public PaymentResponse failPayment(String paymentId) {
         try {
-            Payment payment = paymentRepository.findById(paymentId)
+            Payment payment = UuidV7.tryParse(paymentId).flatMap(paymentRepository::findById)
                     .orElseThrow(() -> new AppException(ErrorCode.PAYMENT_NOT_FOUND));
 
             payment.setStatus(PaymentStatus.FAILED);
@@ -172,7 +167,7 @@ public class PaymentService {
     @Transactional
     public void deletePayment(String paymentId) {
         try {
-            Payment payment = paymentRepository.findById(paymentId)
+            Payment payment = UuidV7.tryParse(paymentId).flatMap(paymentRepository::findById)
                     .orElseThrow(() -> new AppException(ErrorCode.PAYMENT_NOT_FOUND));
 
             paymentRepository.delete(payment);
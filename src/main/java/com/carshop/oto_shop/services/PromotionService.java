@@ -1,5 +1,6 @@
 package com.carshop.oto_shop.services;
 
+import com.carshop.oto_shop.catalog.PromotionChangedEvent;
 import com.carshop.oto_shop.common.exceptions.AppException;
 import com.carshop.oto_shop.common.exceptions.ErrorCode;
 import com.carshop.oto_shop.dto.promotion.PromotionRequestDto;
@@ -7,6 +8,7 @@ import com.carshop.oto_shop.dto.promotion.PromotionResponseDto;
 import com.carshop.oto_shop.entities.Promotion;
 import com.carshop.oto_shop.mappers.PromotionMapper;
 import com.carshop.oto_shop.repositories.PromotionRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,16 +20,20 @@ public class PromotionService {
 
     private final PromotionRepository promotionRepository;
     private final PromotionMapper promotionMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public PromotionService(PromotionRepository promotionRepository, PromotionMapper promotionMapper) {
+    public PromotionService(PromotionRepository promotionRepository, PromotionMapper promotionMapper,
+                            ApplicationEventPublisher eventPublisher) {
         this.promotionRepository = promotionRepository;
         this.promotionMapper = promotionMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
     public void createPromotion(PromotionRequestDto requestDto) {
         Promotion promotion = promotionMapper.toPromotion(requestDto);
         Promotion savedPromotion = promotionRepository.save(promotion);
+        eventPublisher.publishEvent(new PromotionChangedEvent());
         promotionMapper.toPromotionResponseDto(savedPromotion);
     }
 
@@ -52,6 +58,7 @@ public class PromotionService {
 
         promotionMapper.updatePromotionFromDto(requestDto, existingPromotion);
         Promotion updatedPromotion = promotionRepository.save(existingPromotion);
+        eventPublisher.publishEvent(new PromotionChangedEvent());
         promotionMapper.toPromotionResponseDto(updatedPromotion);
     }
 
@@ -61,5 +68,6 @@ public class PromotionService {
             throw new AppException(ErrorCode.PROMOTION_NOT_FOUND);
         }
         promotionRepository.deleteById(id);
+        eventPublisher.publishEvent(new PromotionChangedEvent());
     }
 }
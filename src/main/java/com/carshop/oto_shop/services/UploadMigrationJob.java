@@ -0,0 +1,153 @@
+package com.carshop.oto_shop.services;
+
+import com.carshop.oto_shop.catalog.CarCatalogChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chuyển các file upload cũ ({@code <millis>_<tên gốc>}) sang dạng lưu theo SHA-256 của
+ * {@link UploadStorageService}. Chạy khi ứng dụng khởi động; mỗi dòng cars/news/users một transaction:
+ * lưu file theo hash (bản trùng chỉ giữ một), đổi URL trong dòng rồi xoá file cũ sau khi commit.
+ *
+ * Dòng đã đổi URL từ trước hoặc có file cũ không còn trên đĩa được bỏ qua. Khi mọi file đã chuyển xong có
+ * thể tắt bằng {@code upload-migration.enabled=false}.
+ */
+@Service
+public class UploadMigrationJob {
+    private static final Logger logger = LoggerFactory.getLogger(UploadMigrationJob.class);
+
+    private static final List<UploadColumn> COLUMNS = List.of(
+            new UploadColumn("cars", "car_id", "image_url", CarService.UPLOAD_DIR, true),
+            new UploadColumn("news", "news_id", "cover_image_url", NewsService.UPLOAD_DIR, false),
+            new UploadColumn("users", "user_id", "avatar_url", UserService.UPLOAD_DIR, false));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UploadStorageService uploadStorageService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+
+    public UploadMigrationJob(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              UploadStorageService uploadStorageService,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${upload-migration.enabled}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.uploadStorageService = uploadStorageService;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            migrate();
+        } catch (DataAccessException e) {
+            // File cũ vẫn phục vụ bình thường, lần khởi động sau sẽ chạy tiếp
+            logger.warn("Upload migration stopped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Chuyển mọi file cũ còn được tham chiếu, trả về số dòng đã đổi URL.
+     */
+    public int migrate() {
+        int migrated = 0;
+        for (UploadColumn column : COLUMNS) {
+            List<Object[]> rows = jdbcTemplate.query(
+                    "SELECT " + column.idColumn + ", " + column.urlColumn + " FROM " + column.table
+                            + " WHERE " + column.urlColumn + " IS NOT NULL",
+                    (rs, rowNum) -> new Object[]{rs.getObject(1), rs.getString(2)});
+            List<Long> changedCarIds = new ArrayList<>();
+            for (Object[] row : rows) {
+                String url = (String) row[1];
+                if (UploadStorageService.isContentAddressed(url)) {
+                    continue;
+                }
+                Path legacy = Paths.get(column.uploadDir).resolve(Paths.get(url).getFileName()).normalize();
+                if (!Files.isRegularFile(legacy)) {
+                    logger.warn("Upload {} of {} {} is missing, skipped", legacy, column.table, row[0]);
+                    continue;
+                }
+                if (migrateRow(column, row[0], url, legacy)) {
+                    migrated++;
+                    if (row[0] instanceof Number carId) {
+                        changedCarIds.add(carId.longValue());
+                    }
+                }
+            }
+            if ("cars".equals(column.table) && !changedCarIds.isEmpty()) {
+                eventPublisher.publishEvent(new CarCatalogChangedEvent(changedCarIds));
+            }
+        }
+        logger.info("Upload migration moved {} files to content-addressed storage", migrated);
+        return migrated;
+    }
+
+    private boolean migrateRow(UploadColumn column, Object id, String url, Path legacy) {
+        try {
+            Boolean updated = transactionTemplate.execute(status -> {
+                String stored;
+                try (InputStream content = Files.newInputStream(legacy)) {
+                    stored = uploadStorageService.store(column.uploadDir, content,
+                            UploadStorageService.extension(null, legacy.getFileName().toString()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                int rows = jdbcTemplate.update("UPDATE " + column.table + " SET " + column.urlColumn + " = ?"
+                        + (column.versioned ? ", version = version + 1" : "") + " WHERE "
+                        + column.idColumn + " = ? AND " + column.urlColumn + " = ?", stored, id, url);
+                if (rows == 0) {
+                    // Dòng vừa đổi ảnh trong lúc chuyển, hoàn tác để không giữ tham chiếu thừa
+                    status.setRollbackOnly();
+                    return false;
+                }
+                uploadStorageService.release(url);
+                return true;
+            });
+            return Boolean.TRUE.equals(updated);
+        } catch (UncheckedIOException e) {
+            logger.warn("Cannot migrate upload {}: {}", legacy, e.getMessage());
+            return false;
+        }
+    }
+
+    private static final class UploadColumn {
+        private final String table;
+        private final String idColumn;
+        private final String urlColumn;
+        private final String uploadDir;
+        // Bảng có cột @Version: tăng version như mọi lần ghi khác, để cache JSON theo version không giữ URL cũ
+        private final boolean versioned;
+
+        UploadColumn(String table, String idColumn, String urlColumn, String uploadDir, boolean versioned) {
+            this.table = table;
+            this.idColumn = idColumn;
+            this.urlColumn = urlColumn;
+            this.uploadDir = uploadDir;
+            this.versioned = versioned;
+        }
+    }
+}
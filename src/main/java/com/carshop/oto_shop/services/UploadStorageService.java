@@ -0,0 +1,228 @@
+package com.carshop.oto_shop.services;
+
+import com.carshop.oto_shop.common.response.ImageByteCache;
+import com.carshop.oto_shop.enums.ImageVariant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Lưu file upload (ảnh xe, ảnh bìa tin tức, avatar) theo SHA-256 nội dung: {@code <uploadDir>/<sha256>.<đuôi>}.
+ * Hash được tính trong lúc ghi stream ra file tạm, nên file giống hệt nhau chỉ lưu một lần trong mỗi thư mục
+ * và URL của file không bao giờ đổi nội dung (cache được lâu dài).
+ *
+ * Số tham chiếu (cars.image_url, news.cover_image_url, users.avatar_url) nằm trong bảng upload_blobs và được
+ * cộng/trừ trong transaction đang chạy của service gọi tới. File chỉ bị xoá sau khi transaction commit và
+ * dòng upload_blobs về 0, trong một transaction riêng giữ khoá dòng đó; {@link #store} lấy tham chiếu trước
+ * khi đặt file nên không bị lần dọn dẹp chạy song song xoá mất file vừa dùng lại.
+ *
+ * File cũ đặt tên kiểu {@code <millis>_<tên gốc>} không có trong upload_blobs và được xoá thẳng như trước;
+ * {@link UploadMigrationJob} chuyển dần chúng sang dạng mới.
+ */
+@Service
+public class UploadStorageService {
+    private static final Logger logger = LoggerFactory.getLogger(UploadStorageService.class);
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]{1,8}");
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,8}");
+
+    private static final String ACQUIRE = "INSERT INTO upload_blobs (path, ref_count, size_bytes, created_at) "
+            + "VALUES (?, 1, ?, ?) ON DUPLICATE KEY UPDATE ref_count = ref_count + 1";
+    private static final String RELEASE = "UPDATE upload_blobs SET ref_count = ref_count - 1 "
+            + "WHERE path = ? AND ref_count > 0";
+    private static final String LOCK = "SELECT ref_count FROM upload_blobs WHERE path = ? FOR UPDATE";
+    private static final String DELETE = "DELETE FROM upload_blobs WHERE path = ? AND ref_count = 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate collectTransaction;
+    private final ImageVariantService imageVariantService;
+    private final ImageByteCache imageByteCache;
+
+    public UploadStorageService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ImageVariantService imageVariantService,
+                                ImageByteCache imageByteCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.collectTransaction = new TransactionTemplate(transactionManager);
+        this.collectTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.imageVariantService = imageVariantService;
+        this.imageByteCache = imageByteCache;
+    }
+
+    /**
+     * Lưu file và giữ một tham chiếu tới nó, trả về đường dẫn để gán vào entity (ví dụ uploads/cars/ab12...ef.png).
+     */
+    public String store(String uploadDir, MultipartFile file) throws IOException {
+        try (InputStream content = file.getInputStream()) {
+            return store(uploadDir, content, extension(file.getContentType(), file.getOriginalFilename()));
+        }
+    }
+
+    public String store(String uploadDir, InputStream content, String extension) throws IOException {
+        Path dir = Paths.get(uploadDir);
+        Files.createDirectories(dir);
+        // Tên bắt đầu bằng "." để ImageVariantService.reprocess bỏ qua file đang ghi dở
+        Path temp = Files.createTempFile(dir, ".upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                size = content.transferTo(out);
+            }
+            String storedPath = uploadDir + HexFormat.of().formatHex(digest.digest()) + "." + extension;
+            jdbcTemplate.update(ACQUIRE, storedPath, size, LocalDateTime.now());
+            onRollback(() -> collect(storedPath));
+
+            Path target = Paths.get(storedPath);
+            if (Files.exists(target)) {
+                return storedPath;
+            }
+            // Cùng tên nghĩa là cùng nội dung, ghi đè khi hai request cùng đặt file vẫn an toàn
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            imageVariantService.submit(storedPath);
+            return storedPath;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Bỏ một tham chiếu; file (và các biến thể) bị xoá sau khi transaction commit nếu không còn ai dùng.
+     */
+    public void release(String storedPath) {
+        if (storedPath == null) {
+            return;
+        }
+        if (!isContentAddressed(storedPath)) {
+            onCommit(() -> deleteFiles(storedPath));
+            return;
+        }
+        jdbcTemplate.update(RELEASE, storedPath);
+        onCommit(() -> collect(storedPath));
+    }
+
+    public static boolean isContentAddressed(String storedPath) {
+        Path fileName = Paths.get(storedPath).getFileName();
+        return fileName != null && CONTENT_ADDRESSED.matcher(fileName.toString()).matches();
+    }
+
+    static String extension(String contentType, String originalFilename) {
+        if (contentType != null) {
+            switch (contentType) {
+                case "image/jpeg":
+                    return "jpg";
+                case "image/png":
+                    return "png";
+                case "image/gif":
+                    return "gif";
+                case "image/webp":
+                    return "webp";
+                case "application/pdf":
+                    return "pdf";
+                default:
+                    break;
+            }
+        }
+        if (originalFilename != null) {
+            int dot = originalFilename.lastIndexOf('.');
+            String extension = originalFilename.substring(dot + 1).toLowerCase(Locale.ROOT);
+            if (dot >= 0 && EXTENSION.matcher(extension).matches()) {
+                return extension;
+            }
+        }
+        return "bin";
+    }
+
+    // Xoá file khi upload_blobs về 0; khoá dòng nên không chạy chen với store() đang lấy tham chiếu
+    void collect(String storedPath) {
+        try {
+            collectTransaction.executeWithoutResult(status -> {
+                List<Integer> counts = jdbcTemplate.queryForList(LOCK, Integer.class, storedPath);
+                if (!counts.isEmpty() && counts.get(0) > 0) {
+                    return;
+                }
+                jdbcTemplate.update(DELETE, storedPath);
+                deleteFiles(storedPath);
+            });
+        } catch (DataAccessException e) {
+            logger.warn("Cannot collect upload {}: {}", storedPath, e.getMessage());
+        }
+    }
+
+    private void deleteFiles(String storedPath) {
+        Path path = Paths.get(storedPath).normalize();
+        Path dir = path.getParent() != null ? path.getParent() : Paths.get("");
+        String fileName = path.getFileName().toString();
+        imageVariantService.delete(dir.toString(), fileName);
+        imageByteCache.invalidate(path);
+        for (ImageVariant variant : ImageVariant.values()) {
+            imageByteCache.invalidate(path.resolveSibling(ImageVariantService.variantFileName(fileName, variant)));
+        }
+        try {
+            if (Files.deleteIfExists(path)) {
+                logger.info("Deleted upload {}", path);
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot delete upload {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static void onCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Ngoài transaction thì tham chiếu đã commit ngay, không có gì để hoàn tác
+    private static void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
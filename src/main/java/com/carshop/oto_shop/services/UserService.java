@@ -15,20 +15,18 @@ import com.carshop.oto_shop.enums.Role;
 import com.carshop.oto_shop.mappers.UserMapper;
 import com.carshop.oto_shop.repositories.AccountRepository;
 import com.carshop.oto_shop.repositories.UserRepository;
+import com.carshop.oto_shop.security.services.AccountChangedEvent;
 import jakarta.transaction.Transactional;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.List;
 
 @Service
@@ -38,23 +36,29 @@ public class UserService {
     private final UserRepository userRepository;
     private final AccountRepository accountRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UploadStorageService uploadStorageService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public static final String UPLOAD_DIR = "uploads/avatars/";
     private static final String BASE_IMAGE_URL = "http://localhost:8080/carshop/api/users/avatar/image/";
 
-    public UserService(UserMapper userMapper, UserRepository userRepository, AccountRepository accountRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserMapper userMapper, UserRepository userRepository, AccountRepository accountRepository,
+                       PasswordEncoder passwordEncoder, UploadStorageService uploadStorageService,
+                       ApplicationEventPublisher eventPublisher) {
         this.userMapper = userMapper;
         this.userRepository = userRepository;
         this.accountRepository = accountRepository;
         this.passwordEncoder = passwordEncoder;
+        this.uploadStorageService = uploadStorageService;
+        this.eventPublisher = eventPublisher;
     }
 
     public void CreateUser(UserRequest userRequest, String accountId) {
+        String avatarUrl = null;
         try{
             Account account = accountRepository.findById(accountId)
                     .orElseThrow(() -> new AppException(ErrorCode.ACCOUNT_NOT_FOUND));
             User user = userMapper.toUser(userRequest);
-            String avatarUrl = null;
             if (userRequest.getAvatarFile() != null && !userRequest.getAvatarFile().isEmpty()) {
                 avatarUrl = saveAvatar(userRequest.getAvatarFile());
             }
@@ -62,6 +66,7 @@ public class UserService {
             user.setAvatarUrl(avatarUrl);
             userRepository.save(user);
         }catch (DataIntegrityViolationException e){
+            uploadStorageService.release(avatarUrl);
             String message = e.getMostSpecificCause().getMessage(); //lấy message gốc từ DB
             logger.error("DataIntegrityViolationException caught: {}", message);
             if(message != null){
@@ -94,16 +99,7 @@ public class UserService {
                 throw new AppException(ErrorCode.UNSUPPORTED_MEDIA_TYPE);
             }
 
-            File uploadDir = new File(UPLOAD_DIR);
-            if(!uploadDir.exists()){
-                uploadDir.mkdirs();
-            }
-
-            String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-            Path path = Paths.get(UPLOAD_DIR + fileName);
-            Files.copy(file.getInputStream(), path, StandardCopyOption.REPLACE_EXISTING);
-
-            return UPLOAD_DIR + fileName;
+            return uploadStorageService.store(UPLOAD_DIR, file);
         }catch (IOException e){
             throw new AppException(ErrorCode.FILE_UPLOAD_ERROR);
         }
@@ -185,12 +181,13 @@ public class UserService {
                 account.setStatus(request.getStatus());
             }
             if (request.getAvatarFile() != null && !request.getAvatarFile().isEmpty()) {
-                deleteAvatarFile(user.getAvatarUrl());
+                uploadStorageService.release(user.getAvatarUrl());
                 String newAvatarUrl = saveAvatar(request.getAvatarFile());
                 user.setAvatarUrl(newAvatarUrl);
             }
             accountRepository.save(account);
             User savedUser = userRepository.save(user);
+            eventPublisher.publishEvent(new AccountChangedEvent(account.getAccountId()));
 
             userMapper.toUserResponse(savedUser);
         } catch (DataIntegrityViolationException e) {
@@ -217,29 +214,11 @@ public class UserService {
         }
     }
 
-    private void deleteAvatarFile(String avatarUrl) {
-        if (avatarUrl == null) return;
-        try {
-            String fileName = Paths.get(avatarUrl).getFileName().toString();
-            Path filePath = Paths.get(UPLOAD_DIR).resolve(fileName).normalize();
-            File file = filePath.toFile();
-            if (file.exists()) {
-                boolean deleted = file.delete();
-                if (deleted) {
-                    logger.info("Đã xoá avatar: " + filePath);
-                } else {
-                    logger.warn("Không thể xoá avatar: " + filePath);
-                }
-            }
-        } catch (Exception e) {
-            logger.error("Lỗi khi xoá avatar: " + e.getMessage());
-        }
-    }
-
     public void DeleteUser(String userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() ->new AppException(ErrorCode.USER_NOT_FOUND));
         userRepository.delete(user);
+        uploadStorageService.release(user.getAvatarUrl());
     }
 
     public UserResponse getUser(String userId) {
@@ -250,6 +229,7 @@ public class UserService {
             // Thay "/uploads/xxx.png" thành full URL API
             String fileName = Paths.get(user.getAvatarUrl()).getFileName().toString();
             response.setAvatarUrl(BASE_IMAGE_URL + fileName);
+            response.setAvatarUrls(ImageVariantService.urls(BASE_IMAGE_URL, fileName));
         }
         return response;
     }
@@ -262,6 +242,7 @@ public class UserService {
                     if (user.getAvatarUrl() != null) {
                         String fileName = Paths.get(user.getAvatarUrl()).getFileName().toString();
                         response.setAvatarUrl(BASE_IMAGE_URL + fileName);
+                        response.setAvatarUrls(ImageVariantService.urls(BASE_IMAGE_URL, fileName));
                     }
                     return response;
                 })
@@ -276,6 +257,7 @@ public class UserService {
             // Thay "/uploads/xxx.png" thành full URL API
             String fileName = Paths.get(user.getAvatarUrl()).getFileName().toString();
             response.setAvatarUrl(BASE_IMAGE_URL + fileName);
+            response.setAvatarUrls(ImageVariantService.urls(BASE_IMAGE_URL, fileName));
         }
         return response;
     }
@@ -325,6 +307,7 @@ public class UserService {
             if (avatarUrl != null) {
                 String fileName = Paths.get(avatarUrl).getFileName().toString();
                 response.setAvatarUrl(BASE_IMAGE_URL + fileName);
+                response.setAvatarUrls(ImageVariantService.urls(BASE_IMAGE_URL, fileName));
             }
 
             return response;
@@ -0,0 +1,5 @@
+-- Bo index (manufacture_year, car_id) tang dan tren cars: khong truy van nao dung (nam chi sap xep giam dan,
+-- da co idx_cars_year_desc_car_id), chi ton them ghi moi lan insert/update.
+-- ddl-auto=update khong xoa index da co, nen DB da tao index nay can chay lenh duoi mot lan (MySQL 8).
+
+ALTER TABLE cars DROP INDEX idx_cars_year_car_id;
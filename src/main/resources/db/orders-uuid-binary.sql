@@ -0,0 +1,42 @@
+-- Chuyen orders.order_id, payment.payment_id va cac khoa ngoai tro toi order_id tu VARCHAR(36) sang BINARY(16).
+-- Chay mot lan (MySQL 8), khi ung dung da dung, TRUOC khi trien khai ban dung UUIDv7:
+-- ddl-auto=update khong doi kieu cot da co. DDL cua MySQL tu commit, nen sao luu DB truoc khi chay.
+--
+-- Id cu (UUIDv4) giu nguyen gia tri, chi doi cach luu, nen cac URL /orders/{id} da phat ra van dung duoc.
+-- UUID_TO_BIN khong bat swap_flag: Hibernate ghi UUID theo thu tu byte chuan (RFC 9562),
+-- va UUIDv7 o thu tu do da tang dan theo thoi gian.
+
+ALTER TABLE order_details DROP FOREIGN KEY fk_order_details_order;
+ALTER TABLE payment DROP FOREIGN KEY fk_payment_order;
+
+-- orders
+ALTER TABLE orders ADD COLUMN order_id_bin BINARY(16) NULL;
+UPDATE orders SET order_id_bin = UUID_TO_BIN(order_id);
+ALTER TABLE orders DROP PRIMARY KEY, DROP COLUMN order_id;
+ALTER TABLE orders CHANGE COLUMN order_id_bin order_id BINARY(16) NOT NULL FIRST, ADD PRIMARY KEY (order_id);
+
+-- order_details.order_id
+ALTER TABLE order_details ADD COLUMN order_id_bin BINARY(16) NULL;
+UPDATE order_details SET order_id_bin = UUID_TO_BIN(order_id);
+ALTER TABLE order_details DROP COLUMN order_id;
+ALTER TABLE order_details CHANGE COLUMN order_id_bin order_id BINARY(16) NOT NULL;
+
+-- payment.payment_id va payment.order_id (unique, quan he 1-1 voi orders)
+ALTER TABLE payment ADD COLUMN payment_id_bin BINARY(16) NULL, ADD COLUMN order_id_bin BINARY(16) NULL;
+UPDATE payment SET payment_id_bin = UUID_TO_BIN(payment_id), order_id_bin = UUID_TO_BIN(order_id);
+ALTER TABLE payment DROP PRIMARY KEY, DROP COLUMN payment_id, DROP COLUMN order_id;
+ALTER TABLE payment
+    CHANGE COLUMN payment_id_bin payment_id BINARY(16) NOT NULL FIRST,
+    CHANGE COLUMN order_id_bin order_id BINARY(16) NOT NULL,
+    ADD PRIMARY KEY (payment_id),
+    ADD UNIQUE KEY uk_payment_order (order_id);
+
+-- Giu ON DELETE CASCADE nhu database_order_system.sql: User khong map danh sach orders trong JPA,
+-- nen xoa user dua vao chuoi cascade users -> orders -> order_details/payment cua DB.
+-- DROP COLUMN order_id da xoa luon cac index tren cot cu, tao lai cung ten voi schema goc.
+ALTER TABLE order_details
+    ADD INDEX idx_order_details_order_id (order_id),
+    ADD CONSTRAINT fk_order_details_order FOREIGN KEY (order_id) REFERENCES orders (order_id) ON DELETE CASCADE;
+ALTER TABLE payment
+    ADD INDEX idx_payment_order_id (order_id),
+    ADD CONSTRAINT fk_payment_order FOREIGN KEY (order_id) REFERENCES orders (order_id) ON DELETE CASCADE;
@@ -0,0 +1,121 @@
+package com.carshop.oto_shop.catalog;
+
+import com.carshop.oto_shop.entities.Car;
+import com.carshop.oto_shop.entities.CarDetail;
+import com.carshop.oto_shop.repositories.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CarCatalogFeedTests {
+
+    private CarRepository carRepository;
+    private CarCatalogFeed feed;
+    private RecordingSubscriber first;
+    private RecordingSubscriber second;
+
+    @BeforeEach
+    void setUp() {
+        carRepository = mock(CarRepository.class);
+        when(carRepository.findAllWithDetails()).thenReturn(rows(car(1L, 3L, "Vios"), car(2L, 0L, "Accent")));
+        feed = new CarCatalogFeed(carRepository);
+        first = new RecordingSubscriber();
+        second = new RecordingSubscriber();
+        feed.subscribe(first);
+        feed.subscribe(second);
+    }
+
+    @Test
+    void changesBeforeLoadAreLeftToTheInitialRead() {
+        feed.refresh(List.of(1L));
+        verify(carRepository, never()).findWithDetailsByIdsInBatches(anyCollection());
+
+        feed.ensureLoaded();
+        feed.ensureLoaded();
+
+        verify(carRepository, times(1)).findAllWithDetails();
+        assertThat(first.models).containsOnlyKeys(1L, 2L);
+    }
+
+    @Test
+    void oneReadPerChangeIsSharedByEverySubscriber() {
+        feed.load();
+        when(carRepository.findWithDetailsByIdsInBatches(anyCollection())).thenReturn(rows(car(1L, 4L, "Vios Cross")));
+
+        feed.refresh(List.of(1L, 2L));
+
+        verify(carRepository, times(1)).findWithDetailsByIdsInBatches(anyCollection());
+        assertThat(first.models).containsExactlyEntriesOf(Map.of(1L, "Vios Cross"));
+        assertThat(second.models).containsExactlyEntriesOf(Map.of(1L, "Vios Cross"));
+    }
+
+    @Test
+    void olderVersionThanIndexedIsDropped() {
+        feed.load();
+        when(carRepository.findWithDetailsByIdsInBatches(anyCollection())).thenReturn(rows(car(1L, 5L, "Vios G")));
+        feed.refresh(List.of(1L));
+
+        // Entity cũ (version 4) đọc muộn không được ghi đè bản version 5 đã index
+        when(carRepository.findWithDetailsByIdsInBatches(anyCollection())).thenReturn(rows(car(1L, 4L, "Vios E")));
+        feed.refresh(List.of(1L));
+        assertThat(first.models.get(1L)).isEqualTo("Vios G");
+
+        // Cùng version vẫn áp dụng, vì CarDetail đổi không tăng version của xe
+        when(carRepository.findWithDetailsByIdsInBatches(anyCollection())).thenReturn(rows(car(1L, 5L, "Vios G")));
+        feed.refresh(List.of(1L));
+        assertThat(first.applied).isEqualTo(2);
+    }
+
+    private static List<Object[]> rows(Car... cars) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Car car : cars) {
+            rows.add(new Object[]{car, null});
+        }
+        return rows;
+    }
+
+    private static Car car(Long id, Long version, String model) {
+        Car car = new Car();
+        car.setCarId(id);
+        car.setVersion(version);
+        car.setModel(model);
+        return car;
+    }
+
+    private static final class RecordingSubscriber implements CarCatalogFeed.Subscriber {
+        private final Map<Long, String> models = new HashMap<>();
+        private int applied;
+
+        @Override
+        public void reset(Collection<Car> cars, Map<Long, CarDetail> details) {
+            models.clear();
+            cars.forEach(car -> models.put(car.getCarId(), car.getModel()));
+        }
+
+        @Override
+        public void apply(Collection<Long> carIds, Map<Long, Car> cars, Map<Long, CarDetail> details) {
+            applied++;
+            for (Long carId : carIds) {
+                Car car = cars.get(carId);
+                if (car != null) {
+                    models.put(carId, car.getModel());
+                } else {
+                    models.remove(carId);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.carshop.oto_shop.catalog;
+
+import com.carshop.oto_shop.common.pagination.CarCursor;
+import com.carshop.oto_shop.common.response.CursorPage;
+import com.carshop.oto_shop.entities.Car;
+import com.carshop.oto_shop.entities.CarDetail;
+import com.carshop.oto_shop.enums.Brand;
+import com.carshop.oto_shop.enums.CarSort;
+import com.carshop.oto_shop.enums.CarStatus;
+import com.carshop.oto_shop.enums.Category;
+import com.carshop.oto_shop.enums.Color;
+import com.carshop.oto_shop.repositories.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CarCatalogIndexTests {
+
+    private CarRepository carRepository;
+    private CarCatalogFeed feed;
+    private CarCatalogIndex index;
+    private List<Car> cars;
+
+    @BeforeEach
+    void setUp() {
+        carRepository = mock(CarRepository.class);
+        cars = List.of(
+                car(1L, Brand.TOYOTA, Category.SEDAN, Color.WHITE, "Vios", 2023, "500000000"),
+                car(2L, Brand.TOYOTA, Category.SUV, Color.BLACK, "Land Cruiser", 2024, "4000000000"),
+                car(3L, Brand.HYUNDAI, Category.SEDAN, Color.WHITE, "Accent", 2022, "450000000"),
+                car(4L, Brand.MERCEDES, Category.SEDAN, Color.SILVER, "C200", 2023, "1500000000"),
+                car(5L, Brand.VINFAST, Category.SUV, Color.RED, "VF8", 2024, "1100000000"));
+        when(carRepository.findAllWithDetails()).thenReturn(rows(cars));
+        feed = new CarCatalogFeed(carRepository);
+        index = new CarCatalogIndex(feed);
+        feed.load();
+    }
+
+    @Test
+    void multiSelectBrandIsUnionAndCombinesWithOtherFilters() {
+        CarFilter filter = new CarFilter();
+        filter.setBrands(Set.of(Brand.TOYOTA, Brand.HYUNDAI));
+        filter.setCategories(Set.of(Category.SEDAN));
+
+        assertThat(ids(index.search(filter, null, CarSort.ID, null, 10))).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void priceAndYearRangesAreInclusive() {
+        CarFilter filter = new CarFilter();
+        filter.setPriceMin(500000000d);
+        filter.setPriceMax(1500000000d);
+        filter.setYearMin(2023);
+        filter.setYearMax(2023);
+
+        assertThat(ids(index.search(filter, null, CarSort.PRICE_ASC, null, 10))).containsExactly(1L, 4L);
+    }
+
+    @Test
+    void specRangesAndFuelTypeUseDetailsAndSkipCarsWithoutThem() {
+        when(carRepository.findAllWithDetails()).thenReturn(rows(cars,
+                detail(1L, 106, 140, 5, "Xăng", "5.7L/100km"),
+                detail(2L, 409, 650, 7, "Dầu", "10.5L/100km"),
+                detail(4L, 204, 300, 5, "Xăng", "7.2 l/100 km")));
+        feed.load();
+
+        CarFilter filter = new CarFilter();
+        filter.setHorsepowerMin(100);
+        filter.setSeatsMax(5);
+        filter.setFuelTypes(Set.of("xang"));
+        assertThat(ids(index.search(filter, null, CarSort.ID, null, 10))).containsExactly(1L, 4L);
+
+        filter.setFuelConsumptionMax(6d);
+        assertThat(ids(index.search(filter, null, CarSort.ID, null, 10))).containsExactly(1L);
+
+        CarFilter torque = new CarFilter();
+        torque.setTorqueMin(300);
+        assertThat(ids(index.search(torque, null, CarSort.ID, null, 10))).containsExactly(2L, 4L);
+
+        // Đổi CarDetail của xe 4 sang xe điện: gỡ khỏi cột cũ, mức tiêu thụ không còn đọc được
+        when(carRepository.findWithDetailsByIdsInBatches(anyCollection())).thenReturn(rows(
+                List.of(car(4L, Brand.MERCEDES, Category.SEDAN, Color.SILVER, "C200", 2023, "1500000000")),
+                detail(4L, 204, 300, 5, "Điện", "15 kWh/100km")));
+        feed.refresh(List.of(4L));
+
+        assertThat(ids(index.search(filter, null, CarSort.ID, null, 10))).containsExactly(1L);
+        CarFilter electric = new CarFilter();
+        electric.setFuelTypes(Set.of("Điện"));
+        assertThat(ids(index.search(electric, null, CarSort.ID, null, 10))).containsExactly(4L);
+        CarFilter consumption = new CarFilter();
+        consumption.setFuelConsumptionMin(0d);
+        assertThat(ids(index.search(consumption, null, CarSort.ID, null, 10))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void cursorContinuesAfterLastItemInSortOrder() {
+        CursorPage<Car> firstPage = index.search(new CarFilter(), null, CarSort.PRICE_DESC, null, 2);
+        assertThat(ids(firstPage)).containsExactly(2L, 4L);
+
+        CarCursor cursor = CarCursor.decode(firstPage.getNextCursor(), CarSort.PRICE_DESC);
+        assertThat(ids(index.search(new CarFilter(), null, CarSort.PRICE_DESC, cursor, 10))).containsExactly(5L, 1L, 3L);
+    }
+
+    @Test
+    void refreshPatchesUpdatedAndDeletedCars() {
+        Car repriced = car(1L, Brand.TOYOTA, Category.SEDAN, Color.WHITE, "Vios", 2023, "5000000000");
+        repriced.setStatus(CarStatus.SOLD);
+        when(carRepository.findWithDetailsByIdsInBatches(anyCollection())).thenReturn(rows(List.of(repriced)));
+
+        feed.refresh(List.of(1L, 3L));
+
+        CarFilter sold = new CarFilter();
+        sold.setStatuses(Set.of(CarStatus.SOLD));
+        assertThat(ids(index.search(sold, null, CarSort.ID, null, 10))).containsExactly(1L);
+        assertThat(ids(index.search(new CarFilter(), null, CarSort.PRICE_DESC, null, 10))).containsExactly(1L, 2L, 4L, 5L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void largeRefreshRebuildsSortedColumnsInOnePass() {
+        List<Car> changed = new ArrayList<>();
+        changed.add(car(1L, Brand.TOYOTA, Category.SEDAN, Color.WHITE, "Vios", 2023, "5000000000"));
+        changed.add(car(4L, Brand.MERCEDES, Category.SEDAN, Color.SILVER, "C200", 2023, "1500000000"));
+        for (long id = 6; id <= 12; id++) {
+            changed.add(car(id, Brand.HYUNDAI, Category.SUV, Color.BLUE, "Seltos", 2020, String.valueOf(id * 100_000_000L)));
+        }
+        when(carRepository.findWithDetailsByIdsInBatches(anyCollection())).thenReturn(rows(changed));
+
+        // Xe 3 bị xoá, xe 1 đổi giá, xe 4 không đổi, 6..12 là xe mới
+        feed.refresh(List.of(1L, 3L, 4L, 6L, 7L, 8L, 9L, 10L, 11L, 12L));
+
+        assertThat(ids(index.search(new CarFilter(), null, CarSort.PRICE_DESC, null, 20)))
+                .containsExactly(1L, 2L, 4L, 12L, 5L, 11L, 10L, 9L, 8L, 7L, 6L);
+        CarFilter older = new CarFilter();
+        older.setYearMax(2021);
+        assertThat(ids(index.search(older, null, CarSort.PRICE_ASC, null, 20))).containsExactly(6L, 7L, 8L, 9L, 10L, 11L, 12L);
+        assertThat(index.size()).isEqualTo(11);
+    }
+
+    @Test
+    void keywordMatchesBrandAndModel() {
+        assertThat(ids(index.search(new CarFilter(), "mercedes c200", CarSort.ID, null, 10))).containsExactly(4L);
+        assertThat(ids(index.search(new CarFilter(), "land", CarSort.ID, null, 10))).containsExactly(2L);
+    }
+
+    @Test
+    void keywordIgnoresDiacriticsAndMatchesPartialWords() {
+        Car electric = car(6L, Brand.VINFAST, Category.SUV, Color.BLUE, "Lux A2.0", 2021, "900000000");
+        electric.setDescription("Xe điện đô thị");
+        when(carRepository.findWithDetailsByIdsInBatches(anyCollection())).thenReturn(rows(List.of(electric)));
+        feed.refresh(List.of(6L));
+
+        assertThat(ids(index.search(new CarFilter(), "vinfast lux a", CarSort.ID, null, 10))).containsExactly(6L);
+        assertThat(ids(index.search(new CarFilter(), "xe dien", CarSort.ID, null, 10))).containsExactly(6L);
+        assertThat(ids(index.search(new CarFilter(), "Xe Điện", CarSort.ID, null, 10))).containsExactly(6L);
+    }
+
+    @Test
+    void misspelledTermsAreCorrectedAgainstTheCatalogVocabulary() {
+        assertThat(ids(index.search(new CarFilter(), "huyndai", CarSort.ID, null, 10))).containsExactly(3L);
+        assertThat(ids(index.search(new CarFilter(), "toyta vois", CarSort.ID, null, 10))).containsExactly(1L);
+        assertThat(ids(index.search(new CarFilter(), "xyzabc", CarSort.ID, null, 10))).isEmpty();
+    }
+
+    @Test
+    void relevanceRanksModelMatchesAboveDescriptionMatches() {
+        Car withMention = car(6L, Brand.HYUNDAI, Category.SUV, Color.BLUE, "Sorento", 2024, "1000000000");
+        withMention.setDescription("Rộng rãi hơn Land Cruiser cũ, rẻ hơn nhiều");
+        when(carRepository.findWithDetailsByIdsInBatches(anyCollection())).thenReturn(rows(List.of(withMention)));
+        feed.refresh(List.of(6L));
+
+        CursorPage<Car> firstPage = index.search(new CarFilter(), "land cruiser", CarSort.RELEVANCE, null, 1);
+        assertThat(ids(firstPage)).containsExactly(2L);
+
+        CarCursor cursor = CarCursor.decode(firstPage.getNextCursor(), CarSort.RELEVANCE);
+        CursorPage<Car> secondPage = index.search(new CarFilter(), "land cruiser", CarSort.RELEVANCE, cursor, 1);
+        assertThat(ids(secondPage)).containsExactly(6L);
+        assertThat(secondPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    void relevancePagesConcatenateToTheFullRanking() {
+        List<Car> more = new ArrayList<>();
+        for (long id = 6; id <= 15; id++) {
+            more.add(car(id, Brand.TOYOTA, Category.SEDAN, Color.WHITE, id % 2 == 0 ? "Camry" : "Camry Hybrid",
+                    2021, "900000000"));
+        }
+        when(carRepository.findWithDetailsByIdsInBatches(anyCollection())).thenReturn(rows(more));
+        feed.refresh(more.stream().map(Car::getCarId).toList());
+
+        List<Long> full = ids(index.search(new CarFilter(), "toyota sedan", CarSort.RELEVANCE, null, 100));
+        assertThat(full).hasSize(11);
+        List<Long> paged = new ArrayList<>();
+        CarCursor cursor = null;
+        do {
+            CursorPage<Car> page = index.search(new CarFilter(), "toyota sedan", CarSort.RELEVANCE, cursor, 3);
+            paged.addAll(ids(page));
+            cursor = page.getNextCursor() == null ? null : CarCursor.decode(page.getNextCursor(), CarSort.RELEVANCE);
+        } while (cursor != null);
+        assertThat(paged).isEqualTo(full);
+    }
+
+    @Test
+    void facetsCountEveryValueAndBucketOfTheMatchingSet() {
+        CarFilter sedans = new CarFilter();
+        sedans.setCategories(Set.of(Category.SEDAN));
+
+        CarFacets facets = index.facets(sedans, null, new double[]{1_000_000_000d}, new int[]{2023});
+
+        assertThat(facets.getTotal()).isEqualTo(3);
+        assertThat(facets.getBrandCounts()[Brand.TOYOTA.ordinal()]).isEqualTo(1);
+        assertThat(facets.getBrandCounts()[Brand.VINFAST.ordinal()]).isZero();
+        assertThat(facets.getColorCounts()[Color.WHITE.ordinal()]).isEqualTo(2);
+        assertThat(facets.getPriceCounts()).containsExactly(2, 1);
+        assertThat(facets.getYearCounts()).containsExactly(1, 2);
+    }
+
+    private static List<Long> ids(CursorPage<Car> page) {
+        List<Long> ids = new ArrayList<>();
+        page.getItems().forEach(car -> ids.add(car.getCarId()));
+        return ids;
+    }
+
+    // Dòng (Car, CarDetail) như truy vấn left join, CarDetail ghép theo car_id
+    private static List<Object[]> rows(List<Car> cars, CarDetail... details) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Car car : cars) {
+            CarDetail match = null;
+            for (CarDetail detail : details) {
+                if (detail.getCar().getCarId().equals(car.getCarId())) {
+                    match = detail;
+                }
+            }
+            rows.add(new Object[]{car, match});
+        }
+        return rows;
+    }
+
+    private static CarDetail detail(Long carId, int horsepower, int torque, int seats, String fuelType,
+                                    String fuelConsumption) {
+        Car car = new Car();
+        car.setCarId(carId);
+        CarDetail detail = new CarDetail();
+        detail.setCar(car);
+        detail.setHorsepower(horsepower);
+        detail.setTorque(torque);
+        detail.setSeats(seats);
+        detail.setFuelType(fuelType);
+        detail.setFuelConsumption(fuelConsumption);
+        detail.parseSpecs();
+        return detail;
+    }
+
+    private static Car car(Long id, Brand brand, Category category, Color color, String model, int year, String price) {
+        Car car = new Car();
+        car.setCarId(id);
+        car.setBrand(brand);
+        car.setCategory(category);
+        car.setColor(color);
+        car.setModel(model);
+        car.setManufactureYear(year);
+        car.setPrice(new BigDecimal(price));
+        car.setStatus(CarStatus.AVAILABLE);
+        return car;
+    }
+}
@@ -0,0 +1,79 @@
+package com.carshop.oto_shop.catalog;
+
+import com.carshop.oto_shop.common.response.CursorPage;
+import com.carshop.oto_shop.common.response.JsonFragment;
+import com.carshop.oto_shop.dto.car.CarResponse;
+import com.carshop.oto_shop.entities.Car;
+import com.carshop.oto_shop.enums.Brand;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CarJsonCacheTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CarJsonCache cache = new CarJsonCache(objectMapper);
+    private final AtomicInteger mapped = new AtomicInteger();
+    private final Function<Car, CarResponse> mapper = car -> {
+        mapped.incrementAndGet();
+        CarResponse response = new CarResponse();
+        response.setCarId(car.getCarId());
+        response.setBrand(car.getBrand());
+        response.setModel(car.getModel());
+        response.setPrice(car.getPrice());
+        return response;
+    };
+
+    @Test
+    void reusesFragmentUntilVersionChanges() {
+        Car car = car(1L, 0L, "Vios");
+        JsonFragment first = cache.get(car, mapper);
+        assertThat(cache.get(car, mapper)).isSameAs(first);
+        assertThat(mapped).hasValue(1);
+
+        Car updated = car(1L, 1L, "Vios GR");
+        assertThat(cache.get(updated, mapper).toString()).contains("Vios GR");
+        assertThat(mapped).hasValue(2);
+    }
+
+    @Test
+    void catalogChangeEvictsFragment() {
+        Car car = car(1L, 0L, "Vios");
+        cache.get(car, mapper);
+        cache.onCatalogChanged(CarCatalogChangedEvent.of(1L));
+        cache.get(car, mapper);
+        assertThat(mapped).hasValue(2);
+    }
+
+    @Test
+    void fragmentsSerializeLikeTheResponseObjects() throws Exception {
+        Car car = car(1L, 0L, "Vios");
+        String assembled = objectMapper.writeValueAsString(new CursorPage<>(List.of(cache.get(car, mapper)), null));
+        String direct = objectMapper.writeValueAsString(new CursorPage<>(List.of(mapper.apply(car)), null));
+        assertThat(assembled).isEqualTo(direct);
+
+        // Ghi ra byte (như response HTTP), kể cả fragment dài hơn buffer của generator
+        Car longCar = car(2L, 0L, "Vios ".repeat(5_000));
+        List<Car> cars = List.of(car, longCar);
+        byte[] assembledBytes = objectMapper.writeValueAsBytes(cars.stream().map(c -> cache.get(c, mapper)).toList());
+        byte[] directBytes = objectMapper.writeValueAsBytes(cars.stream().map(mapper).toList());
+        assertThat(new String(assembledBytes, StandardCharsets.UTF_8)).isEqualTo(new String(directBytes, StandardCharsets.UTF_8));
+    }
+
+    private static Car car(Long id, Long version, String model) {
+        Car car = new Car();
+        car.setCarId(id);
+        car.setVersion(version);
+        car.setBrand(Brand.TOYOTA);
+        car.setModel(model);
+        car.setPrice(new BigDecimal("500000000"));
+        return car;
+    }
+}
@@ -0,0 +1,83 @@
+package com.carshop.oto_shop.catalog;
+
+import com.carshop.oto_shop.entities.Car;
+import com.carshop.oto_shop.entities.CarDetail;
+import com.carshop.oto_shop.enums.CarStatus;
+import com.carshop.oto_shop.enums.Category;
+import com.carshop.oto_shop.repositories.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CarSimilarityIndexTests {
+
+    private CarRepository carRepository;
+    private CarCatalogFeed feed;
+    private CarSimilarityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        carRepository = mock(CarRepository.class);
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(row(1L, Category.SEDAN, "560000000", 2023, 107, 140, 5, 1100));   // Vios
+        rows.add(row(2L, Category.SEDAN, "530000000", 2023, 113, 144, 5, 1150));   // Accent
+        rows.add(row(3L, Category.SEDAN, "1600000000", 2024, 204, 320, 5, 1600));  // C200
+        rows.add(row(4L, Category.SUV, "580000000", 2023, 105, 138, 5, 1150));     // SUV gần Vios về số
+        rows.add(new Object[]{car(5L, Category.SEDAN, "550000000", 2022), null});  // chưa có thông số
+        when(carRepository.findAllWithDetails()).thenReturn(rows);
+        feed = new CarCatalogFeed(carRepository);
+        index = new CarSimilarityIndex(feed);
+        feed.load();
+    }
+
+    @Test
+    void ranksBySpecDistanceAndPenalizesOtherCategories() {
+        assertThat(index.nearest(1L, 3)).extracting(Car::getCarId).containsExactly(2L, 5L, 4L);
+        assertThat(index.nearest(3L, 1)).extracting(Car::getCarId).containsExactly(2L);
+        assertThat(index.nearest(99L, 3)).isNull();
+    }
+
+    @Test
+    void refreshDropsSoldCarsFromCandidates() {
+        Object[] sold = row(2L, Category.SEDAN, "530000000", 2023, 113, 144, 5, 1150);
+        ((Car) sold[0]).setStatus(CarStatus.SOLD);
+        List<Object[]> changed = new ArrayList<>();
+        changed.add(sold);
+        when(carRepository.findWithDetailsByIdsInBatches(anyCollection())).thenReturn(changed);
+
+        feed.refresh(List.of(2L));
+
+        assertThat(index.nearest(1L, 5)).extracting(Car::getCarId).doesNotContain(2L).contains(3L, 4L, 5L);
+        assertThat(index.nearest(2L, 1)).extracting(Car::getCarId).containsExactly(1L);
+    }
+
+    private static Object[] row(Long id, Category category, String price, int year,
+                                int horsepower, int torque, int seats, double weight) {
+        Car car = car(id, category, price, year);
+        CarDetail detail = new CarDetail();
+        detail.setCar(car);
+        detail.setHorsepower(horsepower);
+        detail.setTorque(torque);
+        detail.setSeats(seats);
+        detail.setWeight(weight);
+        return new Object[]{car, detail};
+    }
+
+    private static Car car(Long id, Category category, String price, int year) {
+        Car car = new Car();
+        car.setCarId(id);
+        car.setCategory(category);
+        car.setPrice(new BigDecimal(price));
+        car.setManufactureYear(year);
+        car.setStatus(CarStatus.AVAILABLE);
+        return car;
+    }
+}
@@ -0,0 +1,33 @@
+package com.carshop.oto_shop.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CarSpecParserTests {
+
+    @Test
+    void fuelConsumptionIsReadAsLitresPer100Km() {
+        assertThat(CarSpecParser.fuelConsumptionL100km("6.5L/100km")).isEqualTo(6.5);
+        assertThat(CarSpecParser.fuelConsumptionL100km("6,5 l/100 km")).isEqualTo(6.5);
+        assertThat(CarSpecParser.fuelConsumptionL100km("7")).isEqualTo(7.0);
+        assertThat(CarSpecParser.fuelConsumptionL100km("20 km/l")).isCloseTo(5.0, within(1e-9));
+    }
+
+    @Test
+    void electricAndUnreadableConsumptionIsNull() {
+        assertThat(CarSpecParser.fuelConsumptionL100km("15 kWh/100km")).isNull();
+        assertThat(CarSpecParser.fuelConsumptionL100km("471 km")).isNull();
+        assertThat(CarSpecParser.fuelConsumptionL100km("không rõ")).isNull();
+        assertThat(CarSpecParser.fuelConsumptionL100km(null)).isNull();
+    }
+
+    @Test
+    void dimensionsAreConvertedToMillimetres() {
+        assertThat(CarSpecParser.dimensionsMm("4425 x 1730 x 1475 mm")).containsExactly(4425, 1730, 1475);
+        assertThat(CarSpecParser.dimensionsMm("4.5 × 1.8 × 1.45 m")).containsExactly(4500, 1800, 1450);
+        assertThat(CarSpecParser.dimensionsMm("450*180*145cm")).containsExactly(4500, 1800, 1450);
+        assertThat(CarSpecParser.dimensionsMm("4425x1730")).isNull();
+    }
+}
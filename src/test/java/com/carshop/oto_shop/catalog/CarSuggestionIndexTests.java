@@ -0,0 +1,73 @@
+package com.carshop.oto_shop.catalog;
+
+import com.carshop.oto_shop.entities.Car;
+import com.carshop.oto_shop.enums.Brand;
+import com.carshop.oto_shop.repositories.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CarSuggestionIndexTests {
+
+    private CarRepository carRepository;
+    private CarCatalogFeed feed;
+    private CarSuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        carRepository = mock(CarRepository.class);
+        when(carRepository.findAllWithDetails()).thenReturn(rows(
+                car(1L, Brand.TOYOTA, "Vios"),
+                car(2L, Brand.TOYOTA, "Vios"),
+                car(3L, Brand.TOYOTA, "Veloz Cross"),
+                car(4L, Brand.VINFAST, "VF8")));
+        feed = new CarCatalogFeed(carRepository);
+        index = new CarSuggestionIndex(feed);
+        feed.load();
+    }
+
+    @Test
+    void ranksPrefixMatchesByNumberOfCars() {
+        assertThat(index.suggest("v", 10)).extracting(Suggestion::getText)
+                .containsExactly("Vios", "VF8", "Veloz Cross", "Vinfast", "Vinfast VF8");
+        assertThat(index.suggest("V", 1).get(0).getWeight()).isEqualTo(2);
+        assertThat(index.suggest("toyota v", 10)).extracting(Suggestion::getText)
+                .containsExactly("Toyota Vios", "Toyota Veloz Cross");
+    }
+
+    @Test
+    void refreshMovesWeightsWithoutRebuilding() {
+        Car renamed = car(1L, Brand.HYUNDAI, "Accent");
+        when(carRepository.findWithDetailsByIdsInBatches(anyCollection())).thenReturn(rows(renamed));
+
+        feed.refresh(List.of(1L, 2L));
+
+        assertThat(index.suggest("vios", 10)).isEmpty();
+        assertThat(index.suggest("to", 10)).extracting(Suggestion::getText)
+                .containsExactly("Toyota", "Toyota Veloz Cross");
+        assertThat(index.suggest("a", 10)).extracting(Suggestion::getText).containsExactly("Accent");
+    }
+
+    private static List<Object[]> rows(Car... cars) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Car car : cars) {
+            rows.add(new Object[]{car, null});
+        }
+        return rows;
+    }
+
+    private static Car car(Long id, Brand brand, String model) {
+        Car car = new Car();
+        car.setCarId(id);
+        car.setBrand(brand);
+        car.setModel(model);
+        return car;
+    }
+}
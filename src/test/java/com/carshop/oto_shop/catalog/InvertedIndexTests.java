@@ -0,0 +1,44 @@
+package com.carshop.oto_shop.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTests {
+
+    @Test
+    void removingDocumentsKeepsMovedPostingsAddressable() {
+        InvertedIndex index = new InvertedIndex();
+        for (int slot = 0; slot < 5; slot++) {
+            index.add(slot, Map.of("to", 1, "toyota", 1, "slot" + slot, 1));
+        }
+
+        // Gỡ từ giữa để phần tử cuối bị dời vào chỗ trống, sau đó gỡ tiếp chính phần tử đã dời
+        index.remove(1);
+        index.remove(4);
+        index.remove(0);
+
+        assertThat(slots(index.score(List.of("toyota"), 5))).containsExactly(2, 3);
+        assertThat(index.contains("slot4")).isFalse();
+
+        index.add(4, Map.of("toyota", 2));
+        index.remove(2);
+        assertThat(slots(index.score(List.of("toyota"), 5))).containsExactly(3, 4);
+        assertThat(slots(index.score(List.of("to", "slot3"), 5))).containsExactly(3);
+    }
+
+    @Test
+    void edgeNgramsSkipSingleCharacterPrefixes() {
+        assertThat(TextAnalyzer.edgeNgrams("vios")).containsExactly("vi", "vio");
+        assertThat(TextAnalyzer.edgeNgrams("vf")).isEmpty();
+    }
+
+    private static List<Integer> slots(InvertedIndex.Hits hits) {
+        BitSet matched = hits.matched;
+        return matched.stream().boxed().toList();
+    }
+}
@@ -0,0 +1,43 @@
+package com.carshop.oto_shop.common.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlockIdAllocatorTests {
+
+    @Test
+    void concurrentCallersNeverReceiveTheSameIdAndReserveOncePerBlock() throws Exception {
+        AtomicLong counter = new AtomicLong(1_000_000);
+        AtomicInteger reservations = new AtomicInteger();
+        IdBlockSource source = (sequence, size) -> {
+            reservations.incrementAndGet();
+            return counter.getAndAdd(size);
+        };
+        BlockIdAllocator allocator = new BlockIdAllocator("cars", 100, source);
+
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    ids.add(allocator.nextId());
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(ids).hasSize(40_000);
+        assertThat(reservations.get()).isEqualTo(400);
+        assertThat(ids).allMatch(id -> id >= 1_000_000 && id < 1_040_000);
+    }
+}
@@ -0,0 +1,66 @@
+package com.carshop.oto_shop.common.id;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * So sánh tốc độ insert và kích thước bảng giữa khoá cũ (UUIDv4 dạng VARCHAR(36)) và khoá mới
+ * (UUIDv7 dạng BINARY(16)) trên hai bảng tạm có cùng cấu trúc. Cần MySQL, chạy bằng:
+ * mvn test -Dtest=UuidKeyInsertBenchmarkTests -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UuidKeyInsertBenchmarkTests {
+    private static final int ROWS = 200_000;
+    private static final int BATCH_SIZE = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void randomVarcharKeysVersusTimeOrderedBinaryKeys() {
+        run("varchar36 + v4", "VARCHAR(36)", () -> UUID.randomUUID().toString());
+        run("binary16 + v7", "BINARY(16)", () -> toBytes(UuidV7.generate()));
+    }
+
+    private void run(String name, String keyType, Supplier<Object> keys) {
+        String table = "bench_uuid_" + keyType.replaceAll("\\W", "").toLowerCase();
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        jdbcTemplate.execute("CREATE TABLE " + table + " (id " + keyType + " NOT NULL PRIMARY KEY, "
+                + "payload VARCHAR(64) NOT NULL) ENGINE=InnoDB");
+        try {
+            long start = System.nanoTime();
+            for (int from = 0; from < ROWS; from += BATCH_SIZE) {
+                List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+                for (int i = from; i < from + BATCH_SIZE; i++) {
+                    batch.add(new Object[]{keys.get(), "order-" + i});
+                }
+                jdbcTemplate.batchUpdate("INSERT INTO " + table + " (id, payload) VALUES (?, ?)", batch);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            jdbcTemplate.execute("ANALYZE TABLE " + table);
+            Long bytes = jdbcTemplate.queryForObject("SELECT data_length + index_length FROM information_schema.tables "
+                    + "WHERE table_schema = DATABASE() AND table_name = ?", Long.class, table);
+            System.out.printf("%-16s %d rows: %.0f rows/s, %d KB on disk%n",
+                    name, ROWS, ROWS / seconds, bytes / 1024);
+        } finally {
+            jdbcTemplate.execute("DROP TABLE " + table);
+        }
+    }
+
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,37 @@
+package com.carshop.oto_shop.common.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7Tests {
+
+    @Test
+    void idsCarryVersionAndTimestampAndIncreaseStrictly() {
+        long before = System.currentTimeMillis();
+        UUID previous = UuidV7.generate();
+        for (int i = 0; i < 100_000; i++) {
+            UUID current = UuidV7.generate();
+            assertThat(current.version()).isEqualTo(7);
+            assertThat(current.variant()).isEqualTo(2);
+            // Thứ tự byte của BINARY(16) = so sánh không dấu của 64 bit cao rồi 64 bit thấp
+            assertThat(Long.compareUnsigned(current.getMostSignificantBits(), previous.getMostSignificantBits()))
+                    .isPositive();
+            previous = current;
+        }
+        assertThat(UuidV7.timestamp(previous)).isBetween(before, System.currentTimeMillis() + 100);
+    }
+
+    @Test
+    void tryParseAcceptsOnlyCanonicalForm() {
+        UUID id = UuidV7.generate();
+
+        assertThat(UuidV7.tryParse(id.toString())).contains(id);
+        assertThat(UuidV7.tryParse(id.toString().toUpperCase())).contains(id);
+        assertThat(UuidV7.tryParse("1-1-1-1-1")).isEmpty();
+        assertThat(UuidV7.tryParse("not-an-id")).isEmpty();
+        assertThat(UuidV7.tryParse(null)).isEmpty();
+    }
+}
@@ -0,0 +1,41 @@
+package com.carshop.oto_shop.common.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvRowReaderTests {
+
+    @Test
+    void readsQuotedFieldsAcrossLinesAndReportsStartingLine() throws Exception {
+        String csv = "\uFEFFbrand,model,description\r\n"
+                + "TOYOTA,Vios,\"Xe \"\"quốc dân\"\", bền\"\r\n"
+                + "\n"
+                + "HYUNDAI,Accent,\"dòng 1\ndòng 2\"\n"
+                + "VINFAST,VF8\n"
+                + "MERCEDES,C200,ok";
+        try (CsvRowReader reader = new CsvRowReader(new StringReader(csv))) {
+            assertThat(reader.getHeader()).containsExactly("brand", "model", "description");
+
+            RowReader.Row vios = reader.next();
+            assertThat(vios.getLine()).isEqualTo(2);
+            assertThat(vios.getValues()).containsEntry("description", "Xe \"quốc dân\", bền");
+
+            RowReader.Row accent = reader.next();
+            assertThat(accent.getLine()).isEqualTo(4);
+            assertThat(accent.getValues()).containsEntry("description", "dòng 1\ndòng 2");
+
+            RowReader.Row vf8 = reader.next();
+            assertThat(vf8.getLine()).isEqualTo(6);
+            assertThat(vf8.getError()).isNotNull();
+
+            RowReader.Row c200 = reader.next();
+            assertThat(c200.getLine()).isEqualTo(7);
+            assertThat(c200.getValues()).containsEntry("model", "C200").containsEntry("description", "ok");
+
+            assertThat(reader.next()).isNull();
+        }
+    }
+}
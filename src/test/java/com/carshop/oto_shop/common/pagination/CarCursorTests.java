@@ -0,0 +1,63 @@
+package com.carshop.oto_shop.common.pagination;
+
+import com.carshop.oto_shop.common.exceptions.BadRequestException;
+import com.carshop.oto_shop.entities.Car;
+import com.carshop.oto_shop.enums.CarSort;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CarCursorTests {
+
+    @Test
+    void roundTripsSortKeyAndCarId() {
+        Car car = new Car();
+        car.setCarId(42L);
+        car.setPrice(new BigDecimal("1250000000.500"));
+        car.setManufactureYear(2021);
+
+        CarCursor byPrice = CarCursor.decode(CarCursor.encode(CarSort.PRICE_DESC, car), CarSort.PRICE_DESC);
+        assertThat(byPrice.getCarId()).isEqualTo(42L);
+        assertThat(byPrice.sortKey()).isEqualTo(new BigDecimal("1250000000.500"));
+
+        CarCursor byYear = CarCursor.decode(CarCursor.encode(CarSort.YEAR_DESC, car), CarSort.YEAR_DESC);
+        assertThat(byYear.sortKey()).isEqualTo(2021);
+
+        CarCursor byId = CarCursor.decode(CarCursor.encode(CarSort.ID, car), CarSort.ID);
+        assertThat(byId.getCarId()).isEqualTo(42L);
+        assertThat(byId.sortKey()).isNull();
+
+        CarCursor byScore = CarCursor.decode(CarCursor.encodeRelevance(3.5f, 7L), CarSort.RELEVANCE);
+        assertThat(byScore.sortKey()).isEqualTo(3.5f);
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() {
+        Car car = new Car();
+        car.setCarId(1L);
+        car.setPrice(BigDecimal.TEN);
+        String priceCursor = CarCursor.encode(CarSort.PRICE_ASC, car);
+
+        assertBadRequest("%%%không-phải-base64", CarSort.ID);
+        assertBadRequest(encode("ID|"), CarSort.ID);
+        assertBadRequest(encode("PRICE_ASC|abc|1"), CarSort.PRICE_ASC);
+        assertBadRequest(encode("PRICE_ASC|10|x"), CarSort.PRICE_ASC);
+        // Cursor của kiểu sắp xếp khác
+        assertBadRequest(priceCursor, CarSort.PRICE_DESC);
+    }
+
+    private static void assertBadRequest(String cursor, CarSort sort) {
+        assertThatThrownBy(() -> CarCursor.decode(cursor, sort))
+                .isInstanceOf(BadRequestException.class)
+                .satisfies(e -> assertThat(((BadRequestException) e).getErrorCode().getHttpStatus().value()).isEqualTo(400));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,126 @@
+package com.carshop.oto_shop.common.response;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageByteCacheTests {
+    private static final int PAGE = ImageByteCache.PAGE_SIZE;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void admitsOnSecondRequestAndServesRangesAcrossPages() throws IOException {
+        ImageByteCache cache = new ImageByteCache(8L * PAGE, 4L * PAGE);
+        byte[] content = randomBytes(2 * PAGE + 100);
+        Path file = write("a.jpg", content);
+        long mtime = Files.getLastModifiedTime(file).toMillis();
+
+        assertThat(cache.acquire(file, content.length, mtime)).isNull();
+        assertThat(cache.load(file, content.length, mtime)).as("một lượt hỏi chưa đủ để nạp").isNull();
+
+        assertThat(cache.acquire(file, content.length, mtime)).isNull();
+        ImageByteCache.Entry loaded = cache.load(file, content.length, mtime);
+        assertThat(loaded).isNotNull();
+        cache.release(loaded);
+
+        ImageByteCache.Entry hit = cache.acquire(file, content.length, mtime);
+        assertThat(hit).isNotNull();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.writeTo(hit, out, PAGE - 10, PAGE + 20);
+        cache.release(hit);
+        assertThat(out.toByteArray()).isEqualTo(Arrays.copyOfRange(content, PAGE - 10, 2 * PAGE + 10));
+
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(2);
+        assertThat(cache.getUsedBytes()).isEqualTo(content.length);
+        // File đổi (thời điểm sửa khác) thì bản cũ không còn dùng
+        assertThat(cache.acquire(file, content.length, mtime + 1000)).isNull();
+        assertThat(cache.getEntryCount()).isZero();
+    }
+
+    @Test
+    void coldFilesDoNotEvictHotOnes() throws IOException {
+        ImageByteCache cache = new ImageByteCache(2L * PAGE, 2L * PAGE);
+        Path hot = write("hot.png", randomBytes(2 * PAGE));
+        Path cold = write("cold.png", randomBytes(PAGE));
+
+        requestAndLoad(cache, hot, 5);
+        assertThat(cache.getEntryCount()).isEqualTo(1);
+
+        requestAndLoad(cache, cold, 2);
+        assertThat(cache.getRejections()).isPositive();
+        assertThat(cache.getEvictions()).isZero();
+
+        requestAndLoad(cache, cold, 6);
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(cache.acquire(hot, Files.size(hot), Files.getLastModifiedTime(hot).toMillis())).isNull();
+    }
+
+    @Test
+    void pinnedEntryKeepsItsPagesUntilReleased() throws IOException {
+        ImageByteCache cache = new ImageByteCache(2L * PAGE, 2L * PAGE);
+        byte[] content = randomBytes(2 * PAGE);
+        Path file = write("a.png", content);
+        long mtime = Files.getLastModifiedTime(file).toMillis();
+        requestAndLoad(cache, file, 2);
+
+        ImageByteCache.Entry reading = cache.acquire(file, content.length, mtime);
+        cache.invalidate(file);
+        assertThat(cache.getEntryCount()).isZero();
+
+        // Trang vẫn bị ghim nên file khác chưa nạp được, nội dung đang đọc không bị ghi đè
+        Path other = write("b.png", randomBytes(PAGE));
+        requestAndLoad(cache, other, 3);
+        assertThat(cache.getEntryCount()).isZero();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.writeTo(reading, out, 0, content.length);
+        assertThat(out.toByteArray()).isEqualTo(content);
+
+        cache.release(reading);
+        requestAndLoad(cache, other, 1);
+        assertThat(cache.getEntryCount()).isEqualTo(1);
+    }
+
+    @Test
+    void disabledCacheNeverLoads() throws IOException {
+        ImageByteCache cache = new ImageByteCache(0, 0);
+        Path file = write("a.png", randomBytes(10));
+        requestAndLoad(cache, file, 5);
+        assertThat(cache.getEntryCount()).isZero();
+        assertThat(cache.getCapacityBytes()).isZero();
+    }
+
+    private static void requestAndLoad(ImageByteCache cache, Path file, int times) throws IOException {
+        long size = Files.size(file);
+        long mtime = Files.getLastModifiedTime(file).toMillis();
+        for (int i = 0; i < times; i++) {
+            ImageByteCache.Entry entry = cache.acquire(file, size, mtime);
+            if (entry == null) {
+                entry = cache.load(file, size, mtime);
+            }
+            if (entry != null) {
+                cache.release(entry);
+            }
+        }
+    }
+
+    private Path write(String name, byte[] content) throws IOException {
+        return Files.write(dir.resolve(name), content);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,120 @@
+package com.carshop.oto_shop.common.response;
+
+import com.carshop.oto_shop.common.exceptions.AppException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageFileServerTests {
+
+    @TempDir
+    Path dir;
+
+    private final ImageFileServer server = new ImageFileServer(new ImageByteCache(0, 0));
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.writeString(dir.resolve("1700000000000_car.png"), "0123456789", StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void servesWholeFileWithCachingHeaders() throws IOException {
+        MockHttpServletResponse response = serve(new MockHttpServletRequest("GET", "/image"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).isEqualTo("image/png");
+        assertThat(response.getContentLengthLong()).isEqualTo(10);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo(ImageFileServer.IMMUTABLE);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).startsWith("\"");
+        assertThat(response.getHeader(HttpHeaders.LAST_MODIFIED)).isNotNull();
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+    }
+
+    @Test
+    void conditionalRequestsGetNotModified() throws IOException {
+        String etag = serve(new MockHttpServletRequest("GET", "/image")).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest byEtag = new MockHttpServletRequest("GET", "/image");
+        byEtag.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag);
+        MockHttpServletResponse notModified = serve(byEtag);
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        assertThat(notModified.getContentAsByteArray()).isEmpty();
+
+        MockHttpServletRequest byDate = new MockHttpServletRequest("GET", "/image");
+        byDate.addHeader(HttpHeaders.IF_MODIFIED_SINCE, Files.getLastModifiedTime(file).toMillis() + 1000);
+        assertThat(serve(byDate).getStatus()).isEqualTo(304);
+
+        // File đổi thì ETag cũ không còn khớp
+        Files.writeString(file, "changed content", StandardCharsets.US_ASCII);
+        MockHttpServletResponse changed = serve(byEtag);
+        assertThat(changed.getStatus()).isEqualTo(200);
+        assertThat(changed.getContentAsString()).isEqualTo("changed content");
+    }
+
+    @Test
+    void servesByteRanges() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/image");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        MockHttpServletResponse response = serve(request);
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+
+        MockHttpServletRequest suffix = new MockHttpServletRequest("GET", "/image");
+        suffix.addHeader(HttpHeaders.RANGE, "bytes=-3");
+        assertThat(serve(suffix).getContentAsString()).isEqualTo("789");
+
+        MockHttpServletRequest outside = new MockHttpServletRequest("GET", "/image");
+        outside.addHeader(HttpHeaders.RANGE, "bytes=20-");
+        MockHttpServletResponse unsatisfiable = serve(outside);
+        assertThat(unsatisfiable.getStatus()).isEqualTo(416);
+        assertThat(unsatisfiable.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+
+        MockHttpServletRequest staleIfRange = new MockHttpServletRequest("GET", "/image");
+        staleIfRange.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        staleIfRange.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+        MockHttpServletResponse whole = serve(staleIfRange);
+        assertThat(whole.getStatus()).isEqualTo(200);
+        assertThat(whole.getContentAsString()).isEqualTo("0123456789");
+    }
+
+    @Test
+    void handsBodyToSendfileWhenConnectorSupportsIt() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/image");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=4-");
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(response.getContentLengthLong()).isEqualTo(6);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename")).isEqualTo(file.toAbsolutePath().toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(4L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(10L);
+    }
+
+    @Test
+    void missingFileIsNotFound() {
+        assertThatThrownBy(() -> server.serve(dir.resolve("missing.png"), ImageFileServer.IMMUTABLE,
+                new MockHttpServletRequest("GET", "/image"), new MockHttpServletResponse()))
+                .isInstanceOf(AppException.class);
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        server.serve(file, ImageFileServer.IMMUTABLE, request, response);
+        return response;
+    }
+}
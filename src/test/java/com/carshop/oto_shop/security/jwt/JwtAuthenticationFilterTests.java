@@ -0,0 +1,153 @@
+package com.carshop.oto_shop.security.jwt;
+
+import com.carshop.oto_shop.entities.Account;
+import com.carshop.oto_shop.enums.AccountStatus;
+import com.carshop.oto_shop.enums.Role;
+import com.carshop.oto_shop.repositories.AccountRepository;
+import com.carshop.oto_shop.security.models.CustomUserDetails;
+import com.carshop.oto_shop.security.services.AccountChangeLog;
+import com.carshop.oto_shop.security.services.AccountChangedEvent;
+import com.carshop.oto_shop.security.services.CustomUserDetailsService;
+import com.carshop.oto_shop.security.services.TokenRevocationStore;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTests {
+    private static final String SECRET = "a".repeat(80);
+
+    private final JwtTokenProvider tokenProvider = new JwtTokenProvider(SECRET, 60_000, 120_000,
+            new VerifiedTokenCache(0));
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final TokenRevocationStore revocationStore = mock(TokenRevocationStore.class);
+    private final AccountChangeLog accountChangeLog = new AccountChangeLog(60_000);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(tokenProvider,
+            new CustomUserDetailsService(accountRepository, 0, 1), revocationStore, accountChangeLog,
+            "/api/admin/**, DELETE /api/users/**");
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void buildsAuthenticationFromClaimsWithoutDatabase() throws Exception {
+        String token = tokenProvider.generateToken(new CustomUserDetails(account(Role.USER, AccountStatus.ACTIVE)), "fam-1");
+
+        Authentication authentication = filter(request("GET", "/api/orders/my", token));
+
+        assertThat(authentication).isNotNull();
+        CustomUserDetails principal = (CustomUserDetails) authentication.getPrincipal();
+        assertThat(principal.getAccountId()).isEqualTo("a-1");
+        assertThat(principal.getUsername()).isEqualTo("alice");
+        assertThat(authentication.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+        verify(accountRepository, never()).findByUsernameOrEmail(anyString());
+    }
+
+    @Test
+    void sensitiveRoutesUseCurrentAccountFromDatabase() throws Exception {
+        String token = tokenProvider.generateToken(new CustomUserDetails(account(Role.ADMIN, AccountStatus.ACTIVE)), "fam-1");
+        // Tài khoản bị khoá sau khi token được cấp
+        when(accountRepository.findByUsernameOrEmail("alice"))
+                .thenReturn(Optional.of(account(Role.ADMIN, AccountStatus.BANNED)));
+
+        assertThat(filter(request("GET", "/api/admin/stats", token))).isNull();
+        assertThat(filter(request("DELETE", "/api/users/u-1", token))).isNull();
+        assertThat(filter(request("GET", "/api/users/u-1", token))).isNotNull();
+        verify(accountRepository, times(2)).findByUsernameOrEmail("alice");
+    }
+
+    @Test
+    void tokensIssuedBeforeAnAccountChangeStopTrustingTheirClaims() throws Exception {
+        String token = tokenProvider.generateToken(new CustomUserDetails(account(Role.ADMIN, AccountStatus.ACTIVE)), "fam-1");
+        assertThat(filter(request("GET", "/api/orders/my", token))).isNotNull();
+
+        // Tài khoản bị khoá: route thường cũng phải thấy trạng thái mới dù token còn hạn
+        when(accountRepository.findByUsernameOrEmail("alice"))
+                .thenReturn(Optional.of(account(Role.ADMIN, AccountStatus.BANNED)));
+        accountChangeLog.onAccountChanged(new AccountChangedEvent("a-1"));
+
+        assertThat(filter(request("GET", "/api/orders/my", token))).isNull();
+        verify(accountRepository, times(1)).findByUsernameOrEmail("alice");
+    }
+
+    @Test
+    void legacyTokenWithoutAccountClaimsFallsBackToDatabase() throws Exception {
+        String legacy = Jwts.builder()
+                .setSubject("alice")
+                .claim("role", "USER")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS512)
+                .compact();
+        when(accountRepository.findByUsernameOrEmail("alice"))
+                .thenReturn(Optional.of(account(Role.USER, AccountStatus.ACTIVE)));
+
+        Authentication authentication = filter(request("GET", "/api/orders/my", legacy));
+
+        assertThat(((CustomUserDetails) authentication.getPrincipal()).getAccountId()).isEqualTo("a-1");
+        verify(accountRepository).findByUsernameOrEmail("alice");
+    }
+
+    @Test
+    void invalidAndBypassedRequestsStayAnonymous() throws Exception {
+        String token = tokenProvider.generateToken(new CustomUserDetails(account(Role.USER, AccountStatus.ACTIVE)), "fam-1");
+
+        assertThat(filter(request("GET", "/api/orders/my", token + "x"))).isNull();
+        assertThat(filter(request("GET", "/api/cars/12", token))).isNull();
+        assertThat(filter(request("GET", "/api/car-categories", token))).isNull();
+        // Chỉ bỏ qua GET, ghi vào /api/cars vẫn đọc token
+        assertThat(filter(request("POST", "/api/cars", token))).isNotNull();
+    }
+
+    @Test
+    void refreshTokensAndRevokedFamiliesAreRejected() throws Exception {
+        CustomUserDetails alice = new CustomUserDetails(account(Role.USER, AccountStatus.ACTIVE));
+
+        assertThat(filter(request("GET", "/api/orders/my", tokenProvider.generateRefreshToken(alice, "fam-1")))).isNull();
+
+        when(revocationStore.isRevoked("fam-2")).thenReturn(true);
+        assertThat(filter(request("GET", "/api/orders/my", tokenProvider.generateToken(alice, "fam-2")))).isNull();
+        assertThat(filter(request("GET", "/api/orders/my", tokenProvider.generateToken(alice, "fam-1")))).isNotNull();
+    }
+
+    private Authentication filter(MockHttpServletRequest request) throws Exception {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    private static Account account(Role role, AccountStatus status) {
+        Account account = new Account();
+        account.setAccountId("a-1");
+        account.setUsername("alice");
+        account.setPassword("{noop}secret");
+        account.setRole(role);
+        account.setStatus(status);
+        return account;
+    }
+}
@@ -0,0 +1,83 @@
+package com.carshop.oto_shop.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTests {
+
+    @Test
+    void verifiesEachTokenOnceUntilItExpires() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(1 << 20);
+        AtomicInteger verifications = new AtomicInteger();
+        Claims valid = claims("alice", System.currentTimeMillis() + 60_000);
+        Function<String, Claims> verifier = token -> {
+            verifications.incrementAndGet();
+            return token.startsWith("good") ? valid : null;
+        };
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(cache.verify("good.token", verifier)).isSameAs(valid);
+            assertThat(cache.verify("bad.token", verifier)).isNull();
+        }
+        // Token hỏng không được cache, token hợp lệ chỉ kiểm một lần
+        assertThat(verifications.get()).isEqualTo(6);
+        assertThat(cache.getHits()).isEqualTo(4);
+        assertThat(cache.getEntryCount()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredEntryIsVerifiedAgain() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(1 << 20);
+        AtomicInteger verifications = new AtomicInteger();
+        Claims expired = claims("alice", System.currentTimeMillis() - 1);
+
+        cache.verify("token", token -> {
+            verifications.incrementAndGet();
+            return expired;
+        });
+        assertThat(cache.verify("token", token -> {
+            verifications.incrementAndGet();
+            return null;
+        })).isNull();
+        assertThat(verifications.get()).isEqualTo(2);
+        assertThat(cache.getEntryCount()).isZero();
+        assertThat(cache.getUsedBytes()).isZero();
+    }
+
+    @Test
+    void staysWithinByteBudget() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(4_000);
+        Claims valid = claims("alice", System.currentTimeMillis() + 60_000);
+        for (int i = 0; i < 100; i++) {
+            cache.verify("token-" + i + "-" + "x".repeat(200), token -> valid);
+        }
+        assertThat(cache.getUsedBytes()).isLessThanOrEqualTo(4_000);
+        assertThat(cache.getEvictions()).isPositive();
+        assertThat(cache.getEntryCount()).isPositive();
+    }
+
+    @Test
+    void disabledCacheAlwaysVerifies() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(0);
+        AtomicInteger verifications = new AtomicInteger();
+        Claims valid = claims("alice", System.currentTimeMillis() + 60_000);
+        cache.verify("token", token -> valid);
+        cache.verify("token", token -> {
+            verifications.incrementAndGet();
+            return valid;
+        });
+        assertThat(verifications.get()).isEqualTo(1);
+        assertThat(cache.getEntryCount()).isZero();
+    }
+
+    private static Claims claims(String subject, long expiresAt) {
+        return Jwts.claims().subject(subject).expiration(new Date(expiresAt)).build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.carshop.oto_shop.security.services;
+
+import com.carshop.oto_shop.repositories.AccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Chi phí nạp tài khoản mỗi request theo số tài khoản trong bảng: cách cũ (findAll rồi lọc trong Java), tra
+ * theo unique index (không cache) và qua cache của CustomUserDetailsService. Cần MySQL, chạy bằng:
+ * mvn test -Dtest=AccountLookupBenchmarkTests -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AccountLookupBenchmarkTests {
+    private static final int[] ACCOUNT_COUNTS = {1_000, 10_000, 50_000};
+    private static final String PREFIX = "bench_user_";
+    // Chuỗi dạng BCrypt giả, chỉ để thoả cột NOT NULL (benchmark không kiểm tra mật khẩu)
+    private static final String PASSWORD = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWXbZ3xjGHTwGZ4iHKcvvl5Xq1uW";
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 20;
+
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private CustomUserDetailsService cachedService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM accounts WHERE username LIKE ?", PREFIX + "%");
+    }
+
+    @Test
+    void perRequestCostByAccountCount() {
+        CustomUserDetailsService indexedOnly = new CustomUserDetailsService(accountRepository, 0, 1);
+        int inserted = 0;
+        for (int count : ACCOUNT_COUNTS) {
+            insertAccounts(inserted, count);
+            inserted = count;
+            // Tài khoản cuối cùng: trường hợp xấu nhất cho cách lọc tuần tự
+            String username = PREFIX + (count - 1);
+            String email = username + "@bench.local";
+
+            double legacy = measure(() -> accountRepository.findAll().stream()
+                    .filter(acc -> username.equals(acc.getUsername()) || username.equals(acc.getEmail()))
+                    .findFirst().orElseThrow());
+            double byUsername = measure(() -> indexedOnly.loadUserByUsername(username));
+            double byEmail = measure(() -> indexedOnly.loadUserByUsername(email));
+            double cached = measure(() -> cachedService.loadUserByUsername(username));
+            System.out.printf("accounts=%-6d findAll+filter: %.3f ms | index(username): %.3f ms | "
+                    + "index(email): %.3f ms | cache: %.4f ms%n", count, legacy, byUsername, byEmail, cached);
+        }
+    }
+
+    private void insertAccounts(int from, int to) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            rows.add(new Object[]{UUID.randomUUID().toString(), PREFIX + i, PREFIX + i + "@bench.local",
+                    PASSWORD, "USER", "ACTIVE", now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO accounts (account_id, username, email, password, role, status, "
+                + "create_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private static double measure(Supplier<?> call) {
+        for (int i = 0; i < WARMUP; i++) {
+            call.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.get();
+        }
+        return (System.nanoTime() - start) / 1e6 / ITERATIONS;
+    }
+}
@@ -0,0 +1,68 @@
+package com.carshop.oto_shop.security.services;
+
+import com.carshop.oto_shop.entities.Account;
+import com.carshop.oto_shop.enums.AccountStatus;
+import com.carshop.oto_shop.enums.Role;
+import com.carshop.oto_shop.repositories.AccountRepository;
+import com.carshop.oto_shop.security.models.CustomUserDetails;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomUserDetailsServiceTests {
+
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+
+    @Test
+    void cachesByLoginUntilTheAccountChanges() {
+        CustomUserDetailsService service = new CustomUserDetailsService(accountRepository, 60, 100);
+        when(accountRepository.findByUsernameOrEmail("alice")).thenReturn(Optional.of(account("a-1", "alice", Role.USER)));
+
+        UserDetails first = service.loadUserByUsername("alice");
+        UserDetails second = service.loadUserByUsername("alice");
+        assertThat(second).isSameAs(first);
+        verify(accountRepository, times(1)).findByUsernameOrEmail("alice");
+
+        when(accountRepository.findByUsernameOrEmail("alice")).thenReturn(Optional.of(account("a-1", "alice", Role.ADMIN)));
+        service.onAccountChanged(new AccountChangedEvent("a-2"));
+        assertThat(service.loadUserByUsername("alice")).isSameAs(first);
+
+        service.onAccountChanged(new AccountChangedEvent("a-1"));
+        CustomUserDetails reloaded = (CustomUserDetails) service.loadUserByUsername("alice");
+        assertThat(reloaded.getRole()).isEqualTo("ADMIN");
+        verify(accountRepository, times(2)).findByUsernameOrEmail("alice");
+    }
+
+    @Test
+    void zeroTtlDisablesCachingAndUnknownLoginsAreNotCached() {
+        CustomUserDetailsService service = new CustomUserDetailsService(accountRepository, 0, 100);
+        when(accountRepository.findByUsernameOrEmail("bob@example.com")).thenReturn(Optional.of(account("b-1", "bob", Role.USER)));
+
+        service.loadUserByUsername("bob@example.com");
+        service.loadUserByUsername("bob@example.com");
+        verify(accountRepository, times(2)).findByUsernameOrEmail("bob@example.com");
+
+        assertThatThrownBy(() -> service.loadUserByUsername("nobody")).isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> service.loadUserByUsername("nobody")).isInstanceOf(UsernameNotFoundException.class);
+        verify(accountRepository, times(2)).findByUsernameOrEmail("nobody");
+    }
+
+    private static Account account(String id, String username, Role role) {
+        Account account = new Account();
+        account.setAccountId(id);
+        account.setUsername(username);
+        account.setPassword("{noop}secret");
+        account.setRole(role);
+        account.setStatus(AccountStatus.ACTIVE);
+        return account;
+    }
+}
@@ -0,0 +1,141 @@
+package com.carshop.oto_shop.security.services;
+
+import com.carshop.oto_shop.common.exceptions.ErrorCode;
+import com.carshop.oto_shop.common.exceptions.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class LoginThrottleTests {
+
+    private final AtomicLong now = new AtomicLong(-TimeUnit.HOURS.toNanos(1));
+    // IP: 4 lượt, hồi 6 lượt/phút; username: 3 lượt, hồi 6 lượt/phút; khoá sau 3 lần sai: 30s, 60s, ... tối đa 100s
+    private final LoginThrottle throttle = new LoginThrottle(new LoginThrottle.Limit(4, 6), new LoginThrottle.Limit(3, 6),
+            1_000, 600, 3, 30, 100, now::get);
+
+    @Test
+    void bucketsLimitPerIpAndPerUsernameAndRefillOverTime() {
+        for (int i = 0; i < 3; i++) {
+            throttle.checkLogin("10.0.0.1", "Alice");
+        }
+        TooManyRequestsException byUsername = check("10.0.0.2", " alice ");
+        assertThat(byUsername.getErrorCode()).isEqualTo(ErrorCode.TOO_MANY_REQUESTS);
+        assertThat(byUsername.getRetryAfterSeconds()).isEqualTo(10);
+
+        throttle.checkLogin("10.0.0.1", "bob");
+        assertThat(check("10.0.0.1", "carol").getErrorCode()).isEqualTo(ErrorCode.TOO_MANY_REQUESTS);
+        assertThat(catchThrowableOfType(TooManyRequestsException.class, () -> throttle.checkRegister("10.0.0.1")))
+                .isNotNull();
+
+        advance(10);
+        assertThatCode(() -> throttle.checkLogin("10.0.0.3", "alice")).doesNotThrowAnyException();
+        assertThatCode(() -> throttle.checkRegister("10.0.0.1")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void repeatedFailuresLockTheUsernameProgressively() {
+        fail("alice", 3);
+        TooManyRequestsException locked = check("10.0.0.1", "alice");
+        assertThat(locked.getErrorCode()).isEqualTo(ErrorCode.LOGIN_TEMPORARILY_LOCKED);
+        assertThat(locked.getRetryAfterSeconds()).isEqualTo(30);
+
+        advance(30);
+        fail("alice", 1);
+        assertThat(check("10.0.0.1", "alice").getRetryAfterSeconds()).isEqualTo(60);
+
+        advance(60);
+        fail("alice", 2);
+        // 30s * 4 vượt giới hạn 100s
+        assertThat(check("10.0.0.1", "alice").getRetryAfterSeconds()).isEqualTo(100);
+
+        advance(100);
+        throttle.checkLogin("10.0.0.1", "alice");
+        throttle.loginSucceeded("alice");
+        fail("alice", 2);
+        assertThatCode(() -> throttle.checkLogin("10.0.0.1", "alice")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void idleStateIsForgotten() {
+        fail("alice", 2);
+        advance(600);
+        fail("alice", 1);
+        assertThatCode(() -> throttle.checkLogin("10.0.0.1", "alice")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void fullStripeEvictsUnlockedUsernamesButNeverALockout() {
+        // 64 khoá mỗi bảng: mỗi phần chỉ giữ một khoá
+        LoginThrottle tiny = new LoginThrottle(new LoginThrottle.Limit(4, 6), new LoginThrottle.Limit(3, 6),
+                64, 600, 3, 30, 100, now::get);
+        String bob = sameStripe("bob", "alice");
+        String carol = sameStripe("carol", "alice");
+
+        // Username có lần sai nhưng không bị khoá vẫn nhường chỗ cho username mới
+        tiny.loginFailed("alice");
+        assertThatCode(() -> tiny.checkLogin("10.0.0.1", bob)).doesNotThrowAnyException();
+
+        // Username đang bị khoá thì không: username mới trong phần đó bị từ chối tới khi hết khoá
+        for (int i = 0; i < 3; i++) {
+            tiny.loginFailed(bob);
+        }
+        TooManyRequestsException rejected = catchThrowableOfType(TooManyRequestsException.class,
+                () -> tiny.checkLogin("10.0.0.2", carol));
+        assertThat(rejected.getErrorCode()).isEqualTo(ErrorCode.TOO_MANY_REQUESTS);
+        assertThat(rejected.getRetryAfterSeconds()).isEqualTo(30);
+        assertThat(catchThrowableOfType(TooManyRequestsException.class, () -> tiny.checkLogin("10.0.0.2", bob))
+                .getErrorCode()).isEqualTo(ErrorCode.LOGIN_TEMPORARILY_LOCKED);
+
+        advance(30);
+        assertThatCode(() -> tiny.checkLogin("10.0.0.2", carol)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void junkUsernamesDoNotBlockNewIpsOrRegistrations() {
+        LoginThrottle tiny = new LoginThrottle(new LoginThrottle.Limit(4, 6), new LoginThrottle.Limit(3, 6),
+                64, 600, 3, 30, 100, now::get);
+        for (int i = 0; i < 1_000; i++) {
+            String junk = "junk" + i;
+            for (int j = 0; j < 3; j++) {
+                tiny.loginFailed(junk);
+            }
+        }
+
+        assertThatCode(() -> tiny.checkRegister("10.0.0.1")).doesNotThrowAnyException();
+        for (int i = 0; i < 200; i++) {
+            String ip = "10.0.1." + i;
+            assertThatCode(() -> tiny.checkRegister(ip)).doesNotThrowAnyException();
+        }
+    }
+
+    private TooManyRequestsException check(String ip, String username) {
+        TooManyRequestsException e = catchThrowableOfType(TooManyRequestsException.class,
+                () -> throttle.checkLogin(ip, username));
+        assertThat(e).as("phải bị chặn").isNotNull();
+        return e;
+    }
+
+    private static String sameStripe(String prefix, String username) {
+        int stripe = LoginThrottle.stripeIndex(LoginThrottle.userKey(username));
+        String candidate = prefix;
+        for (int i = 0; LoginThrottle.stripeIndex(LoginThrottle.userKey(candidate)) != stripe; i++) {
+            candidate = prefix + i;
+        }
+        return candidate;
+    }
+
+    private void fail(String username, int times) {
+        for (int i = 0; i < times; i++) {
+            throttle.loginFailed(username);
+        }
+    }
+
+    private void advance(long seconds) {
+        now.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
@@ -0,0 +1,87 @@
+package com.carshop.oto_shop.security.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationStoreTests {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TokenRevocationStore store = new TokenRevocationStore(jdbcTemplate, 1_000, 60);
+
+    @Test
+    void notRevokedIdsAreAnsweredWithoutDatabaseOnceLoaded() throws Exception {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getString(1)).thenReturn("fam-loaded");
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        store.reload();
+        AtomicInteger databaseChecks = new AtomicInteger();
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(), any())).thenAnswer(invocation -> {
+            databaseChecks.incrementAndGet();
+            return "fam-loaded".equals(invocation.getArgument(2)) || "fam-new".equals(invocation.getArgument(2)) ? 1L : 0L;
+        });
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(store.isRevoked("fam-" + i)).isFalse();
+        }
+        // Chỉ dương tính giả của Bloom filter (~1%) mới phải hỏi DB
+        assertThat(databaseChecks.get()).isLessThan(50);
+        assertThat(store.isRevoked("fam-loaded")).isTrue();
+
+        store.revoke("fam-new", TokenRevocationStore.REASON_LOGOUT, Instant.now().plusSeconds(60));
+        assertThat(store.isRevoked("fam-new")).isTrue();
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegativesAndFewFalsePositives() {
+        BloomFilter filter = new BloomFilter(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("revoked-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("revoked-" + i)).isTrue();
+            if (filter.mightContain("active-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    void secondUseOfRefreshTokenIsDetected() {
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        when(jdbcTemplate.update(anyString(), eq("jti-1"), anyString(), any()))
+                .thenReturn(1)
+                .thenThrow(new DuplicateKeyException("duplicate"));
+
+        assertThat(store.markUsed("jti-1", expiresAt)).isTrue();
+        assertThat(store.markUsed("jti-1", expiresAt)).isFalse();
+    }
+
+    @Test
+    void beforeFirstLoadEveryCheckGoesToDatabase() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(), any())).thenReturn(0L);
+        assertThat(store.isRevoked("fam-1")).isFalse();
+        verify(jdbcTemplate).queryForObject(anyString(), eq(Long.class), eq("fam-1"), any());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+}
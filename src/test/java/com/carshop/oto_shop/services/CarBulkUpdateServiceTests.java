@@ -0,0 +1,103 @@
+package com.carshop.oto_shop.services;
+
+import com.carshop.oto_shop.catalog.CarCatalogChangedEvent;
+import com.carshop.oto_shop.common.exceptions.BadRequestException;
+import com.carshop.oto_shop.dto.car.CarBulkUpdateRequest;
+import com.carshop.oto_shop.dto.car.CarBulkUpdateResponse;
+import com.carshop.oto_shop.enums.Brand;
+import com.carshop.oto_shop.enums.CarBulkOperation;
+import com.carshop.oto_shop.enums.CarStatus;
+import com.carshop.oto_shop.repositories.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CarBulkUpdateServiceTests {
+
+    private CarRepository carRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private CarBulkUpdateService service;
+
+    @BeforeEach
+    void setUp() {
+        carRepository = mock(CarRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        service = new CarBulkUpdateService(carRepository, mock(PlatformTransactionManager.class), eventPublisher, 2);
+    }
+
+    @Test
+    void repricesBrandChunkByChunkAndNotifiesOnce() {
+        when(carRepository.findIdsAfter(eq(Brand.TOYOTA), isNull(), eq(Long.MIN_VALUE), any(Limit.class)))
+                .thenReturn(List.of(3L, 7L));
+        when(carRepository.findIdsAfter(eq(Brand.TOYOTA), isNull(), eq(7L), any(Limit.class))).thenReturn(List.of(9L));
+        when(carRepository.findIdsAfter(eq(Brand.TOYOTA), isNull(), eq(9L), any(Limit.class))).thenReturn(List.of());
+        when(carRepository.scalePrice(anyList(), any())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        CarBulkUpdateRequest request = new CarBulkUpdateRequest();
+        request.setBrand(Brand.TOYOTA);
+        request.setOperation(CarBulkOperation.ADJUST_PRICE);
+        request.setPercent(new BigDecimal("-5"));
+        CarBulkUpdateResponse response = service.bulkUpdate(request);
+
+        assertThat(response.getMatchedCars()).isEqualTo(3);
+        assertThat(response.getUpdatedCars()).isEqualTo(3);
+        ArgumentCaptor<BigDecimal> factor = ArgumentCaptor.forClass(BigDecimal.class);
+        verify(carRepository, times(2)).scalePrice(anyList(), factor.capture());
+        assertThat(factor.getValue()).isEqualByComparingTo("0.95");
+        ArgumentCaptor<CarCatalogChangedEvent> event = ArgumentCaptor.forClass(CarCatalogChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertThat(event.getValue().getCarIds()).containsExactly(3L, 7L, 9L);
+    }
+
+    @Test
+    void notifiesCommittedChunksWhenALaterChunkFails() {
+        when(carRepository.findIdsIn(eq(List.of(1L, 2L)), isNull(), isNull())).thenReturn(List.of(1L, 2L));
+        when(carRepository.findIdsIn(eq(List.of(3L)), isNull(), isNull())).thenReturn(List.of(3L));
+        when(carRepository.updateStatus(eq(List.of(1L, 2L)), eq(CarStatus.SOLD))).thenReturn(2);
+        when(carRepository.updateStatus(eq(List.of(3L)), eq(CarStatus.SOLD)))
+                .thenThrow(new IllegalStateException("Lock wait timeout"));
+
+        CarBulkUpdateRequest request = new CarBulkUpdateRequest();
+        request.setCarIds(List.of(3L, 1L, 2L));
+        request.setOperation(CarBulkOperation.SET_STATUS);
+        request.setStatus(CarStatus.SOLD);
+        assertThatThrownBy(() -> service.bulkUpdate(request)).isInstanceOf(IllegalStateException.class);
+
+        ArgumentCaptor<CarCatalogChangedEvent> event = ArgumentCaptor.forClass(CarCatalogChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertThat(event.getValue().getCarIds()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void rejectsRequestsWithoutFilterOrOperand() {
+        CarBulkUpdateRequest everything = new CarBulkUpdateRequest();
+        everything.setOperation(CarBulkOperation.SET_STATUS);
+        everything.setStatus(CarStatus.SOLD);
+        assertThatThrownBy(() -> service.bulkUpdate(everything)).isInstanceOf(BadRequestException.class);
+
+        CarBulkUpdateRequest missingPrice = new CarBulkUpdateRequest();
+        missingPrice.setCarIds(List.of(1L));
+        missingPrice.setOperation(CarBulkOperation.SET_PRICE);
+        assertThatThrownBy(() -> service.bulkUpdate(missingPrice)).isInstanceOf(BadRequestException.class);
+
+        verifyNoInteractions(carRepository, eventPublisher);
+    }
+}
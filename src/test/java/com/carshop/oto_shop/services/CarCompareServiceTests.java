@@ -0,0 +1,98 @@
+package com.carshop.oto_shop.services;
+
+import com.carshop.oto_shop.catalog.CarCatalogChangedEvent;
+import com.carshop.oto_shop.common.exceptions.BadRequestException;
+import com.carshop.oto_shop.dto.car.CarComparisonResponse;
+import com.carshop.oto_shop.dto.car.CarResponse;
+import com.carshop.oto_shop.entities.Car;
+import com.carshop.oto_shop.entities.CarDetail;
+import com.carshop.oto_shop.repositories.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CarCompareServiceTests {
+
+    private CarRepository carRepository;
+    private CarCompareService service;
+
+    @BeforeEach
+    void setUp() {
+        carRepository = mock(CarRepository.class);
+        CarService carService = mock(CarService.class);
+        when(carService.toCarResponse(any())).thenAnswer(invocation -> {
+            CarResponse response = new CarResponse();
+            response.setCarId(invocation.<Car>getArgument(0).getCarId());
+            return response;
+        });
+        Car vios = car(1L, "500000000", 2023);
+        Car c200 = car(2L, "1500000000", 2024);
+        when(carRepository.findWithDetailsByIds(anyCollection())).thenReturn(List.of(
+                new Object[]{vios, detail(vios, 107, 140, 5, 1100d)},
+                new Object[]{c200, null}));
+        service = new CarCompareService(carRepository, carService);
+    }
+
+    @Test
+    void buildsMatrixInRequestedOrderAndMarksBestValues() {
+        CarComparisonResponse comparison = service.compareCars(List.of(2L, 1L));
+
+        assertThat(comparison.getCars()).extracting(CarResponse::getCarId).containsExactly(2L, 1L);
+        CarComparisonResponse.Row horsepower = row(comparison, "horsepower");
+        assertThat(horsepower.getValues()).containsExactly(null, 107);
+        assertThat(horsepower.getBestCarIds()).containsExactly(1L);
+        CarComparisonResponse.Row price = row(comparison, "price");
+        assertThat(price.getScores()).containsExactly(0.0, 1.0);
+        assertThat(row(comparison, "manufactureYear").getBestCarIds()).containsExactly(2L);
+    }
+
+    @Test
+    void cachesMatrixUntilOneOfItsCarsChanges() {
+        service.compareCars(List.of(1L, 2L));
+        service.compareCars(List.of(1L, 2L));
+        verify(carRepository, times(1)).findWithDetailsByIds(anyCollection());
+
+        service.onCatalogChanged(CarCatalogChangedEvent.of(2L));
+        service.compareCars(List.of(1L, 2L));
+        verify(carRepository, times(2)).findWithDetailsByIds(anyCollection());
+    }
+
+    @Test
+    void rejectsTooManyCars() {
+        assertThatThrownBy(() -> service.compareCars(List.of(1L, 2L, 3L, 4L, 5L)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static CarComparisonResponse.Row row(CarComparisonResponse comparison, String attribute) {
+        return comparison.getRows().stream().filter(r -> r.getAttribute().equals(attribute)).findFirst().orElseThrow();
+    }
+
+    private static Car car(Long id, String price, int year) {
+        Car car = new Car();
+        car.setCarId(id);
+        car.setPrice(new BigDecimal(price));
+        car.setManufactureYear(year);
+        return car;
+    }
+
+    private static CarDetail detail(Car car, int horsepower, int torque, int seats, double weight) {
+        CarDetail detail = new CarDetail();
+        detail.setCar(car);
+        detail.setHorsepower(horsepower);
+        detail.setTorque(torque);
+        detail.setSeats(seats);
+        detail.setWeight(weight);
+        return detail;
+    }
+}
@@ -0,0 +1,75 @@
+package com.carshop.oto_shop.services;
+
+import com.carshop.oto_shop.catalog.CarCatalogChangedEvent;
+import com.carshop.oto_shop.common.id.EntityIds;
+import com.carshop.oto_shop.dto.car.CarImportResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CarImportServiceTests {
+
+    private JdbcTemplate jdbcTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private CarImportService service;
+
+    @BeforeEach
+    void setUp() {
+        AtomicLong ids = new AtomicLong(1000);
+        EntityIds.register(EntityIds.CAR, ids::getAndIncrement);
+        EntityIds.register(EntityIds.CAR_DETAIL, ids::getAndIncrement);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        service = new CarImportService(jdbcTemplate, mock(PlatformTransactionManager.class), new ObjectMapper(),
+                eventPublisher, 100, 2);
+    }
+
+    @Test
+    void insertsValidRowsInChunksAndReportsInvalidOnesByLine() {
+        String ndjson = """
+                {"brand":"toyota","category":"SEDAN","model":"Vios","manufactureYear":2023,"price":458000000}
+                {"brand":"KIA","category":"SEDAN","model":"K3","manufactureYear":2023,"price":1}
+                not json
+                {"brand":"VINFAST","category":"SUV","model":"VF8","manufactureYear":2024,"price":1.09e9,\
+                "detail":{"engine":"Điện","horsepower":402,"torque":620,"transmission":"1 cấp","fuelType":"Điện",\
+                "fuelConsumption":"471 km","seats":5,"weight":2600,"dimensions":"4750 x 1934 x 1667"}}
+                {"brand":"HYUNDAI","category":"SUV","model":"Tucson","manufactureYear":2022,"price":800000000,"seats":5}
+                {"brand":"MERCEDES","category":"SEDAN","model":"C200","manufactureYear":2024,"price":1599000000}
+                """;
+
+        CarImportResponse report = service.importCars(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), MediaType.APPLICATION_NDJSON);
+
+        assertThat(report.getTotalRows()).isEqualTo(6);
+        assertThat(report.getImportedRows()).isEqualTo(3);
+        assertThat(report.getFailedRows()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting(CarImportResponse.RowError::getLine).containsExactly(2L, 3L, 5L);
+        assertThat(report.getErrors().get(2).getMessage()).contains("engine");
+
+        // Vios + VF8 là chunk đầu (kích thước 2), C200 là chunk cuối; chỉ VF8 có thông số chi tiết
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT INTO cars"), anyCollection(), eq(100), any());
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT INTO car_details"), anyCollection(), anyInt(), any());
+        ArgumentCaptor<CarCatalogChangedEvent> events = ArgumentCaptor.forClass(CarCatalogChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues()).flatExtracting(CarCatalogChangedEvent::getCarIds).hasSize(3);
+    }
+}
@@ -0,0 +1,144 @@
+package com.carshop.oto_shop.services;
+
+import com.carshop.oto_shop.catalog.CarCatalogChangedEvent;
+import com.carshop.oto_shop.catalog.CarJsonCache;
+import com.carshop.oto_shop.catalog.PromotionChangedEvent;
+import com.carshop.oto_shop.common.exceptions.AppException;
+import com.carshop.oto_shop.common.exceptions.ErrorCode;
+import com.carshop.oto_shop.dto.car.CarResponse;
+import com.carshop.oto_shop.entities.Car;
+import com.carshop.oto_shop.entities.Promotion;
+import com.carshop.oto_shop.enums.Brand;
+import com.carshop.oto_shop.enums.Category;
+import com.carshop.oto_shop.enums.DiscountType;
+import com.carshop.oto_shop.enums.PromotionScope;
+import com.carshop.oto_shop.mappers.CarDetailMapper;
+import com.carshop.oto_shop.mappers.PromotionMapper;
+import com.carshop.oto_shop.repositories.CarDetailRepository;
+import com.carshop.oto_shop.repositories.CarRepository;
+import com.carshop.oto_shop.repositories.PromotionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CarPageServiceTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private CarRepository carRepository;
+    private CarDetailRepository carDetailRepository;
+    private PromotionRepository promotionRepository;
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        carRepository = mock(CarRepository.class);
+        carDetailRepository = mock(CarDetailRepository.class);
+        promotionRepository = mock(PromotionRepository.class);
+        car = new Car();
+        car.setCarId(1L);
+        car.setBrand(Brand.TOYOTA);
+        car.setCategory(Category.SEDAN);
+        car.setPrice(new BigDecimal("500000000.000"));
+        car.setVersion(3L);
+        when(carRepository.findById(1L)).thenReturn(Optional.of(car));
+        when(carDetailRepository.findByCar_CarId(1L)).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void appliesTheLargestMatchingDiscountAndCachesByVersion() throws Exception {
+        when(promotionRepository.findActiveForCar(eq(1L), any())).thenReturn(List.of(
+                promotion(10L, PromotionScope.GLOBAL, DiscountType.FIXED, "20000000", null),
+                promotion(11L, PromotionScope.BRAND, DiscountType.PERCENT, "5", "[\"TOYOTA\"]"),
+                promotion(12L, PromotionScope.BRAND, DiscountType.PERCENT, "50", "[\"HONDA\"]")));
+        CarPageService service = service(Runnable::run, 1000);
+
+        JsonNode page = objectMapper.readTree(service.getCarPage(1L).toString());
+        assertThat(page.get("promotions")).hasSize(2);
+        assertThat(page.get("appliedPromotionId").asLong()).isEqualTo(11L);
+        assertThat(page.get("effectivePrice").decimalValue()).isEqualByComparingTo("475000000");
+        assertThat(page.get("detail").isNull()).isTrue();
+
+        service.getCarPage(1L);
+        verify(promotionRepository, times(1)).findActiveForCar(eq(1L), any());
+
+        car.setVersion(4L);
+        service.getCarPage(1L);
+        service.onPromotionChanged(new PromotionChangedEvent());
+        service.getCarPage(1L);
+        service.onCatalogChanged(CarCatalogChangedEvent.of(1L));
+        service.getCarPage(1L);
+        verify(promotionRepository, times(4)).findActiveForCar(eq(1L), any());
+    }
+
+    @Test
+    void pageBuiltBeforeADetailChangeIsNotCached() {
+        when(promotionRepository.findActiveForCar(eq(1L), any())).thenReturn(List.of());
+        CarPageService service = service(Runnable::run, 1000);
+        // CarDetail đổi (version của xe giữ nguyên) trong lúc trang đang được dựng với dữ liệu cũ
+        when(carDetailRepository.findByCar_CarId(1L)).thenAnswer(invocation -> {
+            service.onCatalogChanged(CarCatalogChangedEvent.of(1L));
+            return Optional.empty();
+        }).thenReturn(Optional.empty());
+
+        service.getCarPage(1L);
+        service.getCarPage(1L);
+        service.getCarPage(1L);
+        verify(carDetailRepository, times(2)).findByCar_CarId(1L);
+    }
+
+    @Test
+    void missedDeadlineIsReportedAsBusy() {
+        // Executor không bao giờ chạy việc: mọi truy vấn song song đều quá hạn
+        CarPageService service = service(task -> { }, 20);
+
+        assertThatThrownBy(() -> service.getCarPage(1L))
+                .isInstanceOf(AppException.class)
+                .extracting(e -> ((AppException) e).getErrorCode())
+                .isEqualTo(ErrorCode.SERVICE_BUSY);
+    }
+
+    @Test
+    void unknownCarIsNotFound() {
+        assertThatThrownBy(() -> service(Runnable::run, 1000).getCarPage(2L))
+                .isInstanceOf(AppException.class)
+                .extracting(e -> ((AppException) e).getErrorCode())
+                .isEqualTo(ErrorCode.CAR_NOT_FOUND);
+    }
+
+    private CarPageService service(Executor executor, long timeoutMillis) {
+        CarService carService = mock(CarService.class);
+        when(carService.toCarResponse(any())).thenReturn(new CarResponse());
+        return new CarPageService(carRepository, carDetailRepository, promotionRepository,
+                Mappers.getMapper(CarDetailMapper.class), Mappers.getMapper(PromotionMapper.class), carService,
+                new CarJsonCache(objectMapper), objectMapper, executor, timeoutMillis);
+    }
+
+    private static Promotion promotion(Long id, PromotionScope scope, DiscountType type, String value, String brands) {
+        Promotion promotion = new Promotion();
+        promotion.setPromotionId(id);
+        promotion.setAppliesTo(scope);
+        promotion.setDiscountType(type);
+        promotion.setDiscountValue(new BigDecimal(value));
+        promotion.setTargetBrands(brands);
+        promotion.setStartAt(LocalDateTime.now().minusDays(1));
+        promotion.setEndAt(LocalDateTime.now().plusDays(1));
+        return promotion;
+    }
+}
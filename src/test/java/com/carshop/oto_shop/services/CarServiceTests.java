@@ -0,0 +1,159 @@
+package com.carshop.oto_shop.services;
+
+import com.carshop.oto_shop.catalog.CarCatalogIndex;
+import com.carshop.oto_shop.catalog.CarJsonCache;
+import com.carshop.oto_shop.catalog.CarSimilarityIndex;
+import com.carshop.oto_shop.catalog.CarSuggestionIndex;
+import com.carshop.oto_shop.common.exceptions.BadRequestException;
+import com.carshop.oto_shop.common.pagination.CarCursor;
+import com.carshop.oto_shop.common.response.CursorPage;
+import com.carshop.oto_shop.common.response.JsonFragment;
+import com.carshop.oto_shop.dto.car.CarResponse;
+import com.carshop.oto_shop.entities.Car;
+import com.carshop.oto_shop.enums.CarSort;
+import com.carshop.oto_shop.mappers.CarMapper;
+import com.carshop.oto_shop.repositories.CarDetailRepository;
+import com.carshop.oto_shop.repositories.CarRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Phân trang keyset của CarService: thứ tự, cursor trang sau và điều kiện (khoá, car_id) > cursor
+class CarServiceTests {
+
+    private CarRepository carRepository;
+    private CarService carService;
+    private JpaSpecificationExecutor.SpecificationFluentQuery<Car> query;
+    private Specification<Car> lastSpec;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        carRepository = mock(CarRepository.class);
+        CarMapper carMapper = mock(CarMapper.class);
+        when(carMapper.toCarResponse(any())).thenAnswer(invocation -> {
+            CarResponse response = new CarResponse();
+            response.setCarId(invocation.<Car>getArgument(0).getCarId());
+            return response;
+        });
+        carService = new CarService(carRepository, carMapper, mock(CarDetailRepository.class),
+                mock(CarCatalogIndex.class), new CarJsonCache(new ObjectMapper()), mock(CarSuggestionIndex.class),
+                mock(CarSimilarityIndex.class), mock(ApplicationEventPublisher.class), mock(UploadStorageService.class),
+                new BigDecimal[]{BigDecimal.ONE}, new int[]{2020});
+
+        query = mock(JpaSpecificationExecutor.SpecificationFluentQuery.class, RETURNS_SELF);
+        when(carRepository.findBy(any(Specification.class), any(Function.class))).thenAnswer(invocation -> {
+            lastSpec = invocation.getArgument(0);
+            return invocation.<Function<JpaSpecificationExecutor.SpecificationFluentQuery<Car>, Object>>getArgument(1).apply(query);
+        });
+    }
+
+    @Test
+    void fetchesOneExtraRowToBuildTheNextCursor() {
+        when(query.all()).thenReturn(cars(3, "100"));
+
+        CursorPage<JsonFragment> page = carService.getAllCars(null, 2, CarSort.PRICE_DESC);
+
+        assertThat(page.getItems()).hasSize(2);
+        verify(query).limit(3);
+        CarCursor next = CarCursor.decode(page.getNextCursor(), CarSort.PRICE_DESC);
+        assertThat(next.getCarId()).isEqualTo(2L);
+        assertThat(next.sortKey()).isEqualTo(new BigDecimal("100"));
+
+        when(query.all()).thenReturn(cars(2, "100"));
+        assertThat(carService.getAllCars(null, 2, CarSort.PRICE_DESC).getNextCursor()).isNull();
+    }
+
+    @Test
+    void descendingSortsKeepCarIdAscendingAsTieBreak() {
+        when(query.all()).thenReturn(List.of());
+
+        carService.getAllCars(null, 10, CarSort.PRICE_DESC);
+        verify(query).sortBy(Sort.by(Sort.Direction.DESC, "price").and(Sort.by(Sort.Direction.ASC, "carId")));
+
+        carService.getAllCars(null, 10, CarSort.YEAR_DESC);
+        verify(query).sortBy(Sort.by(Sort.Direction.DESC, "manufactureYear").and(Sort.by(Sort.Direction.ASC, "carId")));
+
+        // Không có từ khoá thì RELEVANCE quay về thứ tự car_id
+        carService.getAllCars(null, 10, CarSort.RELEVANCE);
+        verify(query).sortBy(Sort.by(Sort.Direction.ASC, "carId"));
+    }
+
+    @Test
+    void cursorPredicateResolvesTiesByCarId() {
+        when(query.all()).thenReturn(List.of());
+        Car last = cars(1, "100").get(0);
+        last.setCarId(7L);
+        Criteria criteria = new Criteria();
+
+        carService.getAllCars(CarCursor.encode(CarSort.PRICE_DESC, last), 10, CarSort.PRICE_DESC);
+        criteria.apply(lastSpec);
+        // price < 100 OR (price = 100 AND car_id > 7)
+        verify(criteria.cb).lessThan(criteria.price, new BigDecimal("100"));
+        verify(criteria.cb).equal(criteria.price, new BigDecimal("100"));
+        verify(criteria.cb).greaterThan(criteria.carId, 7L);
+
+        Criteria ascending = new Criteria();
+        carService.getAllCars(CarCursor.encode(CarSort.PRICE_ASC, last), 10, CarSort.PRICE_ASC);
+        ascending.apply(lastSpec);
+        verify(ascending.cb).greaterThan(ascending.price, new BigDecimal("100"));
+        verify(ascending.cb).greaterThan(ascending.carId, 7L);
+    }
+
+    @Test
+    void cursorForAnotherSortIsRejected() {
+        Car last = cars(1, "100").get(0);
+        assertThatThrownBy(() -> carService.getAllCars(CarCursor.encode(CarSort.PRICE_ASC, last), 10, CarSort.YEAR_DESC))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static List<Car> cars(int count, String price) {
+        List<Car> cars = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Car car = new Car();
+            car.setCarId((long) i);
+            car.setPrice(new BigDecimal(price));
+            car.setManufactureYear(2020);
+            car.setVersion(0L);
+            cars.add(car);
+        }
+        return cars;
+    }
+
+    // CriteriaBuilder giả để xem Specification dựng điều kiện gì
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final class Criteria {
+        private final CriteriaBuilder cb = mock(CriteriaBuilder.class);
+        private final Root<Car> root = mock(Root.class);
+        private final Path price = mock(Path.class);
+        private final Path carId = mock(Path.class);
+
+        void apply(Specification<Car> spec) {
+            when(root.get("price")).thenReturn(price);
+            when(root.get("carId")).thenReturn(carId);
+            spec.toPredicate(root, mock(CriteriaQuery.class), cb);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.carshop.oto_shop.services;
+
+import com.carshop.oto_shop.dto.image.ImageReprocessResponse;
+import com.carshop.oto_shop.enums.ImageVariant;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageVariantServiceTests {
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ThreadPoolTaskExecutor executor;
+    private ImageVariantService service;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(10);
+        executor.initialize();
+        service = new ImageVariantService(executor, objectMapper, 0.8f);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        executor.shutdown();
+    }
+
+    @Test
+    void generatesDownscaledVariantsAndManifest() throws IOException {
+        Path original = write("1_car.jpg", 3200, 1600, BufferedImage.TYPE_INT_RGB, "jpg");
+
+        assertThat(service.generate(original)).isTrue();
+
+        BufferedImage thumbnail = ImageIO.read(dir.resolve("1_car.thumbnail.jpg").toFile());
+        assertThat(thumbnail.getWidth()).isEqualTo(200);
+        assertThat(thumbnail.getHeight()).isEqualTo(100);
+        assertThat(ImageIO.read(dir.resolve("1_car.full.jpg").toFile()).getWidth()).isEqualTo(1600);
+
+        JsonNode manifest = objectMapper.readTree(dir.resolve("1_car.jpg" + ImageVariantService.MANIFEST_SUFFIX).toFile());
+        assertThat(manifest.get("original").asText()).isEqualTo("1_car.jpg");
+        assertThat(manifest.at("/variants/card/width").asInt()).isEqualTo(600);
+        assertThat(manifest.at("/variants/card/contentType").asText()).isEqualTo("image/jpeg");
+    }
+
+    @Test
+    void smallImagesAreNotUpscaledAndKeepAlphaAsPng() throws IOException {
+        Path original = write("2_logo.png", 120, 80, BufferedImage.TYPE_INT_ARGB, "png");
+
+        service.generate(original);
+
+        BufferedImage card = ImageIO.read(dir.resolve("2_logo.card.png").toFile());
+        assertThat(card.getWidth()).isEqualTo(120);
+        assertThat(card.getColorModel().hasAlpha()).isTrue();
+    }
+
+    @Test
+    void resolveFallsBackToOriginalUntilVariantExists() throws IOException {
+        Path original = write("3_car.png", 800, 600, BufferedImage.TYPE_INT_RGB, "png");
+        String uploadDir = dir.toString();
+
+        assertThat(service.resolve(uploadDir, "3_car.png", "thumbnail")).isEqualTo(original);
+        service.generate(original);
+        assertThat(service.resolve(uploadDir, "3_car.png", "THUMBNAIL").getFileName().toString())
+                .isEqualTo("3_car.thumbnail.png");
+        assertThat(service.resolve(uploadDir, "3_car.png", "huge")).isEqualTo(original);
+
+        service.delete(uploadDir, "3_car.png");
+        assertThat(service.resolve(uploadDir, "3_car.png", "thumbnail")).isEqualTo(original);
+        assertThat(Files.exists(dir.resolve("3_car.png" + ImageVariantService.MANIFEST_SUFFIX))).isFalse();
+    }
+
+    @Test
+    void reprocessSkipsNonImagesAndExistingVariants() throws IOException {
+        write("4_a.jpg", 640, 480, BufferedImage.TYPE_INT_RGB, "jpg");
+        write("5_b.png", 640, 480, BufferedImage.TYPE_INT_RGB, "png");
+        Files.writeString(dir.resolve("6_spec.pdf"), "%PDF-1.4");
+
+        ImageReprocessResponse first = service.reprocess(List.of(dir.toString(), dir.resolve("missing").toString()));
+        assertThat(first.getTotal()).isEqualTo(3);
+        assertThat(first.getProcessed()).isEqualTo(2);
+        assertThat(first.getSkipped()).isEqualTo(1);
+
+        // Lần chạy sau không coi biến thể/manifest là ảnh gốc
+        assertThat(service.reprocess(List.of(dir.toString())).getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void startReprocessRunsInBackgroundAndReportsProgress() throws Exception {
+        write("7_c.jpg", 640, 480, BufferedImage.TYPE_INT_RGB, "jpg");
+        assertThat(service.reprocessStatus().isRunning()).isFalse();
+
+        service.startReprocess(List.of(dir.toString()));
+        ImageReprocessResponse status = service.reprocessStatus();
+        for (int i = 0; i < 200 && status.isRunning(); i++) {
+            Thread.sleep(25);
+            status = service.reprocessStatus();
+        }
+
+        assertThat(status.isRunning()).isFalse();
+        assertThat(status.getTotal()).isEqualTo(1);
+        assertThat(status.getProcessed()).isEqualTo(1);
+        try (var files = Files.list(dir)) {
+            assertThat(files.map(path -> path.getFileName().toString())).noneMatch(name -> name.endsWith(".tmp"));
+        }
+    }
+
+    @Test
+    void variantNamesAndUrlsAreDerivedFromTheOriginalName() {
+        assertThat(ImageVariantService.variantFileName("7_x.jpeg", ImageVariant.CARD)).isEqualTo("7_x.card.jpg");
+        assertThat(ImageVariantService.variantFileName("7_x.webp", ImageVariant.CARD)).isEqualTo("7_x.card.png");
+        assertThat(ImageVariantService.urls("http://host/image/", "uploads/cars/7_x.jpeg"))
+                .containsEntry("thumbnail", "http://host/image/7_x.jpeg?size=thumbnail")
+                .containsKeys("card", "full");
+    }
+
+    private Path write(String name, int width, int height, int type, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int x = 0; x < width; x += 7) {
+            for (int y = 0; y < height; y += 5) {
+                image.setRGB(x, y, 0xFF000000 | (x * 31 + y * 17));
+            }
+        }
+        Path path = dir.resolve(name);
+        ImageIO.write(image, format, path.toFile());
+        return path;
+    }
+}
@@ -0,0 +1,110 @@
+package com.carshop.oto_shop.services;
+
+import com.carshop.oto_shop.mappers.NewsMapper;
+import com.carshop.oto_shop.mappers.OrderMapper;
+import com.carshop.oto_shop.mappers.PaymentMapper;
+import com.carshop.oto_shop.repositories.NewsRepository;
+import com.carshop.oto_shop.repositories.OrderRepository;
+import com.carshop.oto_shop.repositories.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * So sánh đường đọc entity + mapper với projection DTO cho các API danh sách (thời gian và bộ nhớ cấp phát
+ * trên thread hiện tại). Cần MySQL có dữ liệu thật, chạy bằng:
+ * mvn test -Dtest=ListProjectionBenchmarkTests -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ListProjectionBenchmarkTests {
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 100;
+
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private NewsRepository newsRepository;
+    @Autowired
+    private OrderMapper orderMapper;
+    @Autowired
+    private PaymentMapper paymentMapper;
+    @Autowired
+    private NewsMapper newsMapper;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private PaymentService paymentService;
+    @Autowired
+    private NewsService newsService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void ordersEntityVersusProjection() {
+        compare("orders",
+                () -> orderRepository.findAll().stream().map(orderMapper::toOrderResponse).toList(),
+                orderService::getAllOrders);
+    }
+
+    @Test
+    void paymentsEntityVersusProjection() {
+        compare("payments",
+                () -> paymentRepository.findAll().stream().map(paymentMapper::toPaymentResponse).toList(),
+                paymentService::getAllPayments);
+    }
+
+    @Test
+    void newsEntityVersusProjection() {
+        compare("news",
+                () -> newsRepository.findAll().stream().map(newsMapper::toNewsResponseDto).toList(),
+                newsService::getAllNews);
+    }
+
+    private void compare(String name, Supplier<List<?>> entityPath, Supplier<List<?>> projectionPath) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Result entity = measure(() -> readOnly.execute(status -> entityPath.get()));
+        Result projection = measure(() -> readOnly.execute(status -> projectionPath.get()));
+        System.out.printf("%-8s rows=%d entity: %.2f ms, %d KB/op | projection: %.2f ms, %d KB/op%n",
+                name, entity.rows, entity.millisPerOp, entity.kbPerOp, projection.millisPerOp, projection.kbPerOp);
+    }
+
+    private static Result measure(Supplier<List<?>> call) {
+        for (int i = 0; i < WARMUP; i++) {
+            call.get();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        int rows = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            rows = call.get().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        return new Result(rows, elapsed / 1e6 / ITERATIONS, allocated / 1024 / ITERATIONS);
+    }
+
+    private static final class Result {
+        private final int rows;
+        private final double millisPerOp;
+        private final long kbPerOp;
+
+        Result(int rows, double millisPerOp, long kbPerOp) {
+            this.rows = rows;
+            this.millisPerOp = millisPerOp;
+            this.kbPerOp = kbPerOp;
+        }
+    }
+}
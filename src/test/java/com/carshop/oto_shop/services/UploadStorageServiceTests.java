@@ -0,0 +1,98 @@
+package com.carshop.oto_shop.services;
+
+import com.carshop.oto_shop.common.response.ImageByteCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadStorageServiceTests {
+    @TempDir
+    Path root;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ImageVariantService imageVariantService = mock(ImageVariantService.class);
+    private UploadStorageService service;
+    private String uploadDir;
+
+    @BeforeEach
+    void setUp() {
+        service = new UploadStorageService(jdbcTemplate, mock(PlatformTransactionManager.class), imageVariantService,
+                new ImageByteCache(0, 0));
+        uploadDir = root.resolve("avatars") + "/";
+    }
+
+    @Test
+    void identicalUploadsAreStoredOnceUnderTheirHash() throws IOException {
+        String first = service.store(uploadDir, image("a.png", "same bytes"));
+        String second = service.store(uploadDir, image("copy of a.png", "same bytes"));
+        String other = service.store(uploadDir, image("b.png", "other bytes"));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(other).isNotEqualTo(first);
+        assertThat(UploadStorageService.isContentAddressed(first)).isTrue();
+        assertThat(Path.of(first).getFileName().toString()).hasSize(64 + ".png".length()).endsWith(".png");
+        // Chỉ còn hai file, không sót file tạm
+        try (var files = Files.list(root.resolve("avatars"))) {
+            assertThat(files.toList()).hasSize(2);
+        }
+        verify(jdbcTemplate, times(2)).update(startsWith("INSERT INTO upload_blobs"), eq(first), eq(10L), any());
+        verify(imageVariantService, times(1)).submit(first);
+    }
+
+    @Test
+    void fileIsDeletedOnlyWhenTheLastReferenceIsReleased() throws IOException {
+        String stored = service.store(uploadDir, image("a.png", "same bytes"));
+
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), eq(stored))).thenReturn(List.of(1));
+        service.release(stored);
+        assertThat(Path.of(stored)).exists();
+
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), eq(stored))).thenReturn(List.of(0));
+        service.release(stored);
+        assertThat(Path.of(stored)).doesNotExist();
+        verify(jdbcTemplate, times(1)).update(startsWith("DELETE FROM upload_blobs"), eq(stored));
+    }
+
+    @Test
+    void legacyFilesAreDeletedWithoutRefCount() throws IOException {
+        Files.createDirectories(root.resolve("avatars"));
+        Path legacy = Files.writeString(root.resolve("avatars/1700000000000_a.png"), "x", StandardCharsets.UTF_8);
+
+        service.release(uploadDir + "1700000000000_a.png");
+
+        assertThat(legacy).doesNotExist();
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE upload_blobs"), anyString());
+    }
+
+    @Test
+    void extensionComesFromContentTypeThenFileName() {
+        assertThat(UploadStorageService.extension("image/jpeg", "photo.jpeg")).isEqualTo("jpg");
+        assertThat(UploadStorageService.extension("application/octet-stream", "Photo.HEIC")).isEqualTo("heic");
+        assertThat(UploadStorageService.extension(null, "../../etc/passwd")).isEqualTo("bin");
+        assertThat(UploadStorageService.extension(null, null)).isEqualTo("bin");
+    }
+
+    private static MockMultipartFile image(String name, String content) {
+        return new MockMultipartFile("file", name, "image/png", content.getBytes(StandardCharsets.UTF_8));
+    }
+}